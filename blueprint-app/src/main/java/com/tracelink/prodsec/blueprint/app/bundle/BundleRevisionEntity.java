@@ -0,0 +1,86 @@
+package com.tracelink.prodsec.blueprint.app.bundle;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import javax.persistence.CascadeType;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.OneToMany;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+/**
+ * Entity for a published bundle revision. Records the content hash of every policy module in the
+ * bundle, so that later bundles can be published as deltas against this revision.
+ *
+ * @author mcool
+ */
+@Entity
+@Table(name = "bundle_revision")
+public class BundleRevisionEntity {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "bundle_revision_id")
+	private long id;
+
+	@Column(name = "revision")
+	private String revision;
+
+	@Column(name = "created")
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date created;
+
+	@OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+	@JoinColumn(name = "bundle_revision_id", nullable = false)
+	private List<BundleRevisionPolicyEntity> policies = new ArrayList<>();
+
+	public long getId() {
+		return id;
+	}
+
+	public String getRevision() {
+		return revision;
+	}
+
+	public void setRevision(String revision) {
+		this.revision = revision;
+	}
+
+	public Date getCreated() {
+		return created;
+	}
+
+	public void setCreated(Date created) {
+		this.created = created;
+	}
+
+	/**
+	 * Gets the content hashes of the policy modules in this revision.
+	 *
+	 * @return map of package names to content hashes, ordered by package name
+	 */
+	public Map<String, String> getPolicyHashes() {
+		return policies.stream().collect(Collectors.toMap(BundleRevisionPolicyEntity::getPackageName,
+				BundleRevisionPolicyEntity::getContentHash, (v1, v2) -> v1, TreeMap::new));
+	}
+
+	public void setPolicyHashes(Map<String, String> policyHashes) {
+		if (policyHashes != null) {
+			this.policies.clear();
+			policyHashes.forEach((packageName, contentHash) -> this.policies
+					.add(new BundleRevisionPolicyEntity(packageName, contentHash)));
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.tracelink.prodsec.blueprint.app.bundle;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Entity for the content hash of a single policy module in a published bundle revision.
+ *
+ * @author mcool
+ */
+@Entity
+@Table(name = "bundle_revision_policy")
+public class BundleRevisionPolicyEntity {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "bundle_revision_policy_id")
+	private long id;
+
+	@Column(name = "package_name")
+	private String packageName;
+
+	@Column(name = "content_hash")
+	private String contentHash;
+
+	public BundleRevisionPolicyEntity() {
+
+	}
+
+	public BundleRevisionPolicyEntity(String packageName, String contentHash) {
+		this.packageName = packageName;
+		this.contentHash = contentHash;
+	}
+
+	public String getPackageName() {
+		return packageName;
+	}
+
+	public void setPackageName(String packageName) {
+		this.packageName = packageName;
+	}
+
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	public void setContentHash(String contentHash) {
+		this.contentHash = contentHash;
+	}
+}
@@ -0,0 +1,47 @@
+package com.tracelink.prodsec.blueprint.app.bundle;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+
+/**
+ * The validated contents of a bundle. Holds the saved policies keyed by package name, the
+ * functions of the shared library module, the content hash of each policy module and the
+ * resulting bundle revision.
+ *
+ * @author mcool
+ */
+public final class BundleSnapshot {
+
+	private final Map<String, Policy> policies;
+	private final Map<String, BaseStatementFunction> functions;
+	private final Map<String, String> policyHashes;
+	private final String revision;
+
+	public BundleSnapshot(Map<String, Policy> policies,
+			Map<String, BaseStatementFunction> functions, Map<String, String> policyHashes,
+			String revision) {
+		this.policies = Collections.unmodifiableMap(policies);
+		this.functions = Collections.unmodifiableMap(functions);
+		this.policyHashes = Collections.unmodifiableMap(policyHashes);
+		this.revision = revision;
+	}
+
+	public Map<String, Policy> getPolicies() {
+		return policies;
+	}
+
+	public Map<String, BaseStatementFunction> getFunctions() {
+		return functions;
+	}
+
+	public Map<String, String> getPolicyHashes() {
+		return policyHashes;
+	}
+
+	public String getRevision() {
+		return revision;
+	}
+}
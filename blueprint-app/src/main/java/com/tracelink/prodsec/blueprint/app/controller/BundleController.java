@@ -0,0 +1,244 @@
+package com.tracelink.prodsec.blueprint.app.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.tracelink.prodsec.blueprint.app.bundle.BundleSnapshot;
+import com.tracelink.prodsec.blueprint.app.exception.PolicyException;
+import com.tracelink.prodsec.blueprint.app.service.BundleService;
+
+/**
+ * Controller that implements the OPA bundle service API, so that OPA agents can download the
+ * bundle of all saved policies directly from Blueprint. Responses carry a strong ETag derived
+ * from the bundle revision, and requests with a matching {@code If-None-Match} header are
+ * answered with {@code 304 Not Modified} from the cached revision. Agents that send a
+ * {@code Prefer: wait=<seconds>} header are long-polled, and receive the new bundle as soon as
+ * the saved policies change.
+ * <p>
+ * OPA agents cannot log in, so requests are authenticated with the bearer token configured as
+ * {@code blueprint.bundles.token}. The endpoint is disabled if no token is configured.
+ *
+ * @author mcool
+ */
+@Controller
+@RequestMapping("/bundles")
+public class BundleController {
+
+	public static final String BUNDLE_CONTENT_TYPE = "application/vnd.openpolicyagent.bundles";
+	private static final Logger LOGGER = LoggerFactory.getLogger(BundleController.class);
+	private static final Pattern PREFER_WAIT = Pattern.compile("(?:^|[;,])\\s*wait=(\\d+)");
+	private static final String BEARER_PREFIX = "Bearer ";
+	private final BundleService bundleService;
+	private final byte[] token;
+	private final long maxWaitSeconds;
+	private final Set<PendingPoll> pendingPolls = ConcurrentHashMap.newKeySet();
+	private final ThreadPoolTaskExecutor pollExecutor;
+
+	public BundleController(@Autowired BundleService bundleService,
+			@Value("${blueprint.bundles.token:}") String token,
+			@Value("${blueprint.bundles.max-wait:60}") long maxWaitSeconds) {
+		this.bundleService = bundleService;
+		this.token = StringUtils.isBlank(token) ? null : token.getBytes(StandardCharsets.UTF_8);
+		this.maxWaitSeconds = maxWaitSeconds;
+		// Completing polls may validate and generate every policy, so it runs on a thread of its
+		// own. A single queued run sees all changes made before it starts, so further runs are
+		// discarded while one is queued
+		this.pollExecutor = new ThreadPoolTaskExecutor();
+		pollExecutor.setThreadNamePrefix("bundle-poll-");
+		pollExecutor.setCorePoolSize(1);
+		pollExecutor.setMaxPoolSize(1);
+		pollExecutor.setQueueCapacity(1);
+		pollExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+		pollExecutor.initialize();
+		bundleService.addInvalidationListener(this::onInvalidation);
+	}
+
+	/**
+	 * Stops the thread that completes waiting requests.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		pollExecutor.shutdown();
+	}
+
+	/**
+	 * Serves the bundle of all saved policies. Answers with {@code 304 Not Modified} if the
+	 * client already has the current revision, after waiting for a new revision for up to the
+	 * number of seconds requested in the {@code Prefer} header.
+	 *
+	 * @param authorization the authorization header of the request
+	 * @param ifNoneMatch   the ETag of the bundle the client already has, if any
+	 * @param prefer        the prefer header with the number of seconds to wait for a new
+	 *                      revision, if any
+	 * @param includeData   whether to include a data document describing the policies
+	 * @return the deferred response containing the bundle, or no content if the bundle is not
+	 * modified
+	 * @throws IOException if the Rego for the policies cannot be generated
+	 */
+	@GetMapping("/" + BundleService.BUNDLE_ROOT)
+	public DeferredResult<ResponseEntity<StreamingResponseBody>> getBundle(
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(name = "Prefer", required = false) String prefer,
+			@RequestParam(name = "data", defaultValue = "false") boolean includeData)
+			throws IOException {
+		DeferredResult<ResponseEntity<StreamingResponseBody>> result;
+		if (token == null) {
+			result = new DeferredResult<>();
+			result.setResult(ResponseEntity.notFound().build());
+			return result;
+		}
+		if (!isAuthorized(authorization)) {
+			result = new DeferredResult<>();
+			result.setResult(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+					.header(HttpHeaders.WWW_AUTHENTICATE, "Bearer realm=\"blueprint\"").build());
+			return result;
+		}
+
+		BundleSnapshot snapshot;
+		try {
+			snapshot = bundleService.getCurrentSnapshot();
+		} catch (PolicyException e) {
+			result = new DeferredResult<>();
+			result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+					.contentType(MediaType.TEXT_PLAIN)
+					.body(out -> out.write(e.getMessage().getBytes(StandardCharsets.UTF_8))));
+			return result;
+		}
+		String eTag = getETag(snapshot, includeData);
+		long waitSeconds = Math.min(getWaitSeconds(prefer), maxWaitSeconds);
+		if (!matches(ifNoneMatch, eTag)) {
+			result = new DeferredResult<>();
+			result.setResult(getBundleResponse(snapshot, includeData));
+		} else if (waitSeconds <= 0) {
+			result = new DeferredResult<>();
+			result.setResult(getNotModifiedResponse(eTag));
+		} else {
+			result = new DeferredResult<>(waitSeconds * 1000,
+					() -> getNotModifiedResponse(eTag));
+			PendingPoll poll = new PendingPoll(result, eTag, includeData);
+			pendingPolls.add(poll);
+			result.onCompletion(() -> pendingPolls.remove(poll));
+			// The policies may have changed before the poll was registered
+			pollExecutor.execute(this::completePendingPolls);
+		}
+		return result;
+	}
+
+	private boolean isAuthorized(String authorization) {
+		if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+			return false;
+		}
+		return MessageDigest.isEqual(token, authorization.substring(BEARER_PREFIX.length())
+				.trim().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void onInvalidation() {
+		if (!pendingPolls.isEmpty()) {
+			// Do not delay the change that caused the invalidation by generating the bundle
+			pollExecutor.execute(this::completePendingPolls);
+		}
+	}
+
+	private void completePendingPolls() {
+		if (pendingPolls.isEmpty()) {
+			return;
+		}
+		BundleSnapshot snapshot;
+		try {
+			snapshot = bundleService.getCurrentSnapshot();
+		} catch (PolicyException | IOException e) {
+			LOGGER.warn("Cannot update the bundle for waiting clients: {}", e.getMessage());
+			return;
+		}
+		for (PendingPoll poll : pendingPolls) {
+			if (!poll.eTag.equals(getETag(snapshot, poll.includeData))) {
+				poll.result.setResult(getBundleResponse(snapshot, poll.includeData));
+			}
+		}
+	}
+
+	private ResponseEntity<StreamingResponseBody> getBundleResponse(BundleSnapshot snapshot,
+			boolean includeData) {
+		return ResponseEntity.ok().eTag(getETag(snapshot, includeData))
+				.contentType(MediaType.parseMediaType(BUNDLE_CONTENT_TYPE))
+				.body(out -> bundleService.exportBundle(snapshot, out, includeData));
+	}
+
+	private static ResponseEntity<StreamingResponseBody> getNotModifiedResponse(String eTag) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag)
+				.contentType(MediaType.parseMediaType(BUNDLE_CONTENT_TYPE)).build();
+	}
+
+	private static String getETag(BundleSnapshot snapshot, boolean includeData) {
+		return "\"" + snapshot.getRevision() + (includeData ? "-data" : "") + "\"";
+	}
+
+	private static boolean matches(String ifNoneMatch, String eTag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		return Arrays.stream(ifNoneMatch.split(",")).map(String::trim)
+				.map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+				.anyMatch(tag -> tag.equals("*") || tag.equals(eTag));
+	}
+
+	private static long getWaitSeconds(String prefer) {
+		if (prefer == null) {
+			return 0;
+		}
+		Matcher matcher = PREFER_WAIT.matcher(prefer);
+		if (!matcher.find()) {
+			return 0;
+		}
+		try {
+			return Long.parseLong(matcher.group(1));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * A long-polling request that waits for a bundle with a different ETag.
+	 */
+	private static class PendingPoll {
+
+		private final DeferredResult<ResponseEntity<StreamingResponseBody>> result;
+		private final String eTag;
+		private final boolean includeData;
+
+		PendingPoll(DeferredResult<ResponseEntity<StreamingResponseBody>> result, String eTag,
+				boolean includeData) {
+			this.result = result;
+			this.eTag = eTag;
+			this.includeData = includeData;
+		}
+	}
+}
@@ -1,14 +1,21 @@
 package com.tracelink.prodsec.blueprint.app.controller;
 
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.web.servlet.view.RedirectView;
@@ -19,6 +26,7 @@ import com.tracelink.prodsec.blueprint.app.exception.PolicyElementNotFoundExcept
 import com.tracelink.prodsec.blueprint.app.exception.PolicyException;
 import com.tracelink.prodsec.blueprint.app.mvc.BlueprintModelAndView;
 import com.tracelink.prodsec.blueprint.app.policy.PolicyDto;
+import com.tracelink.prodsec.blueprint.app.service.BundleService;
 import com.tracelink.prodsec.blueprint.app.service.PolicyService;
 
 /**
@@ -32,10 +40,16 @@ public class ExportController {
 
 	private static final String BINDING_RESULT_POLICY = "org.springframework.validation.BindingResult.policy";
 	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	private static final String DEFAULT_DOWNLOAD_NAME = "policy";
+	private static final String BUNDLE_DOWNLOAD_NAME = "bundle.tar.gz";
+	private static final String DELTA_DOWNLOAD_NAME = "bundle-delta.tar.gz";
 	private final PolicyService policyService;
+	private final BundleService bundleService;
 
-	public ExportController(@Autowired PolicyService policyService) {
+	public ExportController(@Autowired PolicyService policyService,
+			@Autowired BundleService bundleService) {
 		this.policyService = policyService;
+		this.bundleService = bundleService;
 	}
 
 	@GetMapping("")
@@ -70,6 +84,91 @@ public class ExportController {
 		return redirectView;
 	}
 
+	/**
+	 * Exports the policy to Rego and streams it to the client as a file download, so that large
+	 * policies are never rendered into a single string on the server. Redirects back to the
+	 * builder if the policy is invalid.
+	 *
+	 * @param policyDto          the policy to export
+	 * @param result             the binding result of the policy form
+	 * @param response           the response to stream the Rego policy to
+	 * @param redirectAttributes the redirect attributes to add any failure messages
+	 * @return a redirect to the builder if the policy is invalid, or null if the Rego was written
+	 * @throws PolicyElementNotFoundException if referenced base statements or policy types do not
+	 *                                        exist
+	 * @throws IOException                    if the Rego cannot be written to the response
+	 */
+	@PostMapping("/download")
+	public RedirectView downloadPolicy(@Valid PolicyDto policyDto, BindingResult result,
+			HttpServletResponse response, RedirectAttributes redirectAttributes)
+			throws PolicyElementNotFoundException, IOException {
+		if (result.hasErrors()) {
+			redirectAttributes.addFlashAttribute("failure", "The policy has validation errors");
+			redirectAttributes.addFlashAttribute(BINDING_RESULT_POLICY, result);
+			redirectAttributes.addFlashAttribute("policy", policyDto);
+			return new RedirectView("/?type=" + policyDto.getPolicyType());
+		}
+
+		String fileName = StringUtils.isBlank(policyDto.getName()) ? DEFAULT_DOWNLOAD_NAME
+				: policyDto.getName().trim().toLowerCase().replaceAll("[^a-z0-9]+", "_");
+		response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+				"attachment; filename=\"" + fileName + ".rego\"");
+		try {
+			policyService.exportPolicy(policyDto, response.getOutputStream());
+		} catch (IllegalArgumentException | PolicyException e) {
+			// Nothing has been written yet, so the download can be replaced with a redirect
+			response.reset();
+			redirectAttributes.addFlashAttribute("failure", e.getMessage());
+			redirectAttributes.addFlashAttribute("policy", policyDto);
+			return new RedirectView("/?type=" + policyDto.getPolicyType());
+		}
+		return null;
+	}
+
+	/**
+	 * Exports all saved policies as an OPA bundle and streams it to the client as a gzipped
+	 * tarball. If a base revision is given, only the policies that changed since that revision
+	 * are exported as a delta bundle, which is named differently as it cannot be loaded by OPA on
+	 * its own. Redirects back to the policies page if any saved policy
+	 * cannot be bundled.
+	 *
+	 * @param baseRevision       the revision to export a delta bundle against, or null to export
+	 *                           all policies
+	 * @param includeData        whether to include a data document describing the policies
+	 * @param response           the response to stream the bundle to
+	 * @param redirectAttributes the redirect attributes to add any failure messages
+	 * @return a redirect to the policies page if the bundle cannot be created, or null if the
+	 * bundle was written
+	 * @throws IOException if the bundle cannot be written to the response
+	 */
+	@GetMapping("/bundle")
+	public RedirectView downloadBundle(
+			@RequestParam(name = "since", required = false) String baseRevision,
+			@RequestParam(name = "data", defaultValue = "false") boolean includeData,
+			HttpServletResponse response, RedirectAttributes redirectAttributes)
+			throws IOException {
+		boolean delta = StringUtils.isNotBlank(baseRevision);
+		response.setContentType("application/gzip");
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""
+				+ (delta ? DELTA_DOWNLOAD_NAME : BUNDLE_DOWNLOAD_NAME) + "\"");
+		try {
+			if (delta) {
+				bundleService.exportDeltaBundle(baseRevision.trim(), response.getOutputStream(),
+						includeData);
+			} else {
+				bundleService.exportBundle(response.getOutputStream(), includeData);
+			}
+		} catch (PolicyException e) {
+			// Policies are validated before anything is written, so the download can be replaced
+			response.reset();
+			redirectAttributes.addFlashAttribute("failure", e.getMessage());
+			return new RedirectView("/policies");
+		}
+		return null;
+	}
+
 	/**
 	 * Exception handler for a {@link PolicyElementNotFoundException}. Returns to the Blueprint home
 	 *
@@ -0,0 +1,42 @@
+package com.tracelink.prodsec.blueprint.app.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tracelink.prodsec.blueprint.app.bundle.BundleRevisionEntity;
+
+/**
+ * Repository to store and retrieve database {@link BundleRevisionEntity} objects.
+ *
+ * @author mcool
+ */
+@Repository(value = "bundleRevisionRepository")
+public interface BundleRevisionRepository extends JpaRepository<BundleRevisionEntity, Long> {
+
+	BundleRevisionEntity findByRevision(String revision);
+
+	/**
+	 * Gets the ids of the recorded revisions, from the most recently recorded one.
+	 *
+	 * @param pageable the page of ids to get
+	 * @return list of revision ids, newest first
+	 */
+	@Query("SELECT r.id FROM BundleRevisionEntity r ORDER BY r.id DESC")
+	List<Long> findIdsNewestFirst(Pageable pageable);
+
+	/**
+	 * Deletes the revisions recorded before the revision with the given id, and their policy
+	 * hashes, except for the given revision.
+	 *
+	 * @param id       the id of the oldest revision to keep
+	 * @param revision the revision to keep even if it is older
+	 * @return the number of deleted revisions
+	 */
+	@Transactional
+	long deleteByIdLessThanAndRevisionNot(long id, String revision);
+}
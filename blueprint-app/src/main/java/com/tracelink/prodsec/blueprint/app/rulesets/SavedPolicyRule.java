@@ -1,6 +1,5 @@
 package com.tracelink.prodsec.blueprint.app.rulesets;
 
-import java.text.MessageFormat;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
@@ -31,17 +30,16 @@ public class SavedPolicyRule extends AbstractPolicyRule {
 	public PolicyBuilderReport visit(Policy node, PolicyBuilderReport report) {
 		// Ensure policy name and author are not blank
 		if (StringUtils.isBlank(node.getName())) {
-			report.addViolation(this, node, node.getLocation() + ".name", "Name cannot be blank");
+			report.addPropertyViolation(this, node, "name", "Name cannot be blank");
 		}
 		if (StringUtils.isBlank(node.getAuthor())) {
-			report.addViolation(this, node, node.getLocation() + ".author",
-					"Author cannot be blank");
+			report.addPropertyViolation(this, node, "author", "Author cannot be blank");
 		}
 		// Ensure policy name matches the regex pattern
 		if (node.getName() != null && !ALPHABET_SPACE_PATTERN.matcher(node.getName()).matches()) {
-			report.addViolation(this, node, node.getLocation() + ".name", MessageFormat
-					.format("The policy name ''{0}'' is invalid. Policy names {1}",
-							node.getName(), ALPHABET_SPACE_MESSAGE));
+			report.formatPropertyViolation(this, node, "name",
+					"The policy name ''{0}'' is invalid. Policy names {1}", node.getName(),
+					ALPHABET_SPACE_MESSAGE);
 		}
 		return super.visit(node, report);
 	}
@@ -9,8 +9,20 @@ import com.tracelink.prodsec.blueprint.core.rulesets.PreconfiguredRuleset;
  */
 public class SavedPolicyRuleset extends PreconfiguredRuleset {
 
+	private static final SavedPolicyRuleset INSTANCE = new SavedPolicyRuleset();
+
 	public SavedPolicyRuleset() {
 		super("Saved Policy Ruleset");
 		addPreconfiguredRule(new SavedPolicyRule());
 	}
+
+	/**
+	 * Gets the shared instance of this ruleset. Rulesets and their rules are stateless, so the
+	 * instance may be used by any number of concurrent validations.
+	 *
+	 * @return the shared ruleset
+	 */
+	public static SavedPolicyRuleset getInstance() {
+		return INSTANCE;
+	}
 }
@@ -459,8 +459,8 @@ public class BaseStatementFunctionService {
 	private void validateFunction(BaseStatementFunction function)
 			throws BaseStatementFunctionException {
 		PolicyBuilderReport report = policyBuilder
-				.validate(function, new ConfigurationRuleset(), new LogicRuleset(),
-						new SavedPolicyRuleset());
+				.validate(function, ConfigurationRuleset.getInstance(), LogicRuleset.getInstance(),
+						SavedPolicyRuleset.getInstance());
 		if (report.hasErrors() || report.hasViolations()) {
 			List<String> messages = report.getErrors().stream().map(PolicyBuilderError::getMessage)
 					.collect(Collectors.toList());
@@ -508,8 +508,8 @@ public class BaseStatementService {
 	private void validateBaseStatement(BaseStatement baseStatement)
 			throws BaseStatementException {
 		PolicyBuilderReport report = policyBuilder
-				.validate(baseStatement, new ConfigurationRuleset(), new LogicRuleset(),
-						new SavedPolicyRuleset());
+				.validate(baseStatement, ConfigurationRuleset.getInstance(),
+						LogicRuleset.getInstance(), SavedPolicyRuleset.getInstance());
 		if (report.hasErrors() || report.hasViolations()) {
 			List<String> messages = report.getErrors().stream().map(PolicyBuilderError::getMessage)
 					.collect(Collectors.toList());
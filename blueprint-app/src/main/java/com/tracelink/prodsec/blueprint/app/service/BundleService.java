@@ -0,0 +1,466 @@
+package com.tracelink.prodsec.blueprint.app.service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracelink.prodsec.blueprint.app.bundle.BundleRevisionEntity;
+import com.tracelink.prodsec.blueprint.app.bundle.BundleSnapshot;
+import com.tracelink.prodsec.blueprint.app.exception.PolicyException;
+import com.tracelink.prodsec.blueprint.app.repository.BundleRevisionRepository;
+import com.tracelink.prodsec.blueprint.core.PolicyBuilder;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.rego.RegoEmitter;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import com.tracelink.prodsec.blueprint.core.statement.FunctionDependencyGraph;
+
+/**
+ * Service to export all saved policies as an OPA bundle. The bundle is a gzipped tarball that
+ * contains one Rego module per policy, a shared library module that defines every function used
+ * by the policies, an optional data document describing the policies, and a manifest. The tarball
+ * is streamed entry by entry, so only a single module is held in memory at a time.
+ * <p>
+ * Every policy module has a content hash that covers its Rego, the Rego of its dependency
+ * closure and its metadata. The bundle revision is derived from these hashes and recorded when
+ * a bundle is exported, so that later bundles can be exported as deltas that only contain the
+ * policies whose hashes changed since that revision. Only the most recently recorded revisions
+ * are kept, as configured by {@code blueprint.bundles.max-revisions}.
+ *
+ * @author mcool
+ */
+@Service
+public class BundleService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BundleService.class);
+	public static final String BUNDLE_ROOT = "blueprint";
+	public static final String LIBRARY_PACKAGE = BUNDLE_ROOT + ".lib";
+	public static final String POLICIES_PACKAGE = BUNDLE_ROOT + ".policies";
+	private static final String LIBRARY_PATH = BUNDLE_ROOT + "/lib/lib.rego";
+	private static final String DATA_PATH = BUNDLE_ROOT + "/metadata/data.json";
+	private static final String MANIFEST_PATH = ".manifest";
+	private static final int FILE_MODE = 0100644;
+	private final PolicyService policyService;
+	private final BundleRevisionRepository bundleRevisionRepository;
+	private final int maxRevisions;
+	private final RegoEmitter regoEmitter;
+	private final ObjectMapper objectMapper;
+	private final List<Runnable> invalidationListeners = new CopyOnWriteArrayList<>();
+	private final Object snapshotLock = new Object();
+	private volatile BundleSnapshot currentSnapshot;
+	private volatile boolean stale = true;
+
+	public BundleService(@Autowired PolicyService policyService,
+			@Autowired BundleRevisionRepository bundleRevisionRepository,
+			@Value("${blueprint.bundles.max-revisions:100}") int maxRevisions) {
+		if (maxRevisions < 1) {
+			throw new IllegalArgumentException("The number of bundle revisions must be positive");
+		}
+		this.policyService = policyService;
+		this.bundleRevisionRepository = bundleRevisionRepository;
+		this.maxRevisions = maxRevisions;
+		this.regoEmitter = new RegoEmitter(PolicyBuilder.getInstance().getRegoFragmentCache());
+		this.objectMapper = new ObjectMapper();
+		policyService.addPolicyChangeListener(this::invalidate);
+	}
+
+	/**
+	 * Gets the snapshot of the current bundle. The snapshot is cached until the saved policies
+	 * change, so that the current revision can be checked without validating every policy. If
+	 * the saved policies can no longer be bundled, the last valid snapshot is kept.
+	 *
+	 * @return the snapshot of the current bundle
+	 * @throws PolicyException if the saved policies cannot be bundled and there is no previous
+	 *                         valid snapshot
+	 * @throws IOException     if the Rego for the policies cannot be generated
+	 */
+	public BundleSnapshot getCurrentSnapshot() throws PolicyException, IOException {
+		BundleSnapshot snapshot = currentSnapshot;
+		if (snapshot != null && !stale) {
+			return snapshot;
+		}
+		synchronized (snapshotLock) {
+			if (currentSnapshot != null && !stale) {
+				return currentSnapshot;
+			}
+			// Cleared before the snapshot is created, so that concurrent changes mark it stale
+			stale = false;
+			try {
+				snapshot = createSnapshot();
+				recordRevision(snapshot);
+				currentSnapshot = snapshot;
+			} catch (PolicyException | IOException e) {
+				if (currentSnapshot == null) {
+					stale = true;
+					throw e;
+				}
+				LOGGER.warn("Cannot update the bundle, keeping revision {}: {}",
+						currentSnapshot.getRevision(), e.getMessage());
+			}
+			return currentSnapshot;
+		}
+	}
+
+	/**
+	 * Marks the cached snapshot as stale and notifies all invalidation listeners. Called
+	 * whenever the saved policies change.
+	 */
+	public void invalidate() {
+		stale = true;
+		for (Runnable listener : invalidationListeners) {
+			listener.run();
+		}
+	}
+
+	/**
+	 * Adds a listener that is run whenever the cached snapshot is invalidated.
+	 *
+	 * @param listener the listener to run on invalidation
+	 */
+	public void addInvalidationListener(Runnable listener) {
+		invalidationListeners.add(listener);
+	}
+
+	/**
+	 * Streams the bundle for the given snapshot to the given output stream. The output stream is
+	 * not closed.
+	 *
+	 * @param snapshot     the snapshot of the bundle to write
+	 * @param outputStream the stream to write the gzipped bundle to
+	 * @param includeData  whether to include a data document describing the policies
+	 * @throws IOException if the bundle cannot be written to the stream
+	 */
+	public void exportBundle(BundleSnapshot snapshot, OutputStream outputStream,
+			boolean includeData) throws IOException {
+		Map<String, Object> manifest = new LinkedHashMap<>();
+		manifest.put("revision", snapshot.getRevision());
+		manifest.put("roots", Collections.singletonList(BUNDLE_ROOT));
+		writeBundle(outputStream, snapshot, snapshot.getPolicyHashes().keySet(), includeData,
+				manifest);
+	}
+
+	/**
+	 * Exports all saved policies as an OPA bundle and streams it to the given output stream. All
+	 * policies are validated before anything is written, so the stream is untouched if a
+	 * {@link PolicyException} is thrown. The output stream is not closed. The revision of the
+	 * bundle is recorded, so that it can be used as the base of a delta bundle.
+	 *
+	 * @param outputStream the stream to write the gzipped bundle to
+	 * @param includeData  whether to include a data document describing the policies
+	 * @throws PolicyException if any saved policy is invalid, if two policies map to the same
+	 *                         package, or if two policies use different definitions of a function
+	 * @throws IOException     if the bundle cannot be written to the stream
+	 */
+	public void exportBundle(OutputStream outputStream, boolean includeData)
+			throws PolicyException, IOException {
+		BundleSnapshot snapshot = createSnapshot();
+		recordRevision(snapshot);
+		exportBundle(snapshot, outputStream, includeData);
+	}
+
+	/**
+	 * Exports the saved policies that changed since the given revision as a delta bundle, and
+	 * streams it to the given output stream. The delta bundle contains the modules of all added
+	 * or changed policies and the library module. Its manifest metadata lists the base revision,
+	 * the revision of the bundle that results from applying the delta and the packages of any
+	 * removed policies, so that a client can apply the delta on top of its copy of the bundle with
+	 * the base revision and serve the result as a full bundle.
+	 * <p>
+	 * The delta is not a complete bundle and must not be loaded by OPA directly, as OPA would
+	 * replace the full bundle with it and drop every unchanged policy. Its manifest therefore has
+	 * no revision and an empty list of roots, which makes OPA reject the modules of the delta, and
+	 * the library module is included even if nothing changed. The revision of the resulting bundle
+	 * is recorded, so that it can be used as the base of a later delta bundle.
+	 *
+	 * @param baseRevision the revision of the bundle to compute the delta against
+	 * @param outputStream the stream to write the gzipped delta bundle to
+	 * @param includeData  whether to include a data document describing the changed policies
+	 * @throws PolicyException if the base revision does not exist or is no longer kept, or if the
+	 *                         saved policies cannot be bundled
+	 * @throws IOException     if the bundle cannot be written to the stream
+	 */
+	public void exportDeltaBundle(String baseRevision, OutputStream outputStream,
+			boolean includeData) throws PolicyException, IOException {
+		BundleRevisionEntity base = bundleRevisionRepository.findByRevision(baseRevision);
+		if (base == null) {
+			throw new PolicyException(MessageFormat.format(
+					"There is no bundle with the revision ''{0}''. Only the last {1} revisions are"
+							+ " kept, so older bundles must be replaced by a full bundle",
+					baseRevision, maxRevisions));
+		}
+		BundleSnapshot snapshot = createSnapshot();
+		Map<String, String> baseHashes = base.getPolicyHashes();
+		List<String> changed = new ArrayList<>();
+		snapshot.getPolicyHashes().forEach((packageName, contentHash) -> {
+			if (!contentHash.equals(baseHashes.get(packageName))) {
+				changed.add(packageName);
+			}
+		});
+		List<String> removed = new ArrayList<>(baseHashes.keySet());
+		removed.removeAll(snapshot.getPolicyHashes().keySet());
+
+		Map<String, Object> metadata = new LinkedHashMap<>();
+		metadata.put("base_revision", baseRevision);
+		metadata.put("revision", snapshot.getRevision());
+		metadata.put("removed", removed);
+		Map<String, Object> manifest = new LinkedHashMap<>();
+		manifest.put("roots", Collections.emptyList());
+		manifest.put("metadata", metadata);
+		recordRevision(snapshot);
+		writeBundle(outputStream, snapshot, changed, includeData, manifest);
+	}
+
+	/**
+	 * Gets the name of the Rego package segment for the policy with the given name.
+	 *
+	 * @param policyName the name of the policy
+	 * @return the package segment for the policy
+	 */
+	public static String getPackageName(String policyName) {
+		return policyName.trim().toLowerCase().replaceAll("[^a-z0-9]+", "_");
+	}
+
+	private void writeBundle(OutputStream outputStream, BundleSnapshot snapshot,
+			Iterable<String> packageNames, boolean includeData, Map<String, Object> manifest)
+			throws IOException {
+		Map<String, Policy> policies = new TreeMap<>();
+		packageNames.forEach(packageName -> policies
+				.put(packageName, snapshot.getPolicies().get(packageName)));
+		try (TarArchiveOutputStream tar = new TarArchiveOutputStream(
+				new GzipCompressorOutputStream(new UnclosableOutputStream(outputStream)),
+				StandardCharsets.UTF_8.name())) {
+			tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+			for (Map.Entry<String, Policy> entry : policies.entrySet()) {
+				writeEntry(tar, BUNDLE_ROOT + "/policies/" + entry.getKey() + "/policy.rego",
+						generateModule(entry.getKey(), entry.getValue()));
+			}
+			if (!snapshot.getFunctions().isEmpty()) {
+				StringWriter writer = new StringWriter();
+				regoEmitter.generateLibrary(LIBRARY_PACKAGE, snapshot.getFunctions().values(), writer);
+				writeEntry(tar, LIBRARY_PATH, writer.toString().getBytes(StandardCharsets.UTF_8));
+			}
+			if (includeData) {
+				writeEntry(tar, DATA_PATH, createData(policies));
+			}
+			writeEntry(tar, MANIFEST_PATH, objectMapper.writeValueAsBytes(manifest));
+		}
+		outputStream.flush();
+	}
+
+	private BundleSnapshot createSnapshot() throws PolicyException, IOException {
+		Map<String, Policy> policies = getPoliciesByPackage();
+		Map<String, Set<BaseStatementFunction>> dependentFunctions = getDependentFunctions(
+				policies);
+		Map<String, BaseStatementFunction> functions = getLibraryFunctions(
+				dependentFunctions.values());
+		Map<String, byte[]> renderedFunctions = new TreeMap<>();
+		for (BaseStatementFunction function : functions.values()) {
+			StringWriter writer = new StringWriter();
+			regoEmitter.generateFunction(function, writer);
+			renderedFunctions
+					.put(function.getName(), writer.toString().getBytes(StandardCharsets.UTF_8));
+		}
+
+		// Modules are generated again when the bundle is written, so only hashes are kept here
+		Map<String, String> policyHashes = new TreeMap<>();
+		for (Map.Entry<String, Policy> entry : policies.entrySet()) {
+			Policy policy = entry.getValue();
+			MessageDigest digest = createDigest();
+			digest.update(generateModule(entry.getKey(), policy));
+			for (BaseStatementFunction function : dependentFunctions.get(entry.getKey())) {
+				digest.update(renderedFunctions.get(function.getName()));
+			}
+			updateDigest(digest, policy.getName());
+			updateDigest(digest, policy.getAuthor());
+			updateDigest(digest, policy.getPolicyType());
+			policyHashes.put(entry.getKey(), toHex(digest.digest()));
+		}
+
+		MessageDigest digest = createDigest();
+		for (Map.Entry<String, String> entry : policyHashes.entrySet()) {
+			updateDigest(digest, entry.getKey());
+			updateDigest(digest, entry.getValue());
+		}
+		return new BundleSnapshot(policies, functions, policyHashes, toHex(digest.digest()));
+	}
+
+	private void recordRevision(BundleSnapshot snapshot) {
+		if (bundleRevisionRepository.findByRevision(snapshot.getRevision()) != null) {
+			return;
+		}
+		BundleRevisionEntity revision = new BundleRevisionEntity();
+		revision.setRevision(snapshot.getRevision());
+		revision.setCreated(new Date());
+		revision.setPolicyHashes(snapshot.getPolicyHashes());
+		try {
+			bundleRevisionRepository.saveAndFlush(revision);
+		} catch (DataIntegrityViolationException e) {
+			// The same revision was recorded by a concurrent export
+			return;
+		}
+		pruneRevisions(snapshot.getRevision());
+	}
+
+	private void pruneRevisions(String currentRevision) {
+		// Revisions are pruned in the order they were recorded, except for the current revision,
+		// which may have been recorded long ago if the policies were changed back
+		List<Long> oldestKept = bundleRevisionRepository
+				.findIdsNewestFirst(PageRequest.of(maxRevisions - 1, 1));
+		if (!oldestKept.isEmpty()) {
+			long pruned = bundleRevisionRepository
+					.deleteByIdLessThanAndRevisionNot(oldestKept.get(0), currentRevision);
+			if (pruned > 0) {
+				LOGGER.info("Pruned {} bundle revisions", pruned);
+			}
+		}
+	}
+
+	private byte[] generateModule(String packageName, Policy policy) throws IOException {
+		StringWriter writer = new StringWriter();
+		regoEmitter.generateModule(policy, POLICIES_PACKAGE + "." + packageName, LIBRARY_PACKAGE,
+				writer);
+		return writer.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private Map<String, Policy> getPoliciesByPackage() throws PolicyException {
+		List<Policy> savedPolicies = policyService.getSavedPolicies();
+		Map<String, Policy> policies = new TreeMap<>();
+		for (Policy policy : savedPolicies) {
+			Policy existing = policies.putIfAbsent(getPackageName(policy.getName()), policy);
+			if (existing != null) {
+				throw new PolicyException(MessageFormat.format(
+						"Cannot bundle the policies ''{0}'' and ''{1}'' into the same package",
+						existing.getName(), policy.getName()));
+			}
+		}
+		return policies;
+	}
+
+	private static Map<String, Set<BaseStatementFunction>> getDependentFunctions(
+			Map<String, Policy> policies) {
+		// Policies share most of their functions, so the dependencies are resolved only once
+		FunctionDependencyGraph graph = FunctionDependencyGraph.of(policies.values().stream()
+				.flatMap(policy -> policy.getStatementFunctions().stream())
+				.collect(Collectors.toList()));
+		Map<String, Set<BaseStatementFunction>> dependentFunctions = new TreeMap<>();
+		policies.forEach((packageName, policy) -> dependentFunctions
+				.put(packageName, policy.getAllDependentFunctions(graph)));
+		return dependentFunctions;
+	}
+
+	private static Map<String, BaseStatementFunction> getLibraryFunctions(
+			Collection<Set<BaseStatementFunction>> dependentFunctions) throws PolicyException {
+		Map<String, BaseStatementFunction> functions = new TreeMap<>();
+		for (Set<BaseStatementFunction> policyFunctions : dependentFunctions) {
+			for (BaseStatementFunction function : policyFunctions) {
+				BaseStatementFunction existing = functions.putIfAbsent(function.getName(), function);
+				// Different versions of a function can share the library if their Rego matches
+				if (existing != null && !(Objects.equals(existing.getParameters(),
+						function.getParameters()) && Objects.equals(existing.getExpression(),
+						function.getExpression()))) {
+					throw new PolicyException(MessageFormat.format(
+							"Cannot bundle policies that use different definitions of the function ''{0}''",
+							function.getName()));
+				}
+			}
+		}
+		return functions;
+	}
+
+	private byte[] createData(Map<String, Policy> policies) throws IOException {
+		Map<String, Object> metadata = new LinkedHashMap<>();
+		for (Map.Entry<String, Policy> entry : policies.entrySet()) {
+			Map<String, String> policyMetadata = new LinkedHashMap<>();
+			policyMetadata.put("name", entry.getValue().getName());
+			policyMetadata.put("author", entry.getValue().getAuthor());
+			policyMetadata.put("policyType", entry.getValue().getPolicyType());
+			metadata.put(entry.getKey(), policyMetadata);
+		}
+		return objectMapper.writeValueAsBytes(Collections.singletonMap("policies", metadata));
+	}
+
+	private static void writeEntry(TarArchiveOutputStream tar, String path, byte[] content)
+			throws IOException {
+		TarArchiveEntry entry = new TarArchiveEntry(path);
+		// Fixed metadata keeps the bundle byte-for-byte reproducible
+		entry.setModTime(0L);
+		entry.setMode(FILE_MODE);
+		entry.setSize(content.length);
+		tar.putArchiveEntry(entry);
+		tar.write(content);
+		tar.closeArchiveEntry();
+	}
+
+	private static void updateDigest(MessageDigest digest, String value) {
+		if (value != null) {
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+		}
+		digest.update((byte) 0);
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+			sb.append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Output stream that does not close the underlying stream, so that the archive streams can be
+	 * closed to finish the bundle without closing the caller's stream.
+	 */
+	private static class UnclosableOutputStream extends FilterOutputStream {
+
+		UnclosableOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package com.tracelink.prodsec.blueprint.app.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
@@ -7,11 +9,13 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -29,10 +33,8 @@ import com.tracelink.prodsec.blueprint.app.repository.PolicyRepository;
 import com.tracelink.prodsec.blueprint.app.rulesets.SavedPolicyRuleset;
 import com.tracelink.prodsec.blueprint.app.statement.BaseStatementEntity;
 import com.tracelink.prodsec.blueprint.core.PolicyBuilder;
+import com.tracelink.prodsec.blueprint.core.compile.CompiledPolicy;
 import com.tracelink.prodsec.blueprint.core.policy.Policy;
-import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderError;
-import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
-import com.tracelink.prodsec.blueprint.core.report.RuleViolation;
 import com.tracelink.prodsec.blueprint.core.rulesets.configuration.ConfigurationRuleset;
 import com.tracelink.prodsec.blueprint.core.rulesets.logic.LogicRuleset;
 
@@ -51,6 +53,7 @@ public class PolicyService {
 	private final PolicyRepository policyRepository;
 	private final PolicyBuilder policyBuilder;
 	private final ObjectMapper objectMapper;
+	private final List<Runnable> policyChangeListeners = new CopyOnWriteArrayList<>();
 
 	public PolicyService(@Autowired BaseStatementService baseStatementService,
 			@Autowired PolicyTypeService policyTypeService,
@@ -108,6 +111,37 @@ public class PolicyService {
 		return policy;
 	}
 
+	/**
+	 * Gets all saved policies, ordered by name, as core policies. Each policy is validated as a
+	 * saved policy before it is returned.
+	 *
+	 * @return the list of saved policies
+	 * @throws PolicyException if any of the saved policies is invalid
+	 */
+	public List<Policy> getSavedPolicies() throws PolicyException {
+		List<Policy> policies = new ArrayList<>();
+		for (PolicyEntity policyEntity : policyRepository.findAll(Sort.by("name"))) {
+			Policy policy = policyEntity.toCore();
+			try {
+				compilePolicy(policy, true);
+			} catch (PolicyException e) {
+				throw new PolicyException(MessageFormat.format("The policy ''{0}'' is invalid. {1}",
+						policyEntity.getName(), e.getMessage()));
+			}
+			policies.add(policy);
+		}
+		return policies;
+	}
+
+	/**
+	 * Adds a listener that is run after a policy is saved or deleted.
+	 *
+	 * @param listener the listener to run when the saved policies change
+	 */
+	public void addPolicyChangeListener(Runnable listener) {
+		policyChangeListeners.add(listener);
+	}
+
 	/*
 	 * Policy management methods
 	 */
@@ -132,8 +166,9 @@ public class PolicyService {
 					"A policy with that name already exists and cannot be overwritten");
 		}
 		// Perform validation on base statement and save
-		validatePolicy(policyEntity.toCore(), true);
+		compilePolicy(policyEntity.toCore(), true);
 		policyRepository.saveAndFlush(policyEntity);
+		firePolicyChange();
 	}
 
 	/**
@@ -155,6 +190,7 @@ public class PolicyService {
 		}
 		policyRepository.delete(policy);
 		policyRepository.flush();
+		firePolicyChange();
 		return policy;
 	}
 
@@ -180,7 +216,7 @@ public class PolicyService {
 					"The imported policy is not formatted correctly. Check the log for more details");
 		}
 		PolicyEntity policyEntity = convertPolicyDtoToEntity(policyDto);
-		validatePolicy(policyEntity.toCore(), false);
+		checkPolicy(policyEntity.toCore());
 		return policyEntity.toDto();
 	}
 
@@ -196,9 +232,26 @@ public class PolicyService {
 	public String exportPolicy(PolicyDto policyDto)
 			throws PolicyException, PolicyElementNotFoundException {
 		PolicyEntity policyEntity = convertPolicyDtoToEntity(policyDto);
-		Policy policy = policyEntity.toCore();
-		validatePolicy(policy, false);
-		return policyBuilder.generateRego(policy);
+		return compilePolicy(policyEntity.toCore(), false).getRego();
+	}
+
+	/**
+	 * Exports the given policy DTO to a Rego policy, if it passes validation, and generates the
+	 * Rego directly into the given output stream. Validation happens before anything is written,
+	 * so the stream is untouched if an exception other than an {@link IOException} is thrown.
+	 *
+	 * @param policyDto    the policy to export to Rego
+	 * @param outputStream the stream to write the Rego policy to
+	 * @throws PolicyException                if the policy, clauses or base statements are invalid
+	 * @throws PolicyElementNotFoundException if referenced base statements or policy types do not
+	 *                                        exist
+	 * @throws IOException                    if the Rego cannot be written to the stream
+	 */
+	public void exportPolicy(PolicyDto policyDto, OutputStream outputStream)
+			throws PolicyException, PolicyElementNotFoundException, IOException {
+		Policy policy = convertPolicyDtoToEntity(policyDto).toCore();
+		checkPolicy(policy);
+		policyBuilder.generateRego(policy, outputStream);
 	}
 
 	/**
@@ -218,6 +271,16 @@ public class PolicyService {
 				.map(BaseStatementEntity::getVersionedName).collect(Collectors.toSet());
 	}
 
+	private void firePolicyChange() {
+		for (Runnable listener : policyChangeListeners) {
+			try {
+				listener.run();
+			} catch (RuntimeException e) {
+				LOGGER.error("Policy change listener failed", e);
+			}
+		}
+	}
+
 	/*
 	 * Conversion methods to/from core, DTO and Entity objects
 	 */
@@ -270,21 +333,33 @@ public class PolicyService {
 	 * Policy validation methods
 	 */
 
-	private void validatePolicy(Policy policy, boolean save) throws PolicyException {
-		PolicyBuilderReport report;
+	private CompiledPolicy compilePolicy(Policy policy, boolean save) throws PolicyException {
+		// Compiled policies are cached, so unchanged policies are only validated once
+		CompiledPolicy compiledPolicy;
 		if (save) {
-			report = policyBuilder.validate(policy, new ConfigurationRuleset(), new LogicRuleset(),
-					new SavedPolicyRuleset());
+			compiledPolicy = policyBuilder.compile(policy, ConfigurationRuleset.getInstance(),
+					LogicRuleset.getInstance(), SavedPolicyRuleset.getInstance());
 		} else {
-			report = policyBuilder.validate(policy, new ConfigurationRuleset(), new LogicRuleset());
+			compiledPolicy = policyBuilder
+					.compile(policy, ConfigurationRuleset.getInstance(), LogicRuleset.getInstance());
 		}
-		if (report.hasErrors() || report.hasViolations()) {
-			List<String> messages = report.getErrors().stream().map(PolicyBuilderError::getMessage)
-					.collect(Collectors.toList());
-			messages.addAll(report.getViolations().stream().map(RuleViolation::getMessage)
-					.collect(Collectors.toList()));
+		return requireValid(compiledPolicy);
+	}
+
+	private void checkPolicy(Policy policy) throws PolicyException {
+		// Only validates, for callers that do not need the Rego or stream it themselves
+		requireValid(policyBuilder
+				.check(policy, ConfigurationRuleset.getInstance(), LogicRuleset.getInstance()));
+	}
+
+	private static CompiledPolicy requireValid(CompiledPolicy compiledPolicy)
+			throws PolicyException {
+		if (!compiledPolicy.isValid()) {
+			List<String> messages = compiledPolicy.getProblems().stream()
+					.map(CompiledPolicy.Problem::getMessage).collect(Collectors.toList());
 			throw new PolicyException("Policy validation failed: " + String.join(", ", messages));
 			// TODO improve this to display errors in correct portion of policy
 		}
+		return compiledPolicy;
 	}
 }
@@ -0,0 +1,16 @@
+CREATE TABLE bundle_revision (
+  bundle_revision_id BIGSERIAL NOT NULL,
+  revision varchar(64) NOT NULL,
+  created datetime NOT NULL,
+  PRIMARY KEY (bundle_revision_id),
+  CONSTRAINT uq_bundle_revision UNIQUE (revision)
+);
+
+CREATE TABLE bundle_revision_policy (
+  bundle_revision_policy_id BIGSERIAL NOT NULL,
+  bundle_revision_id BIGSERIAL NOT NULL,
+  package_name varchar(255) NOT NULL,
+  content_hash varchar(64) NOT NULL,
+  PRIMARY KEY (bundle_revision_policy_id),
+  CONSTRAINT fk_bundle_revision_rel FOREIGN KEY (bundle_revision_id) REFERENCES bundle_revision (bundle_revision_id)
+);
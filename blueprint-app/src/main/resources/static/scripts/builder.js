@@ -24,6 +24,11 @@ $(document).ready(function() {
     	$("#export-form").trigger('submit');
     });
 
+    $('#downloadPolicyButton').on("click", function() {
+    	$("#export-form").attr("action", "/export/download");
+    	$("#export-form").trigger('submit');
+    });
+
 });
 $(document).ajaxComplete(configureElements);
 
@@ -0,0 +1,215 @@
+package com.tracelink.prodsec.blueprint.app.controller;
+
+import com.tracelink.prodsec.blueprint.app.bundle.BundleSnapshot;
+import com.tracelink.prodsec.blueprint.app.exception.PolicyException;
+import com.tracelink.prodsec.blueprint.app.service.BundleService;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.servlet.AsyncListener;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "blueprint.bundles.token=secret")
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+public class BundleControllerTest {
+
+	private static final String AUTHORIZATION = "Bearer secret";
+	private static final BundleSnapshot SNAPSHOT = createSnapshot("abc");
+
+	@Autowired
+	private MockMvc mockMvc;
+	@MockBean
+	private BundleService bundleService;
+
+	@Before
+	public void setup() throws Exception {
+		BDDMockito.willAnswer(invocation -> {
+			BundleSnapshot snapshot = invocation.getArgument(0);
+			invocation.getArgument(1, OutputStream.class)
+					.write(snapshot.getRevision().getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).given(bundleService).exportBundle(BDDMockito.any(BundleSnapshot.class),
+				BDDMockito.any(OutputStream.class), BDDMockito.anyBoolean());
+	}
+
+	@Test
+	public void testGetBundle() throws Exception {
+		BDDMockito.when(bundleService.getCurrentSnapshot()).thenReturn(SNAPSHOT);
+
+		MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/bundles/blueprint")
+				.header("Authorization", AUTHORIZATION))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+		MvcResult dispatched = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string("ETag", "\"abc\""))
+				.andExpect(MockMvcResultMatchers.content()
+						.contentType(BundleController.BUNDLE_CONTENT_TYPE)).andReturn();
+		Assert.assertEquals("abc", getStreamedContent(dispatched));
+	}
+
+	@Test
+	public void testGetBundleData() throws Exception {
+		BDDMockito.when(bundleService.getCurrentSnapshot()).thenReturn(SNAPSHOT);
+
+		MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/bundles/blueprint")
+				.param("data", "true").header("Authorization", AUTHORIZATION)
+				.header("If-None-Match", "\"abc\""))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+		mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string("ETag", "\"abc-data\""));
+		BDDMockito.verify(bundleService, Mockito.timeout(5000)).exportBundle(
+				BDDMockito.eq(SNAPSHOT), BDDMockito.any(OutputStream.class), BDDMockito.eq(true));
+	}
+
+	@Test
+	public void testGetBundleNotModified() throws Exception {
+		BDDMockito.when(bundleService.getCurrentSnapshot()).thenReturn(SNAPSHOT);
+
+		MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/bundles/blueprint")
+				.header("Authorization", AUTHORIZATION)
+				.header("If-None-Match", "\"foo\", W/\"abc\""))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+		mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+				.andExpect(MockMvcResultMatchers.status().isNotModified())
+				.andExpect(MockMvcResultMatchers.header().string("ETag", "\"abc\""));
+		BDDMockito.verify(bundleService, Mockito.never()).exportBundle(
+				BDDMockito.any(BundleSnapshot.class), BDDMockito.any(OutputStream.class),
+				BDDMockito.anyBoolean());
+	}
+
+	@Test
+	public void testGetBundleLongPollTimeout() throws Exception {
+		BDDMockito.when(bundleService.getCurrentSnapshot()).thenReturn(SNAPSHOT);
+
+		MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/bundles/blueprint")
+				.header("Authorization", AUTHORIZATION).header("If-None-Match", "\"abc\"")
+				.header("Prefer", "wait=30"))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+		Assert.assertEquals(30000L, result.getRequest().getAsyncContext().getTimeout());
+		MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+		for (AsyncListener listener : asyncContext.getListeners()) {
+			listener.onTimeout(null);
+		}
+		mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+				.andExpect(MockMvcResultMatchers.status().isNotModified())
+				.andExpect(MockMvcResultMatchers.header().string("ETag", "\"abc\""));
+	}
+
+	@Test
+	public void testGetBundleLongPollUpdated() throws Exception {
+		BDDMockito.when(bundleService.getCurrentSnapshot())
+				.thenReturn(SNAPSHOT, createSnapshot("def"));
+
+		MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/bundles/blueprint")
+				.header("Authorization", AUTHORIZATION).header("If-None-Match", "\"abc\"")
+				.header("Prefer", "wait=30"))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+		mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string("ETag", "\"def\""));
+	}
+
+	@Test
+	public void testGetBundleUnauthorized() throws Exception {
+		MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/bundles/blueprint")
+				.header("Authorization", "Bearer wrong"))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+		mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+				.andExpect(MockMvcResultMatchers.status().isUnauthorized())
+				.andExpect(MockMvcResultMatchers.header()
+						.string("WWW-Authenticate", "Bearer realm=\"blueprint\""));
+		BDDMockito.verify(bundleService, Mockito.never()).getCurrentSnapshot();
+	}
+
+	@Test
+	public void testGetBundlePolicyException() throws Exception {
+		BDDMockito.when(bundleService.getCurrentSnapshot())
+				.thenThrow(new PolicyException("Error"));
+
+		MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/bundles/blueprint")
+				.header("Authorization", AUTHORIZATION))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+		MvcResult dispatched = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+				.andExpect(MockMvcResultMatchers.status().isServiceUnavailable()).andReturn();
+		Assert.assertEquals("Error", getStreamedContent(dispatched));
+	}
+
+	@Test
+	public void testGetBundleDisabled() throws Exception {
+		BundleController controller = new BundleController(bundleService, "", 60);
+		DeferredResult<ResponseEntity<StreamingResponseBody>> result = controller
+				.getBundle(AUTHORIZATION, null, null, false);
+		Assert.assertEquals(HttpStatus.NOT_FOUND,
+				((ResponseEntity<?>) result.getResult()).getStatusCode());
+	}
+
+	@Test
+	public void testGetBundleInvalidation() throws Exception {
+		BDDMockito.when(bundleService.getCurrentSnapshot()).thenReturn(SNAPSHOT);
+		BundleController controller = new BundleController(bundleService, "secret", 60);
+		ArgumentCaptor<Runnable> listenerCaptor = ArgumentCaptor.forClass(Runnable.class);
+		BDDMockito.verify(bundleService).addInvalidationListener(listenerCaptor.capture());
+
+		DeferredResult<ResponseEntity<StreamingResponseBody>> result = controller
+				.getBundle(AUTHORIZATION, "\"abc\"", "wait=60", false);
+		Mockito.verify(bundleService, Mockito.timeout(5000).times(2)).getCurrentSnapshot();
+		Assert.assertFalse(result.hasResult());
+
+		List<String> threads = new CopyOnWriteArrayList<>();
+		BDDMockito.when(bundleService.getCurrentSnapshot()).then(invocation -> {
+			threads.add(Thread.currentThread().getName());
+			return createSnapshot("def");
+		});
+		listenerCaptor.getValue().run();
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!result.hasResult() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		ResponseEntity<?> response = (ResponseEntity<?>) result.getResult();
+		Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+		Assert.assertEquals("\"def\"", response.getHeaders().getETag());
+		// The bundle is generated on the poll thread of the controller, not the caller's
+		Assert.assertFalse(threads.isEmpty());
+		Assert.assertTrue(threads.stream().allMatch(name -> name.startsWith("bundle-poll-")));
+		controller.shutdown();
+	}
+
+	private static String getStreamedContent(MvcResult dispatched) throws Exception {
+		// Streamed bodies are written asynchronously after the deferred result is dispatched
+		if (dispatched.getRequest().isAsyncStarted()) {
+			dispatched.getAsyncResult();
+		}
+		return dispatched.getResponse().getContentAsString();
+	}
+
+	private static BundleSnapshot createSnapshot(String revision) {
+		return new BundleSnapshot(Collections.emptyMap(), Collections.emptyMap(),
+				Collections.emptyMap(), revision);
+	}
+}
@@ -2,7 +2,10 @@ package com.tracelink.prodsec.blueprint.app.controller;
 
 import com.tracelink.prodsec.blueprint.app.exception.PolicyException;
 import com.tracelink.prodsec.blueprint.app.policy.PolicyDto;
+import com.tracelink.prodsec.blueprint.app.service.BundleService;
 import com.tracelink.prodsec.blueprint.app.service.PolicyService;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -30,6 +33,8 @@ public class ExportControllerTest {
 	private MockMvc mockMvc;
 	@MockBean
 	private PolicyService policyService;
+	@MockBean
+	private BundleService bundleService;
 
 	@Test
 	@WithMockUser
@@ -98,4 +103,111 @@ public class ExportControllerTest {
 		BDDMockito.verify(policyService).exportPolicy(BDDMockito.any(PolicyDto.class));
 	}
 
+	@Test
+	@WithMockUser
+	public void testDownloadPolicy() throws Exception {
+		BDDMockito.willAnswer(invocation -> {
+			invocation.getArgument(1, OutputStream.class)
+					.write("default allow = false".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).given(policyService)
+				.exportPolicy(BDDMockito.any(PolicyDto.class), BDDMockito.any(OutputStream.class));
+
+		mockMvc.perform(MockMvcRequestBuilders.post("/export/download")
+				.param("name", "My Policy")
+				.param("policyType", "foo")
+				.param("clauses[0].statements[0].baseStatementName", "bar")
+				.with(SecurityMockMvcRequestPostProcessors.csrf()))
+				.andExpect(MockMvcResultMatchers.status().is2xxSuccessful())
+				.andExpect(MockMvcResultMatchers.header()
+						.string("Content-Disposition", "attachment; filename=\"my_policy.rego\""))
+				.andExpect(MockMvcResultMatchers.content().string("default allow = false"));
+
+		BDDMockito.verify(policyService)
+				.exportPolicy(BDDMockito.any(PolicyDto.class), BDDMockito.any(OutputStream.class));
+	}
+
+	@Test
+	@WithMockUser
+	public void testDownloadPolicyValidationErrors() throws Exception {
+		mockMvc.perform(MockMvcRequestBuilders.post("/export/download")
+				.param("clauses[0].statements[0].baseStatementName", "bar")
+				.with(SecurityMockMvcRequestPostProcessors.csrf()))
+				.andExpect(MockMvcResultMatchers.status().is3xxRedirection())
+				.andExpect(MockMvcResultMatchers.redirectedUrl("/?type=null"))
+				.andExpect(MockMvcResultMatchers.flash()
+						.attribute("failure", "The policy has validation errors"));
+
+		BDDMockito.verify(policyService, Mockito.times(0))
+				.exportPolicy(BDDMockito.any(PolicyDto.class), BDDMockito.any(OutputStream.class));
+	}
+
+	@Test
+	@WithMockUser
+	public void testDownloadPolicyException() throws Exception {
+		BDDMockito.willThrow(new PolicyException("Error")).given(policyService)
+				.exportPolicy(BDDMockito.any(PolicyDto.class), BDDMockito.any(OutputStream.class));
+
+		mockMvc.perform(MockMvcRequestBuilders.post("/export/download")
+				.param("policyType", "foo")
+				.param("clauses[0].statements[0].baseStatementName", "bar")
+				.with(SecurityMockMvcRequestPostProcessors.csrf()))
+				.andExpect(MockMvcResultMatchers.status().is3xxRedirection())
+				.andExpect(MockMvcResultMatchers.redirectedUrl("/?type=foo"))
+				.andExpect(MockMvcResultMatchers.header().doesNotExist("Content-Disposition"))
+				.andExpect(MockMvcResultMatchers.flash().attribute("failure", "Error"));
+	}
+
+	@Test
+	@WithMockUser
+	public void testDownloadBundle() throws Exception {
+		BDDMockito.willAnswer(invocation -> {
+			invocation.getArgument(0, OutputStream.class)
+					.write("bundle".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).given(bundleService).exportBundle(BDDMockito.any(OutputStream.class),
+				BDDMockito.anyBoolean());
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/export/bundle").param("data", "true"))
+				.andExpect(MockMvcResultMatchers.status().is2xxSuccessful())
+				.andExpect(MockMvcResultMatchers.content().contentType("application/gzip"))
+				.andExpect(MockMvcResultMatchers.header()
+						.string("Content-Disposition", "attachment; filename=\"bundle.tar.gz\""))
+				.andExpect(MockMvcResultMatchers.content().string("bundle"));
+
+		BDDMockito.verify(bundleService)
+				.exportBundle(BDDMockito.any(OutputStream.class), BDDMockito.eq(true));
+	}
+
+	@Test
+	@WithMockUser
+	public void testDownloadBundleException() throws Exception {
+		BDDMockito.willThrow(new PolicyException("Error")).given(bundleService)
+				.exportBundle(BDDMockito.any(OutputStream.class), BDDMockito.anyBoolean());
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/export/bundle"))
+				.andExpect(MockMvcResultMatchers.status().is3xxRedirection())
+				.andExpect(MockMvcResultMatchers.redirectedUrl("/policies"))
+				.andExpect(MockMvcResultMatchers.header().doesNotExist("Content-Disposition"))
+				.andExpect(MockMvcResultMatchers.flash().attribute("failure", "Error"));
+
+		BDDMockito.verify(bundleService)
+				.exportBundle(BDDMockito.any(OutputStream.class), BDDMockito.eq(false));
+	}
+
+	@Test
+	@WithMockUser
+	public void testDownloadDeltaBundle() throws Exception {
+		mockMvc.perform(MockMvcRequestBuilders.get("/export/bundle").param("since", "abc"))
+				.andExpect(MockMvcResultMatchers.status().is2xxSuccessful())
+				.andExpect(MockMvcResultMatchers.header()
+						.string("Content-Disposition",
+								"attachment; filename=\"bundle-delta.tar.gz\""));
+
+		BDDMockito.verify(bundleService).exportDeltaBundle(BDDMockito.eq("abc"),
+				BDDMockito.any(OutputStream.class), BDDMockito.eq(false));
+		BDDMockito.verify(bundleService, Mockito.times(0))
+				.exportBundle(BDDMockito.any(OutputStream.class), BDDMockito.anyBoolean());
+	}
+
 }
@@ -0,0 +1,462 @@
+package com.tracelink.prodsec.blueprint.app.service;
+
+import com.tracelink.prodsec.blueprint.app.bundle.BundleRevisionEntity;
+import com.tracelink.prodsec.blueprint.app.bundle.BundleSnapshot;
+import com.tracelink.prodsec.blueprint.app.exception.PolicyException;
+import com.tracelink.prodsec.blueprint.app.repository.BundleRevisionRepository;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.BDDMockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+public class BundleServiceTest {
+
+	@MockBean
+	private PolicyService policyService;
+	@MockBean
+	private BundleRevisionRepository bundleRevisionRepository;
+
+	private BundleService bundleService;
+	private Map<String, BundleRevisionEntity> revisions;
+
+	@Before
+	public void setup() {
+		bundleService = new BundleService(policyService, bundleRevisionRepository, 100);
+		revisions = new HashMap<>();
+		BDDMockito.when(bundleRevisionRepository.findByRevision(BDDMockito.anyString()))
+				.then(invocation -> revisions.get(invocation.getArgument(0, String.class)));
+		BDDMockito.when(bundleRevisionRepository.saveAndFlush(BDDMockito.any()))
+				.then(invocation -> {
+					BundleRevisionEntity revision = invocation.getArgument(0);
+					revisions.put(revision.getRevision(), revision);
+					return revision;
+				});
+	}
+
+	@Test
+	public void testExportBundle() throws Exception {
+		BaseStatementFunction dependency = createFunction("helper", "1 == 1");
+		BaseStatementFunction function = createFunction("function_name", "helper");
+		function.setDependencies(Collections.singleton(dependency));
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(Arrays.asList(
+				createPolicy("First Policy", function), createPolicy("Second", function)));
+
+		Map<String, String> entries = exportBundle(false);
+		Assert.assertEquals(Arrays.asList("blueprint/policies/first_policy/policy.rego",
+				"blueprint/policies/second/policy.rego", "blueprint/lib/lib.rego", ".manifest"),
+				Arrays.asList(entries.keySet().toArray()));
+		Assert.assertEquals("package blueprint.policies.first_policy\n\n"
+						+ "import data.blueprint.lib.function_name\n\n"
+						+ "default allow = false\n\nallow {\n\tfunction_name\n}\n\n",
+				entries.get("blueprint/policies/first_policy/policy.rego"));
+		Assert.assertEquals("package blueprint.lib\n\nfunction_name {\n\thelper\n}\n\n"
+						+ "helper {\n\t1 == 1\n}\n\n",
+				entries.get("blueprint/lib/lib.rego"));
+		Assert.assertTrue(entries.get(".manifest")
+				.matches("\\{\"revision\":\"[0-9a-f]{64}\",\"roots\":\\[\"blueprint\"]}"));
+	}
+
+	@Test
+	public void testExportBundleData() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(
+				Collections.singletonList(createPolicy("Policy", createFunction("fn", "x"))));
+
+		Map<String, String> entries = exportBundle(true);
+		Assert.assertEquals(
+				"{\"policies\":{\"policy\":{\"name\":\"Policy\",\"author\":\"user\",\"policyType\":\"System\"}}}",
+				entries.get("blueprint/metadata/data.json"));
+		// The revision only depends on the policies, not on the optional data document
+		Assert.assertEquals(exportBundle(false).get(".manifest"), entries.get(".manifest"));
+	}
+
+	@Test
+	public void testExportBundleDeterministic() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(
+				Collections.singletonList(createPolicy("Policy", createFunction("fn", "x"))));
+
+		ByteArrayOutputStream first = new ByteArrayOutputStream();
+		bundleService.exportBundle(first, true);
+		ByteArrayOutputStream second = new ByteArrayOutputStream();
+		bundleService.exportBundle(second, true);
+		Assert.assertArrayEquals(first.toByteArray(), second.toByteArray());
+	}
+
+	@Test
+	public void testExportBundleNoPolicies() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(Collections.emptyList());
+
+		Map<String, String> entries = exportBundle(false);
+		Assert.assertEquals(Collections.singleton(".manifest"), entries.keySet());
+	}
+
+	@Test
+	public void testExportBundleInvalidPolicy() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies())
+				.thenThrow(new PolicyException("The policy 'Policy' is invalid."));
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try {
+			bundleService.exportBundle(outputStream, false);
+			Assert.fail();
+		} catch (PolicyException e) {
+			Assert.assertEquals("The policy 'Policy' is invalid.", e.getMessage());
+		}
+		Assert.assertEquals(0, outputStream.size());
+	}
+
+	@Test
+	public void testExportBundleSamePackage() throws Exception {
+		BaseStatementFunction function = createFunction("fn", "x");
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(Arrays.asList(
+				createPolicy("Foo Bar", function), createPolicy("Foo  Bar", function)));
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try {
+			bundleService.exportBundle(outputStream, false);
+			Assert.fail();
+		} catch (PolicyException e) {
+			Assert.assertEquals(
+					"Cannot bundle the policies 'Foo Bar' and 'Foo  Bar' into the same package",
+					e.getMessage());
+		}
+		Assert.assertEquals(0, outputStream.size());
+	}
+
+	@Test
+	public void testExportBundleConflictingFunctions() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(Arrays.asList(
+				createPolicy("First", createFunction("fn", "x")),
+				createPolicy("Second", createFunction("fn", "y"))));
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try {
+			bundleService.exportBundle(outputStream, false);
+			Assert.fail();
+		} catch (PolicyException e) {
+			Assert.assertEquals(
+					"Cannot bundle policies that use different definitions of the function 'fn'",
+					e.getMessage());
+		}
+		Assert.assertEquals(0, outputStream.size());
+	}
+
+	@Test
+	public void testExportBundleSameFunctionDifferentVersions() throws Exception {
+		BaseStatementFunction first = createFunction("fn", "x");
+		BaseStatementFunction second = createFunction("fn", "x");
+		second.setVersion(2);
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(
+				Arrays.asList(createPolicy("First", first), createPolicy("Second", second)));
+
+		Map<String, String> entries = exportBundle(false);
+		Assert.assertEquals("package blueprint.lib\n\nfn {\n\tx\n}\n\n",
+				entries.get("blueprint/lib/lib.rego"));
+	}
+
+	@Test
+	public void testExportBundleRecordsRevision() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(
+				Collections.singletonList(createPolicy("Policy", createFunction("fn", "x"))));
+
+		String manifest = exportBundle(false).get(".manifest");
+		Assert.assertEquals(1, revisions.size());
+		BundleRevisionEntity revision = revisions.values().iterator().next();
+		Assert.assertTrue(manifest.contains(revision.getRevision()));
+		Assert.assertEquals(Collections.singleton("policy"),
+				revision.getPolicyHashes().keySet());
+		Assert.assertNotNull(revision.getCreated());
+
+		// Exporting the same policies again does not record a new revision
+		exportBundle(false);
+		BDDMockito.verify(bundleRevisionRepository).saveAndFlush(BDDMockito.any());
+	}
+
+	@Test
+	public void testExportBundlePrunesRevisions() throws Exception {
+		bundleService = new BundleService(policyService, bundleRevisionRepository, 2);
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(
+				Collections.singletonList(createPolicy("Policy", createFunction("fn", "x"))));
+		BDDMockito.when(bundleRevisionRepository.findIdsNewestFirst(PageRequest.of(1, 1)))
+				.thenReturn(Collections.singletonList(7L));
+
+		String revision = getRevision(exportBundle(false));
+		BDDMockito.verify(bundleRevisionRepository)
+				.deleteByIdLessThanAndRevisionNot(7L, revision);
+
+		// Revisions are only pruned when a new revision is recorded
+		exportBundle(false);
+		BDDMockito.verify(bundleRevisionRepository).deleteByIdLessThanAndRevisionNot(
+				BDDMockito.anyLong(), BDDMockito.anyString());
+	}
+
+	@Test
+	public void testExportBundleWithoutRevisionsToPrune() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(
+				Collections.singletonList(createPolicy("Policy", createFunction("fn", "x"))));
+		exportBundle(false);
+		BDDMockito.verify(bundleRevisionRepository, BDDMockito.never())
+				.deleteByIdLessThanAndRevisionNot(BDDMockito.anyLong(), BDDMockito.anyString());
+	}
+
+	@Test
+	public void testInvalidMaxRevisions() {
+		try {
+			new BundleService(policyService, bundleRevisionRepository, 0);
+			Assert.fail("Exception should have been thrown");
+		} catch (IllegalArgumentException e) {
+			Assert.assertEquals("The number of bundle revisions must be positive",
+					e.getMessage());
+		}
+	}
+
+	@Test
+	public void testExportBundleContentHashes() throws Exception {
+		BaseStatementFunction dependency = createFunction("helper", "1 == 1");
+		BaseStatementFunction function = createFunction("fn", "helper");
+		function.setDependencies(Collections.singleton(dependency));
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(Arrays.asList(
+				createPolicy("First", function), createPolicy("Second", createFunction("other", "x"))));
+		exportBundle(false);
+		Map<String, String> hashes = getLatestRevision().getPolicyHashes();
+
+		// Changing a dependency only changes the hashes of the policies that depend on it
+		dependency.setExpression("2 == 2");
+		exportBundle(false);
+		Map<String, String> updatedHashes = getLatestRevision().getPolicyHashes();
+		Assert.assertNotEquals(hashes.get("first"), updatedHashes.get("first"));
+		Assert.assertEquals(hashes.get("second"), updatedHashes.get("second"));
+	}
+
+	@Test
+	public void testExportDeltaBundle() throws Exception {
+		BaseStatementFunction dependency = createFunction("helper", "1 == 1");
+		BaseStatementFunction function = createFunction("fn", "helper");
+		function.setDependencies(Collections.singleton(dependency));
+		Policy first = createPolicy("First", function);
+		Policy second = createPolicy("Second", createFunction("other", "x"));
+		Policy third = createPolicy("Third", createFunction("other", "x"));
+		BDDMockito.when(policyService.getSavedPolicies())
+				.thenReturn(Arrays.asList(first, second, third));
+		String baseRevision = getRevision(exportBundle(false));
+
+		dependency.setExpression("2 == 2");
+		Policy fourth = createPolicy("Fourth", createFunction("other", "x"));
+		BDDMockito.when(policyService.getSavedPolicies())
+				.thenReturn(Arrays.asList(first, fourth, second));
+		Map<String, String> entries = exportDeltaBundle(baseRevision, true);
+		Assert.assertEquals(Arrays.asList("blueprint/policies/first/policy.rego",
+				"blueprint/policies/fourth/policy.rego", "blueprint/lib/lib.rego",
+				"blueprint/metadata/data.json", ".manifest"),
+				Arrays.asList(entries.keySet().toArray()));
+		Assert.assertEquals("package blueprint.lib\n\nfn {\n\thelper\n}\n\n"
+						+ "helper {\n\t2 == 2\n}\n\nother {\n\tx\n}\n\n",
+				entries.get("blueprint/lib/lib.rego"));
+		Assert.assertFalse(entries.get("blueprint/metadata/data.json").contains("second"));
+		// The delta cannot be loaded as a full bundle, so it has no revision or roots of its own
+		String revision = getRevision(exportBundle(false));
+		Assert.assertEquals("{\"roots\":[],\"metadata\":{\"base_revision\":\"" + baseRevision
+				+ "\",\"revision\":\"" + revision + "\",\"removed\":[\"third\"]}}",
+				entries.get(".manifest"));
+	}
+
+	@Test
+	public void testExportDeltaBundleUnchanged() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(
+				Collections.singletonList(createPolicy("Policy", createFunction("fn", "x"))));
+		String baseRevision = getRevision(exportBundle(false));
+
+		Map<String, String> entries = exportDeltaBundle(baseRevision, false);
+		// The library is kept, so that OPA rejects the delta instead of loading an empty bundle
+		Assert.assertEquals(Arrays.asList("blueprint/lib/lib.rego", ".manifest"),
+				Arrays.asList(entries.keySet().toArray()));
+		Assert.assertEquals("{\"roots\":[],\"metadata\":{\"base_revision\":\"" + baseRevision
+				+ "\",\"revision\":\"" + baseRevision + "\",\"removed\":[]}}",
+				entries.get(".manifest"));
+	}
+
+	@Test
+	public void testExportDeltaBundleUnknownRevision() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try {
+			bundleService.exportDeltaBundle("foo", outputStream, false);
+			Assert.fail();
+		} catch (PolicyException e) {
+			Assert.assertEquals("There is no bundle with the revision 'foo'. Only the last 100"
+					+ " revisions are kept, so older bundles must be replaced by a full bundle",
+					e.getMessage());
+		}
+		Assert.assertEquals(0, outputStream.size());
+		BDDMockito.verify(policyService, BDDMockito.never()).getSavedPolicies();
+	}
+
+	@Test
+	public void testGetCurrentSnapshotCached() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(
+				Collections.singletonList(createPolicy("Policy", createFunction("fn", "x"))));
+
+		BundleSnapshot snapshot = bundleService.getCurrentSnapshot();
+		Assert.assertSame(snapshot, bundleService.getCurrentSnapshot());
+		BDDMockito.verify(policyService).getSavedPolicies();
+		Assert.assertTrue(revisions.containsKey(snapshot.getRevision()));
+		Assert.assertEquals(Collections.singleton("policy"), snapshot.getPolicies().keySet());
+	}
+
+	@Test
+	public void testGetCurrentSnapshotInvalidated() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(
+				Collections.singletonList(createPolicy("Policy", createFunction("fn", "x"))));
+		ArgumentCaptor<Runnable> listenerCaptor = ArgumentCaptor.forClass(Runnable.class);
+		BDDMockito.verify(policyService).addPolicyChangeListener(listenerCaptor.capture());
+		Runnable invalidationListener = BDDMockito.mock(Runnable.class);
+		bundleService.addInvalidationListener(invalidationListener);
+		BundleSnapshot snapshot = bundleService.getCurrentSnapshot();
+
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(
+				Collections.singletonList(createPolicy("Policy", createFunction("fn", "y"))));
+		listenerCaptor.getValue().run();
+		BDDMockito.verify(invalidationListener).run();
+		Assert.assertNotEquals(snapshot.getRevision(),
+				bundleService.getCurrentSnapshot().getRevision());
+	}
+
+	@Test
+	public void testGetCurrentSnapshotKeepsLastValid() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(
+				Collections.singletonList(createPolicy("Policy", createFunction("fn", "x"))));
+		BundleSnapshot snapshot = bundleService.getCurrentSnapshot();
+
+		BDDMockito.when(policyService.getSavedPolicies())
+				.thenThrow(new PolicyException("The policy 'Policy' is invalid."));
+		bundleService.invalidate();
+		Assert.assertSame(snapshot, bundleService.getCurrentSnapshot());
+		// The failed update is not retried until the policies change again
+		Assert.assertSame(snapshot, bundleService.getCurrentSnapshot());
+		BDDMockito.verify(policyService, BDDMockito.times(2)).getSavedPolicies();
+	}
+
+	@Test
+	public void testGetCurrentSnapshotInvalid() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies())
+				.thenThrow(new PolicyException("The policy 'Policy' is invalid."));
+		for (int i = 0; i < 2; i++) {
+			try {
+				bundleService.getCurrentSnapshot();
+				Assert.fail();
+			} catch (PolicyException e) {
+				Assert.assertEquals("The policy 'Policy' is invalid.", e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testExportBundleSnapshot() throws Exception {
+		BDDMockito.when(policyService.getSavedPolicies()).thenReturn(
+				Collections.singletonList(createPolicy("Policy", createFunction("fn", "x"))));
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		bundleService.exportBundle(bundleService.getCurrentSnapshot(), outputStream, false);
+		Assert.assertEquals(exportBundle(false), readEntries(outputStream));
+	}
+
+	@Test
+	public void testGetPackageName() {
+		Assert.assertEquals("my_policy", BundleService.getPackageName(" My Policy "));
+	}
+
+	private Map<String, String> exportBundle(boolean includeData)
+			throws PolicyException, IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		bundleService.exportBundle(outputStream, includeData);
+		return readEntries(outputStream);
+	}
+
+	private Map<String, String> exportDeltaBundle(String baseRevision, boolean includeData)
+			throws PolicyException, IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		bundleService.exportDeltaBundle(baseRevision, outputStream, includeData);
+		return readEntries(outputStream);
+	}
+
+	private BundleRevisionEntity getLatestRevision() {
+		ArgumentCaptor<BundleRevisionEntity> revisionCaptor = ArgumentCaptor
+				.forClass(BundleRevisionEntity.class);
+		BDDMockito.verify(bundleRevisionRepository, BDDMockito.atLeastOnce())
+				.saveAndFlush(revisionCaptor.capture());
+		List<BundleRevisionEntity> savedRevisions = revisionCaptor.getAllValues();
+		return savedRevisions.get(savedRevisions.size() - 1);
+	}
+
+	private static String getRevision(Map<String, String> entries) {
+		Matcher matcher = Pattern.compile("\"revision\":\"([0-9a-f]{64})\"")
+				.matcher(entries.get(".manifest"));
+		Assert.assertTrue(matcher.find());
+		return matcher.group(1);
+	}
+
+	private static Map<String, String> readEntries(ByteArrayOutputStream outputStream)
+			throws IOException {
+		Map<String, String> entries = new LinkedHashMap<>();
+		try (TarArchiveInputStream tar = new TarArchiveInputStream(new GzipCompressorInputStream(
+				new ByteArrayInputStream(outputStream.toByteArray())))) {
+			TarArchiveEntry entry;
+			while ((entry = tar.getNextTarEntry()) != null) {
+				Assert.assertEquals(0L, entry.getModTime().getTime());
+				entries.put(entry.getName(), new String(tar.readAllBytes(), StandardCharsets.UTF_8));
+			}
+		}
+		return entries;
+	}
+
+	private static Policy createPolicy(String name, BaseStatementFunction function) {
+		BaseStatement baseStatement = new BaseStatement();
+		baseStatement.setName("Base Statement");
+		baseStatement.setFunction(function);
+		baseStatement.setArguments(Collections.emptyList());
+		ConfiguredStatement statement = new ConfiguredStatement();
+		statement.setBaseStatement(baseStatement);
+		statement.setArgumentValues(Collections.emptyList());
+		PolicyClause clause = new PolicyClause();
+		clause.setStatements(Collections.singletonList(statement));
+		Policy policy = new Policy();
+		policy.setName(name);
+		policy.setAuthor("user");
+		policy.setPolicyType("System");
+		policy.setClauses(Collections.singletonList(clause));
+		return policy;
+	}
+
+	private static BaseStatementFunction createFunction(String name, String expression) {
+		BaseStatementFunction function = new BaseStatementFunction();
+		function.setName(name);
+		function.setVersion(1);
+		function.setExpression(expression);
+		function.setParameters(Collections.emptyList());
+		function.setDependencies(Collections.emptySet());
+		return function;
+	}
+}
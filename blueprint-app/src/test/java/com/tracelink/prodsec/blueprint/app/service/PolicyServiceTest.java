@@ -12,7 +12,12 @@ import com.tracelink.prodsec.blueprint.app.policy.PolicyTypeEntity;
 import com.tracelink.prodsec.blueprint.app.repository.PolicyRepository;
 import com.tracelink.prodsec.blueprint.app.statement.BaseStatementEntity;
 import com.tracelink.prodsec.blueprint.app.statement.BaseStatementFunctionEntity;
+import com.tracelink.prodsec.blueprint.core.PolicyBuilder;
+import com.tracelink.prodsec.blueprint.core.compile.CompiledPolicyCache;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
 import com.tracelink.prodsec.blueprint.core.statement.PolicyElementState;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -25,6 +30,7 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.BDDMockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit4.SpringRunner;
 
 @RunWith(SpringRunner.class)
@@ -132,6 +138,51 @@ public class PolicyServiceTest {
 
 	}
 
+	@Test
+	public void testExportPolicyCached() throws Exception {
+		PolicyDto policyDto = createValidPolicyDto();
+		BaseStatementEntity baseStatement = createValidBaseStatementEntity();
+
+		BDDMockito.when(policyTypeService.getPolicyType("System")).thenReturn(policyType);
+		BDDMockito.when(baseStatementService.getBaseStatement("Base Statement"))
+				.thenReturn(baseStatement);
+
+		CompiledPolicyCache cache = PolicyBuilder.getInstance().getCompiledPolicyCache();
+		String rego = policyService.exportPolicy(policyDto);
+		long hits = cache.getHitCount();
+		Assert.assertEquals(rego, policyService.exportPolicy(policyDto));
+		Assert.assertEquals(hits + 1, cache.getHitCount());
+	}
+
+	@Test
+	public void testExportPolicyOutputStream() throws Exception {
+		PolicyDto policyDto = createValidPolicyDto();
+		BaseStatementEntity baseStatement = createValidBaseStatementEntity();
+
+		BDDMockito.when(policyTypeService.getPolicyType("System")).thenReturn(policyType);
+		BDDMockito.when(baseStatementService.getBaseStatement("Base Statement"))
+				.thenReturn(baseStatement);
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		policyService.exportPolicy(policyDto, outputStream);
+		Assert.assertEquals(
+				"package blueprint\n\ndefault allow = false\n\nallow {\n\tnot function_name\n}\n\nfunction_name {\n\t1 == 1\n}\n\n",
+				outputStream.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testExportPolicyOutputStreamInvalid() throws Exception {
+		PolicyDto policyDto = new PolicyDto();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try {
+			policyService.exportPolicy(policyDto, outputStream);
+			Assert.fail();
+		} catch (PolicyException e) {
+			Assert.assertTrue(e.getMessage().contains("Policy validation failed: "));
+		}
+		Assert.assertEquals(0, outputStream.size());
+	}
+
 	@Test
 	public void testExportPolicyNegationNotAllowed() throws Exception {
 		PolicyDto policyDto = createValidPolicyDto();
@@ -165,6 +216,30 @@ public class PolicyServiceTest {
 		Assert.assertTrue(result.containsKey("Foo"));
 	}
 
+	@Test
+	public void testGetSavedPolicies() throws Exception {
+		BDDMockito.when(policyRepository.findAll(Sort.by("name")))
+				.thenReturn(Collections.singletonList(createValidPolicyEntity("Name")));
+
+		List<Policy> policies = policyService.getSavedPolicies();
+		Assert.assertEquals(1, policies.size());
+		Assert.assertEquals("Name", policies.get(0).getName());
+		Assert.assertEquals("System", policies.get(0).getPolicyType());
+	}
+
+	@Test
+	public void testGetSavedPoliciesInvalid() {
+		BDDMockito.when(policyRepository.findAll(Sort.by("name")))
+				.thenReturn(Collections.singletonList(createValidPolicyEntity("invalid name")));
+		try {
+			policyService.getSavedPolicies();
+			Assert.fail();
+		} catch (PolicyException e) {
+			Assert.assertTrue(
+					e.getMessage().startsWith("The policy 'invalid name' is invalid. "));
+		}
+	}
+
 	@Test
 	public void testGetPolicyByIdNotFound() throws Exception {
 		PolicyEntity policy = new PolicyEntity();
@@ -244,6 +319,18 @@ public class PolicyServiceTest {
 		Assert.assertEquals("user", policyCaptor.getValue().getAuthor());
 	}
 
+	@Test
+	public void testSavePolicyNotifiesListeners() throws Exception {
+		Runnable listener = BDDMockito.mock(Runnable.class);
+		policyService.addPolicyChangeListener(listener);
+		BDDMockito.when(policyTypeService.getPolicyType("System")).thenReturn(policyType);
+		BDDMockito.when(baseStatementService.getBaseStatement("Base Statement"))
+				.thenReturn(createValidBaseStatementEntity());
+
+		policyService.savePolicy(createValidPolicyDto());
+		BDDMockito.verify(listener).run();
+	}
+
 	@Test
 	public void testSavePolicyExisting() throws Exception {
 		BaseStatementEntity baseStatement = createValidBaseStatementEntity();
@@ -297,6 +384,23 @@ public class PolicyServiceTest {
 		BDDMockito.verify(policyRepository).flush();
 	}
 
+	@Test
+	public void testDeletePolicyNotifiesListeners() throws Exception {
+		Runnable listener = BDDMockito.mock(Runnable.class);
+		BDDMockito.willThrow(new IllegalStateException()).given(listener).run();
+		Runnable otherListener = BDDMockito.mock(Runnable.class);
+		policyService.addPolicyChangeListener(listener);
+		policyService.addPolicyChangeListener(otherListener);
+		PolicyEntity policy = new PolicyEntity();
+		policy.setAuthor("user");
+		BDDMockito.when(policyRepository.findById(1L)).thenReturn(Optional.of(policy));
+
+		// A failing listener does not fail the delete or stop other listeners
+		Assert.assertEquals(policy, policyService.deletePolicy(1L, "user"));
+		BDDMockito.verify(listener).run();
+		BDDMockito.verify(otherListener).run();
+	}
+
 	@Test
 	public void testGetUpdatedBaseStatements() {
 		PolicyEntity policy = new PolicyEntity();
@@ -334,6 +438,20 @@ public class PolicyServiceTest {
 		return policy;
 	}
 
+	private PolicyEntity createValidPolicyEntity(String name) {
+		ConfiguredStatementEntity statement = new ConfiguredStatementEntity();
+		statement.setBaseStatement(createValidBaseStatementEntity());
+		statement.setArgumentValues(Collections.emptyList());
+		PolicyClauseEntity clause = new PolicyClauseEntity();
+		clause.setStatements(Collections.singletonList(statement));
+		PolicyEntity policy = new PolicyEntity();
+		policy.setName(name);
+		policy.setAuthor("user");
+		policy.setPolicyType(policyType);
+		policy.setClauses(Collections.singletonList(clause));
+		return policy;
+	}
+
 	private BaseStatementEntity createValidBaseStatementEntity() {
 		PolicyTypeEntity policyType = new PolicyTypeEntity();
 		policyType.setName("System");
@@ -0,0 +1,94 @@
+package com.tracelink.prodsec.blueprint.benchmarks;
+
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.argument.ParsedArgument;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares validating and rendering large integer and number array arguments with the primitive
+ * array parsers against splitting the argument and parsing boxed items, as the argument types
+ * did before.
+ *
+ * @author csmith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArrayArgumentBenchmark {
+
+	@Param({"10000"})
+	private int items;
+
+	private String integers;
+	private String numbers;
+	private ArgumentType integerArrayType;
+	private ArgumentType numberArrayType;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42L);
+		integers = random.ints(items).mapToObj(String::valueOf)
+				.collect(Collectors.joining(", "));
+		numbers = random.doubles(items).map(d -> Math.round(d * 1e9) / 1e3)
+				.mapToObj(String::valueOf).collect(Collectors.joining(", "));
+		integerArrayType = ArgumentType.getTypeForName("integerArray");
+		numberArrayType = ArgumentType.getTypeForName("numberArray");
+	}
+
+	@Benchmark
+	public String integerArray() {
+		ParsedArgument argument = new ParsedArgument(integerArrayType, integers);
+		return argument.matches(true) ? argument.getRego() : null;
+	}
+
+	@Benchmark
+	public String integerArraySplit() {
+		List<Integer> parsed = Arrays.stream(integers.split(",")).map(String::trim)
+				.map(Integer::parseInt).collect(Collectors.toList());
+		if (parsed.size() != new HashSet<>(parsed).size()) {
+			return null;
+		}
+		List<Integer> rendered = Arrays.stream(integers.split(",")).map(String::trim)
+				.map(Integer::parseInt).collect(Collectors.toList());
+		return "[" + rendered.stream().map(String::valueOf).collect(Collectors.joining(", "))
+				+ "]";
+	}
+
+	@Benchmark
+	public String numberArray() {
+		ParsedArgument argument = new ParsedArgument(numberArrayType, numbers);
+		return argument.matches(true) ? argument.getRego() : null;
+	}
+
+	@Benchmark
+	public String numberArraySplit() {
+		List<Float> parsed = Arrays.stream(numbers.split(",")).map(String::trim)
+				.map(Float::parseFloat).collect(Collectors.toList());
+		if (parsed.size() != new HashSet<>(parsed).size()) {
+			return null;
+		}
+		List<Float> rendered = Arrays.stream(numbers.split(",")).map(String::trim)
+				.map(Float::parseFloat).collect(Collectors.toList());
+		return "[" + rendered.stream().map(String::valueOf).collect(Collectors.joining(", "))
+				+ "]";
+	}
+}
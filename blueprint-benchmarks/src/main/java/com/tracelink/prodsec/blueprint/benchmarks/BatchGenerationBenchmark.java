@@ -0,0 +1,66 @@
+package com.tracelink.prodsec.blueprint.benchmarks;
+
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.rego.RegoBatchGenerator;
+import com.tracelink.prodsec.blueprint.core.rego.RegoEmitter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares generating the Rego for many policies one at a time against the parallel
+ * {@link RegoBatchGenerator}.
+ *
+ * @author csmith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchGenerationBenchmark {
+
+	@Param({"10", "100"})
+	private int policies;
+
+	private List<Policy> batch;
+
+	@Setup
+	public void setup() {
+		batch = new ArrayList<>();
+		for (int i = 0; i < policies; i++) {
+			batch.add(BenchmarkPolicies.createPolicy(10, 10, i));
+		}
+	}
+
+	@Benchmark
+	public List<String> serial() throws IOException {
+		List<String> results = new ArrayList<>();
+		for (Policy policy : batch) {
+			StringWriter writer = new StringWriter();
+			RegoEmitter.getInstance().generate(policy, writer);
+			results.add(writer.toString());
+		}
+		return results;
+	}
+
+	@Benchmark
+	public List<String> batch() {
+		return new RegoBatchGenerator(null).generate(batch, ForkJoinPool.commonPool());
+	}
+}
@@ -0,0 +1,140 @@
+package com.tracelink.prodsec.blueprint.benchmarks;
+
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import com.tracelink.prodsec.blueprint.core.statement.PolicyElementState;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Builds deterministic, valid policies of a given size to run benchmarks against.
+ *
+ * @author csmith
+ */
+public final class BenchmarkPolicies {
+
+	private static final String POLICY_TYPE = "System";
+
+	private BenchmarkPolicies() {
+	}
+
+	/**
+	 * Create a policy with the given number of clauses, each with the given number of statements.
+	 * Statements are spread over a pool of functions with a shallow dependency chain, and use
+	 * scalar as well as array arguments.
+	 *
+	 * @param clauseCount    the number of clauses in the policy
+	 * @param statementCount the number of statements in each clause
+	 * @param seed           the seed used to pick functions and argument values
+	 * @return the generated policy
+	 */
+	public static Policy createPolicy(int clauseCount, int statementCount, long seed) {
+		Random random = new Random(seed);
+		List<BaseStatement> baseStatements = createBaseStatements(Math.max(4, statementCount));
+		List<PolicyClause> clauses = new ArrayList<>();
+		for (int i = 0; i < clauseCount; i++) {
+			List<ConfiguredStatement> statements = new ArrayList<>();
+			for (int j = 0; j < statementCount; j++) {
+				BaseStatement baseStatement = baseStatements
+						.get(random.nextInt(baseStatements.size()));
+				ConfiguredStatement statement = new ConfiguredStatement();
+				statement.setBaseStatement(copy(baseStatement));
+				statement.setNegated(random.nextBoolean());
+				statement.setArgumentValues(Arrays.asList(
+						"user" + random.nextInt(1000),
+						random.nextInt(100) + ", " + random.nextInt(100) + ", " + random
+								.nextInt(100)));
+				statements.add(statement);
+			}
+			PolicyClause clause = new PolicyClause();
+			clause.setStatements(statements);
+			clauses.add(clause);
+		}
+		Policy policy = new Policy();
+		policy.setName("benchmark");
+		policy.setAuthor("benchmark");
+		policy.setPolicyType(POLICY_TYPE);
+		policy.setClauses(clauses);
+		return policy;
+	}
+
+	private static List<BaseStatement> createBaseStatements(int count) {
+		List<BaseStatement> baseStatements = new ArrayList<>();
+		BaseStatementFunction previous = null;
+		for (int i = 0; i < count; i++) {
+			BaseStatementFunction function = new BaseStatementFunction();
+			function.setName("function_" + i);
+			function.setAuthor("benchmark");
+			function.setVersion(1);
+			function.setState(PolicyElementState.RELEASED);
+			function.setDescription("A benchmark function");
+			function.setPolicyTypes(Collections.singleton(POLICY_TYPE));
+			function.setParameters(Arrays.asList("name", "values"));
+			function.setExpression("input.name == name\n\tinput.value == values[_]");
+			Set<BaseStatementFunction> dependencies = new HashSet<>();
+			// Chain every other function to the previous one to exercise dependency resolution
+			if (previous != null && i % 2 == 1) {
+				dependencies.add(previous);
+			}
+			function.setDependencies(dependencies);
+			previous = function;
+
+			BaseStatementArgument name = new BaseStatementArgument();
+			name.setParameter("name");
+			name.setDescription("A name");
+			name.setType(ArgumentType.getTypeForName("string"));
+			BaseStatementArgument values = new BaseStatementArgument();
+			values.setParameter("values");
+			values.setDescription("Some values");
+			values.setType(ArgumentType.getTypeForName("integerArray"));
+			values.setArrayUnordered(true);
+
+			BaseStatement baseStatement = new BaseStatement();
+			baseStatement.setName("Base Statement " + i);
+			baseStatement.setAuthor("benchmark");
+			baseStatement.setVersion(1);
+			baseStatement.setState(PolicyElementState.RELEASED);
+			baseStatement.setDescription("A benchmark base statement");
+			baseStatement.setPolicyTypes(Collections.singleton(POLICY_TYPE));
+			baseStatement.setNegationAllowed(true);
+			baseStatement.setFunction(function);
+			baseStatement.setArguments(Arrays.asList(name, values));
+			baseStatements.add(baseStatement);
+		}
+		return baseStatements;
+	}
+
+	private static BaseStatement copy(BaseStatement baseStatement) {
+		// Each configured statement owns its base statement, as it does when converted from the app
+		BaseStatement copy = new BaseStatement();
+		copy.setName(baseStatement.getName());
+		copy.setAuthor(baseStatement.getAuthor());
+		copy.setVersion(baseStatement.getVersion());
+		copy.setState(baseStatement.getState());
+		copy.setDescription(baseStatement.getDescription());
+		copy.setPolicyTypes(baseStatement.getPolicyTypes());
+		copy.setNegationAllowed(baseStatement.isNegationAllowed());
+		copy.setFunction(baseStatement.getFunction());
+		List<BaseStatementArgument> arguments = new ArrayList<>();
+		for (BaseStatementArgument argument : baseStatement.getArguments()) {
+			BaseStatementArgument argumentCopy = new BaseStatementArgument();
+			argumentCopy.setParameter(argument.getParameter());
+			argumentCopy.setDescription(argument.getDescription());
+			argumentCopy.setType(argument.getType());
+			argumentCopy.setArrayUnordered(argument.isArrayUnordered());
+			arguments.add(argumentCopy);
+		}
+		copy.setArguments(arguments);
+		return copy;
+	}
+}
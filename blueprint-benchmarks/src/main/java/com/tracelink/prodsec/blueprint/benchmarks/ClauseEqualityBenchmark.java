@@ -0,0 +1,158 @@
+package com.tracelink.prodsec.blueprint.benchmarks;
+
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures equality and hashing of clauses whose statements allow large, unordered lists of apps,
+ * like the "Allow Apps At Stack Index" base statement. The two clauses compared contain the same
+ * apps in a different order. The baseline counts the items of each list on every comparison, as
+ * statements did before their items were kept as canonical multisets.
+ *
+ * @author csmith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClauseEqualityBenchmark {
+
+	@Param({"10", "100", "1000"})
+	private int apps;
+
+	@Param({"5"})
+	private int statements;
+
+	private PolicyClause clause;
+	private PolicyClause shuffledClause;
+
+	@Setup
+	public void setup() {
+		BaseStatement baseStatement = createBaseStatement();
+		Random random = new Random(42L);
+		List<ConfiguredStatement> clauseStatements = new ArrayList<>();
+		List<ConfiguredStatement> shuffledStatements = new ArrayList<>();
+		for (int i = 0; i < statements; i++) {
+			List<String> appNames = IntStream.range(0, apps).mapToObj(j -> "app-" + random.nextInt())
+					.collect(Collectors.toList());
+			clauseStatements.add(createStatement(baseStatement, appNames, i));
+			Collections.shuffle(appNames, random);
+			shuffledStatements.add(createStatement(baseStatement, appNames, i));
+		}
+		clause = new PolicyClause();
+		clause.setStatements(clauseStatements);
+		shuffledClause = new PolicyClause();
+		shuffledClause.setStatements(shuffledStatements);
+		if (!clause.equals(shuffledClause) || !countingEquals()) {
+			throw new IllegalStateException("Clauses with shuffled apps should be equal");
+		}
+	}
+
+	@Benchmark
+	public boolean equalsMultiset() {
+		return clause.equals(shuffledClause);
+	}
+
+	@Benchmark
+	public int hashCodeMultiset() {
+		return clause.hashCode() + shuffledClause.hashCode();
+	}
+
+	@Benchmark
+	public boolean equalsCountingMaps() {
+		return countingEquals();
+	}
+
+	@Benchmark
+	public int hashCodeCountingMaps() {
+		int hash = 0;
+		for (PolicyClause c : Arrays.asList(clause, shuffledClause)) {
+			for (ConfiguredStatement statement : c.getStatements()) {
+				hash += countItems(statement).hashCode();
+			}
+		}
+		return hash;
+	}
+
+	private boolean countingEquals() {
+		for (int i = 0; i < statements; i++) {
+			ConfiguredStatement statement = clause.getStatements().get(i);
+			ConfiguredStatement other = shuffledClause.getStatements().get(i);
+			if (!countItems(statement).equals(countItems(other)) || !Objects
+					.equals(statement.getArgumentValues().get(1),
+							other.getArgumentValues().get(1))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Map<?, Long> countItems(ConfiguredStatement statement) {
+		return ArgumentType.getTypeForName("stringArray")
+				.getArrayItems(statement.getArgumentValues().get(0)).stream()
+				.collect(Collectors.groupingBy(e -> e, Collectors.counting()));
+	}
+
+	private static ConfiguredStatement createStatement(BaseStatement baseStatement,
+			List<String> appNames, int index) {
+		ConfiguredStatement statement = new ConfiguredStatement();
+		statement.setBaseStatement(baseStatement);
+		statement.setArgumentValues(Arrays.asList(String.join(", ", appNames),
+				String.valueOf(index)));
+		return statement;
+	}
+
+	private static BaseStatement createBaseStatement() {
+		BaseStatementFunction function = new BaseStatementFunction();
+		function.setName("stack_has_entry_with_app_in");
+		function.setParameters(Arrays.asList("apps", "stack_entry_idx"));
+		function.setExpression("input.stack[stack_entry_idx].app == apps[_]");
+
+		BaseStatementArgument appsArgument = new BaseStatementArgument();
+		appsArgument.setParameter("apps");
+		appsArgument.setDescription("The set of apps to allow");
+		appsArgument.setType(ArgumentType.getTypeForName("stringArray"));
+		appsArgument.setArrayUnique(true);
+		appsArgument.setArrayUnordered(true);
+		BaseStatementArgument indexArgument = new BaseStatementArgument();
+		indexArgument.setParameter("stack_entry_idx");
+		indexArgument.setDescription("The call stack index");
+		indexArgument.setType(ArgumentType.getTypeForName("integer"));
+
+		BaseStatement baseStatement = new BaseStatement();
+		baseStatement.setName("Allow Apps At Stack Index");
+		baseStatement.setDescription("Allow calls from apps at a given call stack index");
+		baseStatement.setNegationAllowed(true);
+		baseStatement.setPolicyTypes(Collections.singleton("System"));
+		baseStatement.setFunction(function);
+		baseStatement.setArguments(Arrays.asList(appsArgument, indexArgument));
+		return baseStatement;
+	}
+}
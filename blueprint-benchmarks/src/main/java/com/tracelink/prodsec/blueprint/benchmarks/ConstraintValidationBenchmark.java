@@ -0,0 +1,75 @@
+package com.tracelink.prodsec.blueprint.benchmarks;
+
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.rulesets.constraints.CompiledConstraintValidator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares checking the Bean Validation constraints of the nodes visited by the constraint
+ * validation rule, i.e. a policy and the base statement and function of each of its statements,
+ * with the compiled constraints and with the reflective validator, as the rule did before.
+ *
+ * @author csmith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConstraintValidationBenchmark {
+
+	@Param({"10", "1000"})
+	private int clauses;
+
+	@Param({"5"})
+	private int statements;
+
+	private final CompiledConstraintValidator validator =
+			CompiledConstraintValidator.getInstance();
+	private List<Object> nodes;
+
+	@Setup
+	public void setup() {
+		Policy policy = BenchmarkPolicies.createPolicy(clauses, statements, 42L);
+		nodes = new ArrayList<>();
+		nodes.add(policy);
+		for (PolicyClause clause : policy.getClauses()) {
+			for (ConfiguredStatement statement : clause.getStatements()) {
+				nodes.add(statement.getBaseStatement());
+				nodes.add(statement.getBaseStatement().getFunction());
+			}
+		}
+	}
+
+	@Benchmark
+	public void validateCompiled(Blackhole blackhole) {
+		for (Object node : nodes) {
+			validator.validate(node, (property, message) -> blackhole.consume(message));
+		}
+	}
+
+	@Benchmark
+	public void validateReflectively(Blackhole blackhole) {
+		for (Object node : nodes) {
+			validator.validateReflectively(node,
+					(property, message) -> blackhole.consume(message));
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package com.tracelink.prodsec.blueprint.benchmarks;
+
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
+import com.tracelink.prodsec.blueprint.core.rulesets.logic.FalsifiabilityRule;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the falsifiability rule on policies with a growing number of distinct statements. The
+ * rule used to evaluate every combination of statement values, which no longer finishes beyond
+ * about 25 statements. The chain policy always evaluates to true, which is found by propagation
+ * alone, while the random policy has clauses of three random statements and a counterexample that
+ * must be searched for.
+ *
+ * @author csmith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FalsifiabilityBenchmark {
+
+	@Param({"10", "30", "100", "1000"})
+	private int variables;
+
+	@Param({"chain", "random"})
+	private String shape;
+
+	private Policy policy;
+	private FalsifiabilityRule rule;
+
+	@Setup
+	public void setup() {
+		BaseStatement baseStatement = createBaseStatement();
+		List<ConfiguredStatement> statements = new ArrayList<>();
+		for (int i = 0; i < variables; i++) {
+			ConfiguredStatement statement = new ConfiguredStatement();
+			statement.setBaseStatement(baseStatement);
+			statement.setArgumentValues(Collections.singletonList("app-" + i));
+			statements.add(statement);
+		}
+		List<PolicyClause> clauses = "chain".equals(shape) ? createChainClauses(statements)
+				: createRandomClauses(statements);
+		policy = new Policy();
+		policy.setName("Benchmark Policy");
+		policy.setPolicyType("System");
+		policy.setClauses(clauses);
+		rule = new FalsifiabilityRule();
+		if (check().hasViolations() != "chain".equals(shape)) {
+			throw new IllegalStateException("Only the chain policy should always be true");
+		}
+	}
+
+	@Benchmark
+	public PolicyBuilderReport check() {
+		return rule.visit(policy, new PolicyBuilderReport(policy));
+	}
+
+	// A1 OR (NOT A1 AND A2) OR ... OR (NOT An-1 AND An) OR NOT An
+	private static List<PolicyClause> createChainClauses(List<ConfiguredStatement> statements) {
+		List<PolicyClause> clauses = new ArrayList<>();
+		clauses.add(createClause(negate(statements.get(0), false)));
+		for (int i = 1; i < statements.size(); i++) {
+			clauses.add(createClause(negate(statements.get(i - 1), true),
+					negate(statements.get(i), false)));
+		}
+		clauses.add(createClause(negate(statements.get(statements.size() - 1), true)));
+		return clauses;
+	}
+
+	private static List<PolicyClause> createRandomClauses(List<ConfiguredStatement> statements) {
+		Random random = new Random(42L);
+		List<PolicyClause> clauses = new ArrayList<>();
+		for (int i = 0; i < 2 * statements.size(); i++) {
+			ConfiguredStatement[] clauseStatements = new ConfiguredStatement[3];
+			for (int j = 0; j < clauseStatements.length; j++) {
+				clauseStatements[j] = negate(statements.get(random.nextInt(statements.size())),
+						random.nextBoolean());
+			}
+			clauses.add(createClause(clauseStatements));
+		}
+		return clauses;
+	}
+
+	private static ConfiguredStatement negate(ConfiguredStatement statement, boolean negated) {
+		ConfiguredStatement copy = new ConfiguredStatement();
+		copy.setBaseStatement(statement.getBaseStatement());
+		copy.setArgumentValues(statement.getArgumentValues());
+		copy.setNegated(negated);
+		return copy;
+	}
+
+	private static PolicyClause createClause(ConfiguredStatement... statements) {
+		PolicyClause clause = new PolicyClause();
+		clause.setStatements(Arrays.asList(statements));
+		return clause;
+	}
+
+	private static BaseStatement createBaseStatement() {
+		BaseStatementFunction function = new BaseStatementFunction();
+		function.setName("stack_has_app");
+		function.setParameters(Collections.singletonList("app"));
+		function.setExpression("input.stack[_].app == app");
+
+		BaseStatementArgument argument = new BaseStatementArgument();
+		argument.setParameter("app");
+		argument.setDescription("The app to allow");
+		argument.setType(ArgumentType.getTypeForName("string"));
+
+		BaseStatement baseStatement = new BaseStatement();
+		baseStatement.setName("Allow App");
+		baseStatement.setDescription("Allow calls from an app");
+		baseStatement.setNegationAllowed(true);
+		baseStatement.setPolicyTypes(Collections.singleton("System"));
+		baseStatement.setFunction(function);
+		baseStatement.setArguments(Collections.singletonList(argument));
+		return baseStatement;
+	}
+}
@@ -0,0 +1,82 @@
+package com.tracelink.prodsec.blueprint.benchmarks;
+
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.rego.RegoEmitter;
+import com.tracelink.prodsec.blueprint.core.rego.RegoFragmentCache;
+import com.tracelink.prodsec.blueprint.core.rego.RegoGenerator;
+import com.tracelink.prodsec.blueprint.core.rego.TemplateRegoGenerator;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the hand-written {@link RegoEmitter} against the Handlebars template it replaces, and
+ * measures regeneration through a {@link RegoFragmentCache} after a single statement changes.
+ *
+ * @author csmith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegoGenerationBenchmark {
+
+	@Param({"1", "10", "100"})
+	private int clauses;
+
+	@Param({"5", "20"})
+	private int statements;
+
+	private Policy policy;
+	private RegoGenerator templateGenerator;
+	private RegoEmitter cachedEmitter;
+	private ConfiguredStatement editedStatement;
+	private int edits;
+
+	@Setup
+	public void setup() throws IOException {
+		policy = BenchmarkPolicies.createPolicy(clauses, statements, 42L);
+		templateGenerator = new TemplateRegoGenerator(TemplateRegoGenerator.DEFAULT_TEMPLATE);
+		cachedEmitter = new RegoEmitter(new RegoFragmentCache());
+		cachedEmitter.generate(policy, new StringWriter());
+		editedStatement = policy.getClauses().get(0).getStatements().get(0);
+	}
+
+	@Benchmark
+	public String emitter() throws IOException {
+		StringWriter writer = new StringWriter();
+		RegoEmitter.getInstance().generate(policy, writer);
+		return writer.toString();
+	}
+
+	@Benchmark
+	public String template() throws IOException {
+		StringWriter writer = new StringWriter();
+		templateGenerator.generate(policy, writer);
+		return writer.toString();
+	}
+
+	@Benchmark
+	public String cachedEmitterAfterEdit() throws IOException {
+		// Each invocation edits one statement, so exactly one clause misses the cache
+		editedStatement.setArgumentValues(Arrays.asList("edit" + edits++, "1, 2, 3"));
+		StringWriter writer = new StringWriter();
+		cachedEmitter.generate(policy, writer);
+		return writer.toString();
+	}
+}
@@ -0,0 +1,158 @@
+package com.tracelink.prodsec.blueprint.benchmarks;
+
+import com.tracelink.prodsec.blueprint.core.PolicyBuilder;
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
+import com.tracelink.prodsec.blueprint.core.rulesets.PolicyRuleset;
+import com.tracelink.prodsec.blueprint.core.rulesets.configuration.ConfigurationRuleset;
+import com.tracelink.prodsec.blueprint.core.rulesets.constraints.ConstraintRuleset;
+import com.tracelink.prodsec.blueprint.core.rulesets.logic.SatisfiabilityRule;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import com.tracelink.prodsec.blueprint.core.statement.PolicyElementState;
+import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares validating a large policy with the constraint, configuration and satisfiability rules in
+ * a single fused traversal, in parallel, and with a traversal per rule, as rulesets were applied
+ * before.
+ *
+ * @author csmith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+	@Param({"1000"})
+	private int clauses;
+
+	@Param({"5"})
+	private int statements;
+
+	private Policy policy;
+
+	@Setup
+	public void setup() {
+		List<BaseStatement> baseStatements = new ArrayList<>();
+		for (int i = 0; i < statements; i++) {
+			baseStatements.add(createBaseStatement(i));
+		}
+		List<PolicyClause> policyClauses = new ArrayList<>();
+		for (int i = 0; i < clauses; i++) {
+			List<ConfiguredStatement> clauseStatements = new ArrayList<>();
+			for (int j = 0; j < statements; j++) {
+				ConfiguredStatement statement = new ConfiguredStatement();
+				statement.setBaseStatement(baseStatements.get(j));
+				statement.setArgumentValues(Arrays.asList("app-" + i + ", lib-" + j,
+						String.valueOf(i + j)));
+				statement.setNegated(j % 2 == 0);
+				clauseStatements.add(statement);
+			}
+			PolicyClause clause = new PolicyClause();
+			clause.setStatements(clauseStatements);
+			policyClauses.add(clause);
+		}
+		policy = new Policy();
+		policy.setName("Benchmark Policy");
+		policy.setAuthor("benchmark");
+		policy.setPolicyType("System");
+		policy.setClauses(policyClauses);
+		PolicyBuilderReport report = validate();
+		if (report.hasViolations() || report.hasErrors()) {
+			throw new IllegalStateException("The benchmark policy should be valid: "
+					+ report.getViolations().get(0).getMessage());
+		}
+	}
+
+	@Benchmark
+	public PolicyBuilderReport validate() {
+		return PolicyBuilder.getInstance().validate(policy, new ConfigurationRuleset(),
+				createLogicRuleset());
+	}
+
+	@Benchmark
+	public PolicyBuilderReport validateInParallel() {
+		return PolicyBuilder.getInstance().validateInParallel(policy,
+				new ConfigurationRuleset(), createLogicRuleset());
+	}
+
+	@Benchmark
+	public PolicyBuilderReport validatePerRule() {
+		PolicyBuilderReport report = new PolicyBuilderReport(policy);
+		for (PolicyRuleset ruleset : Arrays.asList(new ConstraintRuleset(),
+				new ConfigurationRuleset(), createLogicRuleset())) {
+			for (AbstractPolicyRule rule : ruleset.getRules()) {
+				report = policy.accept(rule, report);
+			}
+		}
+		return report;
+	}
+
+	private static PolicyRuleset createLogicRuleset() {
+		// The falsifiability rule is exponential in the number of statements, so only the
+		// satisfiability rule is run
+		PolicyRuleset ruleset = new PolicyRuleset("Logic");
+		ruleset.addRule(new SatisfiabilityRule());
+		return ruleset;
+	}
+
+	private static BaseStatement createBaseStatement(int index) {
+		BaseStatementFunction function = new BaseStatementFunction();
+		function.setName("stack_has_entry_with_app_in_" + index);
+		function.setDescription("Whether a stack entry has one of the apps");
+		function.setAuthor("benchmark");
+		function.setVersion(1);
+		function.setState(PolicyElementState.RELEASED);
+		function.setPolicyTypes(Collections.singleton("System"));
+		function.setParameters(Arrays.asList("apps", "stack_entry_idx"));
+		function.setExpression("input.stack[stack_entry_idx].app == apps[_]");
+		function.setDependencies(Collections.emptySet());
+
+		BaseStatementArgument appsArgument = new BaseStatementArgument();
+		appsArgument.setParameter("apps");
+		appsArgument.setDescription("The set of apps to allow");
+		appsArgument.setType(ArgumentType.getTypeForName("stringArray"));
+		appsArgument.setArrayUnique(true);
+		appsArgument.setArrayUnordered(true);
+		BaseStatementArgument indexArgument = new BaseStatementArgument();
+		indexArgument.setParameter("stack_entry_idx");
+		indexArgument.setDescription("The call stack index");
+		indexArgument.setType(ArgumentType.getTypeForName("integer"));
+
+		BaseStatement baseStatement = new BaseStatement();
+		baseStatement.setName("Allow Apps At Stack Index " + (char) ('A' + index));
+		baseStatement.setDescription("Allow calls from apps at a given call stack index");
+		baseStatement.setAuthor("benchmark");
+		baseStatement.setVersion(1);
+		baseStatement.setState(PolicyElementState.RELEASED);
+		baseStatement.setNegationAllowed(true);
+		baseStatement.setPolicyTypes(Collections.singleton("System"));
+		baseStatement.setFunction(function);
+		baseStatement.setArguments(Arrays.asList(appsArgument, indexArgument));
+		return baseStatement;
+	}
+}
@@ -1,24 +1,33 @@
 package com.tracelink.prodsec.blueprint.core;
 
-import com.github.jknack.handlebars.EscapingStrategy;
-import com.github.jknack.handlebars.Handlebars;
-import com.github.jknack.handlebars.HandlebarsException;
-import com.github.jknack.handlebars.Helper;
-import com.github.jknack.handlebars.Template;
-import com.github.jknack.handlebars.io.ClassPathTemplateLoader;
-import com.github.jknack.handlebars.io.TemplateLoader;
-import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.compile.CompiledPolicy;
+import com.tracelink.prodsec.blueprint.core.compile.CompiledPolicyCache;
+import com.tracelink.prodsec.blueprint.core.compile.MinimizedPolicy;
+import com.tracelink.prodsec.blueprint.core.compile.PolicyFingerprint;
+import com.tracelink.prodsec.blueprint.core.compile.PolicyMinimizer;
 import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.rego.RegoBatchGenerator;
+import com.tracelink.prodsec.blueprint.core.rego.RegoEmitter;
+import com.tracelink.prodsec.blueprint.core.rego.RegoFragmentCache;
+import com.tracelink.prodsec.blueprint.core.rego.RegoGenerator;
 import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
+import com.tracelink.prodsec.blueprint.core.report.ValidationContext;
 import com.tracelink.prodsec.blueprint.core.rulesets.PolicyRuleset;
 import com.tracelink.prodsec.blueprint.core.rulesets.constraints.ConstraintRuleset;
+import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractRootNode;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,26 +41,121 @@ public final class PolicyBuilder {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(PolicyBuilder.class);
 	private static final PolicyBuilder INSTANCE = new PolicyBuilder();
+	private static final int STREAM_BUFFER_SIZE = 8192;
 
-	private Template policyTemplate;
+	private final RegoFragmentCache regoFragmentCache = new RegoFragmentCache();
+	private final RegoEmitter regoEmitter = new RegoEmitter(regoFragmentCache);
+	private final CompiledPolicyCache compiledPolicyCache = new CompiledPolicyCache();
+	private final PolicyMinimizer policyMinimizer = new PolicyMinimizer();
 
 	private PolicyBuilder() {
-		TemplateLoader templateLoader = new ClassPathTemplateLoader("/templates/", ".hbs");
-		Handlebars handlebars = new Handlebars(templateLoader).with(EscapingStrategy.NOOP);
-		handlebars.registerHelper("configuredArg",
-				((Helper<ArgumentType>) (argumentType, options) -> argumentType
-						.generateRego(options.param(0))));
-		try {
-			policyTemplate = handlebars.compile("policy");
-		} catch (HandlebarsException | IOException | NullPointerException e) {
-			LOGGER.error("Cannot compile policy Rego template", e);
-		}
 	}
 
 	public static PolicyBuilder getInstance() {
 		return INSTANCE;
 	}
 
+	/**
+	 * Gets the cache of rendered Rego fragments used by {@link #generateRego(Policy, Writer)}.
+	 *
+	 * @return the Rego fragment cache
+	 */
+	public RegoFragmentCache getRegoFragmentCache() {
+		return regoFragmentCache;
+	}
+
+	/**
+	 * Gets the cache of compiled policies used by {@link #compile(Policy, PolicyRuleset...)}.
+	 *
+	 * @return the compiled policy cache
+	 */
+	public CompiledPolicyCache getCompiledPolicyCache() {
+		return compiledPolicyCache;
+	}
+
+	/**
+	 * Validate the policy with the given rulesets and, if it is valid, generate its Rego. Results
+	 * are cached by the {@link PolicyFingerprint} of the policy and the rulesets that were run, so
+	 * compiling an unchanged policy again does not validate or generate anything.
+	 *
+	 * @param policy             the policy to compile
+	 * @param additionalRulesets any rulesets to run on the policy, or empty if none should be run
+	 * @return the {@link CompiledPolicy} with the validation problems and the Rego, if valid
+	 */
+	public CompiledPolicy compile(Policy policy, PolicyRuleset... additionalRulesets) {
+		return compile(policy, false, additionalRulesets);
+	}
+
+	/**
+	 * Validate the policy with the given rulesets and, if it is valid, minimize its clauses with the
+	 * {@link PolicyMinimizer} and generate the Rego of the minimized policy. The compiled policy
+	 * reports which clauses were removed or simplified. Results are cached in the same way as
+	 * {@link #compile(Policy, PolicyRuleset...)}.
+	 *
+	 * @param policy             the policy to compile
+	 * @param additionalRulesets any rulesets to run on the policy, or empty if none should be run
+	 * @return the {@link CompiledPolicy} with the validation problems, the removed and simplified
+	 * clauses and the Rego of the minimized policy, if valid
+	 */
+	public CompiledPolicy compileMinimized(Policy policy, PolicyRuleset... additionalRulesets) {
+		return compile(policy, true, additionalRulesets);
+	}
+
+	/**
+	 * Validate the policy with the given rulesets without generating its Rego, e.g. before
+	 * streaming the Rego with {@link #generateRego(Policy, OutputStream)}. Results are cached in
+	 * the same way as {@link #compile(Policy, PolicyRuleset...)}, separately from compiled
+	 * policies.
+	 *
+	 * @param policy             the policy to check
+	 * @param additionalRulesets any rulesets to run on the policy, or empty if none should be run
+	 * @return the {@link CompiledPolicy} with the validation problems and without Rego
+	 */
+	public CompiledPolicy check(Policy policy, PolicyRuleset... additionalRulesets) {
+		String fingerprint = PolicyFingerprint.of(policy);
+		String key = fingerprint + getRulesetsKey(additionalRulesets) + "|check";
+		CompiledPolicy compiledPolicy = compiledPolicyCache.get(key);
+		if (compiledPolicy == null) {
+			compiledPolicy = new CompiledPolicy(fingerprint,
+					validate(policy, additionalRulesets), null);
+			compiledPolicyCache.put(key, compiledPolicy);
+		}
+		return compiledPolicy;
+	}
+
+	private CompiledPolicy compile(Policy policy, boolean minimize,
+			PolicyRuleset... additionalRulesets) {
+		String fingerprint = PolicyFingerprint.of(policy);
+		String key = fingerprint + getRulesetsKey(additionalRulesets) + (minimize ? "|min" : "");
+		CompiledPolicy compiledPolicy = compiledPolicyCache.get(key);
+		if (compiledPolicy == null) {
+			PolicyBuilderReport report = validate(policy, additionalRulesets);
+			if (report.hasErrors() || report.hasViolations()) {
+				compiledPolicy = new CompiledPolicy(fingerprint, report, null);
+			} else if (minimize) {
+				MinimizedPolicy minimizedPolicy = minimize(policy);
+				compiledPolicy = new CompiledPolicy(fingerprint, report,
+						generateRego(minimizedPolicy.getPolicy()), minimizedPolicy);
+			} else {
+				compiledPolicy = new CompiledPolicy(fingerprint, report, generateRego(policy));
+			}
+			compiledPolicyCache.put(key, compiledPolicy);
+		}
+		return compiledPolicy;
+	}
+
+	/**
+	 * Minimize the clauses of the policy, removing clauses that are redundant and statements that
+	 * do not change which inputs a clause allows. The policy is not modified.
+	 *
+	 * @param policy the policy to minimize
+	 * @return the minimized policy and the clauses that were removed or simplified
+	 * @see PolicyMinimizer
+	 */
+	public MinimizedPolicy minimize(Policy policy) {
+		return policyMinimizer.minimize(policy);
+	}
+
 	/**
 	 * Validate that the root node is configured correctly and run all rulesets on the
 	 * root node. The report will return errors or violations if a ruleset detects a problem with
@@ -64,20 +168,78 @@ public final class PolicyBuilder {
 	 */
 	public PolicyBuilderReport validate(AbstractRootNode rootNode,
 			PolicyRuleset... additionalRulesets) {
-		PolicyBuilderReport report = new PolicyBuilderReport(rootNode);
+		// Apply all rulesets in as few traversals as possible
+		return validate(rootNode, new ValidationContext(), null, additionalRulesets);
+	}
+
+	/**
+	 * Validate the root node in the same way as {@link #validate(AbstractRootNode,
+	 * PolicyRuleset...)}, with the given context. Violations are published to the listeners and
+	 * subscribers of the context in report order as the results of each rule are merged into the
+	 * report, and subscribers are completed once the validation has finished. The validation stops
+	 * early if the context is cancelled, e.g. by a listener that only needs to know whether there
+	 * is any violation.
+	 *
+	 * @param rootNode           the root node to validate
+	 * @param context            the context of the validation, which should not be shared with
+	 *                           other validations
+	 * @param additionalRulesets any rulesets to run on the root node, or empty if none should be
+	 *                           run
+	 * @return a {@link PolicyBuilderReport} with the issues found in the root node or its children
+	 * until the validation finished or was cancelled
+	 */
+	public PolicyBuilderReport validate(AbstractRootNode rootNode, ValidationContext context,
+			PolicyRuleset... additionalRulesets) {
+		return validate(rootNode, context, null, additionalRulesets);
+	}
+
+	/**
+	 * Validate the root node in the same way as {@link #validate(AbstractRootNode,
+	 * PolicyRuleset...)}, running the rules in parallel on the common {@link ForkJoinPool}.
+	 *
+	 * @param rootNode           the root node to validate
+	 * @param additionalRulesets any rulesets to run on the root node, or empty if none should be
+	 *                           run
+	 * @return a {@link PolicyBuilderReport} indicating any issues found in the root node or its
+	 * children
+	 * @see #validateInParallel(AbstractRootNode, ForkJoinPool, PolicyRuleset...)
+	 */
+	public PolicyBuilderReport validateInParallel(AbstractRootNode rootNode,
+			PolicyRuleset... additionalRulesets) {
+		return validateInParallel(rootNode, ForkJoinPool.commonPool(), additionalRulesets);
+	}
+
+	/**
+	 * Validate the root node in the same way as {@link #validate(AbstractRootNode,
+	 * PolicyRuleset...)}, running the rules in parallel on the given pool. Each rule runs as a
+	 * separate task, and rules that are independent for each clause run a task per clause. This
+	 * pays off for large policies. The report is identical to the report of a sequential
+	 * validation, including the order of its violations.
+	 *
+	 * @param rootNode           the root node to validate
+	 * @param pool               the pool to run the rules on
+	 * @param additionalRulesets any rulesets to run on the root node, or empty if none should be
+	 *                           run
+	 * @return a {@link PolicyBuilderReport} indicating any issues found in the root node or its
+	 * children
+	 */
+	public PolicyBuilderReport validateInParallel(AbstractRootNode rootNode, ForkJoinPool pool,
+			PolicyRuleset... additionalRulesets) {
+		return validate(rootNode, new ValidationContext(), pool, additionalRulesets);
+	}
+
+	private PolicyBuilderReport validate(AbstractRootNode rootNode, ValidationContext context,
+			ForkJoinPool pool, PolicyRuleset... additionalRulesets) {
+		PolicyBuilderReport report = new PolicyBuilderReport(rootNode, context);
 		// Create list of rulesets to apply
 		List<PolicyRuleset> rulesets = new ArrayList<>();
-		rulesets.add(new ConstraintRuleset());
+		rulesets.add(ConstraintRuleset.getInstance());
 		rulesets.addAll(Arrays.asList(additionalRulesets));
-		// Apply each ruleset
-		for (PolicyRuleset ruleset : rulesets) {
-			report = ruleset.apply(rootNode, report);
-			if (ruleset.shouldStopOnFirstFailure()
-					&& (report.hasViolations() || report.hasErrors())) {
-				return report;
-			}
+		try {
+			return PolicyRuleset.applyAll(rootNode, report, rulesets, pool);
+		} finally {
+			context.complete();
 		}
-		return report;
 	}
 
 	/**
@@ -87,14 +249,98 @@ public final class PolicyBuilder {
 	 * @return the valid Rego expression, or null if something went wrong
 	 */
 	public String generateRego(Policy policy) {
-		Map<String, Object> templateArgs = new HashMap<>();
-		templateArgs.put("policy", policy);
-		templateArgs.put("dependencies", policy.getAllDependentFunctions());
+		StringWriter writer = new StringWriter();
 		try {
-			return policyTemplate.apply(templateArgs);
-		} catch (HandlebarsException | IOException | NullPointerException e) {
+			generateRego(policy, writer);
+			return writer.toString();
+		} catch (IOException | NullPointerException e) {
 			LOGGER.error("Cannot generate Rego", e); // TODO return as error in wrapper object
 			return null;
 		}
 	}
+
+	/**
+	 * Generate the Rego policy expressions for this {@link Policy} and write them directly to the
+	 * given writer, so that the full policy never needs to be held in memory. Rendered clauses and
+	 * functions are cached, so only the parts of a policy that changed since it was last generated
+	 * are rendered again. The writer is not flushed or closed.
+	 *
+	 * @param policy the policy to use to generate Rego expressions
+	 * @param writer the writer to stream the Rego expressions to
+	 * @throws IOException if the Rego cannot be generated or the writer fails
+	 */
+	public void generateRego(Policy policy, Writer writer) throws IOException {
+		generateRego(policy, regoEmitter, writer);
+	}
+
+	/**
+	 * Generate the Rego policy expressions for this {@link Policy} with the given generator, e.g. a
+	 * {@link com.tracelink.prodsec.blueprint.core.rego.TemplateRegoGenerator} for a custom template,
+	 * and write them directly to the given writer. The writer is not flushed or closed.
+	 *
+	 * @param policy    the policy to use to generate Rego expressions
+	 * @param generator the generator to transform the policy with
+	 * @param writer    the writer to stream the Rego expressions to
+	 * @throws IOException if the Rego cannot be generated or the writer fails
+	 */
+	public void generateRego(Policy policy, RegoGenerator generator, Writer writer)
+			throws IOException {
+		generator.generate(policy, writer);
+	}
+
+	/**
+	 * Generate the Rego policy expressions for each of the given policies in parallel on the common
+	 * {@link ForkJoinPool}.
+	 *
+	 * @param policies the policies to use to generate Rego expressions
+	 * @return the Rego for each policy, in the iteration order of the given policies, with null for
+	 * any policy that something went wrong for
+	 * @see #generateRegoBatch(Collection, ForkJoinPool)
+	 */
+	public List<String> generateRegoBatch(Collection<Policy> policies) {
+		return generateRegoBatch(policies, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Generate the Rego policy expressions for each of the given policies in parallel on the given
+	 * pool. Each distinct function version is rendered only once for the whole batch, and the Rego
+	 * for each policy is identical to the result of {@link #generateRego(Policy)}.
+	 *
+	 * @param policies the policies to use to generate Rego expressions
+	 * @param pool     the pool to generate the Rego on
+	 * @return the Rego for each policy, in the iteration order of the given policies, with null for
+	 * any policy that something went wrong for
+	 */
+	public List<String> generateRegoBatch(Collection<Policy> policies, ForkJoinPool pool) {
+		return new RegoBatchGenerator(regoFragmentCache).generate(policies, pool);
+	}
+
+	/**
+	 * Generate the Rego policy expressions for this {@link Policy} and write them to the given
+	 * output stream as UTF-8 through a bounded buffer. The stream is flushed but not closed.
+	 *
+	 * @param policy       the policy to use to generate Rego expressions
+	 * @param outputStream the output stream to write the Rego expressions to
+	 * @throws IOException if the Rego cannot be generated or the stream fails
+	 */
+	public void generateRego(Policy policy, OutputStream outputStream) throws IOException {
+		Writer writer = new BufferedWriter(
+				new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+		generateRego(policy, writer);
+		writer.flush();
+	}
+
+	private static String getRulesetsKey(PolicyRuleset... rulesets) {
+		// Rulesets are identified by their configuration, as equivalent rulesets may be separate
+		// instances
+		StringBuilder key = new StringBuilder();
+		for (PolicyRuleset ruleset : rulesets) {
+			key.append('|').append(ruleset.getName()).append(':')
+					.append(ruleset.shouldStopOnFirstFailure());
+			for (AbstractPolicyRule rule : ruleset.getRules()) {
+				key.append(':').append(rule.getClass().getName());
+			}
+		}
+		return key.toString();
+	}
 }
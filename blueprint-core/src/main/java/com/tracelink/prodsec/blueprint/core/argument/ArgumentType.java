@@ -2,8 +2,6 @@ package com.tracelink.prodsec.blueprint.core.argument;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -49,6 +47,18 @@ public abstract class ArgumentType {
 	 */
 	public abstract boolean matchesArgument(String configuredArgument, boolean uniqueItems);
 
+	/**
+	 * Determines whether this argument type matches the given parsed argument. The default is to
+	 * match the configured value, array types use the parsed items instead of parsing them again.
+	 *
+	 * @param argument    the parsed argument to match against this type
+	 * @param uniqueItems whether the argument must contain unique values (if an array type)
+	 * @return true if the parsed argument is valid, false otherwise
+	 */
+	public boolean matchesParsedArgument(ParsedArgument argument, boolean uniqueItems) {
+		return matchesArgument(argument.getValue(), uniqueItems);
+	}
+
 	/**
 	 * Generates the Rego value for the given configured argument for this argument type.
 	 *
@@ -59,6 +69,17 @@ public abstract class ArgumentType {
 		return configuredArgument;
 	}
 
+	/**
+	 * Generates the Rego value for the given parsed argument for this argument type. The default
+	 * is to generate Rego for the configured value, array types use the parsed items instead.
+	 *
+	 * @param argument the parsed argument to generate Rego for
+	 * @return the Rego expression
+	 */
+	public String generateParsedRego(ParsedArgument argument) {
+		return generateRego(argument.getValue());
+	}
+
 	/**
 	 * Gets the base type for this argument type. E.g. the base type of a string argument is string,
 	 * and the base type of a string array argument is string.
@@ -81,25 +102,26 @@ public abstract class ArgumentType {
 				"A " + getDisplayName().toLowerCase() + " is not an array argument type");
 	}
 
+	/**
+	 * Gets the registered argument type with the given name.
+	 *
+	 * @param name the name of the argument type
+	 * @return the argument type, or null if there is no type with the given name
+	 * @see ArgumentTypeRegistry#getType(String)
+	 */
 	@JsonCreator
 	public static ArgumentType getTypeForName(String name) {
-		List<ArgumentType> argumentTypes = getTypes();
-
-		for (ArgumentType argumentType : argumentTypes) {
-			if (argumentType.getName().equals(name)) {
-				return argumentType;
-			}
-		}
-		return null;
+		return ArgumentTypeRegistry.getInstance().getType(name);
 	}
 
+	/**
+	 * Gets all registered argument types.
+	 *
+	 * @return unmodifiable list of argument types
+	 * @see ArgumentTypeRegistry#getTypes()
+	 */
 	public static List<ArgumentType> getTypes() {
-		List<ArgumentType> argumentTypes = Arrays
-				.asList(new StringArgumentType(), new NumberArgumentType(),
-						new IntegerArgumentType(), new BooleanArgumentType(),
-						new StringArrayArgumentType(), new NumberArrayArgumentType(),
-						new IntegerArrayArgumentType());
-		return Collections.unmodifiableList(argumentTypes);
+		return ArgumentTypeRegistry.getInstance().getTypes();
 	}
 
 	@Override
@@ -0,0 +1,22 @@
+package com.tracelink.prodsec.blueprint.core.argument;
+
+import java.util.Collection;
+
+/**
+ * Service provider interface for domain-specific argument types. Implementations are discovered
+ * with {@link java.util.ServiceLoader} when the {@link ArgumentTypeRegistry} is created, so they
+ * must be listed in a {@code META-INF/services/com.tracelink.prodsec.blueprint.core.argument.ArgumentTypeProvider}
+ * file and have a public no-argument constructor. Provided types must have names that are
+ * distinct from the built-in types and from each other.
+ *
+ * @author csmith
+ */
+public interface ArgumentTypeProvider {
+
+	/**
+	 * Gets the argument types to register.
+	 *
+	 * @return the provided argument types
+	 */
+	Collection<ArgumentType> getArgumentTypes();
+}
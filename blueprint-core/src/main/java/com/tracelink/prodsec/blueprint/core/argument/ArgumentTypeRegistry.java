@@ -0,0 +1,137 @@
+package com.tracelink.prodsec.blueprint.core.argument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Immutable registry of all argument types, keyed by name. Holds a single instance of each
+ * built-in type, followed by the types of any {@link ArgumentTypeProvider} found with {@link
+ * ServiceLoader}. The registry also keeps a bounded cache of parsed arguments for each registered
+ * type, so that identical argument values configured on different statements are only parsed
+ * once.
+ *
+ * @author csmith
+ */
+public final class ArgumentTypeRegistry {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ArgumentTypeRegistry.class);
+	static final int MAX_CACHED_ARGUMENTS = 512;
+	static final int MAX_CACHED_VALUE_LENGTH = 4096;
+
+	private final Map<String, ArgumentType> types;
+	private final List<ArgumentType> typeList;
+	private final Map<ArgumentType, Map<String, ParsedArgument>> parsedArguments;
+
+	ArgumentTypeRegistry(Iterable<ArgumentTypeProvider> providers) {
+		Map<String, ArgumentType> registeredTypes = new LinkedHashMap<>();
+		for (ArgumentType type : Arrays.asList(new StringArgumentType(),
+				new NumberArgumentType(), new IntegerArgumentType(), new BooleanArgumentType(),
+				new StringArrayArgumentType(), new NumberArrayArgumentType(),
+				new IntegerArrayArgumentType())) {
+			registeredTypes.put(type.getName(), type);
+		}
+		for (ArgumentTypeProvider provider : providers) {
+			for (ArgumentType type : provider.getArgumentTypes()) {
+				if (type == null || type.getName() == null) {
+					LOGGER.warn("Ignoring unnamed argument type from {}",
+							provider.getClass().getName());
+				} else if (registeredTypes.containsKey(type.getName())) {
+					LOGGER.warn("Ignoring argument type '{}' from {} as the name is taken",
+							type.getName(), provider.getClass().getName());
+				} else {
+					registeredTypes.put(type.getName(), type);
+				}
+			}
+		}
+		this.types = Collections.unmodifiableMap(registeredTypes);
+		this.typeList = Collections.unmodifiableList(new ArrayList<>(registeredTypes.values()));
+		Map<ArgumentType, Map<String, ParsedArgument>> caches = new IdentityHashMap<>();
+		for (ArgumentType type : typeList) {
+			caches.put(type, Collections.synchronizedMap(createLruMap()));
+		}
+		this.parsedArguments = caches;
+	}
+
+	/**
+	 * Gets the registry of all built-in and provided argument types.
+	 *
+	 * @return the argument type registry
+	 */
+	public static ArgumentTypeRegistry getInstance() {
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 * Gets the registered argument type with the given name.
+	 *
+	 * @param name the name of the argument type
+	 * @return the argument type, or null if there is no type with the given name
+	 */
+	public ArgumentType getType(String name) {
+		return name == null ? null : types.get(name);
+	}
+
+	/**
+	 * Gets all registered argument types, with the built-in types first.
+	 *
+	 * @return unmodifiable list of argument types
+	 */
+	public List<ArgumentType> getTypes() {
+		return typeList;
+	}
+
+	/**
+	 * Parses the given argument value for the given type. Values of registered types are parsed
+	 * once and reused, unless they are too long to cache. Values of other types are always
+	 * parsed.
+	 *
+	 * @param type  the type of the argument
+	 * @param value the configured argument value
+	 * @return the parsed argument
+	 */
+	public ParsedArgument parse(ArgumentType type, String value) {
+		Map<String, ParsedArgument> cache = parsedArguments.get(type);
+		if (cache == null || value == null || value.length() > MAX_CACHED_VALUE_LENGTH) {
+			return new ParsedArgument(type, value);
+		}
+		return cache.computeIfAbsent(value, v -> new ParsedArgument(type, v));
+	}
+
+	private static Map<String, ParsedArgument> createLruMap() {
+		return new LinkedHashMap<String, ParsedArgument>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ParsedArgument> eldest) {
+				return size() > MAX_CACHED_ARGUMENTS;
+			}
+		};
+	}
+
+	private static List<ArgumentTypeProvider> loadProviders() {
+		List<ArgumentTypeProvider> providers = new ArrayList<>();
+		try {
+			ServiceLoader.load(ArgumentTypeProvider.class, ArgumentType.class.getClassLoader())
+					.forEach(providers::add);
+		} catch (ServiceConfigurationError e) {
+			LOGGER.error("Cannot load argument type providers", e);
+		}
+		return providers;
+	}
+
+	/**
+	 * Lazily creates the registry when it is first used.
+	 */
+	private static final class Holder {
+
+		private static final ArgumentTypeRegistry INSTANCE = new ArgumentTypeRegistry(
+				loadProviders());
+	}
+}
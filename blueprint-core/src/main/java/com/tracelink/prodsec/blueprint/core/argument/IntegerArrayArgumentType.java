@@ -1,14 +1,11 @@
 package com.tracelink.prodsec.blueprint.core.argument;
 
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of an {@link ArgumentType} for an integer array argument. Implements {@link
- * ArgumentType#getArrayItems(String)} to get a list of integers from the configured argument.
+ * ArgumentType#getArrayItems(String)} to get a list of integers from the configured argument. The
+ * integers are parsed directly into a primitive array.
  *
  * @author mcool
  */
@@ -23,19 +20,18 @@ public class IntegerArrayArgumentType extends ArgumentType {
 	 */
 	@Override
 	public boolean matchesArgument(String configuredArgument, boolean uniqueItems) {
-		try {
-			List<Integer> integers = getArrayItems(configuredArgument);
-			if (integers == null) {
-				return false;
-			}
-			if (uniqueItems) {
-				Set<Integer> uniqueIntegers = new HashSet<>(integers);
-				return integers.size() == uniqueIntegers.size();
-			}
-			return true;
-		} catch (NumberFormatException e) {
+		return new ParsedArgument(this, configuredArgument).matches(uniqueItems);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean matchesParsedArgument(ParsedArgument argument, boolean uniqueItems) {
+		if (argument.getItems() == null) {
 			return false;
 		}
+		return !uniqueItems || argument.getMultiset().isDistinct();
 	}
 
 	/**
@@ -43,16 +39,27 @@ public class IntegerArrayArgumentType extends ArgumentType {
 	 */
 	@Override
 	public String generateRego(String configuredArgument) {
-		try {
-			List<Integer> integers = getArrayItems(configuredArgument);
-			if (integers == null) {
-				return null;
-			}
-			return "[" + integers.stream().map(String::valueOf).collect(Collectors.joining(", "))
-					+ "]";
-		} catch (NumberFormatException e) {
+		return new ParsedArgument(this, configuredArgument).getRego();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String generateParsedRego(ParsedArgument argument) {
+		List<?> integers = argument.getItems();
+		if (integers == null) {
 			return null;
 		}
+		int[] items = ((PrimitiveArrays.IntList) integers).getItems();
+		StringBuilder rego = new StringBuilder(items.length * 4 + 2).append('[');
+		for (int i = 0; i < items.length; i++) {
+			if (i > 0) {
+				rego.append(", ");
+			}
+			rego.append(items[i]);
+		}
+		return rego.append(']').toString();
 	}
 
 	/**
@@ -63,8 +70,7 @@ public class IntegerArrayArgumentType extends ArgumentType {
 		if (configuredArgument == null) {
 			return null;
 		}
-		return Arrays.stream(configuredArgument.split(",")).map(String::trim).map(Integer::parseInt)
-				.collect(Collectors.toList());
+		return new PrimitiveArrays.IntList(PrimitiveArrays.parseInts(configuredArgument));
 	}
 
 	/**
@@ -72,6 +78,6 @@ public class IntegerArrayArgumentType extends ArgumentType {
 	 */
 	@Override
 	public ArgumentType getBaseType() {
-		return new IntegerArgumentType();
+		return getTypeForName("integer");
 	}
 }
@@ -0,0 +1,176 @@
+package com.tracelink.prodsec.blueprint.core.argument;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Canonical form of the items of an unordered array argument, as a multiset. The items are sorted
+ * once when the multiset is created and the hash code is precomputed, so that two multisets can be
+ * compared in linear time. Integer and number items are sorted as primitives, and string items
+ * by their natural order. Items of other types are sorted by hash code.
+ *
+ * @author csmith
+ */
+public final class ItemMultiset {
+
+	private static final Comparator<Object> HASH_ORDER = Comparator.comparingInt(Objects::hashCode);
+
+	// One of int[], double[] or Object[], sorted
+	private final Object sortedItems;
+	private final int size;
+	// Whether Object[] items are sorted by hash code, so runs of equal hashes are compared as sets
+	private final boolean hashOrdered;
+	private final int hash;
+
+	private ItemMultiset(Object sortedItems, int size, boolean hashOrdered, int hash) {
+		this.sortedItems = sortedItems;
+		this.size = size;
+		this.hashOrdered = hashOrdered;
+		this.hash = hash;
+	}
+
+	/**
+	 * Creates the canonical multiset of the given items.
+	 *
+	 * @param items the items of an array argument
+	 * @return the multiset of the items
+	 */
+	public static ItemMultiset of(List<?> items) {
+		if (items instanceof PrimitiveArrays.IntList) {
+			int[] sorted = ((PrimitiveArrays.IntList) items).getItems().clone();
+			Arrays.sort(sorted);
+			return new ItemMultiset(sorted, sorted.length, false, Arrays.hashCode(sorted));
+		}
+		if (items instanceof PrimitiveArrays.DoubleList) {
+			double[] sorted = ((PrimitiveArrays.DoubleList) items).getItems().clone();
+			Arrays.sort(sorted);
+			return new ItemMultiset(sorted, sorted.length, false, Arrays.hashCode(sorted));
+		}
+		Object[] sorted = items.toArray();
+		boolean hashOrdered = !Arrays.stream(sorted).allMatch(String.class::isInstance);
+		if (hashOrdered) {
+			// Other items may not have a natural order consistent with equals, so they are grouped
+			// by hash code instead
+			Arrays.sort(sorted, HASH_ORDER);
+		} else {
+			Arrays.sort(sorted);
+		}
+		int hash = 1;
+		for (Object item : sorted) {
+			// Sum the hashes of runs of equal hash codes, which may be in any order
+			hash = hashOrdered ? hash + Objects.hashCode(item) : 31 * hash + item.hashCode();
+		}
+		return new ItemMultiset(sorted, sorted.length, hashOrdered, hash);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Determines whether all items of this multiset are distinct.
+	 *
+	 * @return true if no item occurs more than once, false otherwise
+	 */
+	public boolean isDistinct() {
+		if (sortedItems instanceof int[]) {
+			return PrimitiveArrays.areDistinct((int[]) sortedItems);
+		}
+		if (sortedItems instanceof double[]) {
+			return PrimitiveArrays.areDistinct((double[]) sortedItems);
+		}
+		Object[] items = (Object[]) sortedItems;
+		if (!hashOrdered) {
+			for (int i = 1; i < items.length; i++) {
+				if (items[i - 1].equals(items[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+		for (int start = 0; start < items.length; ) {
+			int end = getRunEnd(items, start);
+			for (int i = start; i < end; i++) {
+				for (int j = i + 1; j < end; j++) {
+					if (Objects.equals(items[i], items[j])) {
+						return false;
+					}
+				}
+			}
+			start = end;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		ItemMultiset other = (ItemMultiset) o;
+		if (hash != other.hash || size != other.size || hashOrdered != other.hashOrdered) {
+			return false;
+		}
+		if (sortedItems instanceof int[] && other.sortedItems instanceof int[]) {
+			return Arrays.equals((int[]) sortedItems, (int[]) other.sortedItems);
+		}
+		if (sortedItems instanceof double[] && other.sortedItems instanceof double[]) {
+			return Arrays.equals((double[]) sortedItems, (double[]) other.sortedItems);
+		}
+		if (!(sortedItems instanceof Object[]) || !(other.sortedItems instanceof Object[])) {
+			return false;
+		}
+		Object[] items = (Object[]) sortedItems;
+		Object[] otherItems = (Object[]) other.sortedItems;
+		return hashOrdered ? areRunsEqual(items, otherItems) : Arrays.equals(items, otherItems);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * Gets the end of the run of items with the same hash code as the item at the given start.
+	 */
+	private static int getRunEnd(Object[] items, int start) {
+		int end = start + 1;
+		int runHash = Objects.hashCode(items[start]);
+		while (end < items.length && Objects.hashCode(items[end]) == runHash) {
+			end++;
+		}
+		return end;
+	}
+
+	private boolean areRunsEqual(Object[] items, Object[] otherItems) {
+		for (int start = 0; start < items.length; ) {
+			int end = getRunEnd(items, start);
+			if (getRunEnd(otherItems, start) != end) {
+				return false;
+			}
+			// Runs are usually a single item, so compare the counts of each item in the run
+			for (int i = start; i < end; i++) {
+				if (count(items, start, end, items[i]) != count(otherItems, start, end, items[i])) {
+					return false;
+				}
+			}
+			start = end;
+		}
+		return true;
+	}
+
+	private static int count(Object[] items, int start, int end, Object item) {
+		int count = 0;
+		for (int i = start; i < end; i++) {
+			if (Objects.equals(items[i], item)) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -1,14 +1,11 @@
 package com.tracelink.prodsec.blueprint.core.argument;
 
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of an {@link ArgumentType} for a number array argument. Implements {@link
- * ArgumentType#getArrayItems(String)} to get a list of integers from the configured argument.
+ * ArgumentType#getArrayItems(String)} to get a list of numbers from the configured argument. The
+ * numbers are parsed with double precision directly into a primitive array.
  *
  * @author mcool
  */
@@ -23,19 +20,18 @@ public class NumberArrayArgumentType extends ArgumentType {
 	 */
 	@Override
 	public boolean matchesArgument(String configuredArgument, boolean uniqueItems) {
-		try {
-			List<Float> numbers = getArrayItems(configuredArgument);
-			if (numbers == null) {
-				return false;
-			}
-			if (uniqueItems) {
-				Set<Float> uniqueNumbers = new HashSet<>(numbers);
-				return numbers.size() == uniqueNumbers.size();
-			}
-			return true;
-		} catch (NumberFormatException e) {
+		return new ParsedArgument(this, configuredArgument).matches(uniqueItems);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean matchesParsedArgument(ParsedArgument argument, boolean uniqueItems) {
+		if (argument.getItems() == null) {
 			return false;
 		}
+		return !uniqueItems || argument.getMultiset().isDistinct();
 	}
 
 	/**
@@ -43,28 +39,38 @@ public class NumberArrayArgumentType extends ArgumentType {
 	 */
 	@Override
 	public String generateRego(String configuredArgument) {
-		try {
-			List<Float> numbers = getArrayItems(configuredArgument);
-			if (numbers == null) {
-				return null;
-			}
-			return "[" + numbers.stream().map(String::valueOf).collect(Collectors.joining(", "))
-					+ "]";
-		} catch (NumberFormatException e) {
+		return new ParsedArgument(this, configuredArgument).getRego();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String generateParsedRego(ParsedArgument argument) {
+		List<?> numbers = argument.getItems();
+		if (numbers == null) {
 			return null;
 		}
+		double[] items = ((PrimitiveArrays.DoubleList) numbers).getItems();
+		StringBuilder rego = new StringBuilder(items.length * 4 + 2).append('[');
+		for (int i = 0; i < items.length; i++) {
+			if (i > 0) {
+				rego.append(", ");
+			}
+			rego.append(items[i]);
+		}
+		return rego.append(']').toString();
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public List<Float> getArrayItems(String configuredArgument) {
+	public List<Double> getArrayItems(String configuredArgument) {
 		if (configuredArgument == null) {
 			return null;
 		}
-		return Arrays.stream(configuredArgument.split(",")).map(String::trim).map(Float::parseFloat)
-				.collect(Collectors.toList());
+		return new PrimitiveArrays.DoubleList(PrimitiveArrays.parseDoubles(configuredArgument));
 	}
 
 	/**
@@ -72,6 +78,6 @@ public class NumberArrayArgumentType extends ArgumentType {
 	 */
 	@Override
 	public ArgumentType getBaseType() {
-		return new NumberArgumentType();
+		return getTypeForName("number");
 	}
 }
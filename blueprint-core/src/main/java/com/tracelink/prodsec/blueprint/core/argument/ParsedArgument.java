@@ -0,0 +1,130 @@
+package com.tracelink.prodsec.blueprint.core.argument;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The parsed representation of a configured argument value for a given {@link ArgumentType}.
+ * Array values are split and parsed into items once, when the parsed argument is created, and
+ * the derived values used to validate, compare and render the argument are computed lazily and
+ * reused afterwards. If the items of an array value cannot be parsed, the parse error is kept so
+ * that it is only encountered once.
+ *
+ * @author mcool
+ */
+public final class ParsedArgument {
+
+	private final ArgumentType type;
+	private final String value;
+	private final List<?> items;
+	private final NumberFormatException error;
+	private volatile ItemMultiset multiset;
+	private volatile Boolean matches;
+	private volatile Boolean matchesUnique;
+	private volatile String rego;
+
+	public ParsedArgument(ArgumentType type, String value) {
+		this.type = type;
+		this.value = value;
+		List<?> parsedItems = null;
+		NumberFormatException parseError = null;
+		if (type.isArrayType() && value != null) {
+			try {
+				parsedItems = type.getArrayItems(value);
+			} catch (NumberFormatException e) {
+				parseError = e;
+			}
+		}
+		if (parsedItems instanceof PrimitiveArrays.IntList
+				|| parsedItems instanceof PrimitiveArrays.DoubleList) {
+			// Primitive array views are already immutable
+			this.items = parsedItems;
+		} else {
+			this.items = parsedItems == null ? null : Collections.unmodifiableList(parsedItems);
+		}
+		this.error = parseError;
+	}
+
+	public ArgumentType getType() {
+		return type;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	/**
+	 * Gets the parsed items of this argument.
+	 *
+	 * @return the list of items, or null if the argument is not an array type or its items cannot
+	 * be parsed
+	 */
+	public List<?> getItems() {
+		return items;
+	}
+
+	/**
+	 * Gets the error encountered when parsing the items of this argument, if any.
+	 *
+	 * @return the parse error, or null if the items were parsed or the argument is not an array
+	 * type
+	 */
+	public NumberFormatException getError() {
+		return error;
+	}
+
+	/**
+	 * Gets the canonical multiset of the items of this argument. Two array arguments with equal
+	 * multisets contain the same items, regardless of order. The multiset is created once and
+	 * reused afterwards.
+	 *
+	 * @return the multiset of items, or null if there are no parsed items
+	 */
+	public ItemMultiset getMultiset() {
+		if (items == null) {
+			return null;
+		}
+		ItemMultiset result = multiset;
+		if (result == null) {
+			result = ItemMultiset.of(items);
+			multiset = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Determines whether this argument matches its argument type. The result is computed once for
+	 * each value of the unique items flag.
+	 *
+	 * @param uniqueItems whether the argument must contain unique values (if an array type)
+	 * @return true if the argument is valid, false otherwise
+	 * @see ArgumentType#matchesArgument(String, boolean)
+	 */
+	public boolean matches(boolean uniqueItems) {
+		Boolean result = uniqueItems ? matchesUnique : matches;
+		if (result == null) {
+			result = type.matchesParsedArgument(this, uniqueItems);
+			if (uniqueItems) {
+				matchesUnique = result;
+			} else {
+				matches = result;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the Rego value for this argument. The Rego is generated once and reused afterwards.
+	 *
+	 * @return the Rego expression, or null if the argument cannot be rendered
+	 * @see ArgumentType#generateRego(String)
+	 */
+	public String getRego() {
+		String result = rego;
+		if (result == null && value != null) {
+			result = type.generateParsedRego(this);
+			rego = result;
+		}
+		return result;
+	}
+}
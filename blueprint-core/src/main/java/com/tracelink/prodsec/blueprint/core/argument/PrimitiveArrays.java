@@ -0,0 +1,246 @@
+package com.tracelink.prodsec.blueprint.core.argument;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Parsers for comma-separated integer and number array arguments that scan the configured
+ * argument directly into primitive arrays. The parsers accept exactly the same arguments as
+ * splitting on commas, trimming each item and parsing it with {@link Integer#parseInt(String)} or
+ * {@link Double#parseDouble(String)}, which they fall back to for any item that is not a plain
+ * decimal number.
+ *
+ * @author csmith
+ */
+final class PrimitiveArrays {
+
+	// Powers of ten that are exactly representable as doubles
+	private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+			1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+	// Any integer with at most this many digits fits in a long without overflow
+	private static final int MAX_INT_DIGITS = 10;
+	// Any decimal with at most this many digits has a mantissa exactly representable as a double
+	private static final int MAX_FAST_DIGITS = 15;
+
+	private PrimitiveArrays() {
+	}
+
+	/**
+	 * Parses a comma-separated list of integers.
+	 *
+	 * @param value the configured argument
+	 * @return the parsed integers
+	 * @throws NumberFormatException if an item is not an integer
+	 */
+	static int[] parseInts(String value) {
+		int end = getEnd(value);
+		int[] items = new int[countItems(value, end)];
+		int start = 0;
+		for (int i = 0; i < items.length; i++) {
+			int comma = indexOfComma(value, start, end);
+			items[i] = parseInt(value, start, comma);
+			start = comma + 1;
+		}
+		return items;
+	}
+
+	/**
+	 * Parses a comma-separated list of numbers with double precision.
+	 *
+	 * @param value the configured argument
+	 * @return the parsed numbers
+	 * @throws NumberFormatException if an item is not a number
+	 */
+	static double[] parseDoubles(String value) {
+		int end = getEnd(value);
+		double[] items = new double[countItems(value, end)];
+		int start = 0;
+		for (int i = 0; i < items.length; i++) {
+			int comma = indexOfComma(value, start, end);
+			items[i] = parseDouble(value, start, comma);
+			start = comma + 1;
+		}
+		return items;
+	}
+
+	/**
+	 * Determines whether the given sorted integers are all distinct.
+	 */
+	static boolean areDistinct(int[] sortedItems) {
+		for (int i = 1; i < sortedItems.length; i++) {
+			if (sortedItems[i - 1] == sortedItems[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determines whether the given sorted numbers are all distinct, using the same equality as
+	 * {@link Double#equals(Object)}.
+	 */
+	static boolean areDistinct(double[] sortedItems) {
+		for (int i = 1; i < sortedItems.length; i++) {
+			if (Double.compare(sortedItems[i - 1], sortedItems[i]) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int getEnd(String value) {
+		// Splitting drops trailing empty items, unless there are no commas at all
+		if (value.indexOf(',') < 0) {
+			return value.length();
+		}
+		int end = value.length();
+		while (end > 0 && value.charAt(end - 1) == ',') {
+			end--;
+		}
+		return end;
+	}
+
+	private static int countItems(String value, int end) {
+		if (end == 0 && !value.isEmpty()) {
+			// Only commas, so every item is a trailing empty item
+			return 0;
+		}
+		int count = 1;
+		for (int i = 0; i < end; i++) {
+			if (value.charAt(i) == ',') {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static int indexOfComma(String value, int start, int end) {
+		int comma = value.indexOf(',', start);
+		return comma < 0 || comma > end ? end : comma;
+	}
+
+	private static int parseInt(String value, int start, int end) {
+		// Trim the item in the same way as String::trim
+		while (start < end && value.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && value.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		int i = start;
+		boolean negative = false;
+		if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+			negative = value.charAt(i) == '-';
+			i++;
+		}
+		if (i == end || end - i > MAX_INT_DIGITS) {
+			// Empty items and items that are too long are left to the JDK
+			return Integer.parseInt(value.substring(start, end));
+		}
+		long result = 0;
+		for (; i < end; i++) {
+			int digit = value.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return Integer.parseInt(value.substring(start, end));
+			}
+			result = result * 10 + digit;
+		}
+		result = negative ? -result : result;
+		if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE) {
+			// Let the JDK report the overflow
+			return Integer.parseInt(value.substring(start, end));
+		}
+		return (int) result;
+	}
+
+	private static double parseDouble(String value, int start, int end) {
+		while (start < end && value.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && value.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		int i = start;
+		boolean negative = false;
+		if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+			negative = value.charAt(i) == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = -1;
+		for (; i < end; i++) {
+			char c = value.charAt(i);
+			if (c == '.' && fractionDigits < 0) {
+				fractionDigits = 0;
+			} else if (c >= '0' && c <= '9' && digits < MAX_FAST_DIGITS) {
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+				if (fractionDigits >= 0) {
+					fractionDigits++;
+				}
+			} else {
+				// Exponents, special values, type suffixes and long items are left to the JDK
+				return Double.parseDouble(value.substring(start, end));
+			}
+		}
+		if (digits == 0) {
+			return Double.parseDouble(value.substring(start, end));
+		}
+		// The mantissa and power of ten are exact, so the division is correctly rounded
+		double result = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+		return negative ? -result : result;
+	}
+
+	/**
+	 * Immutable list view of an array of integers.
+	 */
+	static final class IntList extends AbstractList<Integer> implements RandomAccess {
+
+		private final int[] items;
+
+		IntList(int[] items) {
+			this.items = items;
+		}
+
+		int[] getItems() {
+			return items;
+		}
+
+		@Override
+		public Integer get(int index) {
+			return items[index];
+		}
+
+		@Override
+		public int size() {
+			return items.length;
+		}
+	}
+
+	/**
+	 * Immutable list view of an array of numbers.
+	 */
+	static final class DoubleList extends AbstractList<Double> implements RandomAccess {
+
+		private final double[] items;
+
+		DoubleList(double[] items) {
+			this.items = items;
+		}
+
+		double[] getItems() {
+			return items;
+		}
+
+		@Override
+		public Double get(int index) {
+			return items[index];
+		}
+
+		@Override
+		public int size() {
+			return items.length;
+		}
+	}
+}
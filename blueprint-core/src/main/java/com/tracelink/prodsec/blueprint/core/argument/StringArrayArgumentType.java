@@ -1,9 +1,7 @@
 package com.tracelink.prodsec.blueprint.core.argument;
 
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -23,16 +21,18 @@ public class StringArrayArgumentType extends ArgumentType {
 	 */
 	@Override
 	public boolean matchesArgument(String configuredArgument, boolean uniqueItems) {
-		List<String> strings = getArrayItems(configuredArgument);
-		if (strings == null) {
-			return false;
-		}
+		return new ParsedArgument(this, configuredArgument).matches(uniqueItems);
+	}
 
-		if (uniqueItems) {
-			Set<String> uniqueStrings = new HashSet<>(strings);
-			return strings.size() == uniqueStrings.size();
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean matchesParsedArgument(ParsedArgument argument, boolean uniqueItems) {
+		if (argument.getItems() == null) {
+			return false;
 		}
-		return true;
+		return !uniqueItems || argument.getMultiset().isDistinct();
 	}
 
 	/**
@@ -40,12 +40,20 @@ public class StringArrayArgumentType extends ArgumentType {
 	 */
 	@Override
 	public String generateRego(String configuredArgument) {
-		List<String> strings = getArrayItems(configuredArgument);
+		return new ParsedArgument(this, configuredArgument).getRego();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String generateParsedRego(ParsedArgument argument) {
+		List<?> strings = argument.getItems();
 		if (strings == null) {
 			return null;
 		}
-		return "[\"" + String.join("\", \"", strings) + "\"]";
-
+		return "[\"" + strings.stream().map(String::valueOf)
+				.collect(Collectors.joining("\", \"")) + "\"]";
 	}
 
 	/**
@@ -65,6 +73,6 @@ public class StringArrayArgumentType extends ArgumentType {
 	 */
 	@Override
 	public ArgumentType getBaseType() {
-		return new StringArgumentType();
+		return getTypeForName("string");
 	}
 }
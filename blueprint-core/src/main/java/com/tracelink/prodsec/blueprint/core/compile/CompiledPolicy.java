@@ -0,0 +1,168 @@
+package com.tracelink.prodsec.blueprint.core.compile;
+
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderError;
+import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
+import com.tracelink.prodsec.blueprint.core.report.RuleViolation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The immutable result of compiling a {@link Policy}: whether it passed validation, the rendered
+ * errors and violations of its validation report and, if the policy is valid, its Rego
+ * expressions.
+ * <p>
+ * Compiled policies are shared between all policies with the same {@link PolicyFingerprint}, so
+ * they only hold strings and clause indexes, not the report or any policy nodes. The locations and
+ * clause indexes are those of the first policy that was compiled with that fingerprint, and the
+ * items of unordered array arguments appear in the Rego in the order they were configured in that
+ * policy.
+ *
+ * @author csmith
+ */
+public final class CompiledPolicy {
+
+	private final String fingerprint;
+	private final boolean valid;
+	private final List<Problem> problems;
+	private final String rego;
+	private final List<Integer> removedClauseIndexes;
+	private final List<Integer> simplifiedClauseIndexes;
+
+	public CompiledPolicy(String fingerprint, PolicyBuilderReport report, String rego) {
+		this(fingerprint, report, rego, null);
+	}
+
+	/**
+	 * Create a compiled policy whose Rego was generated for the given minimized policy. The
+	 * problems of the report are rendered, and neither the report nor the minimized policy is
+	 * kept.
+	 *
+	 * @param fingerprint     the fingerprint of the compiled policy
+	 * @param report          the validation report of the compiled policy
+	 * @param rego            the Rego of the minimized policy, or null if invalid
+	 * @param minimizedPolicy the minimized policy, or null if the policy was not minimized
+	 */
+	public CompiledPolicy(String fingerprint, PolicyBuilderReport report, String rego,
+			MinimizedPolicy minimizedPolicy) {
+		this.fingerprint = fingerprint;
+		this.valid = !report.hasErrors() && !report.hasViolations();
+		List<Problem> rendered = new ArrayList<>();
+		for (PolicyBuilderError error : report.getErrors()) {
+			rendered.add(new Problem(null, error.getLocation(), error.getMessage()));
+		}
+		for (RuleViolation violation : report.getViolations()) {
+			rendered.add(new Problem(violation.getRule() == null ? null
+					: violation.getRule().getName(), violation.getLocation(),
+					violation.getMessage()));
+		}
+		this.problems = Collections.unmodifiableList(rendered);
+		this.rego = rego;
+		this.removedClauseIndexes = minimizedPolicy == null ? null
+				: getIndexes(minimizedPolicy.getRemovedClauses());
+		this.simplifiedClauseIndexes = minimizedPolicy == null ? null
+				: getIndexes(minimizedPolicy.getSimplifiedClauses());
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * Gets the errors and then the violations of the validation report, in report order.
+	 *
+	 * @return unmodifiable list of problems, empty if there are none
+	 */
+	public List<Problem> getProblems() {
+		return problems;
+	}
+
+	/**
+	 * Gets the Rego expressions for the policy.
+	 *
+	 * @return the Rego expressions, or null if the policy is invalid, was only checked or Rego
+	 * could not be generated
+	 */
+	public String getRego() {
+		return rego;
+	}
+
+	/**
+	 * Determines whether the Rego was generated for a minimized policy.
+	 *
+	 * @return true if the policy was minimized, false otherwise
+	 */
+	public boolean isMinimized() {
+		return removedClauseIndexes != null;
+	}
+
+	/**
+	 * Gets the indexes of the clauses that were removed from the policy by minimization.
+	 *
+	 * @return unmodifiable list of clause indexes, in policy order, or null if the policy was not
+	 * minimized
+	 */
+	public List<Integer> getRemovedClauseIndexes() {
+		return removedClauseIndexes;
+	}
+
+	/**
+	 * Gets the indexes of the clauses that were simplified by minimization.
+	 *
+	 * @return unmodifiable list of clause indexes, in policy order, or null if the policy was not
+	 * minimized
+	 */
+	public List<Integer> getSimplifiedClauseIndexes() {
+		return simplifiedClauseIndexes;
+	}
+
+	/**
+	 * Determines whether the policy passed validation without any errors or violations.
+	 *
+	 * @return true if the policy is valid, false otherwise
+	 */
+	public boolean isValid() {
+		return valid;
+	}
+
+	private static List<Integer> getIndexes(List<PolicyClause> clauses) {
+		return Collections.unmodifiableList(clauses.stream().map(PolicyClause::getIndex)
+				.collect(Collectors.toList()));
+	}
+
+	/**
+	 * A rendered error or violation of the validation report of a compiled policy.
+	 */
+	public static final class Problem {
+
+		private final String rule;
+		private final String location;
+		private final String message;
+
+		public Problem(String rule, String location, String message) {
+			this.rule = rule;
+			this.location = location;
+			this.message = message;
+		}
+
+		/**
+		 * Gets the name of the violated rule.
+		 *
+		 * @return the rule name, or null if the problem is an error
+		 */
+		public String getRule() {
+			return rule;
+		}
+
+		public String getLocation() {
+			return location;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package com.tracelink.prodsec.blueprint.core.compile;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, content-addressed cache of {@link CompiledPolicy} objects. Entries are weighted by the
+ * size of the strings they hold, and the least recently used entries are evicted once the total
+ * weight exceeds the maximum. Hit, miss and eviction counts are kept for monitoring. All methods
+ * are thread-safe.
+ *
+ * @author csmith
+ */
+public class CompiledPolicyCache {
+
+	public static final long DEFAULT_MAX_WEIGHT = 8L * 1024 * 1024;
+	// Approximate overheads, in characters, of an entry, of each problem and of each clause index
+	private static final int ENTRY_WEIGHT = 1024;
+	private static final int PROBLEM_WEIGHT = 32;
+	private static final int INDEX_WEIGHT = 8;
+
+	private final long maxWeight;
+	private final Map<String, CompiledPolicy> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long weight;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	/**
+	 * Create a cache with the default maximum weight.
+	 */
+	public CompiledPolicyCache() {
+		this(DEFAULT_MAX_WEIGHT);
+	}
+
+	/**
+	 * Create a cache with the given maximum weight, measured in characters of the fingerprint, Rego
+	 * and problem locations and messages, plus a fixed overhead per entry, problem and clause
+	 * index.
+	 *
+	 * @param maxWeight the maximum total weight of all entries
+	 */
+	public CompiledPolicyCache(long maxWeight) {
+		if (maxWeight < 1) {
+			throw new IllegalArgumentException("Compiled policy cache weight must be positive");
+		}
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * Gets the compiled policy for the given key, and records a hit or a miss.
+	 *
+	 * @param key the key of the compiled policy
+	 * @return the compiled policy, or null if it is not cached
+	 */
+	public synchronized CompiledPolicy get(String key) {
+		CompiledPolicy compiledPolicy = entries.get(key);
+		if (compiledPolicy == null) {
+			missCount++;
+		} else {
+			hitCount++;
+		}
+		return compiledPolicy;
+	}
+
+	/**
+	 * Adds the compiled policy for the given key, and evicts the least recently used entries until
+	 * the cache is within its maximum weight. An entry that is heavier than the maximum weight is
+	 * not cached.
+	 *
+	 * @param key            the key of the compiled policy
+	 * @param compiledPolicy the compiled policy to cache
+	 */
+	public synchronized void put(String key, CompiledPolicy compiledPolicy) {
+		long entryWeight = weigh(compiledPolicy);
+		if (entryWeight > maxWeight) {
+			return;
+		}
+		CompiledPolicy previous = entries.put(key, compiledPolicy);
+		if (previous != null) {
+			weight -= weigh(previous);
+		}
+		weight += entryWeight;
+		Iterator<CompiledPolicy> iterator = entries.values().iterator();
+		while (weight > maxWeight && iterator.hasNext()) {
+			weight -= weigh(iterator.next());
+			iterator.remove();
+			evictionCount++;
+		}
+	}
+
+	/**
+	 * Remove all compiled policies. Hit, miss and eviction counts are kept.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		weight = 0;
+	}
+
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	private static long weigh(CompiledPolicy compiledPolicy) {
+		long weight = ENTRY_WEIGHT + length(compiledPolicy.getFingerprint())
+				+ length(compiledPolicy.getRego());
+		// Rule names are shared with the rules, so only the rendered strings are counted
+		for (CompiledPolicy.Problem problem : compiledPolicy.getProblems()) {
+			weight += PROBLEM_WEIGHT + length(problem.getLocation()) + length(problem.getMessage());
+		}
+		if (compiledPolicy.isMinimized()) {
+			weight += (long) INDEX_WEIGHT * (compiledPolicy.getRemovedClauseIndexes().size()
+					+ compiledPolicy.getSimplifiedClauseIndexes().size());
+		}
+		return weight;
+	}
+
+	private static int length(String value) {
+		return value == null ? 0 : value.length();
+	}
+}
@@ -0,0 +1,65 @@
+package com.tracelink.prodsec.blueprint.core.compile;
+
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of minimizing a {@link Policy}: an equivalent policy with fewer or smaller clauses,
+ * and the clauses of the original policy that were removed or simplified.
+ *
+ * @author csmith
+ */
+public final class MinimizedPolicy {
+
+	private final Policy policy;
+	private final List<PolicyClause> removedClauses;
+	private final List<PolicyClause> simplifiedClauses;
+
+	MinimizedPolicy(Policy policy, List<PolicyClause> removedClauses,
+			List<PolicyClause> simplifiedClauses) {
+		this.policy = policy;
+		this.removedClauses = Collections.unmodifiableList(removedClauses);
+		this.simplifiedClauses = Collections.unmodifiableList(simplifiedClauses);
+	}
+
+	/**
+	 * Gets the minimized policy. Its clauses and statements are copies, so the original policy is
+	 * not modified.
+	 *
+	 * @return the minimized policy
+	 */
+	public Policy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Gets the clauses of the original policy that are not part of the minimized policy, because
+	 * they can never be true or are only true when another clause is.
+	 *
+	 * @return unmodifiable list of removed clauses, in policy order
+	 */
+	public List<PolicyClause> getRemovedClauses() {
+		return removedClauses;
+	}
+
+	/**
+	 * Gets the clauses of the original policy that are part of the minimized policy with fewer
+	 * statements.
+	 *
+	 * @return unmodifiable list of simplified clauses, in policy order
+	 */
+	public List<PolicyClause> getSimplifiedClauses() {
+		return simplifiedClauses;
+	}
+
+	/**
+	 * Determines whether minimization changed the policy.
+	 *
+	 * @return true if any clause was removed or simplified, false otherwise
+	 */
+	public boolean isChanged() {
+		return !removedClauses.isEmpty() || !simplifiedClauses.isEmpty();
+	}
+}
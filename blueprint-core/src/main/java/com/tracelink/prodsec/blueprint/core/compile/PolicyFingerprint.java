@@ -0,0 +1,295 @@
+package com.tracelink.prodsec.blueprint.core.compile;
+
+import com.tracelink.prodsec.blueprint.core.argument.ParsedArgument;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import com.tracelink.prodsec.blueprint.core.statement.PolicyElementState;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Computes a canonical SHA-256 fingerprint of a {@link Policy}. The fingerprint covers every field
+ * of the policy, its clauses, statements, base statements, arguments and functions that validation
+ * rules or Rego generation can read. Two policies have the same fingerprint if they are equal in
+ * all of these fields, where:
+ * <ul>
+ * <li>the items of unordered array arguments are compared as a multiset, in the same way as
+ * {@link ConfiguredStatement#areArgumentsEqual(ConfiguredStatement)}</li>
+ * <li>sets, such as policy types, enumerated values and dependencies, are compared regardless of
+ * their iteration order</li>
+ * </ul>
+ *
+ * @author csmith
+ */
+public final class PolicyFingerprint {
+
+	private static final String ALGORITHM = "SHA-256";
+	private static final int NULL_MARKER = -1;
+	private static final byte[] CYCLE_MARKER = "cycle".getBytes(StandardCharsets.UTF_8);
+
+	private final MessageDigest digest;
+	// Digests of functions that have been fully fingerprinted, by identity
+	private final Map<BaseStatementFunction, byte[]> functionDigests = new IdentityHashMap<>();
+	// Functions on the current dependency path, to stop at cyclic dependencies
+	private final Map<BaseStatementFunction, Boolean> functionPath = new IdentityHashMap<>();
+	private boolean cycleFound;
+
+	private PolicyFingerprint() {
+		this.digest = createDigest();
+	}
+
+	/**
+	 * Computes the fingerprint of the given policy.
+	 *
+	 * @param policy the policy to fingerprint
+	 * @return the lowercase hex encoding of the fingerprint
+	 */
+	public static String of(Policy policy) {
+		PolicyFingerprint fingerprint = new PolicyFingerprint();
+		fingerprint.putPolicy(policy);
+		return toHex(fingerprint.digest.digest());
+	}
+
+	private void putPolicy(Policy policy) {
+		putString(policy.getName());
+		putString(policy.getAuthor());
+		putString(policy.getPolicyType());
+		List<PolicyClause> clauses = policy.getClauses();
+		if (clauses == null) {
+			putInt(NULL_MARKER);
+			return;
+		}
+		putInt(clauses.size());
+		for (PolicyClause clause : clauses) {
+			if (clause == null || clause.getStatements() == null) {
+				putInt(NULL_MARKER);
+				continue;
+			}
+			putInt(clause.getStatements().size());
+			for (ConfiguredStatement statement : clause.getStatements()) {
+				putStatement(statement);
+			}
+		}
+	}
+
+	private void putStatement(ConfiguredStatement statement) {
+		if (statement == null) {
+			putInt(NULL_MARKER);
+			return;
+		}
+		putBoolean(statement.isNegated());
+		BaseStatement baseStatement = statement.getBaseStatement();
+		putBaseStatement(baseStatement);
+		List<String> argumentValues = statement.getArgumentValues();
+		if (argumentValues == null) {
+			putInt(NULL_MARKER);
+			return;
+		}
+		List<BaseStatementArgument> arguments =
+				baseStatement == null ? null : baseStatement.getArguments();
+		putInt(argumentValues.size());
+		for (int i = 0; i < argumentValues.size(); i++) {
+			BaseStatementArgument argument =
+					arguments == null || i >= arguments.size() ? null : arguments.get(i);
+			putArgumentValue(argument, statement.getParsedArgument(i), argumentValues.get(i));
+		}
+	}
+
+	private void putArgumentValue(BaseStatementArgument argument, ParsedArgument parsedArgument,
+			String value) {
+		if (parsedArgument != null && parsedArgument.getItems() != null
+				&& argument.isArrayUnordered()) {
+			// Sort the items so that reordered arrays have the same fingerprint
+			List<String> sortedItems = parsedArgument.getItems().stream().map(String::valueOf)
+					.sorted().collect(Collectors.toList());
+			putBoolean(true);
+			putStrings(sortedItems);
+			return;
+		}
+		// Use the configured value if the items cannot be parsed, as equals does
+		putBoolean(false);
+		putString(value);
+	}
+
+	private void putBaseStatement(BaseStatement baseStatement) {
+		if (baseStatement == null) {
+			putInt(NULL_MARKER);
+			return;
+		}
+		putString(baseStatement.getName());
+		putString(baseStatement.getAuthor());
+		putInt(baseStatement.getVersion());
+		putState(baseStatement.getState());
+		putString(baseStatement.getDescription());
+		putUnordered(baseStatement.getPolicyTypes());
+		putBoolean(baseStatement.isNegationAllowed());
+		List<BaseStatementArgument> arguments = baseStatement.getArguments();
+		if (arguments == null) {
+			putInt(NULL_MARKER);
+		} else {
+			putInt(arguments.size());
+			for (BaseStatementArgument argument : arguments) {
+				putArgument(argument);
+			}
+		}
+		putBytes(functionDigest(baseStatement.getFunction()));
+	}
+
+	private void putArgument(BaseStatementArgument argument) {
+		if (argument == null) {
+			putInt(NULL_MARKER);
+			return;
+		}
+		putString(argument.getParameter());
+		putString(argument.getDescription());
+		putString(argument.getType() == null ? null : argument.getType().getName());
+		putUnordered(argument.getEnumValues());
+		putBoolean(argument.isArrayUnordered());
+		putBoolean(argument.isArrayUnique());
+	}
+
+	/**
+	 * Computes the digest of a function and its dependencies on its own, so that the digests of
+	 * dependencies can be sorted independently of the iteration order of the dependency set.
+	 */
+	private byte[] functionDigest(BaseStatementFunction function) {
+		if (function == null) {
+			return new byte[0];
+		}
+		byte[] cached = functionDigests.get(function);
+		if (cached != null) {
+			return cached;
+		}
+		if (functionPath.containsKey(function)) {
+			// Refer to a function on the current path by name and version only
+			cycleFound = true;
+			PolicyFingerprint reference = new PolicyFingerprint();
+			reference.putBytes(CYCLE_MARKER);
+			reference.putString(function.getName());
+			reference.putInt(function.getVersion());
+			return reference.digest.digest();
+		}
+		functionPath.put(function, Boolean.TRUE);
+		boolean outerCycleFound = cycleFound;
+		cycleFound = false;
+
+		List<byte[]> dependencyDigests = new ArrayList<>();
+		Set<BaseStatementFunction> dependencies = function.getDependencies();
+		if (dependencies != null) {
+			for (BaseStatementFunction dependency : dependencies) {
+				dependencyDigests.add(functionDigest(dependency));
+			}
+			dependencyDigests.sort(Arrays::compareUnsigned);
+		}
+		PolicyFingerprint functionFingerprint = new PolicyFingerprint();
+		functionFingerprint.putString(function.getName());
+		functionFingerprint.putString(function.getAuthor());
+		functionFingerprint.putInt(function.getVersion());
+		functionFingerprint.putState(function.getState());
+		functionFingerprint.putString(function.getDescription());
+		functionFingerprint.putUnordered(function.getPolicyTypes());
+		functionFingerprint.putStrings(function.getParameters());
+		functionFingerprint.putString(function.getExpression());
+		if (dependencies == null) {
+			functionFingerprint.putInt(NULL_MARKER);
+		} else {
+			functionFingerprint.putInt(dependencyDigests.size());
+			dependencyDigests.forEach(functionFingerprint::putBytes);
+		}
+		byte[] functionDigest = functionFingerprint.digest.digest();
+
+		functionPath.remove(function);
+		// Digests that stopped at a cycle depend on the path they were reached by
+		if (!cycleFound) {
+			functionDigests.put(function, functionDigest);
+		}
+		cycleFound = cycleFound || outerCycleFound;
+		return functionDigest;
+	}
+
+	private void putState(PolicyElementState state) {
+		putString(state == null ? null : state.name());
+	}
+
+	private void putUnordered(Collection<String> values) {
+		if (values == null) {
+			putInt(NULL_MARKER);
+			return;
+		}
+		putStrings(values.stream().sorted(PolicyFingerprint::compareNullable)
+				.collect(Collectors.toList()));
+	}
+
+	private void putStrings(List<String> values) {
+		if (values == null) {
+			putInt(NULL_MARKER);
+			return;
+		}
+		putInt(values.size());
+		for (String value : values) {
+			putString(value);
+		}
+	}
+
+	private void putString(String value) {
+		if (value == null) {
+			putInt(NULL_MARKER);
+			return;
+		}
+		putBytes(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void putBytes(byte[] bytes) {
+		putInt(bytes.length);
+		digest.update(bytes);
+	}
+
+	private void putBoolean(boolean value) {
+		digest.update((byte) (value ? 1 : 0));
+	}
+
+	private void putInt(int value) {
+		digest.update((byte) (value >>> 24));
+		digest.update((byte) (value >>> 16));
+		digest.update((byte) (value >>> 8));
+		digest.update((byte) value);
+	}
+
+	private static int compareNullable(String first, String second) {
+		if (first == null || second == null) {
+			return first == null ? (second == null ? 0 : -1) : 1;
+		}
+		return first.compareTo(second);
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance(ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+					.append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+}
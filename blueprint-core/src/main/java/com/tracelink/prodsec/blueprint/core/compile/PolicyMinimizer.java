@@ -0,0 +1,232 @@
+package com.tracelink.prodsec.blueprint.core.compile;
+
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.snapshot.BaseStatementSnapshot;
+import com.tracelink.prodsec.blueprint.core.snapshot.ModelInterner;
+import com.tracelink.prodsec.blueprint.core.snapshot.StatementSnapshot;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Minimizes the clauses of a {@link Policy} before its Rego is generated, so that OPA has fewer and
+ * smaller {@code allow} rules to evaluate. A policy is treated as a formula in disjunctive normal
+ * form, where each clause is a conjunction of statements, and statements that are equal apart from
+ * their negation are the same variable. The minimized policy allows exactly the same inputs.
+ * <p>
+ * The following rewrites are applied to the clauses until none of them applies:
+ * <ul>
+ * <li>Clauses that contain a statement and its negation can never be true and are removed</li>
+ * <li>Subsumption: a clause that contains all statements of another clause is only true when the
+ * other clause is, so it is removed. This includes duplicate clauses, of which the first one is
+ * kept</li>
+ * <li>Absorption: if a clause contains all statements of another clause except for one, which it
+ * contains negated instead, the negated statement is removed from the clause. For two clauses that
+ * only differ in the negation of one statement, this merges them into a single clause with the
+ * remaining statements, in the same way as Quine-McCluskey merges adjacent terms</li>
+ * </ul>
+ * Clauses are never reduced to no statements, as a clause without statements is not valid. A
+ * minimizer is stateless and can be shared.
+ *
+ * @author csmith
+ */
+public final class PolicyMinimizer {
+
+	/**
+	 * Minimizes the given policy. The policy is not modified.
+	 *
+	 * @param policy the policy to minimize
+	 * @return the minimized policy and the clauses that were removed or simplified
+	 */
+	public MinimizedPolicy minimize(Policy policy) {
+		ModelInterner interner = new ModelInterner();
+		Map<Variable, Integer> variables = new HashMap<>();
+		List<Term> terms = new ArrayList<>();
+		for (PolicyClause clause : policy.getClauses()) {
+			Term term = new Term(clause, interner, variables);
+			term.removed = term.isContradictory();
+			terms.add(term);
+		}
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 0; i < terms.size(); i++) {
+				Term term = terms.get(i);
+				for (int j = 0; j < terms.size() && !term.removed; j++) {
+					Term other = terms.get(j);
+					if (i != j && !other.removed && term.reduce(other, i < j)) {
+						changed = true;
+					}
+				}
+			}
+		}
+
+		List<PolicyClause> clauses = new ArrayList<>();
+		List<PolicyClause> removedClauses = new ArrayList<>();
+		List<PolicyClause> simplifiedClauses = new ArrayList<>();
+		for (Term term : terms) {
+			if (term.removed) {
+				removedClauses.add(term.clause);
+			} else {
+				clauses.add(term.copyClause());
+				if (term.simplified) {
+					simplifiedClauses.add(term.clause);
+				}
+			}
+		}
+
+		Policy minimized = new Policy();
+		minimized.setName(policy.getName());
+		minimized.setAuthor(policy.getAuthor());
+		minimized.setPolicyType(policy.getPolicyType());
+		minimized.setClauses(clauses);
+		return new MinimizedPolicy(minimized, removedClauses, simplifiedClauses);
+	}
+
+	/**
+	 * A clause as a sorted set of literals, where the literal of a variable is twice its number,
+	 * plus one if it is negated.
+	 */
+	private static final class Term {
+
+		private final PolicyClause clause;
+		private final int[] statementLiterals;
+		private int[] literals;
+		// Bit set of the variables of the term modulo 64, to rule out most pairs of terms quickly
+		private long signature;
+		private boolean removed;
+		private boolean simplified;
+
+		private Term(PolicyClause clause, ModelInterner interner,
+				Map<Variable, Integer> variables) {
+			this.clause = clause;
+			List<ConfiguredStatement> statements = clause.getStatements();
+			statementLiterals = new int[statements.size()];
+			for (int i = 0; i < statementLiterals.length; i++) {
+				StatementSnapshot snapshot = interner.snapshot(statements.get(i));
+				int variable = variables.computeIfAbsent(new Variable(snapshot),
+						v -> variables.size());
+				statementLiterals[i] = 2 * variable + (snapshot.isNegated() ? 1 : 0);
+			}
+			setLiterals(Arrays.stream(statementLiterals).sorted().distinct().toArray());
+			simplified = literals.length < statementLiterals.length;
+		}
+
+		private void setLiterals(int[] literals) {
+			this.literals = literals;
+			signature = 0;
+			for (int literal : literals) {
+				signature |= 1L << (literal >> 1);
+			}
+		}
+
+		private boolean contains(int literal) {
+			return Arrays.binarySearch(literals, literal) >= 0;
+		}
+
+		private boolean isContradictory() {
+			for (int i = 1; i < literals.length; i++) {
+				if (literals[i] == (literals[i - 1] ^ 1)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Removes the other term if it is subsumed by this one, or removes a literal from the other
+		 * term if this one absorbs it. Equal terms are only removed if this term comes first.
+		 *
+		 * @return true if the other term was changed, false otherwise
+		 */
+		private boolean reduce(Term other, boolean first) {
+			if (literals.length > other.literals.length
+					|| (signature & ~other.signature) != 0) {
+				return false;
+			}
+			int pivot = -1;
+			for (int literal : literals) {
+				if (other.contains(literal)) {
+					continue;
+				}
+				if (pivot >= 0 || !other.contains(literal ^ 1)) {
+					return false;
+				}
+				pivot = literal;
+			}
+			if (pivot < 0) {
+				if (literals.length == other.literals.length && !first) {
+					return false;
+				}
+				other.removed = true;
+				return true;
+			}
+			if (other.literals.length == 1) {
+				return false;
+			}
+			int removedLiteral = pivot ^ 1;
+			other.setLiterals(Arrays.stream(other.literals).filter(l -> l != removedLiteral)
+					.toArray());
+			other.simplified = true;
+			return true;
+		}
+
+		private PolicyClause copyClause() {
+			List<ConfiguredStatement> statements = new ArrayList<>();
+			BitSet copied = new BitSet();
+			for (int i = 0; i < statementLiterals.length; i++) {
+				int literal = statementLiterals[i];
+				// Keep the first statement of each remaining literal, in the order of the clause
+				if (contains(literal) && !copied.get(literal)) {
+					copied.set(literal);
+					statements.add(clause.getStatements().get(i).copy());
+				}
+			}
+			PolicyClause copy = new PolicyClause();
+			copy.setStatements(statements);
+			return copy;
+		}
+	}
+
+	/**
+	 * A statement regardless of its negation.
+	 */
+	private static final class Variable {
+
+		private final BaseStatementSnapshot baseStatement;
+		private final int argumentCount;
+		private final List<Object> argumentKeys;
+
+		private Variable(StatementSnapshot statement) {
+			this.baseStatement = statement.getBaseStatement();
+			this.argumentCount = statement.getArgumentCount();
+			this.argumentKeys = statement.getArgumentKeys();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Variable that = (Variable) o;
+			return argumentCount == that.argumentCount
+					&& Objects.equals(baseStatement, that.baseStatement)
+					&& Objects.equals(argumentKeys, that.argumentKeys);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(baseStatement, argumentCount, argumentKeys);
+		}
+	}
+}
@@ -1,20 +1,18 @@
 package com.tracelink.prodsec.blueprint.core.policy;
 
 import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentTypeRegistry;
+import com.tracelink.prodsec.blueprint.core.argument.ItemMultiset;
+import com.tracelink.prodsec.blueprint.core.argument.ParsedArgument;
 import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
-import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyNode;
 import com.tracelink.prodsec.blueprint.core.visitor.PolicyVisitor;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -33,6 +31,9 @@ public class ConfiguredStatement extends AbstractPolicyNode {
 	private boolean negated;
 	@NotNull(message = "Argument values list cannot be null")
 	private List<@NotBlank(message = "Argument values cannot be blank") String> argumentValues = new ArrayList<>();
+	// Parsed from the current argument values and the base statement arguments they were parsed
+	// with, and cleared when either is set
+	private volatile ParsedArguments parsedArguments;
 
 	public void setParent(PolicyClause parent) {
 		this.parent = parent;
@@ -54,6 +55,23 @@ public class ConfiguredStatement extends AbstractPolicyNode {
 		// Set parent
 		baseStatement.setParent(this);
 		this.baseStatement = baseStatement;
+		this.parsedArguments = null;
+	}
+
+	/**
+	 * Creates a copy of this statement that is not in any clause. The copy shares the base
+	 * statement of this statement without becoming its parent, so the base statement, its function
+	 * and its arguments keep their locations in the policy of this statement. The argument values
+	 * are copied into a new list.
+	 *
+	 * @return the copied statement
+	 */
+	public ConfiguredStatement copy() {
+		ConfiguredStatement copy = new ConfiguredStatement();
+		copy.baseStatement = baseStatement;
+		copy.negated = negated;
+		copy.argumentValues = argumentValues == null ? null : new ArrayList<>(argumentValues);
+		return copy;
 	}
 
 	public boolean isNegated() {
@@ -70,6 +88,7 @@ public class ConfiguredStatement extends AbstractPolicyNode {
 
 	public void setArgumentValues(List<String> argumentValues) {
 		this.argumentValues = argumentValues;
+		this.parsedArguments = null;
 	}
 
 	@Override
@@ -107,11 +126,39 @@ public class ConfiguredStatement extends AbstractPolicyNode {
 		return hash;
 	}
 
-	Set<BaseStatementFunction> getAllDependentFunctions() {
-		Set<BaseStatementFunction> dependentFunctions = new HashSet<>();
-		dependentFunctions.add(baseStatement.getFunction());
-		dependentFunctions.addAll(baseStatement.getFunction().getAllDependencies());
-		return dependentFunctions;
+	/**
+	 * Gets the parsed representation of the argument value at the given index, using the argument
+	 * type of the matching base statement argument. Argument values are parsed once and the parsed
+	 * arguments are reused until the argument values, the base statement or the list of base
+	 * statement arguments are set again, so the argument lists should not be modified in place.
+	 *
+	 * @param index the index of the argument value
+	 * @return the parsed argument, or null if there is no argument value or argument type for the
+	 * given index
+	 */
+	public ParsedArgument getParsedArgument(int index) {
+		List<BaseStatementArgument> arguments = baseStatement == null ? null
+				: baseStatement.getArguments();
+		ParsedArguments parsed = parsedArguments;
+		if (parsed == null || parsed.arguments != arguments) {
+			parsed = new ParsedArguments(arguments, parseArguments(arguments));
+			parsedArguments = parsed;
+		}
+		return index >= 0 && index < parsed.values.size() ? parsed.values.get(index) : null;
+	}
+
+	private List<ParsedArgument> parseArguments(List<BaseStatementArgument> arguments) {
+		if (arguments == null || argumentValues == null) {
+			return Collections.emptyList();
+		}
+		int size = Math.min(argumentValues.size(), arguments.size());
+		List<ParsedArgument> parsed = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			ArgumentType type = arguments.get(i) == null ? null : arguments.get(i).getType();
+			parsed.add(type == null ? null
+					: ArgumentTypeRegistry.getInstance().parse(type, argumentValues.get(i)));
+		}
+		return Collections.unmodifiableList(parsed);
 	}
 
 	/**
@@ -133,37 +180,27 @@ public class ConfiguredStatement extends AbstractPolicyNode {
 		// Matching arguments should be equal
 		return IntStream
 				.range(0, Math.min(argumentValues.size(), baseStatement.getArguments().size()))
-				.allMatch(i -> isArgumentEqual(baseStatement.getArguments().get(i),
-						getArgumentValues().get(i),
-						other.getArgumentValues().get(i)));
+				.allMatch(i -> isArgumentEqual(baseStatement.getArguments().get(i), i, other));
 	}
 
-	private boolean isArgumentEqual(BaseStatementArgument argument, String value1, String value2) {
+	private boolean isArgumentEqual(BaseStatementArgument argument, int index,
+			ConfiguredStatement other) {
+		String value1 = argumentValues.get(index);
+		String value2 = other.getArgumentValues().get(index);
 		if (argument.getType().isArrayType() && argument.isArrayUnordered()) {
 			// If the arg is an array type and does not have ordered items, compare items
-			return areArrayItemsEqual(argument.getType(), value1, value2);
-		} else {
-			// A direct equals call will work
-			return Objects.equals(value1, value2);
-		}
-	}
-
-	private boolean areArrayItemsEqual(ArgumentType argumentType, String value1, String value2) {
-		try {
-			// Get the list of items for each argument
-			List<?> items1 = argumentType.getArrayItems(value1);
-			List<?> items2 = argumentType.getArrayItems(value2);
-			// Map the counts of each unique item
-			Map<?, Long> itemCounts1 = items1.stream()
-					.collect(Collectors.groupingBy(e -> e, Collectors.counting()));
-			Map<?, Long> itemCounts2 = items2.stream()
-					.collect(Collectors.groupingBy(e -> e, Collectors.counting()));
-			// Determine whether the counts maps are equivalent
-			return Objects.equals(itemCounts1, itemCounts2);
-		} catch (NumberFormatException e) {
-			// If we cannot read argument items then return direct equals
-			return Objects.equals(value1, value2);
+			ParsedArgument parsed1 = getParsedArgument(index);
+			ParsedArgument parsed2 = other.getParsedArgument(index);
+			if (parsed2 == null || !parsed2.getType().equals(parsed1.getType())) {
+				parsed2 = new ParsedArgument(parsed1.getType(), value2);
+			}
+			if (parsed1.getMultiset() != null && parsed2.getMultiset() != null) {
+				// Determine whether the canonical multisets of items are equivalent
+				return parsed1.getMultiset().equals(parsed2.getMultiset());
+			}
 		}
+		// A direct equals call will work, or we cannot read argument items
+		return Objects.equals(value1, value2);
 	}
 
 	private int generateArgumentsHashCode() {
@@ -175,35 +212,21 @@ public class ConfiguredStatement extends AbstractPolicyNode {
 		hash = 31 * hash + argumentValues.size();
 		for (int i = 0; i < Math.min(argumentValues.size(), baseStatement.getArguments().size());
 				i++) {
-			hash = 31 * hash + argumentHashCode(baseStatement.getArguments().get(i),
-					argumentValues.get(i));
+			hash = 31 * hash + argumentHashCode(baseStatement.getArguments().get(i), i);
 		}
 		return hash;
 	}
 
-	private int argumentHashCode(BaseStatementArgument requiredArg, String arg) {
+	private int argumentHashCode(BaseStatementArgument requiredArg, int index) {
 		if (requiredArg.getType().isArrayType() && requiredArg.isArrayUnordered()) {
-			// If the arg is an array type and does not have ordered items, compare items
-			return argumentItemsHashCode(requiredArg.getType(), arg);
-		} else {
-			// A direct equals call will work
-			return arg == null ? 0 : arg.hashCode();
-		}
-	}
-
-	private int argumentItemsHashCode(ArgumentType argumentType, String arg) {
-		try {
-			// Get the list of items for each argument
-			List<?> items = argumentType.getArrayItems(arg);
-			// Map the counts of each unique item
-			Map<?, Long> itemCounts = items.stream()
-					.collect(Collectors.groupingBy(e -> e, Collectors.counting()));
-			// Return hash code of counts map
-			return itemCounts.hashCode();
-		} catch (NumberFormatException e) {
-			// If we cannot read argument items then return direct hash
-			return Objects.hash(arg);
+			// If the arg is an array type and does not have ordered items, use the multiset hash
+			ItemMultiset multiset = getParsedArgument(index).getMultiset();
+			if (multiset != null) {
+				return multiset.hashCode();
+			}
 		}
+		// A direct hash will work, or we cannot read argument items
+		return Objects.hashCode(argumentValues.get(index));
 	}
 
 	@Override
@@ -221,9 +244,29 @@ public class ConfiguredStatement extends AbstractPolicyNode {
 		return parent;
 	}
 
+	@Override
+	protected int getChildIndex() {
+		return index;
+	}
+
 	@Override
 	protected String getLocationIdentifier() {
 		return "statements[" + index + "]";
 	}
 
+	/**
+	 * The parsed argument values of a statement, and the base statement arguments they were
+	 * parsed with.
+	 */
+	private static final class ParsedArguments {
+
+		private final List<BaseStatementArgument> arguments;
+		private final List<ParsedArgument> values;
+
+		private ParsedArguments(List<BaseStatementArgument> arguments,
+				List<ParsedArgument> values) {
+			this.arguments = arguments;
+			this.values = values;
+		}
+	}
 }
@@ -2,15 +2,24 @@ package com.tracelink.prodsec.blueprint.core.policy;
 
 import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import com.tracelink.prodsec.blueprint.core.statement.FunctionDependencyGraph;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyNode;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractRootNode;
 import com.tracelink.prodsec.blueprint.core.visitor.PolicyVisitor;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
@@ -23,6 +32,12 @@ import javax.validation.constraints.NotNull;
  */
 public class Policy extends AbstractRootNode {
 
+	private static final Comparator<BaseStatementFunction> DEFINITION_ORDER = Comparator
+			.comparingInt(BaseStatementFunction::getVersion)
+			.thenComparing(BaseStatementFunction::getExpression,
+					Comparator.nullsFirst(Comparator.naturalOrder()))
+			.thenComparing(function -> String.valueOf(function.getParameters()));
+
 	private String name;
 	private String author;
 	@NotBlank(message = "A policy must have a policy type")
@@ -65,11 +80,52 @@ public class Policy extends AbstractRootNode {
 		this.clauses = clauses;
 	}
 
+	/**
+	 * Gets all functions called by the statements of this policy, including their transitive
+	 * dependencies, ordered by name. Rego only allows a single definition of each function, so if
+	 * several functions share a name, the one with the highest version is chosen. Remaining ties
+	 * are broken on the function content, so the result never depends on the iteration order of
+	 * the underlying sets and Rego generation is deterministic.
+	 *
+	 * @return set of dependent functions ordered by name
+	 */
 	public Set<BaseStatementFunction> getAllDependentFunctions() {
+		return getAllDependentFunctions(FunctionDependencyGraph.of(getStatementFunctions()));
+	}
+
+	/**
+	 * Gets all functions called by the statements of this policy, including their transitive
+	 * dependencies, as described for {@link #getAllDependentFunctions()}. The dependencies are
+	 * taken from the given graph, so that a graph can be shared by many policies.
+	 *
+	 * @param graph a dependency graph containing the functions called by this policy
+	 * @return set of dependent functions ordered by name
+	 * @throws IllegalArgumentException if a function called by this policy is not in the graph
+	 */
+	public Set<BaseStatementFunction> getAllDependentFunctions(FunctionDependencyGraph graph) {
+		return getStatementFunctions().stream()
+				.flatMap(function -> Stream.concat(Stream.of(function),
+						graph.getAllDependencies(function).stream()))
+				.collect(Collectors.toMap(BaseStatementFunction::getName, Function.identity(),
+						BinaryOperator.maxBy(DEFINITION_ORDER), TreeMap::new))
+				.values().stream().collect(Collectors.toCollection(TreeSet::new));
+	}
+
+	/**
+	 * Gets the distinct functions called directly by the statements of this policy, in the order
+	 * of the statements.
+	 *
+	 * @return list of the functions called by this policy
+	 * @throws NullPointerException if a statement has no base statement or function
+	 */
+	public List<BaseStatementFunction> getStatementFunctions() {
+		Set<BaseStatementFunction> functions = Collections.newSetFromMap(new IdentityHashMap<>());
 		return clauses.stream()
 				.flatMap(clause -> clause.getStatements().stream())
-				.map(ConfiguredStatement::getAllDependentFunctions)
-				.flatMap(Set::stream).collect(Collectors.toCollection(TreeSet::new));
+				.map(statement -> Objects.requireNonNull(
+						statement.getBaseStatement().getFunction(), "Function cannot be null"))
+				.filter(functions::add)
+				.collect(Collectors.toList());
 	}
 
 	@Override
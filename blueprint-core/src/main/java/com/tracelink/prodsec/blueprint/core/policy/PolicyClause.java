@@ -78,6 +78,11 @@ public class PolicyClause extends AbstractPolicyNode {
 		return parent;
 	}
 
+	@Override
+	protected int getChildIndex() {
+		return index;
+	}
+
 	@Override
 	protected String getLocationIdentifier() {
 		return "clauses[" + index + "]";
@@ -0,0 +1,120 @@
+package com.tracelink.prodsec.blueprint.core.rego;
+
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parts of a clause or function that affect its rendered Rego. Two nodes with equal keys
+ * render to the same Rego fragment, so the key can be used to look up previously rendered
+ * fragments in a {@link RegoFragmentCache}. Keys hold the rendered values themselves and compare
+ * them with {@code equals}, so a hash collision can never make two different clauses or functions
+ * share a fragment.
+ *
+ * @author csmith
+ */
+final class FragmentKey {
+
+	private static final Object NULL_MARKER = new Object() {
+		@Override
+		public String toString() {
+			return "null";
+		}
+	};
+
+	private final List<Object> parts;
+	private final int hash;
+
+	private FragmentKey(List<Object> parts) {
+		this.parts = parts;
+		this.hash = parts.hashCode();
+	}
+
+	/**
+	 * Creates the key of everything that is rendered for a clause: for each statement the
+	 * negation, the function name, the argument types and the argument values.
+	 *
+	 * @param clause the clause to create the key of
+	 * @return the key of the clause
+	 */
+	static FragmentKey ofClause(PolicyClause clause) {
+		List<Object> parts = new ArrayList<>();
+		List<ConfiguredStatement> statements = clause.getStatements();
+		if (statements == null) {
+			parts.add(NULL_MARKER);
+			return new FragmentKey(parts);
+		}
+		parts.add(statements.size());
+		for (ConfiguredStatement statement : statements) {
+			parts.add(statement.isNegated());
+			parts.add(statement.getBaseStatement().getFunction().getName());
+			List<BaseStatementArgument> arguments = statement.getBaseStatement().getArguments();
+			if (arguments == null) {
+				parts.add(NULL_MARKER);
+			} else {
+				parts.add(arguments.size());
+				for (BaseStatementArgument argument : arguments) {
+					ArgumentType type = argument == null ? null : argument.getType();
+					parts.add(type == null ? null : type.getName());
+				}
+			}
+			addStrings(parts, statement.getArgumentValues());
+		}
+		return new FragmentKey(parts);
+	}
+
+	/**
+	 * Creates the key of a function version together with everything that is rendered for it: the
+	 * name, the parameters and the expression.
+	 *
+	 * @param function the function to create the key of
+	 * @return the key of the function
+	 */
+	static FragmentKey ofFunction(BaseStatementFunction function) {
+		List<Object> parts = new ArrayList<>();
+		parts.add(function.getVersion());
+		parts.add(function.getName());
+		addStrings(parts, function.getParameters());
+		parts.add(function.getExpression());
+		return new FragmentKey(parts);
+	}
+
+	/**
+	 * Adds the strings prefixed with their count, so that adjacent lists cannot run into each
+	 * other.
+	 */
+	private static void addStrings(List<Object> parts, List<String> values) {
+		if (values == null) {
+			parts.add(NULL_MARKER);
+			return;
+		}
+		parts.add(values.size());
+		parts.addAll(values);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		FragmentKey that = (FragmentKey) o;
+		return hash == that.hash && parts.equals(that.parts);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return parts.toString();
+	}
+}
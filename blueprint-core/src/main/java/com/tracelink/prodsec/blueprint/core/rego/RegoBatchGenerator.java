@@ -0,0 +1,133 @@
+package com.tracelink.prodsec.blueprint.core.rego;
+
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import com.tracelink.prodsec.blueprint.core.statement.FunctionDependencyGraph;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates the Rego for many policies at once on a {@link ForkJoinPool}. Each distinct function
+ * version is rendered only once for the whole batch, and each policy is then generated from the
+ * shared function fragments, with clauses taken from and added to the given fragment cache.
+ * Results are returned in the order of the given policies, and the Rego of each policy is
+ * identical to the Rego generated for it on its own.
+ *
+ * @author csmith
+ */
+public class RegoBatchGenerator {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RegoBatchGenerator.class);
+
+	private final RegoFragmentCache clauseCache;
+
+	/**
+	 * Create a batch generator that reuses rendered clauses from the given cache.
+	 *
+	 * @param clauseCache the cache of rendered clauses, or null to render every clause
+	 */
+	public RegoBatchGenerator(RegoFragmentCache clauseCache) {
+		this.clauseCache = clauseCache;
+	}
+
+	/**
+	 * Generate the Rego for each of the given policies, using the given pool.
+	 *
+	 * @param policies the policies to generate Rego for
+	 * @param pool     the pool to generate the Rego on
+	 * @return the Rego for each policy, in the iteration order of the given policies, with null
+	 * for any policy that the Rego could not be generated for
+	 */
+	public List<String> generate(Collection<Policy> policies, ForkJoinPool pool) {
+		List<Policy> batch = new ArrayList<>(policies);
+		// Parallel streams run in the pool of the task they are started from
+		return pool.submit(() -> generate(batch)).join();
+	}
+
+	private List<String> generate(List<Policy> batch) {
+		// Resolve the dependencies of every policy once, as they are used twice, from a single
+		// graph so that functions shared by policies only have their dependencies resolved once
+		List<List<BaseStatementFunction>> statementFunctions = IntStream.range(0, batch.size())
+				.parallel().mapToObj(i -> resolve(batch.get(i)::getStatementFunctions, i))
+				.collect(Collectors.toList());
+		FunctionDependencyGraph graph = FunctionDependencyGraph.of(statementFunctions.stream()
+				.filter(Objects::nonNull).flatMap(List::stream).collect(Collectors.toList()));
+		List<Set<BaseStatementFunction>> dependencies = IntStream.range(0, batch.size())
+				.parallel().mapToObj(i -> statementFunctions.get(i) == null ? null
+						: resolve(() -> batch.get(i).getAllDependentFunctions(graph), i))
+				.collect(Collectors.toList());
+
+		// Find the distinct function versions in the batch, skipping repeated instances
+		Map<BaseStatementFunction, FragmentKey> instanceKeys = new IdentityHashMap<>();
+		Map<FragmentKey, BaseStatementFunction> distinctFunctions = new LinkedHashMap<>();
+		for (Set<BaseStatementFunction> policyDependencies : dependencies) {
+			if (policyDependencies == null) {
+				continue;
+			}
+			for (BaseStatementFunction function : policyDependencies) {
+				if (!instanceKeys.containsKey(function)) {
+					FragmentKey key = FragmentKey.ofFunction(function);
+					instanceKeys.put(function, key);
+					distinctFunctions.putIfAbsent(key, function);
+				}
+			}
+		}
+
+		// Render each distinct function once, and share the fragment with every instance of it
+		RegoEmitter renderer = RegoEmitter.getInstance();
+		Map<FragmentKey, String> functionFragments = distinctFunctions.entrySet()
+				.parallelStream().collect(Collectors.toConcurrentMap(Map.Entry::getKey, entry -> {
+					StringBuilder buffer = new StringBuilder();
+					renderer.appendFunction(entry.getValue(), buffer);
+					return buffer.toString();
+				}));
+		Map<BaseStatementFunction, String> renderedFunctions = new IdentityHashMap<>();
+		instanceKeys.forEach((function, key) -> renderedFunctions
+				.put(function, functionFragments.get(key)));
+
+		RegoEmitter emitter = new RegoEmitter(clauseCache);
+		return IntStream.range(0, batch.size()).parallel()
+				.mapToObj(i -> generate(emitter, batch.get(i), dependencies.get(i),
+						renderedFunctions, i))
+				.collect(Collectors.toList());
+	}
+
+	private static <T> T resolve(Supplier<T> resolver, int index) {
+		try {
+			return resolver.get();
+		} catch (NullPointerException e) {
+			LOGGER.error("Cannot generate Rego for the policy at index " + index, e);
+			return null;
+		}
+	}
+
+	private static String generate(RegoEmitter emitter, Policy policy,
+			Set<BaseStatementFunction> dependencies,
+			Map<BaseStatementFunction, String> renderedFunctions, int index) {
+		if (dependencies == null) {
+			return null;
+		}
+		StringWriter writer = new StringWriter();
+		try {
+			emitter.generate(policy, dependencies, renderedFunctions, writer);
+			return writer.toString();
+		} catch (IOException | NullPointerException e) {
+			LOGGER.error("Cannot generate Rego for the policy at index " + index, e);
+			return null;
+		}
+	}
+}
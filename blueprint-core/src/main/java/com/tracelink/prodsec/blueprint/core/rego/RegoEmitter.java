@@ -0,0 +1,290 @@
+package com.tracelink.prodsec.blueprint.core.rego;
+
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Default {@link RegoGenerator} that walks the policy model directly, instead of resolving
+ * properties reflectively through a template. The output is byte-identical to the
+ * {@code policy.hbs} template rendered by the {@link TemplateRegoGenerator} for every policy the
+ * template can render. Neither can render a statement that is missing the value of one of its
+ * arguments: the template fails on the lookup of the value, and the emitter fails with an
+ * {@link IOException} that names the argument.
+ * <p>
+ * Each clause and function is assembled in a single buffer that is reused for the whole policy and
+ * written out once it is complete. If the emitter has a {@link RegoFragmentCache}, fragments for
+ * clauses and functions that have not changed since they were last rendered are taken from the
+ * cache instead.
+ *
+ * @author csmith
+ */
+public final class RegoEmitter implements RegoGenerator {
+
+	private static final RegoEmitter INSTANCE = new RegoEmitter(null);
+	private static final String HEADER = "package blueprint\n\ndefault allow = false\n\n";
+	private static final int INITIAL_BUFFER_SIZE = 256;
+
+	private final RegoFragmentCache fragmentCache;
+
+	/**
+	 * Create an emitter that reuses rendered fragments from the given cache.
+	 *
+	 * @param fragmentCache the cache of rendered fragments, or null to render every fragment
+	 */
+	public RegoEmitter(RegoFragmentCache fragmentCache) {
+		this.fragmentCache = fragmentCache;
+	}
+
+	/**
+	 * Gets the shared emitter that does not cache any fragments.
+	 *
+	 * @return the emitter without a fragment cache
+	 */
+	public static RegoEmitter getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Every statement must have a value for each argument of its base statement, unless its list
+	 * of argument values is null, in which case its arguments are rendered as empty values. If
+	 * the list is shorter than the arguments or contains null, an {@link IOException} is thrown.
+	 */
+	@Override
+	public void generate(Policy policy, Writer writer) throws IOException {
+		// Resolve dependencies first so that invalid functions fail before anything is written
+		generate(policy, policy.getAllDependentFunctions(), null, writer);
+	}
+
+	/**
+	 * Generate the Rego for a policy whose dependent functions have already been resolved, and
+	 * possibly rendered.
+	 *
+	 * @param policy            the policy to use to generate Rego expressions
+	 * @param dependencies      the sorted dependent functions of the policy
+	 * @param renderedFunctions rendered fragments of the dependent functions, by instance, or null
+	 * @param writer            the writer to write the Rego expressions to
+	 * @throws IOException if the Rego cannot be generated or the writer fails
+	 */
+	void generate(Policy policy, Iterable<BaseStatementFunction> dependencies,
+			Map<BaseStatementFunction, String> renderedFunctions, Writer writer) throws IOException {
+		StringBuilder buffer = new StringBuilder(INITIAL_BUFFER_SIZE);
+		writer.write(HEADER);
+		writeClauses(policy, buffer, writer);
+		writeFunctions(dependencies, renderedFunctions, buffer, writer);
+	}
+
+	/**
+	 * Generate a Rego module for the given policy, to be loaded together with a library module
+	 * generated by {@link #generateLibrary(String, Iterable, Writer)}. Instead of defining its
+	 * functions, the module imports each function it calls from the library package.
+	 *
+	 * @param policy         the policy to use to generate Rego expressions
+	 * @param packageName    the package of the policy module
+	 * @param libraryPackage the package of the library module that defines the functions
+	 * @param writer         the writer to write the Rego module to
+	 * @throws IOException if the Rego cannot be generated or the writer fails
+	 */
+	public void generateModule(Policy policy, String packageName, String libraryPackage,
+			Writer writer) throws IOException {
+		Set<String> functionNames = new TreeSet<>();
+		for (PolicyClause clause : policy.getClauses()) {
+			for (ConfiguredStatement statement : clause.getStatements()) {
+				functionNames.add(statement.getBaseStatement().getFunction().getName());
+			}
+		}
+		StringBuilder buffer = new StringBuilder(INITIAL_BUFFER_SIZE);
+		buffer.append("package ").append(packageName).append("\n\n");
+		for (String functionName : functionNames) {
+			buffer.append("import data.").append(libraryPackage).append('.').append(functionName)
+					.append('\n');
+		}
+		if (!functionNames.isEmpty()) {
+			buffer.append('\n');
+		}
+		buffer.append("default allow = false\n\n");
+		writer.append(buffer);
+		writeClauses(policy, buffer, writer);
+	}
+
+	/**
+	 * Generate a Rego library module that defines the given functions.
+	 *
+	 * @param packageName the package of the library module
+	 * @param functions   the functions to define, in the order they should be written
+	 * @param writer      the writer to write the Rego module to
+	 * @throws IOException if the writer fails
+	 */
+	public void generateLibrary(String packageName, Iterable<BaseStatementFunction> functions,
+			Writer writer) throws IOException {
+		StringBuilder buffer = new StringBuilder(INITIAL_BUFFER_SIZE);
+		writer.write("package " + packageName + "\n\n");
+		writeFunctions(functions, null, buffer, writer);
+	}
+
+	/**
+	 * Generate the Rego definition of a single function, without a package declaration.
+	 *
+	 * @param function the function to define
+	 * @param writer   the writer to write the Rego definition to
+	 * @throws IOException if the writer fails
+	 */
+	public void generateFunction(BaseStatementFunction function, Writer writer)
+			throws IOException {
+		StringBuilder buffer = new StringBuilder(INITIAL_BUFFER_SIZE);
+		writeFunctions(Collections.singletonList(function), null, buffer, writer);
+	}
+
+	private void writeClauses(Policy policy, StringBuilder buffer, Writer writer)
+			throws IOException {
+		for (PolicyClause clause : policy.getClauses()) {
+			if (fragmentCache == null) {
+				buffer.setLength(0);
+				appendClause(clause, buffer);
+				writer.append(buffer);
+				continue;
+			}
+			FragmentKey key = FragmentKey.ofClause(clause);
+			String fragment = fragmentCache.getClause(key);
+			if (fragment == null) {
+				buffer.setLength(0);
+				appendClause(clause, buffer);
+				fragment = buffer.toString();
+				fragmentCache.putClause(key, fragment);
+			}
+			writer.write(fragment);
+		}
+	}
+
+	private void writeFunctions(Iterable<BaseStatementFunction> functions,
+			Map<BaseStatementFunction, String> renderedFunctions, StringBuilder buffer,
+			Writer writer) throws IOException {
+		for (BaseStatementFunction function : functions) {
+			String rendered = renderedFunctions == null ? null : renderedFunctions.get(function);
+			if (rendered != null) {
+				writer.write(rendered);
+				continue;
+			}
+			if (fragmentCache == null) {
+				buffer.setLength(0);
+				appendFunction(function, buffer);
+				writer.append(buffer);
+				continue;
+			}
+			FragmentKey key = FragmentKey.ofFunction(function);
+			String fragment = fragmentCache.getFunction(key);
+			if (fragment == null) {
+				buffer.setLength(0);
+				appendFunction(function, buffer);
+				fragment = buffer.toString();
+				fragmentCache.putFunction(key, fragment);
+			}
+			writer.write(fragment);
+		}
+	}
+
+	/**
+	 * Appends the allow rule for a single clause, with one line per configured statement.
+	 *
+	 * @param clause the clause to append
+	 * @param buffer the buffer to append to
+	 * @throws IOException if an argument of a statement cannot be rendered
+	 */
+	void appendClause(PolicyClause clause, StringBuilder buffer) throws IOException {
+		buffer.append("allow {");
+		List<ConfiguredStatement> statements = clause.getStatements();
+		if (statements != null) {
+			for (ConfiguredStatement statement : statements) {
+				buffer.append("\n\t");
+				appendStatement(statement, buffer);
+			}
+		}
+		buffer.append("\n}\n\n");
+	}
+
+	/**
+	 * Appends a single configured statement as a call to its function, with the configured
+	 * arguments rendered by their argument types.
+	 *
+	 * @param statement the statement to append
+	 * @param buffer    the buffer to append to
+	 * @throws IOException if an argument of the statement has no argument type or no value
+	 */
+	void appendStatement(ConfiguredStatement statement, StringBuilder buffer) throws IOException {
+		BaseStatement baseStatement = statement.getBaseStatement();
+		if (statement.isNegated()) {
+			buffer.append("not ");
+		}
+		appendValue(baseStatement.getFunction().getName(), buffer);
+		List<BaseStatementArgument> arguments = baseStatement.getArguments();
+		if (arguments == null || arguments.isEmpty()) {
+			return;
+		}
+		List<String> argumentValues = statement.getArgumentValues();
+		buffer.append('(');
+		for (int i = 0; i < arguments.size(); i++) {
+			if (i > 0) {
+				buffer.append(", ");
+			}
+			BaseStatementArgument argument = arguments.get(i);
+			ArgumentType argumentType = argument == null ? null : argument.getType();
+			if (argumentType == null) {
+				throw new IOException("Cannot render argument " + i + " without an argument type");
+			}
+			if (argumentValues == null) {
+				appendValue(argumentType.generateRego((String) null), buffer);
+				continue;
+			}
+			if (i >= argumentValues.size() || argumentValues.get(i) == null) {
+				throw new IOException("Missing value for argument " + i);
+			}
+			// Reuse the argument as parsed by validation
+			appendValue(statement.getParsedArgument(i).getRego(), buffer);
+		}
+		buffer.append(')');
+	}
+
+	/**
+	 * Appends the definition of a single function, with its parameters and expression.
+	 *
+	 * @param function the function to append
+	 * @param buffer   the buffer to append to
+	 */
+	void appendFunction(BaseStatementFunction function, StringBuilder buffer) {
+		appendValue(function.getName(), buffer);
+		List<String> parameters = function.getParameters();
+		if (parameters != null && !parameters.isEmpty()) {
+			buffer.append('(');
+			for (int i = 0; i < parameters.size(); i++) {
+				if (i > 0) {
+					buffer.append(", ");
+				}
+				appendValue(parameters.get(i), buffer);
+			}
+			buffer.append(')');
+		}
+		buffer.append(" {\n\t");
+		appendValue(function.getExpression(), buffer);
+		buffer.append("\n}\n\n");
+	}
+
+	private static void appendValue(String value, StringBuilder buffer) {
+		// Missing values render as empty text, as they do in the template
+		if (value != null) {
+			buffer.append(value);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.tracelink.prodsec.blueprint.core.rego;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of rendered Rego fragments for clauses and functions, keyed by their structural
+ * {@link FragmentKey}. When a single statement of a large policy changes, only the clause that
+ * contains it needs to be rendered again. The least recently used fragments are evicted once the
+ * cache is full. All methods are thread-safe.
+ *
+ * @author csmith
+ */
+public class RegoFragmentCache {
+
+	public static final int DEFAULT_MAX_CLAUSES = 4096;
+	public static final int DEFAULT_MAX_FUNCTIONS = 1024;
+
+	private final Map<FragmentKey, String> clauses;
+	private final Map<FragmentKey, String> functions;
+
+	/**
+	 * Create a cache with the default bounds for clauses and functions.
+	 */
+	public RegoFragmentCache() {
+		this(DEFAULT_MAX_CLAUSES, DEFAULT_MAX_FUNCTIONS);
+	}
+
+	/**
+	 * Create a cache with the given bounds for clauses and functions.
+	 *
+	 * @param maxClauses   the maximum number of clause fragments to keep
+	 * @param maxFunctions the maximum number of function fragments to keep
+	 */
+	public RegoFragmentCache(int maxClauses, int maxFunctions) {
+		if (maxClauses < 1 || maxFunctions < 1) {
+			throw new IllegalArgumentException("Fragment cache bounds must be positive");
+		}
+		this.clauses = createLruMap(maxClauses);
+		this.functions = createLruMap(maxFunctions);
+	}
+
+	synchronized String getClause(FragmentKey key) {
+		return clauses.get(key);
+	}
+
+	synchronized void putClause(FragmentKey key, String fragment) {
+		clauses.put(key, fragment);
+	}
+
+	synchronized String getFunction(FragmentKey key) {
+		return functions.get(key);
+	}
+
+	synchronized void putFunction(FragmentKey key, String fragment) {
+		functions.put(key, fragment);
+	}
+
+	public synchronized int getClauseCount() {
+		return clauses.size();
+	}
+
+	public synchronized int getFunctionCount() {
+		return functions.size();
+	}
+
+	/**
+	 * Remove all cached fragments.
+	 */
+	public synchronized void clear() {
+		clauses.clear();
+		functions.clear();
+	}
+
+	private static Map<FragmentKey, String> createLruMap(int maxEntries) {
+		return new LinkedHashMap<FragmentKey, String>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<FragmentKey, String> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+}
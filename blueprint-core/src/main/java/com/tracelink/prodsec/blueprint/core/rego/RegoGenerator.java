@@ -0,0 +1,23 @@
+package com.tracelink.prodsec.blueprint.core.rego;
+
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Transforms a {@link Policy} into its equivalent Rego expressions.
+ *
+ * @author csmith
+ */
+public interface RegoGenerator {
+
+	/**
+	 * Generate the Rego policy expressions for the given {@link Policy} and write them to the
+	 * given writer. The writer is not flushed or closed.
+	 *
+	 * @param policy the policy to use to generate Rego expressions
+	 * @param writer the writer to write the Rego expressions to
+	 * @throws IOException if the Rego cannot be generated or the writer fails
+	 */
+	void generate(Policy policy, Writer writer) throws IOException;
+}
@@ -0,0 +1,80 @@
+package com.tracelink.prodsec.blueprint.core.rego;
+
+import com.github.jknack.handlebars.EscapingStrategy;
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.HandlebarsException;
+import com.github.jknack.handlebars.Helper;
+import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.io.ClassPathTemplateLoader;
+import com.github.jknack.handlebars.io.TemplateLoader;
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link RegoGenerator} that renders a Handlebars template. This is an opt-in alternative to the
+ * {@link RegoEmitter} for custom templates. Templates are given the {@code policy} and its sorted
+ * {@code dependencies}, and may use the {@code configuredArg} helper to render an argument value
+ * for its argument type.
+ *
+ * @author csmith
+ */
+public class TemplateRegoGenerator implements RegoGenerator {
+
+	/**
+	 * Name of the built-in template that the {@link RegoEmitter} is equivalent to.
+	 */
+	public static final String DEFAULT_TEMPLATE = "policy";
+	private static final String TEMPLATE_PREFIX = "/templates/";
+	private static final String TEMPLATE_SUFFIX = ".hbs";
+
+	private final Template template;
+
+	/**
+	 * Create a generator for a template on the classpath under {@code /templates/}.
+	 *
+	 * @param templateName the name of the template, without the {@code .hbs} suffix
+	 * @throws IOException if the template cannot be loaded or compiled
+	 */
+	public TemplateRegoGenerator(String templateName) throws IOException {
+		this(new ClassPathTemplateLoader(TEMPLATE_PREFIX, TEMPLATE_SUFFIX), templateName);
+	}
+
+	/**
+	 * Create a generator for a template loaded by the given template loader.
+	 *
+	 * @param templateLoader the loader to load the template with
+	 * @param templateName   the name of the template to load
+	 * @throws IOException if the template cannot be loaded or compiled
+	 */
+	public TemplateRegoGenerator(TemplateLoader templateLoader, String templateName)
+			throws IOException {
+		Handlebars handlebars = new Handlebars(templateLoader).with(EscapingStrategy.NOOP);
+		handlebars.registerHelper("configuredArg",
+				((Helper<ArgumentType>) (argumentType, options) -> argumentType
+						.generateRego(options.param(0))));
+		try {
+			template = handlebars.compile(templateName);
+		} catch (HandlebarsException e) {
+			throw new IOException("Cannot compile the Rego template " + templateName, e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void generate(Policy policy, Writer writer) throws IOException {
+		Map<String, Object> templateArgs = new HashMap<>();
+		templateArgs.put("policy", policy);
+		templateArgs.put("dependencies", policy.getAllDependentFunctions());
+		try {
+			template.apply(templateArgs, writer);
+		} catch (HandlebarsException e) {
+			throw new IOException("Cannot apply the Rego template", e);
+		}
+	}
+}
@@ -3,32 +3,83 @@ package com.tracelink.prodsec.blueprint.core.report;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyNode;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractRootNode;
+import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * A report object for holding any {@link RuleViolation} and {@link PolicyBuilderError}
- * objects found during a ruleset scan of a {@link AbstractRootNode}.
+ * objects found during a ruleset scan of a {@link AbstractRootNode}. Reports are thread-safe, and
+ * their getters return copies of the violations and errors.
+ * <p>
+ * Reports count their violations by severity and index them by rule as they are added, so
+ * checking for violations after each rule does not get slower as violations are found. The index
+ * of violations by location is extended when it is read. Violations added to or merged into a
+ * report are published to the listeners and subscribers of its {@link ValidationContext}, in
+ * report order. Reports that only collect the violations of a single rule until they are merged
+ * are not published, so violations that are discarded are never published.
  *
  * @author csmith
  */
 public class PolicyBuilderReport {
 
-	private final Map<String, List<RuleViolation>> violations = new HashMap<>();
+	// Rules without a severity are counted separately, after the known severities
+	private static final int SEVERITY_COUNT = RuleSeverity.values().length + 1;
+
+	// Violations are kept in the order they are reported in, and only grouped by their location
+	// when they are read, so that locations are not rendered while validating
+	private final List<RuleViolation> violations = new ArrayList<>();
+	private final int[] severityCounts = new int[SEVERITY_COUNT];
+	private final Map<AbstractPolicyRule, List<RuleViolation>> violationsByRule =
+			new LinkedHashMap<>();
+	private final Map<String, List<RuleViolation>> violationsByLocation = new LinkedHashMap<>();
+	private int locatedViolations;
 	private final List<PolicyBuilderError> errors = new ArrayList<>();
 	private final AbstractRootNode rootNode;
+	private final ValidationContext context;
+	private final boolean published;
 
 	public PolicyBuilderReport(AbstractRootNode rootNode) {
+		this(rootNode, new ValidationContext());
+	}
+
+	/**
+	 * Create a report that shares the context of a validation with other reports, e.g. the reports
+	 * of rules that are merged into a single report
+	 *
+	 * @param rootNode the root node being validated
+	 * @param context  the context of the validation
+	 */
+	public PolicyBuilderReport(AbstractRootNode rootNode, ValidationContext context) {
+		this(rootNode, context, true);
+	}
+
+	/**
+	 * Create a report that shares the context of a validation with other reports, and whose
+	 * violations are only published once it is merged into a published report
+	 *
+	 * @param rootNode  the root node being validated
+	 * @param context   the context of the validation
+	 * @param published whether violations added to or merged into this report are published
+	 */
+	protected PolicyBuilderReport(AbstractRootNode rootNode, ValidationContext context,
+			boolean published) {
 		this.rootNode = rootNode;
+		this.context = context;
+		this.published = published;
 	}
 
 	public AbstractRootNode getRootNode() {
 		return this.rootNode;
 	}
 
+	public ValidationContext getContext() {
+		return context;
+	}
+
 	/**
 	 * Adds the supplied values as a violation to this report
 	 *
@@ -37,11 +88,13 @@ public class PolicyBuilderReport {
 	 * @param message the message indicating why the violation occurred
 	 */
 	public void addViolation(AbstractPolicyRule rule, AbstractPolicyNode node, String message) {
-		addViolation(rule, node, node.getLocation(), message);
+		add(new RuleViolation(rule, node, null, message, null));
 	}
 
 	/**
-	 * Adds the supplied values as a violation to this report
+	 * Adds the supplied values as a violation to this report. Prefer
+	 * {@link #addPropertyViolation(AbstractPolicyRule, AbstractPolicyNode, String, String)} for
+	 * locations within a node, which only renders the location when it is read.
 	 *
 	 * @param rule     the rule that was violated
 	 * @param location the location of the violation
@@ -50,30 +103,158 @@ public class PolicyBuilderReport {
 	 */
 	public void addViolation(AbstractPolicyRule rule, AbstractPolicyNode node, String location,
 			String message) {
-		if (violations.containsKey(location)) {
-			violations.get(location).add(new RuleViolation(node, location, rule, message));
-		} else {
-			List<RuleViolation> locationViolations = new ArrayList<>();
-			locationViolations.add(new RuleViolation(node, location, rule, message));
-			violations.put(location, locationViolations);
+		add(new RuleViolation(node, location, rule, message));
+	}
+
+	/**
+	 * Adds the supplied values as a violation of a property of the node to this report. The
+	 * location of the violation is the location of the node followed by the property.
+	 *
+	 * @param rule     the rule that was violated
+	 * @param node     the node on which the violation occurred
+	 * @param property the property of the node that the violation applies to, e.g. {@code name}
+	 * @param message  the message indicating why the violation occurred
+	 */
+	public void addPropertyViolation(AbstractPolicyRule rule, AbstractPolicyNode node,
+			String property, String message) {
+		add(new RuleViolation(rule, node, property, message, null));
+	}
+
+	/**
+	 * Adds the supplied values as a violation to this report. The message is only formatted when
+	 * it is read, so the arguments should not be modified afterwards.
+	 *
+	 * @param rule      the rule that was violated
+	 * @param node      the node on which the violation occurred
+	 * @param pattern   the {@link MessageFormat} pattern of the message
+	 * @param arguments the arguments of the pattern
+	 */
+	public void formatViolation(AbstractPolicyRule rule, AbstractPolicyNode node, String pattern,
+			Object... arguments) {
+		add(new RuleViolation(rule, node, null, pattern, arguments));
+	}
+
+	/**
+	 * Adds the supplied values as a violation of a property of the node to this report, see
+	 * {@link #addPropertyViolation(AbstractPolicyRule, AbstractPolicyNode, String, String)}. The
+	 * message is only formatted when it is read, so the arguments should not be modified
+	 * afterwards.
+	 *
+	 * @param rule      the rule that was violated
+	 * @param node      the node on which the violation occurred
+	 * @param property  the property of the node that the violation applies to
+	 * @param pattern   the {@link MessageFormat} pattern of the message
+	 * @param arguments the arguments of the pattern
+	 */
+	public void formatPropertyViolation(AbstractPolicyRule rule, AbstractPolicyNode node,
+			String property, String pattern, Object... arguments) {
+		add(new RuleViolation(rule, node, property, pattern, arguments));
+	}
+
+	private void add(RuleViolation violation) {
+		synchronized (this) {
+			index(violation);
+		}
+		if (published) {
+			context.publish(violation);
 		}
 	}
 
-	public List<RuleViolation> getViolations() {
-		return violations.values().stream().flatMap(List::stream).collect(Collectors.toList());
+	private void index(RuleViolation violation) {
+		violations.add(violation);
+		RuleSeverity severity = violation.getRule().getSeverity();
+		severityCounts[severity == null ? SEVERITY_COUNT - 1 : severity.ordinal()]++;
+		violationsByRule.computeIfAbsent(violation.getRule(), rule -> new ArrayList<>())
+				.add(violation);
 	}
 
-	public boolean hasViolations() {
-		return violations.values().stream().flatMap(List::stream).anyMatch(
-				violation -> !violation.getRule().getSeverity().equals(RuleSeverity.INFO));
+	/**
+	 * Adds all violations and errors of the given report to this report, after the violations and
+	 * errors already in this report. If this report is published, the violations are published in
+	 * the order they were added in.
+	 *
+	 * @param other the report to merge into this report
+	 */
+	public void merge(PolicyBuilderReport other) {
+		// Copy the other report first, so that the two reports are never locked together
+		List<RuleViolation> otherViolations;
+		List<PolicyBuilderError> otherErrors;
+		synchronized (other) {
+			otherViolations = new ArrayList<>(other.violations);
+			otherErrors = new ArrayList<>(other.errors);
+		}
+		synchronized (this) {
+			otherViolations.forEach(this::index);
+			errors.addAll(otherErrors);
+		}
+		if (published) {
+			otherViolations.forEach(context::publish);
+		}
 	}
 
-	public boolean hasViolations(String location) {
-		return violations.containsKey(location);
+	/**
+	 * Gets the violations of this report, grouped by their location in the order that each
+	 * location was first reported in
+	 *
+	 * @return list of the violations
+	 */
+	public synchronized List<RuleViolation> getViolations() {
+		return getViolationsByLocation().values().stream().flatMap(List::stream)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Checks whether this report has violations of rules that are not informational
+	 *
+	 * @return true if there are violations with a severity other than {@link RuleSeverity#INFO}
+	 */
+	public synchronized boolean hasViolations() {
+		return violations.size() > severityCounts[RuleSeverity.INFO.ordinal()];
 	}
 
-	public List<RuleViolation> getViolationsForLocation(String location) {
-		return violations.get(location);
+	public synchronized boolean hasViolations(String location) {
+		return getViolationsByLocation().containsKey(location);
+	}
+
+	public synchronized List<RuleViolation> getViolationsForLocation(String location) {
+		List<RuleViolation> locationViolations = getViolationsByLocation().get(location);
+		return locationViolations == null ? null : new ArrayList<>(locationViolations);
+	}
+
+	/**
+	 * Gets the violations of the given rule, in the order they were reported in
+	 *
+	 * @param rule the rule to get the violations of
+	 * @return list of the violations of the rule, which is empty if there are none
+	 */
+	public synchronized List<RuleViolation> getViolationsForRule(AbstractPolicyRule rule) {
+		List<RuleViolation> ruleViolations = violationsByRule.get(rule);
+		return ruleViolations == null ? new ArrayList<>() : new ArrayList<>(ruleViolations);
+	}
+
+	public synchronized int getViolationCount() {
+		return violations.size();
+	}
+
+	/**
+	 * Gets the number of violations of rules with the given severity
+	 *
+	 * @param severity the severity of the rules
+	 * @return the number of violations with the severity
+	 */
+	public synchronized int getViolationCount(RuleSeverity severity) {
+		return severityCounts[severity.ordinal()];
+	}
+
+	private Map<String, List<RuleViolation>> getViolationsByLocation() {
+		// Violations are only ever appended, so only the ones added since the last read are
+		// located, which keeps each location in the order it was first reported in
+		for (; locatedViolations < violations.size(); locatedViolations++) {
+			RuleViolation violation = violations.get(locatedViolations);
+			violationsByLocation.computeIfAbsent(violation.getLocation(), k -> new ArrayList<>())
+					.add(violation);
+		}
+		return violationsByLocation;
 	}
 
 	/**
@@ -82,15 +263,15 @@ public class PolicyBuilderReport {
 	 * @param node    the node on which the violation occurred
 	 * @param message the message indicating why the violation occurred
 	 */
-	public void addErrorNode(AbstractPolicyNode node, String message) {
+	public synchronized void addErrorNode(AbstractPolicyNode node, String message) {
 		errors.add(new PolicyBuilderError(node, message));
 	}
 
-	public List<PolicyBuilderError> getErrors() {
-		return errors;
+	public synchronized List<PolicyBuilderError> getErrors() {
+		return new ArrayList<>(errors);
 	}
 
-	public boolean hasErrors() {
+	public synchronized boolean hasErrors() {
 		return !errors.isEmpty();
 	}
 
@@ -2,41 +2,95 @@ package com.tracelink.prodsec.blueprint.core.report;
 
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyNode;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
+import java.text.MessageFormat;
 
 /**
  * A violation object to hold information about a rule, it's failure, and the
  * location of the failure.
+ * <p>
+ * Violations added to a {@link PolicyBuilderReport} only store the path of the node and the
+ * message pattern with its arguments. The location and message are rendered when they are first
+ * read, so validations with many violations that are only counted do not build their strings.
  *
  * @author csmith
  */
 public class RuleViolation {
 
 	private final AbstractPolicyNode node;
-	private final String location;
+	private final int[] path;
+	private final String property;
 	private final AbstractPolicyRule rule;
-	private final String message;
+	private final String pattern;
+	private final Object[] arguments;
+	private volatile String location;
+	private volatile String message;
 
 	public RuleViolation(AbstractPolicyNode node, String location, AbstractPolicyRule rule,
 			String message) {
 		this.node = node;
+		this.path = node == null ? new int[0] : node.getPath();
+		this.property = null;
 		this.location = location;
 		this.rule = rule;
+		this.pattern = message;
+		this.arguments = null;
 		this.message = message;
 	}
 
+	/**
+	 * Create a violation whose location and message are rendered when first read
+	 *
+	 * @param rule      the rule that was violated
+	 * @param node      the node on which the violation occurred
+	 * @param property  the property of the node the violation applies to, or null for the node
+	 * @param pattern   the message, or a {@link MessageFormat} pattern if there are arguments
+	 * @param arguments the arguments of the message pattern, or null if the message is not a
+	 *                  pattern
+	 */
+	RuleViolation(AbstractPolicyRule rule, AbstractPolicyNode node, String property,
+			String pattern, Object[] arguments) {
+		this.node = node;
+		this.path = node.getPath();
+		this.property = property;
+		this.rule = rule;
+		this.pattern = pattern;
+		this.arguments = arguments;
+	}
+
 	public AbstractPolicyRule getRule() {
 		return rule;
 	}
 
 	public String getMessage() {
-		return message;
+		String rendered = message;
+		if (rendered == null) {
+			rendered = arguments == null ? pattern : MessageFormat.format(pattern, arguments);
+			message = rendered;
+		}
+		return rendered;
 	}
 
 	public AbstractPolicyNode getNode() {
 		return node;
 	}
 
+	/**
+	 * Gets the path of the node on which the violation occurred, see
+	 * {@link AbstractPolicyNode#getPath()}
+	 *
+	 * @return the path of the node
+	 */
+	public int[] getPath() {
+		return path.clone();
+	}
+
 	public String getLocation() {
-		return location;
+		String rendered = location;
+		if (rendered == null) {
+			rendered = property == null ? node.getLocation()
+					: node.getLocation() + "." + property;
+			location = rendered;
+		}
+		return rendered;
 	}
 }
@@ -0,0 +1,220 @@
+package com.tracelink.prodsec.blueprint.core.report;
+
+import com.tracelink.prodsec.blueprint.core.snapshot.ModelInterner;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+/**
+ * State shared by all rules during a single validation of a root node. Rules and rulesets are
+ * stateless and shared by concurrent validations, so any state a rule needs while a root node is
+ * validated is kept in the context of the report instead. A context is thread-safe.
+ * <p>
+ * Callers can observe the violations of a validation while it runs, either with a
+ * {@link ViolationListener} or as a {@link Flow.Publisher} of violations, and can cancel the
+ * validation early, e.g. once the first violation is known. Violations are published in report
+ * order as the results of each rule are merged into the report of the validation, so only
+ * violations that are part of the final report are published. Rules stop at the next node once a
+ * validation is cancelled, and the report only contains the violations found until then.
+ *
+ * @author csmith
+ */
+public final class ValidationContext implements Flow.Publisher<RuleViolation> {
+
+	private final Map<Object, Object> values = new ConcurrentHashMap<>();
+	private final ModelInterner interner = new ModelInterner();
+	private final List<ViolationListener> listeners = new CopyOnWriteArrayList<>();
+	private final List<ViolationSubscription> subscriptions = new CopyOnWriteArrayList<>();
+	private volatile boolean cancelled;
+
+	/**
+	 * Gets the interner for snapshots of the root node being validated, shared by all rules so that
+	 * each part of the model is only snapshotted once per validation.
+	 *
+	 * @return the model interner of this validation
+	 */
+	public ModelInterner getInterner() {
+		return interner;
+	}
+
+	/**
+	 * Gets the value for the given key, creating it with the given function if there is no value
+	 * yet. Keys should be private to the rule that uses them, e.g. a constant of the rule class.
+	 *
+	 * @param key     the key of the value
+	 * @param factory the function to create the value with
+	 * @param <T>     the type of the value
+	 * @return the value for the given key
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T computeIfAbsent(Object key, Function<Object, T> factory) {
+		return (T) values.computeIfAbsent(key, factory);
+	}
+
+	/**
+	 * Adds a listener that is called for each violation reported from now on.
+	 *
+	 * @param listener the listener to add
+	 */
+	public void addListener(ViolationListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Subscribes to the violations reported from now on. Violations are buffered until the
+	 * subscriber requests them, and the subscriber is completed once the validation has finished.
+	 * Cancelling the subscription cancels the validation.
+	 *
+	 * @param subscriber the subscriber to the violations
+	 */
+	@Override
+	public void subscribe(Flow.Subscriber<? super RuleViolation> subscriber) {
+		ViolationSubscription subscription = new ViolationSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+		subscriptions.add(subscription);
+	}
+
+	/**
+	 * Cancels the validation. Rules stop at the next node they visit, and no further rules are
+	 * run.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Signals subscribers that the validation has finished, after they received all violations.
+	 */
+	public void complete() {
+		subscriptions.forEach(ViolationSubscription::complete);
+	}
+
+	/**
+	 * Publishes a violation of a published report to the listeners and subscribers, in the order
+	 * the violations are added to the report.
+	 *
+	 * @param violation the violation to publish
+	 */
+	void publish(RuleViolation violation) {
+		listeners.forEach(listener -> listener.onViolation(violation));
+		subscriptions.forEach(subscription -> subscription.offer(violation));
+	}
+
+	/**
+	 * Delivers violations to a subscriber one at a time, as long as it has requested them. The
+	 * subscriber is called without holding the lock of the subscription, so it may request more
+	 * violations or cancel from any thread while it receives one.
+	 */
+	private final class ViolationSubscription implements Flow.Subscription {
+
+		private final Flow.Subscriber<? super RuleViolation> subscriber;
+		private final Deque<RuleViolation> buffer = new ArrayDeque<>();
+		private long demand;
+		private boolean completed;
+		private boolean done;
+		private boolean delivering;
+
+		private ViolationSubscription(Flow.Subscriber<? super RuleViolation> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		private void offer(RuleViolation violation) {
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+				buffer.add(violation);
+			}
+			deliver();
+		}
+
+		private void complete() {
+			synchronized (this) {
+				completed = true;
+			}
+			deliver();
+		}
+
+		@Override
+		public void request(long n) {
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+				if (n > 0) {
+					demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+				} else {
+					done = true;
+					buffer.clear();
+				}
+			}
+			if (n > 0) {
+				deliver();
+			} else {
+				subscriptions.remove(this);
+				subscriber.onError(new IllegalArgumentException(
+						"The number of requested violations must be positive"));
+			}
+		}
+
+		@Override
+		public void cancel() {
+			synchronized (this) {
+				done = true;
+				buffer.clear();
+			}
+			subscriptions.remove(this);
+			ValidationContext.this.cancel();
+		}
+
+		private void deliver() {
+			// Only one thread delivers at a time, and it keeps delivering whatever other threads
+			// offer or request meanwhile, so violations are never delivered concurrently, out of
+			// order or recursively
+			synchronized (this) {
+				if (delivering) {
+					return;
+				}
+				delivering = true;
+			}
+			boolean completing = false;
+			try {
+				while (true) {
+					RuleViolation violation;
+					synchronized (this) {
+						if (done || demand == 0 || buffer.isEmpty()) {
+							delivering = false;
+							if (done || !completed || !buffer.isEmpty()) {
+								return;
+							}
+							done = true;
+							completing = true;
+							break;
+						}
+						demand--;
+						violation = buffer.poll();
+					}
+					subscriber.onNext(violation);
+				}
+			} catch (RuntimeException e) {
+				synchronized (this) {
+					delivering = false;
+				}
+				throw e;
+			}
+			if (completing) {
+				subscriptions.remove(this);
+				subscriber.onComplete();
+			}
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.tracelink.prodsec.blueprint.core.report;
+
+/**
+ * Listener for the violations of a validation, registered with its {@link ValidationContext}.
+ * Listeners are called when the results of a rule are merged into the report of the validation,
+ * on the thread that validates, even if rules are run in parallel. Violations are passed in the
+ * order of the final report, and violations that are discarded, e.g. by a ruleset that stops on
+ * its first failure, are never passed.
+ *
+ * @author csmith
+ */
+@FunctionalInterface
+public interface ViolationListener {
+
+	/**
+	 * Called for each violation reported during the validation.
+	 *
+	 * @param violation the reported violation
+	 */
+	void onViolation(RuleViolation violation);
+}
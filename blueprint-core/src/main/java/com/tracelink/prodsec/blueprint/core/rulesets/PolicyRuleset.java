@@ -2,11 +2,14 @@ package com.tracelink.prodsec.blueprint.core.rulesets;
 
 import com.tracelink.prodsec.blueprint.core.policy.Policy;
 import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
+import com.tracelink.prodsec.blueprint.core.report.ValidationContext;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractRootNode;
+import com.tracelink.prodsec.blueprint.core.visitor.RuleDispatcher;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A ruleset holds rule objects that will be run on a {@link Policy}
@@ -79,12 +82,75 @@ public class PolicyRuleset {
 	 * @return a report object detailing the results of the rules
 	 */
 	public PolicyBuilderReport apply(AbstractRootNode rootNode, PolicyBuilderReport report) {
-		for (AbstractPolicyRule rule : getRules()) {
-			report = rootNode.accept(rule, report);
-			if (stopOnFirstFailure && (report.hasErrors() || report.hasViolations())) {
-				return report;
+		return applyAll(rootNode, report, Collections.singletonList(this));
+	}
+
+	/**
+	 * Apply the given root node to all rules in the given rulesets, in order, and return the report
+	 * detailing the result. The rules are run in as few traversals of the root node as possible:
+	 * a traversal runs the rules of every ruleset up to and including the next ruleset that stops
+	 * on the first failure, so that later rulesets are only run if it passes. The report is the
+	 * same as applying each ruleset in turn, and stops at the first failure of a ruleset configured
+	 * to do so, or once the {@linkplain ValidationContext#isCancelled() validation is cancelled}.
+	 *
+	 * @param rootNode the root node object to report on
+	 * @param report   the report object detailing what happened before this call
+	 * @param rulesets the rulesets to apply, in order
+	 * @return a report object detailing the results of the rules
+	 */
+	public static PolicyBuilderReport applyAll(AbstractRootNode rootNode,
+			PolicyBuilderReport report, List<? extends PolicyRuleset> rulesets) {
+		return applyAll(rootNode, report, rulesets, null);
+	}
+
+	/**
+	 * Apply the given root node to all rules in the given rulesets, in order, running the rules in
+	 * parallel on the given pool. The report is the same as that of
+	 * {@link #applyAll(AbstractRootNode, PolicyBuilderReport, List)}, including the order of its
+	 * violations.
+	 *
+	 * @param rootNode the root node object to report on
+	 * @param report   the report object detailing what happened before this call
+	 * @param rulesets the rulesets to apply, in order
+	 * @param pool     the pool to run the rules on, or null to run them in a single traversal
+	 * @return a report object detailing the results of the rules
+	 * @see RuleDispatcher#dispatch(AbstractRootNode, List, ValidationContext, ForkJoinPool)
+	 */
+	public static PolicyBuilderReport applyAll(AbstractRootNode rootNode,
+			PolicyBuilderReport report, List<? extends PolicyRuleset> rulesets,
+			ForkJoinPool pool) {
+		int start = 0;
+		while (start < rulesets.size() && !report.getContext().isCancelled()) {
+			int end = start;
+			while (end < rulesets.size() - 1 && !rulesets.get(end).shouldStopOnFirstFailure()) {
+				end++;
+			}
+			List<? extends PolicyRuleset> traversal = rulesets.subList(start, end + 1);
+			List<AbstractPolicyRule> rules = new ArrayList<>();
+			traversal.forEach(ruleset -> rules.addAll(ruleset.getRules()));
+			List<RuleDispatcher.RuleReport> ruleReports = pool == null
+					? RuleDispatcher.dispatch(rootNode, rules, report.getContext())
+					: RuleDispatcher.dispatch(rootNode, rules, report.getContext(), pool);
+			// Merge the results of the rules in order, as if each had been run in turn. Merging
+			// publishes the violations, so a listener may cancel the validation while merging
+			int rule = 0;
+			for (PolicyRuleset ruleset : traversal) {
+				for (int i = 0; i < ruleset.getRules().size(); i++) {
+					report = ruleReports.get(rule++).mergeInto(report);
+					if (ruleset.hasFailed(report) || report.getContext().isCancelled()) {
+						return report;
+					}
+				}
+				if (ruleset.hasFailed(report)) {
+					return report;
+				}
 			}
+			start = end + 1;
 		}
 		return report;
 	}
+
+	private boolean hasFailed(PolicyBuilderReport report) {
+		return stopOnFirstFailure && (report.hasErrors() || report.hasViolations());
+	}
 }
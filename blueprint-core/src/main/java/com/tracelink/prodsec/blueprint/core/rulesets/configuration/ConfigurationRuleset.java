@@ -9,6 +9,8 @@ import com.tracelink.prodsec.blueprint.core.rulesets.PreconfiguredRuleset;
  */
 public class ConfigurationRuleset extends PreconfiguredRuleset {
 
+	private static final ConfigurationRuleset INSTANCE = new ConfigurationRuleset();
+
 	public ConfigurationRuleset() {
 		super("Configuration Ruleset");
 		addPreconfiguredRule(new DuplicateValueRule());
@@ -17,4 +19,13 @@ public class ConfigurationRuleset extends PreconfiguredRuleset {
 		addPreconfiguredRule(new InvalidStateRule());
 	}
 
+	/**
+	 * Gets the shared instance of this ruleset. Rulesets and their rules are stateless, so the
+	 * instance may be used by any number of concurrent validations.
+	 *
+	 * @return the shared ruleset
+	 */
+	public static ConfigurationRuleset getInstance() {
+		return INSTANCE;
+	}
 }
@@ -5,8 +5,12 @@ import com.tracelink.prodsec.blueprint.core.policy.Policy;
 import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
 import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
 import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
+import com.tracelink.prodsec.blueprint.core.snapshot.ClauseSnapshot;
+import com.tracelink.prodsec.blueprint.core.snapshot.ModelInterner;
+import com.tracelink.prodsec.blueprint.core.snapshot.StatementSnapshot;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Set;
 
 /**
@@ -23,35 +27,37 @@ public class DuplicateValueRule extends AbstractPolicyRule {
 
 	@Override
 	public PolicyBuilderReport visit(Policy node, PolicyBuilderReport report) {
-		checkClauseDuplicates(node, report);
+		// Interned snapshots are equal only if they are the same instance, and the base statements
+		// shared by many statements are only hashed once per validation
+		ModelInterner interner = report.getContext().getInterner();
+		checkClauseDuplicates(node, interner, report);
+		for (PolicyClause clause : node.getClauses()) {
+			if (clause != null) {
+				checkStatementDuplicates(clause, interner, report);
+			}
+		}
 		return super.visit(node, report);
 	}
 
-	private void checkClauseDuplicates(Policy node, PolicyBuilderReport report) {
-		Set<PolicyClause> clauseSet = new HashSet<>();
+	private void checkClauseDuplicates(Policy node, ModelInterner interner,
+			PolicyBuilderReport report) {
+		Set<ClauseSnapshot> clauseSet = Collections.newSetFromMap(new IdentityHashMap<>());
 		for (PolicyClause clause : node.getClauses()) {
-			if (clauseSet.contains(clause)) {
+			if (!clauseSet.add(interner.snapshot(clause))) {
 				report.addViolation(this, clause,
 						"This clause is a duplicate and should be removed from the policy");
 			}
-			clauseSet.add(clause);
 		}
 	}
 
-	@Override
-	public PolicyBuilderReport visit(PolicyClause node, PolicyBuilderReport report) {
-		checkStatementDuplicates(node, report);
-		return super.visit(node, report);
-	}
-
-	private void checkStatementDuplicates(PolicyClause node, PolicyBuilderReport report) {
-		Set<ConfiguredStatement> baseStatementSet = new HashSet<>();
+	private void checkStatementDuplicates(PolicyClause node, ModelInterner interner,
+			PolicyBuilderReport report) {
+		Set<StatementSnapshot> statementSet = Collections.newSetFromMap(new IdentityHashMap<>());
 		for (ConfiguredStatement statement : node.getStatements()) {
-			if (baseStatementSet.contains(statement)) {
+			if (!statementSet.add(interner.snapshot(statement))) {
 				report.addViolation(this, statement,
 						"This statement is a duplicate and should be removed from the clause");
 			}
-			baseStatementSet.add(statement);
 		}
 	}
 
@@ -7,7 +7,6 @@ import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
 import com.tracelink.prodsec.blueprint.core.statement.PolicyElementState;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
-import java.text.MessageFormat;
 
 /**
  * Identifies cases where base statements or functions that are not in the released state are
@@ -26,11 +25,10 @@ public class InvalidStateRule extends AbstractPolicyRule {
 	public PolicyBuilderReport visit(ConfiguredStatement node, PolicyBuilderReport report) {
 		// Check for deprecated or draft base statement
 		if (!node.getBaseStatement().getState().equals(PolicyElementState.RELEASED)) {
-			String message = MessageFormat
-					.format("The base statement ''{0}'' is in the {1} state. Please update to a released version or remove",
-							node.getBaseStatement().getVersionedName(),
-							node.getBaseStatement().getState().getName().toLowerCase());
-			report.addViolation(this, node, node.getLocation() + ".baseStatement", message);
+			report.formatPropertyViolation(this, node, "baseStatement",
+					"The base statement ''{0}'' is in the {1} state. Please update to a released version or remove",
+					node.getBaseStatement().getVersionedName(),
+					node.getBaseStatement().getState().getName().toLowerCase());
 		}
 		return super.visit(node, report);
 	}
@@ -39,11 +37,10 @@ public class InvalidStateRule extends AbstractPolicyRule {
 	public PolicyBuilderReport visit(BaseStatement node, PolicyBuilderReport report) {
 		// Check for deprecated or draft function
 		if (!node.getFunction().getState().equals(PolicyElementState.RELEASED)) {
-			String message = MessageFormat
-					.format("The function ''{0}'' is in the {1} state. Please update to a released version or remove",
-							node.getFunction().getVersionedName(),
-							node.getFunction().getState().getName().toLowerCase());
-			report.addViolation(this, node, node.getLocation() + ".function", message);
+			report.formatPropertyViolation(this, node, "function",
+					"The function ''{0}'' is in the {1} state. Please update to a released version or remove",
+					node.getFunction().getVersionedName(),
+					node.getFunction().getState().getName().toLowerCase());
 		}
 		return super.visit(node, report);
 	}
@@ -53,16 +50,20 @@ public class InvalidStateRule extends AbstractPolicyRule {
 		// Check for deprecated or draft dependencies
 		node.getDependencies().forEach(dependency -> {
 			if (!dependency.getState().equals(PolicyElementState.RELEASED)) {
-				String message = MessageFormat
-						.format("The dependency ''{0}'' is in the {1} state. Please update to a released version or remove",
-								dependency.getVersionedName(),
-								dependency.getState().getName().toLowerCase());
-				report.addViolation(this, node, node.getLocation() + ".dependencies", message);
+				report.formatPropertyViolation(this, node, "dependencies",
+						"The dependency ''{0}'' is in the {1} state. Please update to a released version or remove",
+						dependency.getVersionedName(),
+						dependency.getState().getName().toLowerCase());
 			}
 		});
 		return super.visit(node, report);
 	}
 
+	@Override
+	public boolean canVisitConcurrently() {
+		return true;
+	}
+
 	@Override
 	public RuleSeverity getSeverity() {
 		return RuleSeverity.ERROR;
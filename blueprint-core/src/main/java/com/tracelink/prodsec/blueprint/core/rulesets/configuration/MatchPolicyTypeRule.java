@@ -6,7 +6,6 @@ import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
-import java.text.MessageFormat;
 import java.util.Set;
 
 /**
@@ -25,10 +24,9 @@ public class MatchPolicyTypeRule extends AbstractPolicyRule {
 	public PolicyBuilderReport visit(ConfiguredStatement node, PolicyBuilderReport report) {
 		String policyType = node.getParent().getParent().getPolicyType();
 		if (!node.getBaseStatement().getPolicyTypes().contains(policyType)) {
-			report.addViolation(this, node,
-					MessageFormat
-							.format("The base statement ''{0}'' is not compatible with the policy type ''{1}''",
-									node.getBaseStatement().getName(), policyType));
+			report.formatViolation(this, node,
+					"The base statement ''{0}'' is not compatible with the policy type ''{1}''",
+					node.getBaseStatement().getName(), policyType);
 		}
 		return super.visit(node, report);
 	}
@@ -37,9 +35,9 @@ public class MatchPolicyTypeRule extends AbstractPolicyRule {
 	public PolicyBuilderReport visit(BaseStatement node, PolicyBuilderReport report) {
 		Set<String> policyTypes = node.getPolicyTypes();
 		if (!node.getFunction().getPolicyTypes().containsAll(policyTypes)) {
-			report.addViolation(this, node, MessageFormat
-					.format("The function ''{0}'' is not compatible with the policy types ''{1}''",
-							node.getFunction().getName(), String.join("', '", policyTypes)));
+			report.formatViolation(this, node,
+					"The function ''{0}'' is not compatible with the policy types ''{1}''",
+					node.getFunction().getName(), String.join("', '", policyTypes));
 		}
 		return super.visit(node, report);
 	}
@@ -49,14 +47,19 @@ public class MatchPolicyTypeRule extends AbstractPolicyRule {
 		Set<String> policyTypes = node.getPolicyTypes();
 		node.getDependencies().forEach(dependency -> {
 			if (!dependency.getPolicyTypes().containsAll(policyTypes)) {
-				report.addViolation(this, node, MessageFormat
-						.format("The dependency ''{0}'' is not compatible with the policy types ''{1}''",
-								dependency.getName(), String.join("', '", policyTypes)));
+				report.formatViolation(this, node,
+						"The dependency ''{0}'' is not compatible with the policy types ''{1}''",
+						dependency.getName(), String.join("', '", policyTypes));
 			}
 		});
 		return super.visit(node, report);
 	}
 
+	@Override
+	public boolean canVisitConcurrently() {
+		return true;
+	}
+
 	@Override
 	public RuleSeverity getSeverity() {
 		return RuleSeverity.WARN;
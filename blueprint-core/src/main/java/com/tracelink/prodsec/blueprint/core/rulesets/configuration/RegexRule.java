@@ -5,7 +5,6 @@ import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
-import java.text.MessageFormat;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -33,9 +32,9 @@ public class RegexRule extends AbstractPolicyRule {
 	public PolicyBuilderReport visit(BaseStatement node, PolicyBuilderReport report) {
 		// Ensure base statement name matches the regex pattern
 		if (!ALPHABET_SPACE_PATTERN.matcher(node.getName()).matches()) {
-			report.addViolation(this, node, MessageFormat
-					.format("The base statement name ''{0}'' is invalid. Base statement names {1}",
-							node.getName(), ALPHABET_SPACE_MESSAGE));
+			report.formatViolation(this, node,
+					"The base statement name ''{0}'' is invalid. Base statement names {1}",
+					node.getName(), ALPHABET_SPACE_MESSAGE);
 		}
 		return super.visit(node, report);
 	}
@@ -44,9 +43,9 @@ public class RegexRule extends AbstractPolicyRule {
 	public PolicyBuilderReport visit(BaseStatementFunction node, PolicyBuilderReport report) {
 		// Ensure function name matches the regex pattern
 		if (!REGO_VARIABLE_PATTERN.matcher(node.getName()).matches()) {
-			report.addViolation(this, node, MessageFormat
-					.format("The base statement function name ''{0}'' is invalid. Function names {1}",
-							node.getName(), REGO_VARIABLE_MESSAGE));
+			report.formatViolation(this, node,
+					"The base statement function name ''{0}'' is invalid. Function names {1}",
+					node.getName(), REGO_VARIABLE_MESSAGE);
 		}
 		// Ensure function parameters match the regex pattern
 		Set<String> invalidParameters = node.getParameters().stream()
@@ -54,14 +53,18 @@ public class RegexRule extends AbstractPolicyRule {
 						&& !REGO_VARIABLE_PATTERN.matcher(param).matches())
 				.collect(Collectors.toSet());
 		if (!invalidParameters.isEmpty()) {
-			report.addViolation(this, node, MessageFormat
-					.format("The following parameters for the base statement function ''{0}'' are invalid: ''{1}'' Function parameters {2}",
-							node.getName(), String.join("', '", invalidParameters),
-							REGO_VARIABLE_MESSAGE));
+			report.formatViolation(this, node,
+					"The following parameters for the base statement function ''{0}'' are invalid: ''{1}'' Function parameters {2}",
+					node.getName(), String.join("', '", invalidParameters), REGO_VARIABLE_MESSAGE);
 		}
 		return super.visit(node, report);
 	}
 
+	@Override
+	public boolean canVisitConcurrently() {
+		return true;
+	}
+
 	@Override
 	public RuleSeverity getSeverity() {
 		return RuleSeverity.ERROR;
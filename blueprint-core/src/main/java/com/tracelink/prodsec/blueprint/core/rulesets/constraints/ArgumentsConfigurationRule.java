@@ -1,6 +1,7 @@
 package com.tracelink.prodsec.blueprint.core.rulesets.constraints;
 
 import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.argument.ParsedArgument;
 import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
 import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
 import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
@@ -8,7 +9,6 @@ import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
-import java.text.MessageFormat;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -41,11 +41,10 @@ public class ArgumentsConfigurationRule extends AbstractPolicyRule {
 				&& node.getArgumentValues() != null) {
 			// Ensure the statement has the correct number of arguments for the base statement
 			if (baseStatement.getArguments().size() != node.getArgumentValues().size()) {
-				report.addViolation(this, node,
-						MessageFormat.format(
-								"The base statement ''{0}'' requires {1} arguments but {2} arguments were provided",
-								baseStatement.getName(), baseStatement.getArguments().size(),
-								node.getArgumentValues().size()));
+				report.formatViolation(this, node,
+						"The base statement ''{0}'' requires {1} arguments but {2} arguments were provided",
+						baseStatement.getName(), baseStatement.getArguments().size(),
+						node.getArgumentValues().size());
 				return false;
 			}
 			return true;
@@ -57,50 +56,46 @@ public class ArgumentsConfigurationRule extends AbstractPolicyRule {
 		BaseStatement baseStatement = node.getBaseStatement();
 		IntStream.range(0, baseStatement.getArguments().size()).forEach(i ->
 				validateConfiguredArgument(baseStatement.getArguments().get(i),
-						node.getArgumentValues().get(i), report, node, i));
+						node.getParsedArgument(i), report, node, i));
 	}
 
 	private void validateConfiguredArgument(BaseStatementArgument baseStatementArgument,
-			String argumentValue, PolicyBuilderReport report, ConfiguredStatement node, int index) {
+			ParsedArgument parsedArgument, PolicyBuilderReport report, ConfiguredStatement node,
+			int index) {
+		if (parsedArgument == null) {
+			// Missing argument types are reported by the bean validation
+			return;
+		}
+		String argumentValue = parsedArgument.getValue();
 		// Check that the argument matches the required type
-		if (!baseStatementArgument.getType()
-				.matchesArgument(argumentValue, baseStatementArgument.isArrayUnique())) {
+		if (!parsedArgument.matches(baseStatementArgument.isArrayUnique())) {
 			String message = "This argument must be a {0}" + (baseStatementArgument.isArrayUnique()
 					? " with unique items" : "");
-			report.addViolation(this, node, node.getLocation() + ".argumentValues[" + index + "]",
-					MessageFormat.format(message,
-							baseStatementArgument.getType().getDisplayName().toLowerCase()));
+			report.formatPropertyViolation(this, node, "argumentValues[" + index + "]", message,
+					baseStatementArgument.getType().getDisplayName().toLowerCase());
 		}
 		// If there are enum values, make sure that the values match
 		if (baseStatementArgument.getEnumValues() != null && !baseStatementArgument.getEnumValues()
 				.isEmpty()) {
 			List<String> items;
 			if (baseStatementArgument.getType().isArrayType()) {
-				try {
-					items = baseStatementArgument.getType()
-							.getArrayItems(argumentValue)
-							.stream()
-							.map(Object::toString)
-							.collect(Collectors.toList());
-				} catch (NumberFormatException e) {
-					items = Collections.emptyList();
-				}
+				items = parsedArgument.getItems() == null ? Collections.emptyList()
+						: parsedArgument.getItems().stream().map(Object::toString)
+								.collect(Collectors.toList());
 			} else {
 				items = Collections.singletonList(argumentValue);
 			}
 			if (items.isEmpty()) {
-				report.addViolation(this, node,
-						node.getLocation() + ".argumentValues[" + index + "]", MessageFormat
-								.format("Cannot get array items of type {0} from configured argument {1}",
-										baseStatementArgument.getType().getDisplayName()
-												.toLowerCase(), argumentValue));
+				report.formatPropertyViolation(this, node, "argumentValues[" + index + "]",
+						"Cannot get array items of type {0} from configured argument {1}",
+						baseStatementArgument.getType().getDisplayName().toLowerCase(),
+						argumentValue);
 				return;
 			}
 			if (!baseStatementArgument.getEnumValues().containsAll(items)) {
-				report.addViolation(this, node,
-						node.getLocation() + ".argumentValues[" + index + "]", MessageFormat
-								.format("The argument {0} must match the enumerated values {1}",
-										argumentValue, baseStatementArgument.getEnumValues()));
+				report.formatPropertyViolation(this, node, "argumentValues[" + index + "]",
+						"The argument {0} must match the enumerated values {1}", argumentValue,
+						String.valueOf(baseStatementArgument.getEnumValues()));
 			}
 		}
 	}
@@ -116,9 +111,9 @@ public class ArgumentsConfigurationRule extends AbstractPolicyRule {
 		if (function != null && function.getParameters() != null && node.getArguments() != null) {
 			// Ensure the base statement has the correct number of arguments for the evaluated function
 			if (node.getArguments().size() != node.getFunction().getParameters().size()) {
-				report.addViolation(this, node, MessageFormat
-						.format("The number of arguments defined does not match the number of parameters for the function ''{0}''",
-								node.getFunction().getName()));
+				report.formatViolation(this, node,
+						"The number of arguments defined does not match the number of parameters for the function ''{0}''",
+						node.getFunction().getName());
 			}
 		}
 	}
@@ -136,9 +131,9 @@ public class ArgumentsConfigurationRule extends AbstractPolicyRule {
 			List<String> parameters = parent.getFunction().getParameters();
 			if (parameters != null && node.getIndex() < parameters.size()) {
 				if (!node.getParameter().equals(parameters.get(node.getIndex()))) {
-					report.addViolation(this, node, node.getLocation() + ".parameter", MessageFormat
-							.format("The parameter ''{0}'' does not match the function parameter ''{1}''",
-									node.getParameter(), parameters.get(node.getIndex())));
+					report.formatPropertyViolation(this, node, "parameter",
+							"The parameter ''{0}'' does not match the function parameter ''{1}''",
+							node.getParameter(), parameters.get(node.getIndex()));
 				}
 			}
 		}
@@ -150,13 +145,18 @@ public class ArgumentsConfigurationRule extends AbstractPolicyRule {
 			ArgumentType argumentType = node.getType().getBaseType();
 			if (!node.getEnumValues().stream()
 					.allMatch(value -> argumentType.matchesArgument(value, false))) {
-				report.addViolation(this, node, node.getLocation() + ".enumValues",
-						MessageFormat.format("The enum values do not match the type ''{0}''",
-								argumentType.getDisplayName().toLowerCase()));
+				report.formatPropertyViolation(this, node, "enumValues",
+						"The enum values do not match the type ''{0}''",
+						argumentType.getDisplayName().toLowerCase());
 			}
 		}
 	}
 
+	@Override
+	public boolean canVisitConcurrently() {
+		return true;
+	}
+
 	@Override
 	public RuleSeverity getSeverity() {
 		return RuleSeverity.ERROR;
@@ -0,0 +1,504 @@
+package com.tracelink.prodsec.blueprint.core.rulesets.constraints;
+
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import javax.validation.ConstraintViolation;
+import javax.validation.ElementKind;
+import javax.validation.GroupSequence;
+import javax.validation.Path;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.groups.Default;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.ContainerElementTypeDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+import javax.validation.metadata.ValidateUnwrappedValue;
+import org.hibernate.validator.group.GroupSequenceProvider;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+
+/**
+ * Validates the Bean Validation constraints of the policy model without the reflective
+ * {@link Validator} on every call. The constraints of each class are read from the metadata of
+ * the validator once, and compiled into direct checks of the field values, read through
+ * {@link MethodHandle}s. Cascaded properties, e.g. the clauses of a policy, are validated in the
+ * same pass. As with the validator, a bean reached more than once is skipped if its previous
+ * path is a prefix of the current path, or the other way round, e.g. a bean repeated in the
+ * same list.
+ * <p>
+ * The violations are the same as those of the validator, with the same messages and the same
+ * property paths as rendered by {@link #getProperty(Path)}, but are reported in the order the
+ * properties are declared in. Only the default group and the {@link NotNull}, {@link NotBlank}
+ * and {@link NotEmpty} constraints with literal messages on fields and on the elements of lists
+ * and sets are compiled. Beans of any other class, or that reach a bean of any other class, are
+ * validated with the validator instead.
+ *
+ * @author csmith
+ */
+public final class CompiledConstraintValidator {
+
+	private static final CompiledConstraintValidator INSTANCE = new CompiledConstraintValidator(
+			Validation.byDefaultProvider().configure()
+					.messageInterpolator(new ParameterMessageInterpolator())
+					.buildValidatorFactory().getValidator(),
+			Policy.class, PolicyClause.class, ConfiguredStatement.class, BaseStatement.class,
+			BaseStatementArgument.class, BaseStatementFunction.class);
+
+	private final Validator validator;
+	private final ClassValue<BeanCheck> checks = new ClassValue<BeanCheck>() {
+		@Override
+		protected BeanCheck computeValue(Class<?> type) {
+			return compile(type);
+		}
+	};
+
+	/**
+	 * Create a validator for the constraints known to the given validator, compiling the
+	 * constraints of the given classes right away. Other classes are compiled when a bean of the
+	 * class is first validated.
+	 *
+	 * @param validator the validator to read the constraints from, and to fall back to
+	 * @param types     the classes to compile the constraints of
+	 */
+	public CompiledConstraintValidator(Validator validator, Class<?>... types) {
+		this.validator = validator;
+		for (Class<?> type : types) {
+			checks.get(type);
+		}
+	}
+
+	/**
+	 * Gets the shared instance of this validator, which uses a validator that interpolates the
+	 * parameters of messages only, and has compiled the constraints of the policy model.
+	 *
+	 * @return the shared validator
+	 */
+	public static CompiledConstraintValidator getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Checks whether the constraints of the given class are compiled. Beans of the class may still
+	 * be validated with the validator, if they reach a bean whose constraints are not compiled.
+	 *
+	 * @param type the class to check
+	 * @return true if the constraints of the class are compiled
+	 */
+	public boolean isCompiled(Class<?> type) {
+		return checks.get(type).properties != null;
+	}
+
+	/**
+	 * Validates the constraints of the given bean, and of the beans it cascades to, in the given
+	 * groups.
+	 *
+	 * @param bean       the bean to validate
+	 * @param violations the consumer of the property path and message of each violation
+	 * @param groups     the groups to validate, or empty for the default group
+	 */
+	public void validate(Object bean, BiConsumer<String, String> violations, Class<?>... groups) {
+		if (groups.length == 0 || (groups.length == 1 && groups[0] == Default.class)) {
+			List<Violation> found = new ArrayList<>();
+			Map<Object, List<BeanPath>> processed = new IdentityHashMap<>();
+			processed.put(bean, Collections.singletonList(null));
+			if (validate(bean, null, processed, found)) {
+				found.forEach(violation -> violations.accept(violation.getProperty(),
+						violation.message));
+				return;
+			}
+		}
+		validateReflectively(bean, violations, groups);
+	}
+
+	/**
+	 * Validates the constraints of the given bean with the validator, as this class does for beans
+	 * that it cannot compile the constraints of.
+	 *
+	 * @param bean       the bean to validate
+	 * @param violations the consumer of the property path and message of each violation
+	 * @param groups     the groups to validate, or empty for the default group
+	 */
+	public void validateReflectively(Object bean, BiConsumer<String, String> violations,
+			Class<?>... groups) {
+		Set<ConstraintViolation<Object>> constraintViolations = validator.validate(bean, groups);
+		constraintViolations.forEach(violation -> violations
+				.accept(getProperty(violation.getPropertyPath()), violation.getMessage()));
+	}
+
+	/**
+	 * Renders the property path of a constraint violation, made of the names of its properties
+	 * and the indexes of the elements of lists, e.g. {@code clauses[0].statements}.
+	 *
+	 * @param path the property path of a constraint violation
+	 * @return the rendered property path
+	 */
+	public static String getProperty(Path path) {
+		StringBuilder propertyBuilder = new StringBuilder();
+		path.forEach(pathNode -> {
+			if (pathNode.getKind().equals(ElementKind.PROPERTY)) {
+				if (pathNode.isInIterable()) {
+					propertyBuilder.append("[");
+					propertyBuilder.append(pathNode.getIndex());
+					propertyBuilder.append("]");
+				}
+				if (propertyBuilder.length() > 0) {
+					propertyBuilder.append(".");
+				}
+				propertyBuilder.append(pathNode.getName());
+			}
+		});
+		return propertyBuilder.toString();
+	}
+
+	/**
+	 * Validates a bean and the beans it cascades to, unless a bean of a class without compiled
+	 * constraints is reached.
+	 */
+	private boolean validate(Object bean, BeanPath path, Map<Object, List<BeanPath>> processed,
+			List<Violation> violations) {
+		PropertyCheck[] properties = checks.get(bean.getClass()).properties;
+		if (properties == null) {
+			return false;
+		}
+		// All constraints of a bean are checked before its cascades, as the validator does
+		for (PropertyCheck property : properties) {
+			Object value = property.get(bean);
+			for (ConstraintCheck constraint : property.constraints) {
+				if (!constraint.kind.isValid(value)) {
+					violations.add(new Violation(path, property.name, constraint.message));
+				}
+			}
+			if (value == null || property.elementConstraints.length == 0) {
+				continue;
+			}
+			for (Object element : (Iterable<?>) value) {
+				for (ConstraintCheck constraint : property.elementConstraints) {
+					if (!constraint.kind.isValid(element)) {
+						violations.add(new Violation(path, property.name, constraint.message));
+					}
+				}
+			}
+		}
+		for (PropertyCheck property : properties) {
+			if (!property.cascaded) {
+				continue;
+			}
+			Object value = property.get(bean);
+			if (value == null) {
+				continue;
+			}
+			int index = 0;
+			for (Object element : (Iterable<?>) value) {
+				if (element != null) {
+					BeanPath elementPath = new BeanPath(path, property.name,
+							property.indexed ? index : null);
+					if (markProcessed(element, elementPath, processed)
+							&& !validate(element, elementPath, processed, violations)) {
+						return false;
+					}
+				}
+				index++;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Records that the bean is validated at the given path, unless it was already validated at a
+	 * related path. The paths of beans are only rendered if a bean is reached more than once.
+	 */
+	private static boolean markProcessed(Object bean, BeanPath path,
+			Map<Object, List<BeanPath>> processed) {
+		List<BeanPath> paths = processed.get(bean);
+		if (paths == null) {
+			processed.put(bean, new ArrayList<>(Collections.singletonList(path)));
+			return true;
+		}
+		String current = path.getContainerPath();
+		for (BeanPath previous : paths) {
+			if (previous == null || isSubPath(previous.getContainerPath(), current)
+					|| isSubPath(current, previous.getContainerPath())) {
+				return false;
+			}
+		}
+		paths.add(path);
+		return true;
+	}
+
+	private static boolean isSubPath(String path, String other) {
+		return other.startsWith(path) && (other.length() == path.length()
+				|| other.charAt(path.length()) == '.' || other.charAt(path.length()) == '[');
+	}
+
+	/**
+	 * Compiles the constraints of the given class, or returns a check without properties if any of
+	 * the constraints cannot be compiled.
+	 */
+	private BeanCheck compile(Class<?> type) {
+		try {
+			return new BeanCheck(compileProperties(type));
+		} catch (UnsupportedOperationException | IllegalAccessException e) {
+			return new BeanCheck(null);
+		}
+	}
+
+	private PropertyCheck[] compileProperties(Class<?> type) throws IllegalAccessException {
+		BeanDescriptor descriptor = validator.getConstraintsForClass(type);
+		if (!descriptor.getConstraintDescriptors().isEmpty()
+				|| type.isAnnotationPresent(GroupSequence.class)
+				|| type.isAnnotationPresent(GroupSequenceProvider.class)) {
+			throw new UnsupportedOperationException("Class constraints are not compiled");
+		}
+		// Properties are checked in the order they are declared in, with superclasses first
+		List<Field> declared = new ArrayList<>();
+		for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+			declared.addAll(0, Arrays.asList(c.getDeclaredFields()));
+		}
+		Map<PropertyCheck, Integer> order = new IdentityHashMap<>();
+		List<PropertyCheck> properties = new ArrayList<>();
+		for (PropertyDescriptor property : descriptor.getConstrainedProperties()) {
+			Field field = findField(type, property.getPropertyName());
+			PropertyCheck check = compileProperty(field, property);
+			order.put(check, declared.indexOf(field));
+			properties.add(check);
+		}
+		properties.sort(Comparator.comparing(order::get));
+		return properties.toArray(new PropertyCheck[0]);
+	}
+
+	private static PropertyCheck compileProperty(Field field, PropertyDescriptor property)
+			throws IllegalAccessException {
+		if (property.isCascaded()) {
+			throw new UnsupportedOperationException("Cascaded properties are not compiled");
+		}
+		ConstraintCheck[] constraints = compileConstraints(property.getConstraintDescriptors());
+		Set<ContainerElementTypeDescriptor> elements = property.getConstrainedContainerElementTypes();
+		ConstraintCheck[] elementConstraints = new ConstraintCheck[0];
+		boolean cascaded = false;
+		boolean indexed = false;
+		if (elements.size() > 1) {
+			throw new UnsupportedOperationException("Multiple type arguments are not compiled");
+		}
+		for (ContainerElementTypeDescriptor element : elements) {
+			if (element.getContainerClass() == List.class) {
+				indexed = true;
+			} else if (element.getContainerClass() != Set.class) {
+				throw new UnsupportedOperationException("Only lists and sets are compiled");
+			}
+			if (!element.getConstrainedContainerElementTypes().isEmpty()) {
+				throw new UnsupportedOperationException("Nested containers are not compiled");
+			}
+			elementConstraints = compileConstraints(element.getConstraintDescriptors());
+			cascaded = element.isCascaded();
+		}
+		MethodHandle getter = MethodHandles
+				.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+				.unreflectGetter(field)
+				.asType(MethodType.methodType(Object.class, Object.class));
+		return new PropertyCheck(property.getPropertyName(), getter, constraints,
+				elementConstraints, cascaded, indexed);
+	}
+
+	private static ConstraintCheck[] compileConstraints(Set<ConstraintDescriptor<?>> descriptors) {
+		List<ConstraintCheck> constraints = new ArrayList<>();
+		for (ConstraintDescriptor<?> descriptor : descriptors) {
+			String message = descriptor.getMessageTemplate();
+			if (!descriptor.getComposingConstraints().isEmpty()
+					|| !descriptor.getGroups().equals(Collections.singleton(Default.class))
+					|| descriptor.getValueUnwrapping() != ValidateUnwrappedValue.DEFAULT
+					|| message.matches(".*[{}$\\\\].*")) {
+				throw new UnsupportedOperationException("The constraint is not compiled");
+			}
+			constraints.add(new ConstraintCheck(
+					ConstraintKind.of(descriptor.getAnnotation().annotationType()), message));
+		}
+		return constraints.toArray(new ConstraintCheck[0]);
+	}
+
+	private static Field findField(Class<?> type, String name) {
+		for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (field.getName().equals(name)) {
+					return field;
+				}
+			}
+		}
+		throw new UnsupportedOperationException("Only constraints on fields are compiled");
+	}
+
+	/**
+	 * The constraints that are compiled, with the same rules as their validators.
+	 */
+	private enum ConstraintKind {
+		NOT_NULL {
+			@Override
+			boolean isValid(Object value) {
+				return value != null;
+			}
+		},
+		NOT_BLANK {
+			@Override
+			boolean isValid(Object value) {
+				return value != null && ((CharSequence) value).toString().trim().length() > 0;
+			}
+		},
+		NOT_EMPTY {
+			@Override
+			boolean isValid(Object value) {
+				if (value instanceof CharSequence) {
+					return ((CharSequence) value).length() > 0;
+				} else if (value instanceof Collection) {
+					return !((Collection<?>) value).isEmpty();
+				} else if (value instanceof Map) {
+					return !((Map<?, ?>) value).isEmpty();
+				}
+				return value != null && Array.getLength(value) > 0;
+			}
+		};
+
+		abstract boolean isValid(Object value);
+
+		static ConstraintKind of(Class<?> annotationType) {
+			if (annotationType == NotNull.class) {
+				return NOT_NULL;
+			} else if (annotationType == NotBlank.class) {
+				return NOT_BLANK;
+			} else if (annotationType == NotEmpty.class) {
+				return NOT_EMPTY;
+			}
+			throw new UnsupportedOperationException("The constraint is not compiled");
+		}
+	}
+
+	private static final class BeanCheck {
+
+		private final PropertyCheck[] properties;
+
+		BeanCheck(PropertyCheck[] properties) {
+			this.properties = properties;
+		}
+	}
+
+	private static final class PropertyCheck {
+
+		private final String name;
+		private final MethodHandle getter;
+		private final ConstraintCheck[] constraints;
+		private final ConstraintCheck[] elementConstraints;
+		private final boolean cascaded;
+		private final boolean indexed;
+
+		PropertyCheck(String name, MethodHandle getter, ConstraintCheck[] constraints,
+				ConstraintCheck[] elementConstraints, boolean cascaded, boolean indexed) {
+			this.name = name;
+			this.getter = getter;
+			this.constraints = constraints;
+			this.elementConstraints = elementConstraints;
+			this.cascaded = cascaded;
+			this.indexed = indexed;
+		}
+
+		Object get(Object bean) {
+			try {
+				return getter.invokeExact(bean);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new IllegalStateException(t);
+			}
+		}
+	}
+
+	private static final class ConstraintCheck {
+
+		private final ConstraintKind kind;
+		private final String message;
+
+		ConstraintCheck(ConstraintKind kind, String message) {
+			this.kind = kind;
+			this.message = message;
+		}
+	}
+
+	/**
+	 * The path of a cascaded bean, which is only rendered if the bean has violations or is reached
+	 * more than once.
+	 */
+	private static final class BeanPath {
+
+		private final BeanPath parent;
+		private final String property;
+		private final Integer index;
+
+		BeanPath(BeanPath parent, String property, Integer index) {
+			this.parent = parent;
+			this.property = property;
+			this.index = index;
+		}
+
+		void render(StringBuilder builder) {
+			if (parent != null) {
+				parent.render(builder);
+				builder.append(".");
+			}
+			builder.append(property).append("[").append(index).append("]");
+		}
+
+		/**
+		 * Renders the path of the property that contains the bean, without the index of the bean,
+		 * which is the path the validator tracks the bean at.
+		 */
+		String getContainerPath() {
+			StringBuilder builder = new StringBuilder();
+			if (parent != null) {
+				parent.render(builder);
+				builder.append(".");
+			}
+			return builder.append(property).toString();
+		}
+	}
+
+	private static final class Violation {
+
+		private final BeanPath path;
+		private final String property;
+		private final String message;
+
+		Violation(BeanPath path, String property, String message) {
+			this.path = path;
+			this.property = property;
+			this.message = message;
+		}
+
+		String getProperty() {
+			if (path == null) {
+				return property;
+			}
+			StringBuilder builder = new StringBuilder();
+			path.render(builder);
+			return builder.append(".").append(property).toString();
+		}
+	}
+}
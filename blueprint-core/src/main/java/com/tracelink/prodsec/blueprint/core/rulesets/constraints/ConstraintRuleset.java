@@ -10,10 +10,22 @@ import com.tracelink.prodsec.blueprint.core.rulesets.PreconfiguredRuleset;
  */
 public class ConstraintRuleset extends PreconfiguredRuleset {
 
+	private static final ConstraintRuleset INSTANCE = new ConstraintRuleset();
+
 	public ConstraintRuleset() {
 		super("Constraint Ruleset", true);
 		addPreconfiguredRule(new ConstraintValidationRule());
 		addPreconfiguredRule(new ArgumentsConfigurationRule());
 		addPreconfiguredRule(new CyclicDependenciesRule());
 	}
+
+	/**
+	 * Gets the shared instance of this ruleset. Rulesets and their rules are stateless, so the
+	 * instance may be used by any number of concurrent validations.
+	 *
+	 * @return the shared ruleset
+	 */
+	public static ConstraintRuleset getInstance() {
+		return INSTANCE;
+	}
 }
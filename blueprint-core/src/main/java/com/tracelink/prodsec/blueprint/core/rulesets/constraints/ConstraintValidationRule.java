@@ -7,24 +7,17 @@ import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyNode;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
-import java.util.Set;
-import javax.validation.ConstraintViolation;
-import javax.validation.ElementKind;
-import javax.validation.Path;
-import javax.validation.Validation;
-import javax.validation.Validator;
-import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
 
 /**
- * Detects basic data problems in a policy such as missing, incomplete, or unmatched data
+ * Detects basic data problems in a policy such as missing, incomplete, or unmatched data. The
+ * constraints are checked with the {@link CompiledConstraintValidator}.
  *
  * @author csmith
  */
 class ConstraintValidationRule extends AbstractPolicyRule {
 
-	private static final Validator VALIDATOR = Validation.byDefaultProvider().configure()
-			.messageInterpolator(new ParameterMessageInterpolator()).buildValidatorFactory()
-			.getValidator();
+	private static final CompiledConstraintValidator VALIDATOR =
+			CompiledConstraintValidator.getInstance();
 
 	protected ConstraintValidationRule() {
 		super("Constraint Validation Rule");
@@ -50,28 +43,10 @@ class ConstraintValidationRule extends AbstractPolicyRule {
 
 	void checkNodeConstraints(AbstractPolicyNode node, PolicyBuilderReport report,
 			Class<?>... groups) {
-		// Validate policy for basic constraints
-		Set<ConstraintViolation<AbstractPolicyNode>> violations = VALIDATOR.validate(node, groups);
-		// Construct policy rule violation from each constraint violation
-		violations.forEach(violation -> {
-			Path path = violation.getPropertyPath();
-			StringBuilder propertyBuilder = new StringBuilder();
-			path.forEach(pathNode -> {
-				if (pathNode.getKind().equals(ElementKind.PROPERTY)) {
-					if (pathNode.isInIterable()) {
-						propertyBuilder.append("[");
-						propertyBuilder.append(pathNode.getIndex());
-						propertyBuilder.append("]");
-					}
-					if (propertyBuilder.length() > 0) {
-						propertyBuilder.append(".");
-					}
-					propertyBuilder.append(pathNode.getName());
-				}
-			});
-			report.addViolation(this, node, node.getLocation() + "." + propertyBuilder,
-					violation.getMessage());
-		});
+		// Validate node for basic constraints, and construct a policy rule violation from each
+		// constraint violation
+		VALIDATOR.validate(node, (property, message) -> report.addPropertyViolation(this, node,
+				property, message), groups);
 	}
 
 	@Override
@@ -3,15 +3,16 @@ package com.tracelink.prodsec.blueprint.core.rulesets.constraints;
 import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
 import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import com.tracelink.prodsec.blueprint.core.statement.FunctionDependencyGraph;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
-import java.text.MessageFormat;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.Stack;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Identifies functions that have cyclic dependencies on other functions to prevent issues with Rego
- * generation.
+ * generation. The cycles are found in a single pass over the dependency graph of all functions in
+ * the validated node, which is shared by every visit of a function, and each cycle a function
+ * depends on is reported with its full path.
  *
  * @author mcool
  */
@@ -23,28 +24,20 @@ public class CyclicDependenciesRule extends AbstractPolicyRule {
 
 	@Override
 	public PolicyBuilderReport visit(BaseStatementFunction node, PolicyBuilderReport report) {
-		// Evaluate each dependency separately
-		for (BaseStatementFunction function : node.getDependencies()) {
-			// Create set of visited functions and dependencies to visit
-			Set<String> visited = new HashSet<>();
-			visited.add(node.getName());
-			Stack<BaseStatementFunction> toVisit = new Stack<>();
-			toVisit.add(function);
-			// DFS of dependencies to identify cycles
-			while (!toVisit.empty()) {
-				BaseStatementFunction dependency = toVisit.pop();
-				if (!visited.add(dependency.getName())) {
-					report.addViolation(this, node, MessageFormat.format(
-							"The function ''{0}'' has a cyclic dependency on the function ''{1}''",
-							node.getName(), dependency.getName()));
-					break;
-				}
-				toVisit.addAll(dependency.getDependencies());
-			}
+		FunctionDependencyGraph graph = FunctionDependencyGraph.forReport(report);
+		for (List<BaseStatementFunction> path : graph.getCyclicPaths(node)) {
+			report.formatViolation(this, node, "The function ''{0}'' has a cyclic dependency: {1}",
+					node.getName(), path.stream().map(BaseStatementFunction::getName)
+							.collect(Collectors.joining(" -> ")));
 		}
 		return super.visit(node, report);
 	}
 
+	@Override
+	public boolean canVisitConcurrently() {
+		return true;
+	}
+
 	@Override
 	public RuleSeverity getSeverity() {
 		return RuleSeverity.ERROR;
@@ -0,0 +1,346 @@
+package com.tracelink.prodsec.blueprint.core.rulesets.logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A small conflict-driven clause learning SAT solver for formulas in conjunctive normal form.
+ * Clauses are propagated with two watched literals, conflicts are analyzed to their first unique
+ * implication point and learned, and decisions follow the most active variable with its saved
+ * phase. The solver restarts after a geometrically growing number of conflicts.
+ * <p>
+ * A literal is encoded as {@code 2 * variable} if it is positive and {@code 2 * variable + 1} if it
+ * is negated, see {@link TautologyChecker#literal(int, boolean)}. A solver solves a single formula
+ * once, and is not thread-safe.
+ *
+ * @author csmith
+ */
+final class CdclSolver {
+
+	private static final byte UNASSIGNED = -1;
+	private static final double ACTIVITY_DECAY = 0.95;
+	private static final double ACTIVITY_LIMIT = 1e100;
+	private static final int FIRST_RESTART = 100;
+	private static final double RESTART_GROWTH = 1.5;
+
+	private final int variables;
+	private final List<int[]> clauses = new ArrayList<>();
+	private final List<Integer> units = new ArrayList<>();
+	private final IntVector[] watches;
+	private boolean empty;
+
+	// Assignment state, by variable
+	private final byte[] values;
+	private final int[] levels;
+	private final int[] reasons;
+	private final boolean[] phases;
+	private final double[] activities;
+	private final boolean[] seen;
+	private double activityIncrement = 1;
+
+	// Assigned literals in assignment order, and where each decision level starts
+	private final int[] trail;
+	private int trailSize;
+	private int propagated;
+	private final IntVector levelStarts = new IntVector();
+
+	CdclSolver(int variables) {
+		this.variables = variables;
+		this.watches = new IntVector[2 * variables];
+		for (int i = 0; i < watches.length; i++) {
+			watches[i] = new IntVector();
+		}
+		this.values = new byte[variables];
+		Arrays.fill(values, UNASSIGNED);
+		this.levels = new int[variables];
+		this.reasons = new int[variables];
+		this.phases = new boolean[variables];
+		this.activities = new double[variables];
+		this.seen = new boolean[variables];
+		this.trail = new int[variables];
+	}
+
+	/**
+	 * Adds a clause, the disjunction of the given literals. Duplicate literals are removed, and
+	 * clauses that contain both a literal and its negation are ignored, as they are always true.
+	 *
+	 * @param literals the literals of the clause
+	 */
+	void addClause(int... literals) {
+		int[] clause = literals.clone();
+		Arrays.sort(clause);
+		int size = 0;
+		for (int i = 0; i < clause.length; i++) {
+			if (i > 0 && clause[i] == clause[i - 1]) {
+				continue;
+			}
+			if (i > 0 && clause[i] == (clause[i - 1] ^ 1)) {
+				return;
+			}
+			clause[size++] = clause[i];
+		}
+		if (size == 0) {
+			empty = true;
+		} else if (size == 1) {
+			units.add(clause[0]);
+		} else {
+			attach(Arrays.copyOf(clause, size));
+		}
+	}
+
+	/**
+	 * Solves the formula of the added clauses.
+	 *
+	 * @return an assignment of all variables that satisfies every clause, or null if the formula
+	 * is unsatisfiable
+	 */
+	boolean[] solve() {
+		if (empty) {
+			return null;
+		}
+		for (int unit : units) {
+			byte value = valueOf(unit);
+			if (value == 0) {
+				return null;
+			}
+			if (value == UNASSIGNED) {
+				assign(unit, -1);
+			}
+		}
+		int conflicts = 0;
+		int restartLimit = FIRST_RESTART;
+		while (true) {
+			int conflict = propagate();
+			if (conflict >= 0) {
+				if (levelStarts.size == 0) {
+					return null;
+				}
+				conflicts++;
+				learn(conflict);
+				decayActivities();
+			} else if (conflicts >= restartLimit) {
+				conflicts = 0;
+				restartLimit = (int) (restartLimit * RESTART_GROWTH);
+				backtrack(0);
+			} else {
+				int variable = pickBranchVariable();
+				if (variable < 0) {
+					return getModel();
+				}
+				levelStarts.add(trailSize);
+				assign(2 * variable + (phases[variable] ? 0 : 1), -1);
+			}
+		}
+	}
+
+	private void attach(int[] clause) {
+		int index = clauses.size();
+		clauses.add(clause);
+		watches[clause[0]].add(index);
+		watches[clause[1]].add(index);
+	}
+
+	/**
+	 * Gets the value of the given literal: 1 if it is true, 0 if it is false, or
+	 * {@link #UNASSIGNED}.
+	 */
+	private byte valueOf(int literal) {
+		byte value = values[literal >> 1];
+		return value == UNASSIGNED ? UNASSIGNED : (byte) (value ^ (literal & 1));
+	}
+
+	private void assign(int literal, int reason) {
+		int variable = literal >> 1;
+		values[variable] = (byte) ((literal & 1) ^ 1);
+		levels[variable] = levelStarts.size;
+		reasons[variable] = reason;
+		trail[trailSize++] = literal;
+	}
+
+	/**
+	 * Propagates all assigned literals through the clauses watching their negation.
+	 *
+	 * @return the index of a clause with only false literals, or -1 if there is no conflict
+	 */
+	private int propagate() {
+		while (propagated < trailSize) {
+			int falseLiteral = trail[propagated++] ^ 1;
+			IntVector watching = watches[falseLiteral];
+			int kept = 0;
+			for (int i = 0; i < watching.size; i++) {
+				int index = watching.items[i];
+				int[] clause = clauses.get(index);
+				// Keep the false literal second, so the first is the one that may be implied
+				if (clause[0] == falseLiteral) {
+					clause[0] = clause[1];
+					clause[1] = falseLiteral;
+				}
+				if (valueOf(clause[0]) == 1) {
+					watching.items[kept++] = index;
+					continue;
+				}
+				if (watchOther(clause, index, falseLiteral)) {
+					continue;
+				}
+				watching.items[kept++] = index;
+				if (valueOf(clause[0]) == 0) {
+					// Keep the remaining watches and report the conflict
+					for (i++; i < watching.size; i++) {
+						watching.items[kept++] = watching.items[i];
+					}
+					watching.size = kept;
+					propagated = trailSize;
+					return index;
+				}
+				assign(clause[0], index);
+			}
+			watching.size = kept;
+		}
+		return -1;
+	}
+
+	private boolean watchOther(int[] clause, int index, int falseLiteral) {
+		for (int k = 2; k < clause.length; k++) {
+			if (valueOf(clause[k]) != 0) {
+				clause[1] = clause[k];
+				clause[k] = falseLiteral;
+				watches[clause[1]].add(index);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Learns the first unique implication point clause of the given conflict, backtracks to the
+	 * level where it becomes unit and asserts it.
+	 */
+	private void learn(int conflict) {
+		IntVector learned = new IntVector();
+		// The asserting literal is set once it is found
+		learned.add(0);
+		int level = levelStarts.size;
+		int pending = 0;
+		int literal = -1;
+		int index = trailSize - 1;
+		int[] clause = clauses.get(conflict);
+		while (true) {
+			for (int k = literal < 0 ? 0 : 1; k < clause.length; k++) {
+				int variable = clause[k] >> 1;
+				if (!seen[variable] && levels[variable] > 0) {
+					seen[variable] = true;
+					bumpActivity(variable);
+					if (levels[variable] == level) {
+						pending++;
+					} else {
+						learned.add(clause[k]);
+					}
+				}
+			}
+			while (!seen[trail[index] >> 1]) {
+				index--;
+			}
+			literal = trail[index--];
+			seen[literal >> 1] = false;
+			if (--pending == 0) {
+				break;
+			}
+			clause = clauses.get(reasons[literal >> 1]);
+		}
+		learned.items[0] = literal ^ 1;
+
+		int[] learnedClause = Arrays.copyOf(learned.items, learned.size);
+		for (int k = 1; k < learnedClause.length; k++) {
+			seen[learnedClause[k] >> 1] = false;
+		}
+		// The literal of the highest remaining level is watched, so it is the last to be undone
+		swapHighestLevelSecond(learnedClause);
+		backtrack(learnedClause.length == 1 ? 0 : levels[learnedClause[1] >> 1]);
+		if (learnedClause.length == 1) {
+			assign(learnedClause[0], -1);
+		} else {
+			attach(learnedClause);
+			assign(learnedClause[0], clauses.size() - 1);
+		}
+	}
+
+	private void swapHighestLevelSecond(int[] clause) {
+		int highest = 1;
+		for (int k = 2; k < clause.length; k++) {
+			if (levels[clause[k] >> 1] > levels[clause[highest] >> 1]) {
+				highest = k;
+			}
+		}
+		if (clause.length > 1) {
+			int literal = clause[1];
+			clause[1] = clause[highest];
+			clause[highest] = literal;
+		}
+	}
+
+	private void backtrack(int level) {
+		if (levelStarts.size <= level) {
+			return;
+		}
+		int start = levelStarts.items[level];
+		for (int i = trailSize - 1; i >= start; i--) {
+			int variable = trail[i] >> 1;
+			phases[variable] = values[variable] == 1;
+			values[variable] = UNASSIGNED;
+		}
+		trailSize = start;
+		propagated = start;
+		levelStarts.size = level;
+	}
+
+	private int pickBranchVariable() {
+		// A linear scan is cheap next to propagation for the formulas of a policy
+		int best = -1;
+		for (int variable = 0; variable < variables; variable++) {
+			if (values[variable] == UNASSIGNED
+					&& (best < 0 || activities[variable] > activities[best])) {
+				best = variable;
+			}
+		}
+		return best;
+	}
+
+	private void bumpActivity(int variable) {
+		activities[variable] += activityIncrement;
+		if (activities[variable] > ACTIVITY_LIMIT) {
+			for (int i = 0; i < variables; i++) {
+				activities[i] /= ACTIVITY_LIMIT;
+			}
+			activityIncrement /= ACTIVITY_LIMIT;
+		}
+	}
+
+	private void decayActivities() {
+		activityIncrement /= ACTIVITY_DECAY;
+	}
+
+	private boolean[] getModel() {
+		boolean[] model = new boolean[variables];
+		for (int variable = 0; variable < variables; variable++) {
+			model[variable] = values[variable] == 1;
+		}
+		return model;
+	}
+
+	/**
+	 * Growable list of primitive integers.
+	 */
+	private static final class IntVector {
+
+		private int[] items = new int[4];
+		private int size;
+
+		private void add(int item) {
+			if (size == items.length) {
+				items = Arrays.copyOf(items, 2 * size);
+			}
+			items[size++] = item;
+		}
+	}
+}
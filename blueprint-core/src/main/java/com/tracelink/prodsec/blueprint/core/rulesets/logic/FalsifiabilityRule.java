@@ -6,8 +6,10 @@ import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
 import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
 import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
-import java.util.LinkedHashMap;
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Detects policies that are configured so that any boolean input to its statements always results
@@ -33,16 +35,14 @@ import java.util.Map.Entry;
  *   true  |  true  |  false
  *   false |  false |  true
  * </pre>
+ * <p>
+ * Rather than evaluating every combination of inputs, which grows exponentially with the number of
+ * distinct statements, the policy is checked by a {@link TautologyChecker}.
  *
  * @author csmith
  */
 public class FalsifiabilityRule extends AbstractPolicyRule {
 
-	/*
-	 * An assignment maps the integer hash code of a configured statement to its truth-table equivalent
-	 */
-	private final LinkedHashMap<Integer, Boolean> assignments = new LinkedHashMap<>();
-
 	public FalsifiabilityRule() {
 		super("Falsifiability Rule");
 	}
@@ -54,96 +54,36 @@ public class FalsifiabilityRule extends AbstractPolicyRule {
 
 	@Override
 	public PolicyBuilderReport visit(Policy node, PolicyBuilderReport report) {
-		super.visit(node, report);
-		if (isFalsifiable(node)) {
+		if (isTautology(node)) {
 			report.addViolation(this, node,
 					"This policy always evaluates to true because at least one clause evaluates to true for every given input");
 		}
-		return report;
-	}
-
-	@Override
-	public PolicyBuilderReport visit(PolicyClause node, PolicyBuilderReport report) {
-		for (ConfiguredStatement stmt : node.getStatements()) {
-			int code = stmt.generateHashCodeWithoutNegation();
-			assignments.putIfAbsent(code, false);
-		}
 		return super.visit(node, report);
 	}
 
 	/*
 	 * true if at least 1 clause is true in a policy for every combination of boolean inputs
 	 */
-	private boolean isFalsifiable(Policy policy) {
-		do {
-			boolean atLeast1TrueClause = clausesHaveTrueCase(policy);
-
-			// If for any assignment 0 clauses are true, then we can stop solving entirely, since all
-			// assignments must be true
-			if (!atLeast1TrueClause) {
-				return false;
-			}
-
-		} while (nextAssignment());
-
-		return true;
-	}
-
-	/*
-	 * true if any clause evaluates to true, false if all clauses evaluate to false
-	 */
-	private boolean clausesHaveTrueCase(Policy policy) {
+	private boolean isTautology(Policy policy) {
+		// Statements are the same variable if they are equal regardless of negation, identified by
+		// their hash codes
+		Map<Integer, Integer> variables = new HashMap<>();
+		List<int[]> terms = new ArrayList<>();
 		for (PolicyClause clause : policy.getClauses()) {
-			boolean foundTrueClauseCase = allStatementsAreTrue(clause);
-
-			// If any clause is true, we can skip all others for this assignment since clauses
-			// are OR'd together
-			if (foundTrueClauseCase) {
-				return true;
-			}
-		}
-		return false;
-	}
-
-	/*
-	 * false if any statement evaluates to false, true if all statements evaluate to true
-	 */
-	private boolean allStatementsAreTrue(PolicyClause clause) {
-		for (ConfiguredStatement statement : clause.getStatements()) {
-			int code = statement.generateHashCodeWithoutNegation();
-			boolean assignment = assignments.get(code);
-
-			//if the statement is negated, invert the assignment
-			boolean statementCase = statement.isNegated() != assignment;
-
-			// If any statement is false, then this clause can be skipped because
-			// all statements are AND'd together
-			if (!statementCase) {
-				return false;
-			}
-		}
-		return true;
-	}
-
-	/*
-	 * NOTE: This has side-effects. The method sets the next boolean configuration on the
-	 * assignments map and also returns true if the assignments continue and false if the search-
-	 * space is finished
-	 */
-	private boolean nextAssignment() {
-		//From back to front, search for the next false bit
-		for (Entry<Integer, Boolean> entry : assignments.entrySet()) {
-			//Found a false, flip it to true and return since the assignments are now correct
-			if (!entry.getValue()) {
-				assignments.put(entry.getKey(), true);
-				return true;
+			if (clause == null) {
+				continue;
 			}
-			//Otherwise flip this back to false
-			else {
-				assignments.put(entry.getKey(), false);
+			int[] term = new int[clause.getStatements().size()];
+			for (int i = 0; i < term.length; i++) {
+				ConfiguredStatement statement = clause.getStatements().get(i);
+				int variable = variables.computeIfAbsent(
+						statement.generateHashCodeWithoutNegation(), code -> variables.size());
+				term[i] = TautologyChecker.literal(variable, statement.isNegated());
 			}
+			terms.add(term);
 		}
-
-		return false;
+		TautologyChecker checker = new TautologyChecker(variables.size());
+		terms.forEach(checker::addTerm);
+		return checker.isTautology();
 	}
 }
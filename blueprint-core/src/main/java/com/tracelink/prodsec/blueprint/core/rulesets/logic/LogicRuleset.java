@@ -9,10 +9,21 @@ import com.tracelink.prodsec.blueprint.core.rulesets.PreconfiguredRuleset;
  */
 public class LogicRuleset extends PreconfiguredRuleset {
 
+	private static final LogicRuleset INSTANCE = new LogicRuleset();
+
 	public LogicRuleset() {
 		super("Logic Ruleset");
 		addPreconfiguredRule(new FalsifiabilityRule());
 		addPreconfiguredRule(new SatisfiabilityRule());
 	}
 
+	/**
+	 * Gets the shared instance of this ruleset. Rulesets and their rules are stateless, so the
+	 * instance may be used by any number of concurrent validations.
+	 *
+	 * @return the shared ruleset
+	 */
+	public static LogicRuleset getInstance() {
+		return INSTANCE;
+	}
 }
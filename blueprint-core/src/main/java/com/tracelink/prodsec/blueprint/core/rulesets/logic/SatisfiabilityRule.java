@@ -5,13 +5,17 @@ import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
 import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
 import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * Determines whether {@linkplain ConfiguredStatement}s are complements of each
  * other. Complements have equivalent base statements and equivalent arguments,
- * but the opposite value for {@code negated}.
+ * but the opposite value for {@code negated}. Every pair of complements in a clause is
+ * reported.
  */
 public class SatisfiabilityRule extends AbstractPolicyRule {
 
@@ -21,15 +25,22 @@ public class SatisfiabilityRule extends AbstractPolicyRule {
 
 	@Override
 	public PolicyBuilderReport visit(PolicyClause node, PolicyBuilderReport report) {
+		// Complements have the same hash code without negation, so only statements in the same
+		// bucket need to be compared
 		List<ConfiguredStatement> statements = node.getStatements();
-		for (int i = 0; i < statements.size(); i++) {
-			for (int j = i + 1; j < statements.size(); j++) {
-				if (isComplement(statements.get(i), statements.get(j))) {
-					report.addViolation(this, node,
-							"This clause is unsatisfiable. Two of the statements are equivalent and one of them is negated");
-					return super.visit(node, report);
+		Map<Integer, List<Integer>> buckets = new HashMap<>();
+		for (int j = 0; j < statements.size(); j++) {
+			ConfiguredStatement statement = statements.get(j);
+			List<Integer> bucket = buckets.computeIfAbsent(
+					statement.generateHashCodeWithoutNegation(), code -> new ArrayList<>(1));
+			for (int i : bucket) {
+				if (isComplement(statements.get(i), statement)) {
+					report.formatViolation(this, node,
+							"This clause is unsatisfiable. Statements {0,number,#} and {1,number,#} are equivalent and one of them is negated",
+							i + 1, j + 1);
 				}
 			}
+			bucket.add(j);
 		}
 		return super.visit(node, report);
 	}
@@ -40,6 +51,11 @@ public class SatisfiabilityRule extends AbstractPolicyRule {
 				&& first.areArgumentsEqual(second);
 	}
 
+	@Override
+	public boolean canVisitConcurrently() {
+		return true;
+	}
+
 	@Override
 	public RuleSeverity getSeverity() {
 		return RuleSeverity.ERROR;
@@ -0,0 +1,156 @@
+package com.tracelink.prodsec.blueprint.core.rulesets.logic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks whether a formula in disjunctive normal form, a disjunction of terms that are each a
+ * conjunction of literals, is a tautology. This is the form of a policy, whose clauses are its
+ * terms and whose statements are its literals.
+ * <p>
+ * A formula is a tautology if and only if its negation is unsatisfiable. The negation of a DNF
+ * formula is a CNF formula with a clause of negated literals for each term, so formulas are checked
+ * by searching for an assignment that satisfies the negation, which is an assignment that makes
+ * every term false. Formulas of up to {@value #MAX_ENUMERATED_VARIABLES} variables are checked by
+ * enumerating all assignments, 64 at a time in the bits of a {@code long}. Larger formulas are
+ * checked by a conflict-driven clause learning SAT solver.
+ *
+ * @author csmith
+ */
+public final class TautologyChecker {
+
+	/**
+	 * The largest number of variables whose assignments are enumerated
+	 */
+	static final int MAX_ENUMERATED_VARIABLES = 16;
+	// The values of the first six variables for the 64 assignments of a word
+	private static final long[] WORD_PATTERNS = {0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL,
+			0xF0F0F0F0F0F0F0F0L, 0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L};
+	private static final int WORD_VARIABLES = WORD_PATTERNS.length;
+
+	private final int variables;
+	private final List<int[]> terms = new ArrayList<>();
+
+	/**
+	 * Create a checker for a formula over the given number of variables
+	 *
+	 * @param variables the number of variables, numbered from 0
+	 */
+	public TautologyChecker(int variables) {
+		if (variables < 0) {
+			throw new IllegalArgumentException("The number of variables cannot be negative");
+		}
+		this.variables = variables;
+	}
+
+	/**
+	 * Encodes a literal of the given variable.
+	 *
+	 * @param variable the variable of the literal
+	 * @param negated  whether the literal is the negation of the variable
+	 * @return the encoded literal
+	 */
+	public static int literal(int variable, boolean negated) {
+		return 2 * variable + (negated ? 1 : 0);
+	}
+
+	/**
+	 * Adds a term, the conjunction of the given literals, to the disjunction of this formula.
+	 * A term without literals is always true.
+	 *
+	 * @param literals the literals of the term, encoded by {@link #literal(int, boolean)}
+	 */
+	public void addTerm(int... literals) {
+		for (int literal : literals) {
+			if (literal < 0 || literal >> 1 >= variables) {
+				throw new IllegalArgumentException("Unknown variable for literal " + literal);
+			}
+		}
+		terms.add(literals.clone());
+	}
+
+	/**
+	 * Determines whether the formula is true for every assignment of its variables.
+	 *
+	 * @return true if the formula is a tautology, false otherwise
+	 */
+	public boolean isTautology() {
+		return findCounterexample() == null;
+	}
+
+	/**
+	 * Finds an assignment of the variables for which the formula is false.
+	 *
+	 * @return the value of each variable in an assignment for which every term is false, or null if
+	 * the formula is a tautology
+	 */
+	public boolean[] findCounterexample() {
+		if (variables <= MAX_ENUMERATED_VARIABLES) {
+			return enumerateCounterexample();
+		}
+		return solveCounterexample();
+	}
+
+	/**
+	 * Finds a counterexample with the SAT solver, regardless of the number of variables.
+	 */
+	boolean[] solveCounterexample() {
+		CdclSolver solver = new CdclSolver(variables);
+		for (int[] term : terms) {
+			int[] clause = new int[term.length];
+			for (int i = 0; i < term.length; i++) {
+				clause[i] = term[i] ^ 1;
+			}
+			solver.addClause(clause);
+		}
+		return solver.solve();
+	}
+
+	/**
+	 * Finds the first counterexample in the order of the assignments, where the first variable is
+	 * the least significant bit of an assignment.
+	 */
+	private boolean[] enumerateCounterexample() {
+		long assignments = 1L << variables;
+		// Formulas of fewer than six variables only use the low bits of a single word
+		long valid = assignments < Long.SIZE ? (1L << assignments) - 1 : -1L;
+		long[] values = new long[variables];
+		for (int variable = 0; variable < Math.min(variables, WORD_VARIABLES); variable++) {
+			values[variable] = WORD_PATTERNS[variable];
+		}
+		for (long word = 0; word * Long.SIZE < assignments; word++) {
+			for (int variable = WORD_VARIABLES; variable < variables; variable++) {
+				values[variable] = (word >> (variable - WORD_VARIABLES) & 1) == 0 ? 0L : -1L;
+			}
+			long falsified = valid & ~evaluate(values, valid);
+			if (falsified != 0) {
+				long assignment = word * Long.SIZE + Long.numberOfTrailingZeros(falsified);
+				boolean[] counterexample = new boolean[variables];
+				for (int variable = 0; variable < variables; variable++) {
+					counterexample[variable] = (assignment >> variable & 1) != 0;
+				}
+				return counterexample;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Evaluates the formula for each of the 64 assignments in the bits of the variable values.
+	 */
+	private long evaluate(long[] values, long valid) {
+		long result = 0;
+		for (int[] term : terms) {
+			long termResult = -1L;
+			for (int literal : term) {
+				long value = values[literal >> 1];
+				termResult &= (literal & 1) == 0 ? value : ~value;
+			}
+			result |= termResult;
+			if ((result & valid) == valid) {
+				break;
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,80 @@
+package com.tracelink.prodsec.blueprint.core.snapshot;
+
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the fields that define equality of a {@link BaseStatementArgument}. The
+ * hash code is computed once.
+ *
+ * @author csmith
+ */
+public final class ArgumentSnapshot {
+
+	private final String parameter;
+	private final String description;
+	private final ArgumentType type;
+	private final Set<String> enumValues;
+	private final boolean arrayUnique;
+	private final boolean arrayUnordered;
+	private final int hash;
+
+	ArgumentSnapshot(BaseStatementArgument argument) {
+		this.parameter = argument.getParameter();
+		this.description = argument.getDescription();
+		this.type = argument.getType();
+		this.enumValues = Snapshots.copyOf(argument.getEnumValues());
+		this.arrayUnique = argument.isArrayUnique();
+		this.arrayUnordered = argument.isArrayUnordered();
+		this.hash = Objects
+				.hash(parameter, description, type, enumValues, arrayUnique, arrayUnordered);
+	}
+
+	public String getParameter() {
+		return parameter;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public ArgumentType getType() {
+		return type;
+	}
+
+	public Set<String> getEnumValues() {
+		return enumValues;
+	}
+
+	public boolean isArrayUnique() {
+		return arrayUnique;
+	}
+
+	public boolean isArrayUnordered() {
+		return arrayUnordered;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		ArgumentSnapshot that = (ArgumentSnapshot) o;
+		return hash == that.hash && arrayUnique == that.arrayUnique
+				&& arrayUnordered == that.arrayUnordered
+				&& Objects.equals(parameter, that.parameter)
+				&& Objects.equals(description, that.description)
+				&& Objects.equals(type, that.type)
+				&& Objects.equals(enumValues, that.enumValues);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
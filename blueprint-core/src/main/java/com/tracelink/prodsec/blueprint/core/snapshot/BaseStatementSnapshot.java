@@ -0,0 +1,82 @@
+package com.tracelink.prodsec.blueprint.core.snapshot;
+
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the fields that define equality of a {@link BaseStatement}: the name,
+ * description, negation flag, policy types, function and arguments. The function is an interned
+ * {@link FunctionSnapshot}, and the hash code is computed once.
+ *
+ * @author csmith
+ */
+public final class BaseStatementSnapshot {
+
+	private final String name;
+	private final String description;
+	private final boolean negationAllowed;
+	private final Set<String> policyTypes;
+	private final FunctionSnapshot function;
+	private final List<ArgumentSnapshot> arguments;
+	private final int hash;
+
+	BaseStatementSnapshot(BaseStatement baseStatement, FunctionSnapshot function,
+			List<ArgumentSnapshot> arguments) {
+		this.name = baseStatement.getName();
+		this.description = baseStatement.getDescription();
+		this.negationAllowed = baseStatement.isNegationAllowed();
+		this.policyTypes = Snapshots.copyOf(baseStatement.getPolicyTypes());
+		this.function = function;
+		this.arguments = arguments;
+		this.hash = Objects.hash(name, description, negationAllowed, policyTypes, function,
+				arguments);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public boolean isNegationAllowed() {
+		return negationAllowed;
+	}
+
+	public Set<String> getPolicyTypes() {
+		return policyTypes;
+	}
+
+	public FunctionSnapshot getFunction() {
+		return function;
+	}
+
+	public List<ArgumentSnapshot> getArguments() {
+		return arguments;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		BaseStatementSnapshot that = (BaseStatementSnapshot) o;
+		return hash == that.hash && negationAllowed == that.negationAllowed
+				&& Objects.equals(name, that.name)
+				&& Objects.equals(description, that.description)
+				&& Objects.equals(policyTypes, that.policyTypes)
+				&& Objects.equals(function, that.function)
+				&& Objects.equals(arguments, that.arguments);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
@@ -0,0 +1,43 @@
+package com.tracelink.prodsec.blueprint.core.snapshot;
+
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of a {@link PolicyClause}, with the same equality. The statements are
+ * interned {@link StatementSnapshot}s, and the hash code is computed once.
+ *
+ * @author csmith
+ */
+public final class ClauseSnapshot {
+
+	private final List<StatementSnapshot> statements;
+	private final int hash;
+
+	ClauseSnapshot(List<StatementSnapshot> statements) {
+		this.statements = statements;
+		this.hash = Objects.hash(statements);
+	}
+
+	public List<StatementSnapshot> getStatements() {
+		return statements;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		ClauseSnapshot that = (ClauseSnapshot) o;
+		return hash == that.hash && Objects.equals(statements, that.statements);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
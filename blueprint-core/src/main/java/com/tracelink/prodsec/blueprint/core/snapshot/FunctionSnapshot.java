@@ -0,0 +1,72 @@
+package com.tracelink.prodsec.blueprint.core.snapshot;
+
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the fields that define equality of a {@link BaseStatementFunction}: the
+ * name, description, policy types, parameters and expression. The hash code is computed once.
+ *
+ * @author csmith
+ */
+public final class FunctionSnapshot {
+
+	private final String name;
+	private final String description;
+	private final Set<String> policyTypes;
+	private final List<String> parameters;
+	private final String expression;
+	private final int hash;
+
+	FunctionSnapshot(BaseStatementFunction function) {
+		this.name = function.getName();
+		this.description = function.getDescription();
+		this.policyTypes = Snapshots.copyOf(function.getPolicyTypes());
+		this.parameters = Snapshots.copyOf(function.getParameters());
+		this.expression = function.getExpression();
+		this.hash = Objects.hash(name, description, policyTypes, parameters, expression);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public Set<String> getPolicyTypes() {
+		return policyTypes;
+	}
+
+	public List<String> getParameters() {
+		return parameters;
+	}
+
+	public String getExpression() {
+		return expression;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		FunctionSnapshot that = (FunctionSnapshot) o;
+		return hash == that.hash && Objects.equals(name, that.name)
+				&& Objects.equals(description, that.description)
+				&& Objects.equals(policyTypes, that.policyTypes)
+				&& Objects.equals(parameters, that.parameters)
+				&& Objects.equals(expression, that.expression);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
@@ -0,0 +1,170 @@
+package com.tracelink.prodsec.blueprint.core.snapshot;
+
+import com.tracelink.prodsec.blueprint.core.argument.ParsedArgument;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates immutable, hash-consed snapshots of the core model. Structurally equal snapshots created
+ * by the same interner are the same instance, so a base statement or function referenced from
+ * many statements is shared, and snapshots can be compared by identity. Each base statement and
+ * function instance is only snapshotted once, so an interner should only be used while the model
+ * it snapshots is not modified, e.g. for a single validation of a policy.
+ *
+ * @author csmith
+ */
+public final class ModelInterner {
+
+	private final Map<Object, Object> nodes = new HashMap<>();
+	private final Map<BaseStatement, BaseStatementSnapshot> baseStatements = new IdentityHashMap<>();
+	private final Map<BaseStatementFunction, FunctionSnapshot> functions = new IdentityHashMap<>();
+
+	/**
+	 * Gets the interned snapshot of the given policy.
+	 *
+	 * @param policy the policy to snapshot
+	 * @return the snapshot, or null if the policy is null
+	 */
+	public synchronized PolicySnapshot snapshot(Policy policy) {
+		if (policy == null) {
+			return null;
+		}
+		List<ClauseSnapshot> clauses = null;
+		if (policy.getClauses() != null) {
+			clauses = new ArrayList<>(policy.getClauses().size());
+			for (PolicyClause clause : policy.getClauses()) {
+				clauses.add(snapshot(clause));
+			}
+			clauses = Collections.unmodifiableList(clauses);
+		}
+		return intern(new PolicySnapshot(policy, clauses));
+	}
+
+	/**
+	 * Gets the interned snapshot of the given clause.
+	 *
+	 * @param clause the clause to snapshot
+	 * @return the snapshot, or null if the clause is null
+	 */
+	public synchronized ClauseSnapshot snapshot(PolicyClause clause) {
+		if (clause == null) {
+			return null;
+		}
+		List<StatementSnapshot> statements = null;
+		if (clause.getStatements() != null) {
+			statements = new ArrayList<>(clause.getStatements().size());
+			for (ConfiguredStatement statement : clause.getStatements()) {
+				statements.add(snapshot(statement));
+			}
+			statements = Collections.unmodifiableList(statements);
+		}
+		return intern(new ClauseSnapshot(statements));
+	}
+
+	/**
+	 * Gets the interned snapshot of the given statement.
+	 *
+	 * @param statement the statement to snapshot
+	 * @return the snapshot, or null if the statement is null
+	 */
+	public synchronized StatementSnapshot snapshot(ConfiguredStatement statement) {
+		if (statement == null) {
+			return null;
+		}
+		BaseStatement baseStatement = statement.getBaseStatement();
+		List<String> values = statement.getArgumentValues();
+		List<Object> keys = null;
+		if (values != null && (baseStatement == null || baseStatement.getArguments() == null)) {
+			// If there is no info about the arguments, the values are compared directly
+			keys = Collections.unmodifiableList(new ArrayList<>(values));
+		} else if (values != null) {
+			List<BaseStatementArgument> arguments = baseStatement.getArguments();
+			int size = Math.min(values.size(), arguments.size());
+			keys = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				keys.add(getArgumentKey(statement, arguments.get(i), i));
+			}
+			keys = Collections.unmodifiableList(keys);
+		}
+		return intern(new StatementSnapshot(statement.isNegated(), snapshot(baseStatement),
+				values == null ? -1 : values.size(), keys));
+	}
+
+	/**
+	 * Gets the interned snapshot of the given base statement.
+	 *
+	 * @param baseStatement the base statement to snapshot
+	 * @return the snapshot, or null if the base statement is null
+	 */
+	public synchronized BaseStatementSnapshot snapshot(BaseStatement baseStatement) {
+		if (baseStatement == null) {
+			return null;
+		}
+		BaseStatementSnapshot snapshot = baseStatements.get(baseStatement);
+		if (snapshot == null) {
+			List<ArgumentSnapshot> arguments = null;
+			if (baseStatement.getArguments() != null) {
+				arguments = new ArrayList<>(baseStatement.getArguments().size());
+				for (BaseStatementArgument argument : baseStatement.getArguments()) {
+					arguments.add(argument == null ? null : intern(new ArgumentSnapshot(argument)));
+				}
+				arguments = Collections.unmodifiableList(arguments);
+			}
+			snapshot = intern(new BaseStatementSnapshot(baseStatement,
+					snapshot(baseStatement.getFunction()), arguments));
+			baseStatements.put(baseStatement, snapshot);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Gets the interned snapshot of the given function.
+	 *
+	 * @param function the function to snapshot
+	 * @return the snapshot, or null if the function is null
+	 */
+	public synchronized FunctionSnapshot snapshot(BaseStatementFunction function) {
+		if (function == null) {
+			return null;
+		}
+		return functions.computeIfAbsent(function, f -> intern(new FunctionSnapshot(f)));
+	}
+
+	/**
+	 * Gets the number of distinct snapshots held by this interner.
+	 *
+	 * @return the number of interned snapshots
+	 */
+	public synchronized int size() {
+		return nodes.size();
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T intern(T node) {
+		Object interned = nodes.putIfAbsent(node, node);
+		return interned == null ? node : (T) interned;
+	}
+
+	private static Object getArgumentKey(ConfiguredStatement statement,
+			BaseStatementArgument argument, int index) {
+		if (argument != null && argument.getType() != null && argument.getType().isArrayType()
+				&& argument.isArrayUnordered()) {
+			// Unordered array arguments are equal if their items are equal as multisets
+			ParsedArgument parsed = statement.getParsedArgument(index);
+			if (parsed != null && parsed.getMultiset() != null) {
+				return parsed.getMultiset();
+			}
+		}
+		return statement.getArgumentValues().get(index);
+	}
+}
@@ -0,0 +1,64 @@
+package com.tracelink.prodsec.blueprint.core.snapshot;
+
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of a {@link Policy}. The clauses are interned {@link ClauseSnapshot}s, and
+ * the hash code is computed once.
+ *
+ * @author csmith
+ */
+public final class PolicySnapshot {
+
+	private final String name;
+	private final String author;
+	private final String policyType;
+	private final List<ClauseSnapshot> clauses;
+	private final int hash;
+
+	PolicySnapshot(Policy policy, List<ClauseSnapshot> clauses) {
+		this.name = policy.getName();
+		this.author = policy.getAuthor();
+		this.policyType = policy.getPolicyType();
+		this.clauses = clauses;
+		this.hash = Objects.hash(name, author, policyType, clauses);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getAuthor() {
+		return author;
+	}
+
+	public String getPolicyType() {
+		return policyType;
+	}
+
+	public List<ClauseSnapshot> getClauses() {
+		return clauses;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		PolicySnapshot that = (PolicySnapshot) o;
+		return hash == that.hash && Objects.equals(name, that.name)
+				&& Objects.equals(author, that.author)
+				&& Objects.equals(policyType, that.policyType)
+				&& Objects.equals(clauses, that.clauses);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
@@ -0,0 +1,26 @@
+package com.tracelink.prodsec.blueprint.core.snapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Helpers to copy the collections of mutable model objects into snapshots.
+ *
+ * @author csmith
+ */
+final class Snapshots {
+
+	private Snapshots() {
+	}
+
+	static <T> List<T> copyOf(List<T> list) {
+		return list == null ? null : Collections.unmodifiableList(new ArrayList<>(list));
+	}
+
+	static <T> Set<T> copyOf(Set<T> set) {
+		return set == null ? null : Collections.unmodifiableSet(new LinkedHashSet<>(set));
+	}
+}
@@ -0,0 +1,74 @@
+package com.tracelink.prodsec.blueprint.core.snapshot;
+
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of a {@link ConfiguredStatement}, with the same equality. Each argument value
+ * is kept as its equality key: the canonical multiset of items for unordered array arguments, and
+ * the configured value otherwise. The base statement is an interned {@link BaseStatementSnapshot},
+ * and the hash code is computed once.
+ *
+ * @author csmith
+ */
+public final class StatementSnapshot {
+
+	private final boolean negated;
+	private final BaseStatementSnapshot baseStatement;
+	// The number of argument values, or -1 if there is no list of argument values
+	private final int argumentCount;
+	private final List<Object> argumentKeys;
+	private final int hash;
+
+	StatementSnapshot(boolean negated, BaseStatementSnapshot baseStatement, int argumentCount,
+			List<Object> argumentKeys) {
+		this.negated = negated;
+		this.baseStatement = baseStatement;
+		this.argumentCount = argumentCount;
+		this.argumentKeys = argumentKeys;
+		this.hash = Objects.hash(negated, baseStatement, argumentCount, argumentKeys);
+	}
+
+	public boolean isNegated() {
+		return negated;
+	}
+
+	public BaseStatementSnapshot getBaseStatement() {
+		return baseStatement;
+	}
+
+	public int getArgumentCount() {
+		return argumentCount;
+	}
+
+	/**
+	 * Gets the equality keys of the argument values. These are the canonical multisets of items of
+	 * unordered array arguments and the configured values of other arguments.
+	 *
+	 * @return unmodifiable list of argument keys, or null if the statement has no argument values
+	 */
+	public List<Object> getArgumentKeys() {
+		return argumentKeys;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		StatementSnapshot that = (StatementSnapshot) o;
+		return hash == that.hash && negated == that.negated
+				&& argumentCount == that.argumentCount
+				&& Objects.equals(baseStatement, that.baseStatement)
+				&& Objects.equals(argumentKeys, that.argumentKeys);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
@@ -105,6 +105,12 @@ public class BaseStatementArgument extends AbstractPolicyNode {
 		return visitor.visit(this, report);
 	}
 
+	@Override
+	protected int getChildIndex() {
+		// The function is the first child of the base statement
+		return index + 1;
+	}
+
 	@Override
 	protected String getLocationIdentifier() {
 		return "arguments[" + index + "]";
@@ -9,7 +9,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
@@ -167,13 +166,17 @@ public class BaseStatementFunction extends AbstractRootNode implements
 		return Objects.hash(name, description, policyTypes, parameters, expression);
 	}
 
+	/**
+	 * Gets the direct and transitive dependencies of this function. Shared dependencies are only
+	 * visited once, see {@link FunctionDependencyGraph}.
+	 *
+	 * @return set of all dependencies of this function
+	 */
 	public Set<BaseStatementFunction> getAllDependencies() {
 		if (dependencies == null) {
 			return Collections.emptySet();
 		}
-		Set<BaseStatementFunction> allDependencies = new HashSet<>(dependencies);
-		allDependencies.addAll(dependencies.stream().map(BaseStatementFunction::getAllDependencies)
-				.flatMap(Set::stream).collect(Collectors.toSet()));
-		return allDependencies;
+		return new HashSet<>(FunctionDependencyGraph.of(Collections.singleton(this))
+				.getAllDependencies(this));
 	}
 }
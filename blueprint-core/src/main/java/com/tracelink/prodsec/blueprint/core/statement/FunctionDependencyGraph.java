@@ -0,0 +1,405 @@
+package com.tracelink.prodsec.blueprint.core.statement;
+
+import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
+import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyNode;
+import com.tracelink.prodsec.blueprint.core.visitor.AbstractRootNode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The graph of the dependencies between {@link BaseStatementFunction}s reachable from a set of
+ * root functions. The transitive dependencies of every function in the graph are computed once,
+ * in a single pass over the strongly connected components of the graph in reverse topological
+ * order, so functions that share dependencies, e.g. in a diamond shape, do not cause the shared
+ * dependencies to be visited again. Cyclic dependencies are allowed, in which case every function
+ * of the cycle depends on itself.
+ * <p>
+ * Functions are tracked by identity, but Rego resolves functions by name, so the cycles that a
+ * function depends on are found from a second pass over the names of the functions, in which all
+ * functions with the same name are a single node. A cycle can therefore close on a different
+ * function with the same name. The graph reflects the dependencies at the time it was created, so
+ * a graph should only be used while the functions are not modified, e.g. for a single validation
+ * or Rego generation. A graph is thread-safe.
+ *
+ * @author csmith
+ */
+public final class FunctionDependencyGraph {
+
+	private static final Object CONTEXT_KEY = new Object();
+
+	private final List<BaseStatementFunction> functions;
+	private final Map<BaseStatementFunction, Integer> indexes;
+	private final int[][] edges;
+	private final int[] components;
+	private final BitSet[] closures;
+	private final AtomicReferenceArray<Set<BaseStatementFunction>> dependencies;
+	private final AtomicReferenceArray<List<List<BaseStatementFunction>>> cyclicPaths;
+	// Created when the first cyclic paths are requested
+	private volatile NameGraph nameGraph;
+
+	private FunctionDependencyGraph(Collection<BaseStatementFunction> roots) {
+		functions = new ArrayList<>();
+		indexes = new IdentityHashMap<>();
+		for (BaseStatementFunction root : roots) {
+			add(Objects.requireNonNull(root, "Root functions cannot be null"));
+		}
+		// Functions are added in breadth-first order, so the edges are found in the same order
+		List<int[]> functionEdges = new ArrayList<>();
+		for (int i = 0; i < functions.size(); i++) {
+			Set<BaseStatementFunction> functionDependencies = functions.get(i).getDependencies();
+			if (functionDependencies == null) {
+				functionEdges.add(new int[0]);
+				continue;
+			}
+			functionEdges.add(functionDependencies.stream().filter(Objects::nonNull)
+					.mapToInt(this::add).toArray());
+		}
+		edges = functionEdges.toArray(new int[0][]);
+		components = new int[functions.size()];
+		closures = findClosures(edges, components);
+		dependencies = new AtomicReferenceArray<>(closures.length);
+		cyclicPaths = new AtomicReferenceArray<>(functions.size());
+	}
+
+	/**
+	 * Creates the graph of the functions reachable from the given functions.
+	 *
+	 * @param roots the functions to start from
+	 * @return the dependency graph of the given functions
+	 * @throws NullPointerException if one of the given functions is null
+	 */
+	public static FunctionDependencyGraph of(Collection<BaseStatementFunction> roots) {
+		return new FunctionDependencyGraph(roots);
+	}
+
+	/**
+	 * Creates the graph of the functions reachable from the functions in the given tree.
+	 *
+	 * @param rootNode the root of the tree to find functions in
+	 * @return the dependency graph of the functions in the tree
+	 */
+	public static FunctionDependencyGraph of(AbstractRootNode rootNode) {
+		Set<BaseStatementFunction> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<AbstractPolicyNode> toVisit = new ArrayDeque<>();
+		toVisit.push(rootNode);
+		while (!toVisit.isEmpty()) {
+			AbstractPolicyNode node = toVisit.pop();
+			if (node instanceof BaseStatementFunction) {
+				roots.add((BaseStatementFunction) node);
+			}
+			Iterable<? extends AbstractPolicyNode> children = node.children();
+			if (children != null) {
+				children.forEach(child -> {
+					if (child != null) {
+						toVisit.push(child);
+					}
+				});
+			}
+		}
+		return new FunctionDependencyGraph(roots);
+	}
+
+	/**
+	 * Gets the graph of the functions in the root node of the given report. The graph is created
+	 * once per validation and shared by all rules through the context of the report.
+	 *
+	 * @param report the report of the validation
+	 * @return the dependency graph of the functions in the root node of the report
+	 */
+	public static FunctionDependencyGraph forReport(PolicyBuilderReport report) {
+		return report.getContext().computeIfAbsent(CONTEXT_KEY, key -> of(report.getRootNode()));
+	}
+
+	/**
+	 * Gets all functions in this graph, in the order they were found from the roots.
+	 *
+	 * @return the functions of this graph
+	 */
+	public List<BaseStatementFunction> getFunctions() {
+		return Collections.unmodifiableList(functions);
+	}
+
+	/**
+	 * Gets the direct and transitive dependencies of the given function. The function itself is
+	 * only included if it depends on itself through a cycle.
+	 *
+	 * @param function a function of this graph
+	 * @return unmodifiable set of all dependencies of the function
+	 * @throws IllegalArgumentException if the function is not part of this graph
+	 */
+	public Set<BaseStatementFunction> getAllDependencies(BaseStatementFunction function) {
+		Integer index = indexes.get(function);
+		if (index == null) {
+			throw new IllegalArgumentException("The function is not part of the graph");
+		}
+		// Every function of a component has the same dependencies
+		int component = components[index];
+		Set<BaseStatementFunction> functionDependencies = dependencies.get(component);
+		if (functionDependencies == null) {
+			BitSet closure = closures[component];
+			Set<BaseStatementFunction> set = new HashSet<>();
+			closure.stream().forEach(i -> set.add(functions.get(i)));
+			functionDependencies = Collections.unmodifiableSet(set);
+			if (!dependencies.compareAndSet(component, null, functionDependencies)) {
+				functionDependencies = dependencies.get(component);
+			}
+		}
+		return functionDependencies;
+	}
+
+	/**
+	 * Gets the cycles that the given function depends on, with one cycle for each group of
+	 * functions that depend on each other. Each cycle is given as its full path, which is the
+	 * shortest path from the given function to the first function of the group it reaches,
+	 * followed by the shortest path from that function back to itself. Apart from the given
+	 * function, functions with the same name are given as the first of them in the graph.
+	 *
+	 * @param function a function of this graph
+	 * @return unmodifiable list of the paths to the cycles of the function, in order of their
+	 * distance from the function
+	 * @throws IllegalArgumentException if the function is not part of this graph
+	 */
+	public List<List<BaseStatementFunction>> getCyclicPaths(BaseStatementFunction function) {
+		Integer index = indexes.get(function);
+		if (index == null) {
+			throw new IllegalArgumentException("The function is not part of the graph");
+		}
+		List<List<BaseStatementFunction>> paths = cyclicPaths.get(index);
+		if (paths == null) {
+			paths = Collections.unmodifiableList(getNameGraph().findCyclicPaths(index));
+			if (!cyclicPaths.compareAndSet(index, null, paths)) {
+				paths = cyclicPaths.get(index);
+			}
+		}
+		return paths;
+	}
+
+	private NameGraph getNameGraph() {
+		// Name graphs of the same functions are equal, so creating two of them is harmless
+		NameGraph graph = nameGraph;
+		if (graph == null) {
+			graph = new NameGraph();
+			nameGraph = graph;
+		}
+		return graph;
+	}
+
+	private int add(BaseStatementFunction function) {
+		Integer index = indexes.get(function);
+		if (index == null) {
+			index = functions.size();
+			indexes.put(function, index);
+			functions.add(function);
+		}
+		return index;
+	}
+
+	/**
+	 * Finds the strongly connected components with an iterative version of Tarjan's algorithm, and
+	 * computes the closure of each component as it is completed. Components are completed in
+	 * reverse topological order, so the closures of all components a component depends on are
+	 * known by then.
+	 */
+	private static BitSet[] findClosures(int[][] edges, int[] components) {
+		int size = edges.length;
+		int[] order = new int[size];
+		int[] lowLinks = new int[size];
+		int[] nextEdges = new int[size];
+		boolean[] onStack = new boolean[size];
+		int[] stack = new int[size];
+		int[] callStack = new int[size];
+		List<BitSet> componentClosures = new ArrayList<>();
+		int stackSize = 0;
+		int counter = 0;
+		for (int start = 0; start < size; start++) {
+			if (order[start] != 0) {
+				continue;
+			}
+			int callDepth = 0;
+			callStack[callDepth++] = start;
+			order[start] = lowLinks[start] = ++counter;
+			stack[stackSize++] = start;
+			onStack[start] = true;
+			while (callDepth > 0) {
+				int node = callStack[callDepth - 1];
+				if (nextEdges[node] < edges[node].length) {
+					int next = edges[node][nextEdges[node]++];
+					if (order[next] == 0) {
+						callStack[callDepth++] = next;
+						order[next] = lowLinks[next] = ++counter;
+						stack[stackSize++] = next;
+						onStack[next] = true;
+					} else if (onStack[next]) {
+						lowLinks[node] = Math.min(lowLinks[node], order[next]);
+					}
+					continue;
+				}
+				callDepth--;
+				if (callDepth > 0) {
+					int caller = callStack[callDepth - 1];
+					lowLinks[caller] = Math.min(lowLinks[caller], lowLinks[node]);
+				}
+				if (lowLinks[node] != order[node]) {
+					continue;
+				}
+				// The node is the root of a component made of it and the nodes above it
+				int component = componentClosures.size();
+				int first = stackSize;
+				do {
+					first--;
+					onStack[stack[first]] = false;
+					components[stack[first]] = component;
+				} while (stack[first] != node);
+				BitSet closure = new BitSet(size);
+				for (int i = first; i < stackSize; i++) {
+					for (int dependency : edges[stack[i]]) {
+						closure.set(dependency);
+						if (components[dependency] != component) {
+							closure.or(componentClosures.get(components[dependency]));
+						}
+					}
+				}
+				stackSize = first;
+				componentClosures.add(closure);
+			}
+		}
+		return componentClosures.toArray(new BitSet[0]);
+	}
+
+	/**
+	 * The graph of the names of the functions, where all functions with the same name are a single
+	 * node with the dependencies of all of them. Functions without a name are separate nodes.
+	 */
+	private final class NameGraph {
+
+		private final int[] nodes;
+		private final List<BaseStatementFunction> names;
+		private final int[][] edges;
+		private final int[] components;
+		private final BitSet[] closures;
+
+		private NameGraph() {
+			// Nodes are numbered in the order their first function was found
+			Map<String, Integer> nodeIndexes = new HashMap<>();
+			nodes = new int[functions.size()];
+			names = new ArrayList<>();
+			for (int i = 0; i < functions.size(); i++) {
+				String name = functions.get(i).getName();
+				Integer node = name == null ? null : nodeIndexes.get(name);
+				if (node == null) {
+					node = names.size();
+					names.add(functions.get(i));
+					if (name != null) {
+						nodeIndexes.put(name, node);
+					}
+				}
+				nodes[i] = node;
+			}
+			List<Set<Integer>> nodeEdges = new ArrayList<>();
+			names.forEach(name -> nodeEdges.add(new LinkedHashSet<>()));
+			int[][] functionEdges = FunctionDependencyGraph.this.edges;
+			for (int i = 0; i < functionEdges.length; i++) {
+				for (int dependency : functionEdges[i]) {
+					nodeEdges.get(nodes[i]).add(nodes[dependency]);
+				}
+			}
+			edges = nodeEdges.stream()
+					.map(targets -> targets.stream().mapToInt(Integer::intValue).toArray())
+					.toArray(int[][]::new);
+			components = new int[edges.length];
+			closures = findClosures(edges, components);
+		}
+
+		private List<List<BaseStatementFunction>> findCyclicPaths(int index) {
+			List<List<BaseStatementFunction>> paths = new ArrayList<>();
+			int start = nodes[index];
+			if (!hasCycle(closures[components[start]])) {
+				return paths;
+			}
+			// Breadth-first search, so that each group of functions is entered at its closest one
+			int[] previous = new int[edges.length];
+			Arrays.fill(previous, -1);
+			BitSet enteredComponents = new BitSet();
+			int[] queue = new int[edges.length];
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = start;
+			previous[start] = start;
+			while (head < tail) {
+				int node = queue[head++];
+				int component = components[node];
+				if (closures[component].get(node) && !enteredComponents.get(component)) {
+					enteredComponents.set(component);
+					List<BaseStatementFunction> path = new ArrayList<>();
+					for (int i = node; i != start; i = previous[i]) {
+						path.add(names.get(i));
+					}
+					path.add(functions.get(index));
+					Collections.reverse(path);
+					path.addAll(findCycle(node));
+					paths.add(Collections.unmodifiableList(path));
+				}
+				for (int next : edges[node]) {
+					if (previous[next] < 0) {
+						previous[next] = node;
+						queue[tail++] = next;
+					}
+				}
+			}
+			return paths;
+		}
+
+		private boolean hasCycle(BitSet closure) {
+			for (int i = closure.nextSetBit(0); i >= 0; i = closure.nextSetBit(i + 1)) {
+				if (closures[components[i]].get(i)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Finds the shortest path from the given node back to itself, which stays within the
+		 * component of the node. The given node is only included at the end of the path.
+		 */
+		private List<BaseStatementFunction> findCycle(int start) {
+			int component = components[start];
+			Map<Integer, Integer> previous = new HashMap<>();
+			Deque<Integer> queue = new ArrayDeque<>();
+			queue.add(start);
+			while (!queue.isEmpty()) {
+				int node = queue.poll();
+				for (int next : edges[node]) {
+					if (next == start) {
+						List<BaseStatementFunction> cycle = new ArrayList<>();
+						cycle.add(names.get(start));
+						for (int i = node; i != start; i = previous.get(i)) {
+							cycle.add(names.get(i));
+						}
+						Collections.reverse(cycle);
+						return cycle;
+					}
+					if (components[next] == component && !previous.containsKey(next)) {
+						previous.put(next, node);
+						queue.add(next);
+					}
+				}
+			}
+			throw new IllegalStateException("The function is not part of a cycle");
+		}
+	}
+}
@@ -82,6 +82,37 @@ public abstract class AbstractPolicyNode {
 	 */
 	protected abstract String getLocationIdentifier();
 
+	/**
+	 * Gets the position of this node in the {@link #children()} of its parent. Nodes that are the
+	 * first child of their parent can use the default of zero.
+	 *
+	 * @return the position of this node in its parent
+	 */
+	protected int getChildIndex() {
+		return 0;
+	}
+
+	/**
+	 * Gets the path from the root to this node, as the position of each node on the way in the
+	 * children of its parent. The path of a root node is empty. Unlike the location, the path is
+	 * cheap to create and identifies the node uniquely.
+	 *
+	 * @return the path of this node
+	 */
+	public int[] getPath() {
+		int depth = 0;
+		for (AbstractPolicyNode node = getParent(); node != null; node = node.getParent()) {
+			depth++;
+		}
+		int[] path = new int[depth];
+		AbstractPolicyNode node = this;
+		for (int i = depth - 1; i >= 0; i--) {
+			path[i] = node.getChildIndex();
+			node = node.getParent();
+		}
+		return path;
+	}
+
 	/**
 	 * get the location with parent context of this node
 	 *
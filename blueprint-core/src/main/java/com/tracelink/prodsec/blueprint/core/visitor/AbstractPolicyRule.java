@@ -2,16 +2,29 @@ package com.tracelink.prodsec.blueprint.core.visitor;
 
 import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
 import com.tracelink.prodsec.blueprint.core.rulesets.PolicyRuleset;
+import java.util.Set;
 
 /**
  * An abstract rule that uses the {@link PolicyVisitor} to apply a rule to all
  * nodes. A rule must also include a reference to its ruleset and a severity if
  * the rule is broken and must be reported on
+ * <p>
+ * Rules are shared by concurrent validations, so they must not keep state between visits. Any
+ * state needed while a root node is validated is kept in the
+ * {@linkplain com.tracelink.prodsec.blueprint.core.report.ValidationContext context} of the report.
  *
  * @author csmith
  */
 public abstract class AbstractPolicyRule extends PolicyVisitor {
 
+	private static final ClassValue<Set<Class<? extends AbstractPolicyNode>>> VISITED_NODE_TYPES
+			= new ClassValue<>() {
+				@Override
+				protected Set<Class<? extends AbstractPolicyNode>> computeValue(Class<?> type) {
+					return NodeType.findVisitedNodeTypes(type);
+				}
+			};
+
 	private PolicyRuleset owningRuleset;
 	private final String name;
 
@@ -38,5 +51,41 @@ public abstract class AbstractPolicyRule extends PolicyVisitor {
 	 */
 	public abstract RuleSeverity getSeverity();
 
+	/**
+	 * The types of nodes this rule visits. These are the types declared by the {@link VisitsNodes}
+	 * annotation of the rule, or else the types of the {@code visit} methods the rule overrides.
+	 * When rules share a traversal, a rule is only dispatched to nodes of these types, and subtrees
+	 * that cannot contain them are skipped.
+	 *
+	 * @return unmodifiable set of the visited node types
+	 */
+	public Set<Class<? extends AbstractPolicyNode>> getVisitedNodeTypes() {
+		return VISITED_NODE_TYPES.get(getClass());
+	}
+
+	/**
+	 * Whether this rule can share a traversal of the policy with other rules. Rules that share a
+	 * traversal are run by the {@link RuleDispatcher}, which visits each node for all rules before
+	 * visiting its children, so the call to {@code super.visit(node, report)} returns before the
+	 * children are visited. Rules that depend on the children having been visited when that call
+	 * returns must return false, and are run in a traversal of their own.
+	 *
+	 * @return true if the rule can share a traversal, false otherwise
+	 */
+	public boolean canShareTraversal() {
+		return true;
+	}
+
+	/**
+	 * Whether this rule can visit separate subtrees of the policy concurrently, when rules are run
+	 * in parallel. This is the case if the rule keeps no state between visits. A rule that can
+	 * visit concurrently and does not visit the root node is run on each clause of a policy in
+	 * parallel.
+	 *
+	 * @return true if the rule can visit concurrently, false otherwise
+	 */
+	public boolean canVisitConcurrently() {
+		return false;
+	}
 
 }
@@ -0,0 +1,114 @@
+package com.tracelink.prodsec.blueprint.core.visitor;
+
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The types of nodes in a policy tree, with the types of nodes that can appear below each of them.
+ * Nodes of any other type may have descendants of any type.
+ *
+ * @author csmith
+ */
+enum NodeType {
+	POLICY(Policy.class),
+	CLAUSE(PolicyClause.class),
+	STATEMENT(ConfiguredStatement.class),
+	BASE_STATEMENT(BaseStatement.class),
+	FUNCTION(BaseStatementFunction.class),
+	ARGUMENT(BaseStatementArgument.class),
+	OTHER(AbstractPolicyNode.class);
+
+	static final int ALL = (1 << values().length) - 1;
+
+	private final Class<? extends AbstractPolicyNode> nodeClass;
+
+	NodeType(Class<? extends AbstractPolicyNode> nodeClass) {
+		this.nodeClass = nodeClass;
+	}
+
+	int bit() {
+		return 1 << ordinal();
+	}
+
+	/**
+	 * Gets the mask of the node types that can appear below a node of this type.
+	 */
+	int descendantMask() {
+		switch (this) {
+			case POLICY:
+				return CLAUSE.bit() | STATEMENT.descendantMask() | STATEMENT.bit();
+			case CLAUSE:
+				return STATEMENT.bit() | STATEMENT.descendantMask();
+			case STATEMENT:
+				return BASE_STATEMENT.bit() | BASE_STATEMENT.descendantMask();
+			case BASE_STATEMENT:
+				return FUNCTION.bit() | ARGUMENT.bit();
+			case FUNCTION:
+			case ARGUMENT:
+				return 0;
+			default:
+				return ALL;
+		}
+	}
+
+	static NodeType of(AbstractPolicyNode node) {
+		for (NodeType type : values()) {
+			if (type.nodeClass.isInstance(node)) {
+				return type;
+			}
+		}
+		return OTHER;
+	}
+
+	/**
+	 * Gets the mask of the given node types. Any type that is not a known node type may stand for
+	 * any node, so it is included as all types.
+	 */
+	static int maskOf(Set<Class<? extends AbstractPolicyNode>> nodeTypes) {
+		int mask = 0;
+		for (Class<? extends AbstractPolicyNode> nodeType : nodeTypes) {
+			NodeType type = OTHER;
+			for (NodeType candidate : values()) {
+				if (candidate.nodeClass.isAssignableFrom(nodeType)) {
+					type = candidate;
+					break;
+				}
+			}
+			mask |= type == OTHER ? ALL : type.bit();
+		}
+		return mask;
+	}
+
+	/**
+	 * Finds the node types visited by the given rule class, from its {@link VisitsNodes} annotation
+	 * or else from the {@code visit} methods it overrides.
+	 */
+	static Set<Class<? extends AbstractPolicyNode>> findVisitedNodeTypes(Class<?> ruleClass) {
+		Set<Class<? extends AbstractPolicyNode>> nodeTypes = new LinkedHashSet<>();
+		VisitsNodes annotation = ruleClass.getAnnotation(VisitsNodes.class);
+		if (annotation != null) {
+			Collections.addAll(nodeTypes, annotation.value());
+			return Collections.unmodifiableSet(nodeTypes);
+		}
+		for (NodeType type : values()) {
+			try {
+				if (ruleClass.getMethod("visit", type.nodeClass, PolicyBuilderReport.class)
+						.getDeclaringClass() != PolicyVisitor.class) {
+					nodeTypes.add(type.nodeClass);
+				}
+			} catch (NoSuchMethodException e) {
+				// Every node type has a visit method
+				throw new IllegalStateException(e);
+			}
+		}
+		return Collections.unmodifiableSet(nodeTypes);
+	}
+}
@@ -23,6 +23,11 @@ public abstract class PolicyVisitor {
 	 * @return a report detailing what happened after this visit.
 	 */
 	public PolicyBuilderReport visit(AbstractPolicyNode node, PolicyBuilderReport report) {
+		if (report instanceof RuleDispatcher.RuleReport
+				&& ((RuleDispatcher.RuleReport) report).descend()) {
+			// The dispatcher visits the children for all rules at once
+			return report;
+		}
 		return node.childrenAccept(this, report);
 	}
 
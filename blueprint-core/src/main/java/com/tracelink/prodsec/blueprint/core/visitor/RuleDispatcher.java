@@ -0,0 +1,264 @@
+package com.tracelink.prodsec.blueprint.core.visitor;
+
+import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
+import com.tracelink.prodsec.blueprint.core.report.ValidationContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs several rules in a single traversal of a root node. Each node is visited once, and every
+ * rule still interested in the node is dispatched to it in turn. A rule is interested in the
+ * children of a node if its visit of the node descends through
+ * {@link PolicyVisitor#visit(AbstractPolicyNode, PolicyBuilderReport)}, as the visits of rules do
+ * when they call {@code super.visit(node, report)}, and if the children may contain nodes of the
+ * {@linkplain AbstractPolicyRule#getVisitedNodeTypes() types the rule visits}. Rules are not
+ * dispatched to nodes of other types, which they would only descend through.
+ * <p>
+ * Rules that cannot share a traversal, see {@link AbstractPolicyRule#canShareTraversal()}, are run
+ * in a traversal of their own. Each rule reports into its own {@link RuleReport}, so that the
+ * results can be merged in rule order and are the same as running the rules one after another. An
+ * exception thrown by a rule stops that rule only, and is kept in its report until the report is
+ * merged.
+ * <p>
+ * Rules can also be run in parallel, each in a traversal of its own, with
+ * {@link #dispatch(AbstractRootNode, List, ValidationContext, ForkJoinPool)}. The reports are the same either way.
+ * <p>
+ * Once the {@link ValidationContext} is {@linkplain ValidationContext#isCancelled() cancelled},
+ * rules are not dispatched to any further nodes, and the reports only hold the violations found
+ * until then.
+ *
+ * @author csmith
+ */
+public final class RuleDispatcher {
+
+	private RuleDispatcher() {
+	}
+
+	/**
+	 * Dispatch all given rules to the root node and its children in a single traversal.
+	 *
+	 * @param rootNode the root node to traverse
+	 * @param rules    the rules to run, in order
+	 * @param context  the context of the validation, shared by the reports of all rules
+	 * @return the report of each rule, in the order of the given rules
+	 */
+	public static List<RuleReport> dispatch(AbstractRootNode rootNode,
+			List<AbstractPolicyRule> rules, ValidationContext context) {
+		List<RuleReport> reports = new ArrayList<>(rules.size());
+		int[] active = new int[rules.size()];
+		int count = 0;
+		for (int i = 0; i < rules.size(); i++) {
+			RuleReport report = new RuleReport(rootNode, context);
+			reports.add(report);
+			if (rules.get(i).canShareTraversal()) {
+				active[count++] = i;
+			} else if (!context.isCancelled()) {
+				visitAlone(rootNode, rules.get(i), report);
+			}
+		}
+		if (count > 0) {
+			int[] masks = new int[rules.size()];
+			for (int i = 0; i < count; i++) {
+				masks[active[i]] = NodeType.maskOf(rules.get(active[i]).getVisitedNodeTypes());
+			}
+			visit(rootNode, rules, masks, reports, active, count);
+		}
+		return reports;
+	}
+
+	/**
+	 * Dispatch all given rules to the root node and its children in parallel on the given pool.
+	 * Each rule is run in a traversal of its own. A rule that can visit concurrently and does not
+	 * visit the root node is run in a traversal of each child of the root node instead, e.g. of each
+	 * clause of a policy. The reports of the children are merged in order, so the reports are the
+	 * same as those of {@link #dispatch(AbstractRootNode, List, ValidationContext)}.
+	 *
+	 * @param rootNode the root node to traverse
+	 * @param rules    the rules to run, in order
+	 * @param context  the context of the validation, shared by the reports of all rules
+	 * @param pool     the pool to run the rules on
+	 * @return the report of each rule, in the order of the given rules
+	 */
+	public static List<RuleReport> dispatch(AbstractRootNode rootNode,
+			List<AbstractPolicyRule> rules, ValidationContext context, ForkJoinPool pool) {
+		List<RuleReport> reports = new ArrayList<>(rules.size());
+		List<RecursiveAction> tasks = new ArrayList<>(rules.size());
+		for (AbstractPolicyRule rule : rules) {
+			RuleReport report = new RuleReport(rootNode, context);
+			reports.add(report);
+			tasks.add(new RuleTask(rootNode, rule, report));
+		}
+		pool.invoke(new RecursiveAction() {
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+		return reports;
+	}
+
+	private static void visitAlone(AbstractRootNode rootNode, AbstractPolicyRule rule,
+			RuleReport report) {
+		try {
+			report.merge(rootNode.accept(rule, new RuleReport(rootNode, report.getContext(),
+					false)));
+		} catch (RuntimeException e) {
+			report.failure = e;
+		}
+	}
+
+	private static void visit(AbstractPolicyNode node, List<AbstractPolicyRule> rules,
+			int[] masks, List<RuleReport> reports, int[] active, int count) {
+		if (reports.get(active[0]).getContext().isCancelled()) {
+			return;
+		}
+		NodeType type = NodeType.of(node);
+		int descendantMask = type.descendantMask();
+		int[] descending = new int[count];
+		int descendingCount = 0;
+		for (int i = 0; i < count; i++) {
+			RuleReport report = reports.get(active[i]);
+			if (report.failure != null) {
+				continue;
+			}
+			if ((masks[active[i]] & type.bit()) != 0) {
+				report.descended = false;
+				try {
+					node.accept(rules.get(active[i]), report);
+				} catch (RuntimeException e) {
+					report.failure = e;
+					continue;
+				}
+			} else {
+				// The rule does not visit this type, so it would only descend
+				report.descended = true;
+			}
+			if (report.descended && (masks[active[i]] & descendantMask) != 0) {
+				descending[descendingCount++] = active[i];
+			}
+		}
+		Iterable<? extends AbstractPolicyNode> children = node.children();
+		if (descendingCount == 0 || children == null) {
+			return;
+		}
+		for (AbstractPolicyNode child : children) {
+			if (child != null) {
+				visit(child, rules, masks, reports, descending, descendingCount);
+			}
+		}
+	}
+
+	/**
+	 * Runs a single rule, possibly split into a task for each child of the root node.
+	 */
+	private static final class RuleTask extends RecursiveAction {
+
+		private final AbstractPolicyNode node;
+		private final AbstractPolicyRule rule;
+		private final RuleReport report;
+		private final boolean split;
+
+		RuleTask(AbstractPolicyNode node, AbstractPolicyRule rule, RuleReport report) {
+			this(node, rule, report, true);
+		}
+
+		private RuleTask(AbstractPolicyNode node, AbstractPolicyRule rule, RuleReport report,
+				boolean split) {
+			this.node = node;
+			this.rule = rule;
+			this.report = report;
+			this.split = split;
+		}
+
+		@Override
+		protected void compute() {
+			if (report.getContext().isCancelled()) {
+				return;
+			}
+			if (!rule.canShareTraversal()) {
+				visitAlone((AbstractRootNode) node, rule, report);
+				return;
+			}
+			int[] mask = {NodeType.maskOf(rule.getVisitedNodeTypes())};
+			NodeType type = NodeType.of(node);
+			Iterable<? extends AbstractPolicyNode> children = node.children();
+			if (!split || !rule.canVisitConcurrently() || (mask[0] & type.bit()) != 0
+					|| children == null) {
+				visit(node, Collections.singletonList(rule), mask,
+						Collections.singletonList(report), new int[]{0}, 1);
+				return;
+			}
+			if ((mask[0] & type.descendantMask()) == 0) {
+				return;
+			}
+			// The rule would only descend through the root, so its children are independent
+			List<RuleTask> childTasks = new ArrayList<>();
+			for (AbstractPolicyNode child : children) {
+				if (child != null) {
+					childTasks.add(new RuleTask(child, rule,
+							new RuleReport((AbstractRootNode) node, report.getContext()), false));
+				}
+			}
+			invokeAll(childTasks);
+			for (RuleTask childTask : childTasks) {
+				if (childTask.report.failure != null) {
+					report.failure = childTask.report.failure;
+					return;
+				}
+				report.merge(childTask.report);
+			}
+		}
+	}
+
+	/**
+	 * The report of a single rule run by the {@link RuleDispatcher}. Visits of rules made with this
+	 * report do not descend into the children of a node, as the dispatcher visits them instead,
+	 * unless the rule is run in a traversal of its own. Violations are not published until the
+	 * report is merged into a published report.
+	 */
+	public static final class RuleReport extends PolicyBuilderReport {
+
+		private final boolean dispatched;
+		private boolean descended;
+		private RuntimeException failure;
+
+		RuleReport(AbstractRootNode rootNode, ValidationContext context) {
+			this(rootNode, context, true);
+		}
+
+		private RuleReport(AbstractRootNode rootNode, ValidationContext context,
+				boolean dispatched) {
+			super(rootNode, context, false);
+			this.dispatched = dispatched;
+		}
+
+		/**
+		 * Records that the rule should visit the children of the current node, if the dispatcher
+		 * visits them.
+		 *
+		 * @return true if the dispatcher visits the children, false if the rule should
+		 */
+		boolean descend() {
+			descended = true;
+			return dispatched;
+		}
+
+		/**
+		 * Merge this report into the given report, rethrowing the exception thrown by the rule, if
+		 * any, as running the rule by itself would have.
+		 *
+		 * @param report the report to merge into
+		 * @return the given report
+		 */
+		public PolicyBuilderReport mergeInto(PolicyBuilderReport report) {
+			if (failure != null) {
+				throw failure;
+			}
+			report.merge(this);
+			return report;
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.tracelink.prodsec.blueprint.core.visitor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the types of nodes a rule visits. Without this annotation, the node types are those of
+ * the {@code visit} methods the rule overrides. The {@link RuleDispatcher} only dispatches a rule
+ * to nodes of these types, and skips subtrees that cannot contain them.
+ *
+ * @author csmith
+ * @see AbstractPolicyRule#getVisitedNodeTypes()
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface VisitsNodes {
+
+	/**
+	 * The types of nodes the rule visits
+	 *
+	 * @return the visited node types
+	 */
+	Class<? extends AbstractPolicyNode>[] value();
+}
@@ -1,19 +1,39 @@
 package com.tracelink.prodsec.blueprint.core;
 
 import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.compile.CompiledPolicy;
+import com.tracelink.prodsec.blueprint.core.compile.CompiledPolicyCache;
 import com.tracelink.prodsec.blueprint.core.logger.LoggerRule;
 import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
 import com.tracelink.prodsec.blueprint.core.policy.Policy;
 import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
 import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
 import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
+import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
+import com.tracelink.prodsec.blueprint.core.report.RuleViolation;
+import com.tracelink.prodsec.blueprint.core.report.ValidationContext;
 import com.tracelink.prodsec.blueprint.core.rulesets.PolicyRuleset;
 import com.tracelink.prodsec.blueprint.core.rulesets.configuration.ConfigurationRuleset;
+import com.tracelink.prodsec.blueprint.core.rulesets.constraints.ConstraintRuleset;
+import com.tracelink.prodsec.blueprint.core.rulesets.logic.LogicRuleset;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import com.tracelink.prodsec.blueprint.core.statement.PolicyElementState;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -57,6 +77,27 @@ public class PolicyBuilderTest {
 				PolicyBuilder.getInstance().generateRego(policy));
 	}
 
+	@Test
+	public void testGenerateRegoDeterministic() {
+		Policy policy = createValidPolicy();
+		BaseStatementFunction function = policy.getClauses().get(0).getStatements().get(0)
+				.getBaseStatement().getFunction();
+		BaseStatementFunction first = PolicyMaker.createValidFunction();
+		first.setName("first");
+		BaseStatementFunction second = PolicyMaker.createValidFunction();
+		second.setName("second");
+
+		function.setDependencies(new LinkedHashSet<>(Arrays.asList(first, second)));
+		String rego = PolicyBuilder.getInstance().generateRego(policy);
+		PolicyBuilder.getInstance().getRegoFragmentCache().clear();
+		Assert.assertEquals(rego, PolicyBuilder.getInstance().generateRego(policy));
+
+		// The iteration order of dependency sets must not change the output
+		function.setDependencies(new LinkedHashSet<>(Arrays.asList(second, first)));
+		Assert.assertEquals(rego, PolicyBuilder.getInstance().generateRego(policy));
+		Assert.assertTrue(rego.indexOf("first(param)") < rego.indexOf("second(param)"));
+	}
+
 	@Test
 	public void testGenerateRegoBasic() {
 		Policy policy = new Policy();
@@ -66,6 +107,252 @@ public class PolicyBuilderTest {
 		Assert.assertTrue(rego.contains("default allow = false\n\n"));
 	}
 
+	@Test
+	public void testGenerateRegoWriter() throws IOException {
+		Policy policy = createValidPolicy();
+		StringWriter writer = new StringWriter();
+		PolicyBuilder.getInstance().generateRego(policy, writer);
+		Assert.assertEquals(PolicyBuilder.getInstance().generateRego(policy), writer.toString());
+	}
+
+	@Test
+	public void testGenerateRegoOutputStream() throws IOException {
+		Policy policy = createValidPolicy();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		PolicyBuilder.getInstance().generateRego(policy, outputStream);
+		Assert.assertEquals(PolicyBuilder.getInstance().generateRego(policy),
+				outputStream.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testGenerateRegoNullPolicy() {
+		Assert.assertNull(PolicyBuilder.getInstance().generateRego(null));
+		Assert.assertEquals(1, loggerRule.getMessages().size());
+		Assert.assertEquals("Cannot generate Rego", loggerRule.getMessages().get(0));
+	}
+
+	@Test
+	public void testGenerateRegoBatch() {
+		Policy policy = createValidPolicy();
+		Policy invalid = PolicyMaker.createValidPolicy();
+		invalid.getClauses().get(0).getStatements().get(0).setArgumentValues(null);
+		invalid.getClauses().get(0).getStatements().get(0).getBaseStatement().getArguments()
+				.get(0).setType(null);
+		Assert.assertEquals(
+				Arrays.asList(PolicyBuilder.getInstance().generateRego(policy), null),
+				PolicyBuilder.getInstance().generateRegoBatch(Arrays.asList(policy, invalid)));
+	}
+
+	@Test
+	public void testCompile() {
+		CompiledPolicyCache cache = PolicyBuilder.getInstance().getCompiledPolicyCache();
+		cache.clear();
+		long misses = cache.getMissCount();
+		long hits = cache.getHitCount();
+		Policy policy = PolicyMaker.createValidPolicy();
+		CompiledPolicy compiledPolicy = PolicyBuilder.getInstance()
+				.compile(policy, new ConfigurationRuleset());
+		Assert.assertTrue(compiledPolicy.isValid());
+		Assert.assertEquals(PolicyBuilder.getInstance().generateRego(policy),
+				compiledPolicy.getRego());
+		Assert.assertEquals(misses + 1, cache.getMissCount());
+
+		// An equal policy is served from the cache
+		Assert.assertSame(compiledPolicy,
+				PolicyBuilder.getInstance().compile(PolicyMaker.createValidPolicy(), new ConfigurationRuleset()));
+		Assert.assertEquals(hits + 1, cache.getHitCount());
+
+		// Different rulesets are compiled separately
+		Assert.assertNotSame(compiledPolicy, PolicyBuilder.getInstance()
+				.compile(PolicyMaker.createValidPolicy(), new ConfigurationRuleset(), new LogicRuleset()));
+		Assert.assertEquals(misses + 2, cache.getMissCount());
+	}
+
+	@Test
+	public void testCompileMinimized() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		ConfiguredStatement statement = policy.getClauses().get(0).getStatements().get(0);
+		ConfiguredStatement other = new ConfiguredStatement();
+		other.setBaseStatement(statement.getBaseStatement());
+		other.setArgumentValues(Collections.singletonList("other"));
+		PolicyClause subsumed = new PolicyClause();
+		subsumed.setStatements(Arrays.asList(other, PolicyMaker.createValidPolicy().getClauses()
+				.get(0).getStatements().get(0)));
+		policy.setClauses(Arrays.asList(policy.getClauses().get(0), subsumed));
+
+		CompiledPolicy compiledPolicy = PolicyBuilder.getInstance().compileMinimized(policy);
+		Assert.assertTrue(compiledPolicy.isValid());
+		Assert.assertTrue(compiledPolicy.isMinimized());
+		Assert.assertEquals(Collections.singletonList(1),
+				compiledPolicy.getRemovedClauseIndexes());
+		Assert.assertTrue(compiledPolicy.getSimplifiedClauseIndexes().isEmpty());
+		Assert.assertEquals(PolicyBuilder.getInstance()
+						.generateRego(PolicyBuilder.getInstance().minimize(policy).getPolicy()),
+				compiledPolicy.getRego());
+		Assert.assertEquals(
+				PolicyBuilder.getInstance().generateRego(PolicyMaker.createValidPolicy()),
+				compiledPolicy.getRego());
+
+		CompiledPolicy unminimized = PolicyBuilder.getInstance().compile(policy);
+		Assert.assertFalse(unminimized.isMinimized());
+		Assert.assertNull(unminimized.getRemovedClauseIndexes());
+		Assert.assertNotEquals(unminimized.getRego(), compiledPolicy.getRego());
+		Assert.assertEquals(2, policy.getClauses().size());
+	}
+
+	@Test
+	public void testCheck() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		CompiledPolicy checked = PolicyBuilder.getInstance().check(policy, new ConfigurationRuleset());
+		Assert.assertTrue(checked.isValid());
+		Assert.assertNull(checked.getRego());
+		Assert.assertSame(checked, PolicyBuilder.getInstance()
+				.check(PolicyMaker.createValidPolicy(), new ConfigurationRuleset()));
+		Assert.assertNotNull(PolicyBuilder.getInstance()
+				.compile(policy, new ConfigurationRuleset()).getRego());
+
+		policy.setPolicyType(null);
+		Assert.assertFalse(PolicyBuilder.getInstance().check(policy).isValid());
+	}
+
+	@Test
+	public void testCompileInvalid() {
+		Policy policy = createValidPolicy();
+		policy.setPolicyType(null);
+		CompiledPolicy compiledPolicy = PolicyBuilder.getInstance().compile(policy);
+		Assert.assertFalse(compiledPolicy.isValid());
+		Assert.assertNull(compiledPolicy.getRego());
+		Assert.assertFalse(compiledPolicy.getProblems().isEmpty());
+		CompiledPolicy.Problem problem = compiledPolicy.getProblems().get(0);
+		Assert.assertEquals("policy.policyType", problem.getLocation());
+		Assert.assertNotNull(problem.getRule());
+		Assert.assertNotNull(problem.getMessage());
+	}
+
+	@Test
+	public void testValidateInParallel() {
+		Policy policy = createPolicyWithViolations();
+		PolicyBuilderReport report = PolicyBuilder.getInstance()
+				.validate(policy, new ConfigurationRuleset(), new LogicRuleset());
+		Assert.assertTrue(report.getViolations().size() > policy.getClauses().size());
+		List<String> expected = describe(report);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (int i = 0; i < 10; i++) {
+				PolicyBuilderReport parallelReport = PolicyBuilder.getInstance()
+						.validateInParallel(policy, pool, new ConfigurationRuleset(),
+								new LogicRuleset());
+				Assert.assertEquals(expected, describe(parallelReport));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testSharedRulesetsConcurrently() throws Exception {
+		Policy policy = createPolicyWithViolations();
+		List<String> expected = describe(PolicyBuilder.getInstance()
+				.validate(policy, new ConfigurationRuleset(), new LogicRuleset()));
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<PolicyBuilderReport>> reports = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				Policy copy = createPolicyWithViolations();
+				reports.add(executor.submit(() -> PolicyBuilder.getInstance()
+						.validate(copy, ConfigurationRuleset.getInstance(),
+								LogicRuleset.getInstance())));
+			}
+			for (Future<PolicyBuilderReport> report : reports) {
+				Assert.assertEquals(expected, describe(report.get()));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testRulesetInstances() {
+		Assert.assertSame(ConstraintRuleset.getInstance(), ConstraintRuleset.getInstance());
+		Assert.assertSame(ConfigurationRuleset.getInstance(), ConfigurationRuleset.getInstance());
+		Assert.assertSame(LogicRuleset.getInstance(), LogicRuleset.getInstance());
+		Assert.assertTrue(LogicRuleset.getInstance().getRules().stream()
+				.allMatch(rule -> rule.getRuleset() == LogicRuleset.getInstance()));
+	}
+
+	@Test
+	public void testValidateInParallelStopOnFirstFailure() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		policy.setPolicyType(null);
+		policy.getClauses().get(0).getStatements().get(0).getBaseStatement()
+				.setState(PolicyElementState.DRAFT);
+		PolicyBuilderReport report = PolicyBuilder.getInstance()
+				.validateInParallel(policy, new ConfigurationRuleset());
+		Assert.assertEquals(describe(PolicyBuilder.getInstance()
+				.validate(policy, new ConfigurationRuleset())), describe(report));
+		Assert.assertTrue(report.getViolations().stream()
+				.allMatch(v -> v.getRule().getRuleset() instanceof ConstraintRuleset));
+	}
+
+	@Test
+	public void testValidateWithContext() {
+		Policy policy = createPolicyWithViolations();
+		ValidationContext context = new ValidationContext();
+		List<RuleViolation> violations = new ArrayList<>();
+		context.addListener(violations::add);
+		PolicyBuilderReport report = PolicyBuilder.getInstance()
+				.validate(policy, context, new ConfigurationRuleset(), new LogicRuleset());
+		Assert.assertEquals(describe(PolicyBuilder.getInstance()
+				.validate(policy, new ConfigurationRuleset(), new LogicRuleset())), describe(report));
+		Assert.assertEquals(report.getViolationCount(), violations.size());
+		Assert.assertTrue(report.getViolations().containsAll(violations));
+	}
+
+	@Test
+	public void testValidateCancelOnFirstError() {
+		Policy policy = createPolicyWithViolations();
+		ValidationContext context = new ValidationContext();
+		context.addListener(violation -> {
+			if (violation.getRule().getSeverity() == RuleSeverity.ERROR) {
+				context.cancel();
+			}
+		});
+		PolicyBuilderReport report = PolicyBuilder.getInstance()
+				.validate(policy, context, new ConfigurationRuleset(), new LogicRuleset());
+		PolicyBuilderReport fullReport = PolicyBuilder.getInstance()
+				.validate(policy, new ConfigurationRuleset(), new LogicRuleset());
+		Assert.assertTrue(context.isCancelled());
+		Assert.assertTrue(report.getViolationCount(RuleSeverity.ERROR) > 0);
+		// The results of rules after the first error are not merged
+		Assert.assertTrue(report.getViolationCount(RuleSeverity.ERROR)
+				< fullReport.getViolationCount(RuleSeverity.ERROR));
+		Assert.assertTrue(describe(fullReport).containsAll(describe(report)));
+	}
+
+	private static Policy createPolicyWithViolations() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		List<PolicyClause> clauses = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			PolicyClause clause = PolicyMaker.createValidPolicy().getClauses().get(0);
+			ConfiguredStatement statement = clause.getStatements().get(0);
+			ConfiguredStatement complement = PolicyMaker.createValidPolicy().getClauses().get(0)
+					.getStatements().get(0);
+			complement.setNegated(false);
+			complement.getBaseStatement().setState(PolicyElementState.DRAFT);
+			complement.getBaseStatement().getFunction().setName("Function " + i);
+			clause.setStatements(Arrays.asList(statement, complement, statement));
+			clauses.add(clause);
+		}
+		policy.setClauses(clauses);
+		return policy;
+	}
+
+	private static List<String> describe(PolicyBuilderReport report) {
+		return report.getViolations().stream()
+				.map(v -> v.getRule().getName() + ":" + v.getLocation() + ":" + v.getMessage())
+				.collect(Collectors.toList());
+	}
+
 	private Policy createValidPolicy() {
 		Policy policy = new Policy();
 		PolicyClause clause = new PolicyClause();
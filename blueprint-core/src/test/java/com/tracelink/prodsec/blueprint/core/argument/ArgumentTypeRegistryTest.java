@@ -0,0 +1,75 @@
+package com.tracelink.prodsec.blueprint.core.argument;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ArgumentTypeRegistryTest {
+
+	@Test
+	public void testGetTypeSingletons() {
+		ArgumentType type = ArgumentType.getTypeForName("integerArray");
+		Assert.assertSame(type, ArgumentType.getTypeForName("integerArray"));
+		Assert.assertSame(ArgumentType.getTypeForName("integer"), type.getBaseType());
+		Assert.assertSame(ArgumentType.getTypeForName("number"),
+				ArgumentType.getTypeForName("numberArray").getBaseType());
+		Assert.assertSame(ArgumentType.getTypeForName("string"),
+				ArgumentType.getTypeForName("stringArray").getBaseType());
+		Assert.assertNull(ArgumentTypeRegistry.getInstance().getType(null));
+	}
+
+	@Test
+	public void testGetTypes() {
+		List<ArgumentType> types = ArgumentType.getTypes();
+		Assert.assertSame(types, ArgumentType.getTypes());
+		Assert.assertEquals(Arrays.asList("string", "number", "integer", "boolean", "stringArray",
+				"numberArray", "integerArray"),
+				types.stream().map(ArgumentType::getName).collect(Collectors.toList()));
+		try {
+			types.add(new StringArgumentType());
+			Assert.fail();
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testProvidedTypes() {
+		ArgumentType cidr = createType("cidr");
+		ArgumentType duplicate = createType("string");
+		ArgumentTypeRegistry registry = new ArgumentTypeRegistry(Collections.singletonList(
+				() -> Arrays.asList(cidr, duplicate, null)));
+
+		Assert.assertEquals(8, registry.getTypes().size());
+		Assert.assertSame(cidr, registry.getTypes().get(7));
+		Assert.assertSame(cidr, registry.getType("cidr"));
+		Assert.assertEquals(StringArgumentType.class, registry.getType("string").getClass());
+	}
+
+	@Test
+	public void testParse() {
+		ArgumentTypeRegistry registry = ArgumentTypeRegistry.getInstance();
+		ArgumentType type = ArgumentType.getTypeForName("stringArray");
+		ParsedArgument argument = registry.parse(type, "foo,bar");
+		Assert.assertEquals(Arrays.asList("foo", "bar"), argument.getItems());
+		Assert.assertSame(argument, registry.parse(type, new String("foo,bar")));
+		Assert.assertNotSame(argument, registry.parse(new StringArrayArgumentType(), "foo,bar"));
+		Assert.assertNull(registry.parse(type, null).getItems());
+
+		String longValue = String.join(",",
+				Collections.nCopies(ArgumentTypeRegistry.MAX_CACHED_VALUE_LENGTH, "a"));
+		Assert.assertNotSame(registry.parse(type, longValue), registry.parse(type, longValue));
+	}
+
+	private static ArgumentType createType(String name) {
+		return new ArgumentType(name, name.toUpperCase(), false) {
+			@Override
+			public boolean matchesArgument(String configuredArgument, boolean uniqueItems) {
+				return configuredArgument != null;
+			}
+		};
+	}
+}
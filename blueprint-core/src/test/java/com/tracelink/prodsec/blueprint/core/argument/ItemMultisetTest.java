@@ -0,0 +1,83 @@
+package com.tracelink.prodsec.blueprint.core.argument;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ItemMultisetTest {
+
+	@Test
+	public void testEqualsHashCodeStrings() {
+		ItemMultiset multiset = ItemMultiset.of(Arrays.asList("foo", "bar", "foo"));
+		Assert.assertEquals(multiset, ItemMultiset.of(Arrays.asList("bar", "foo", "foo")));
+		Assert.assertEquals(multiset.hashCode(),
+				ItemMultiset.of(Arrays.asList("foo", "foo", "bar")).hashCode());
+		Assert.assertNotEquals(multiset, ItemMultiset.of(Arrays.asList("bar", "bar", "foo")));
+		Assert.assertNotEquals(multiset, ItemMultiset.of(Arrays.asList("bar", "foo")));
+		Assert.assertEquals(3, multiset.size());
+	}
+
+	@Test
+	public void testEqualsHashCodePrimitives() {
+		ItemMultiset integers = ItemMultiset.of(
+				new IntegerArrayArgumentType().getArrayItems("3, 1, 2"));
+		Assert.assertEquals(integers, ItemMultiset.of(
+				new IntegerArrayArgumentType().getArrayItems("1,2,3")));
+		Assert.assertEquals(integers.hashCode(), ItemMultiset.of(
+				new IntegerArrayArgumentType().getArrayItems("2,3,1")).hashCode());
+		Assert.assertNotEquals(integers, ItemMultiset.of(
+				new IntegerArrayArgumentType().getArrayItems("1,2,2")));
+		Assert.assertNotEquals(integers, ItemMultiset.of(
+				new NumberArrayArgumentType().getArrayItems("1,2,3")));
+		Assert.assertEquals(ItemMultiset.of(new NumberArrayArgumentType().getArrayItems("1.5,-0")),
+				ItemMultiset.of(new NumberArrayArgumentType().getArrayItems("-0.0,1.50")));
+	}
+
+	@Test
+	public void testEqualsHashOrdered() {
+		// "Aa" and "BB" have the same hash code
+		List<Object> items = Arrays.asList(new Key("Aa"), new Key("BB"), new Key("Aa"), null);
+		ItemMultiset multiset = ItemMultiset.of(items);
+		Assert.assertEquals(multiset, ItemMultiset.of(
+				Arrays.asList(null, new Key("Aa"), new Key("Aa"), new Key("BB"))));
+		Assert.assertEquals(multiset.hashCode(), ItemMultiset.of(
+				Arrays.asList(new Key("BB"), null, new Key("Aa"), new Key("Aa"))).hashCode());
+		Assert.assertNotEquals(multiset, ItemMultiset.of(
+				Arrays.asList(new Key("BB"), null, new Key("BB"), new Key("Aa"))));
+		Assert.assertNotEquals(multiset, ItemMultiset.of(Arrays.asList("Aa", "BB", "Aa", "x")));
+	}
+
+	@Test
+	public void testIsDistinct() {
+		Assert.assertTrue(ItemMultiset.of(Arrays.asList("foo", "bar")).isDistinct());
+		Assert.assertFalse(ItemMultiset.of(Arrays.asList("foo", "bar", "foo")).isDistinct());
+		Assert.assertTrue(ItemMultiset.of(
+				new IntegerArrayArgumentType().getArrayItems("3,1,2")).isDistinct());
+		Assert.assertFalse(ItemMultiset.of(
+				new NumberArrayArgumentType().getArrayItems("5,1,5.0")).isDistinct());
+		Assert.assertTrue(ItemMultiset.of(Arrays.asList(new Key("Aa"), new Key("BB")))
+				.isDistinct());
+		Assert.assertFalse(ItemMultiset.of(Arrays.asList(new Key("BB"), new Key("Aa"),
+				new Key("BB"))).isDistinct());
+	}
+
+	private static final class Key {
+
+		private final String value;
+
+		Key(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && ((Key) o).value.equals(value);
+		}
+
+		@Override
+		public int hashCode() {
+			return value.hashCode();
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package com.tracelink.prodsec.blueprint.core.argument;
 
+import java.util.Arrays;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -18,6 +19,15 @@ public class NumberArrayArgumentTypeTest {
 		Assert.assertNull(new NumberArrayArgumentType().generateRego(null));
 		Assert.assertNull(new NumberArrayArgumentType().generateRego("1.2,bar"));
 		Assert.assertEquals("[12.0, 1.4]", new NumberArrayArgumentType().generateRego(" 12, 1.4 "));
+		Assert.assertEquals("[1.23456789, 1.6777217E7]",
+				new NumberArrayArgumentType().generateRego("1.23456789,16777217"));
+	}
+
+	@Test
+	public void testGetArrayItems() {
+		Assert.assertNull(new NumberArrayArgumentType().getArrayItems(null));
+		Assert.assertEquals(Arrays.asList(2.0, -0.5, 1000.0),
+				new NumberArrayArgumentType().getArrayItems("2, -.5,1e3,"));
 	}
 
 	@Test
@@ -0,0 +1,55 @@
+package com.tracelink.prodsec.blueprint.core.argument;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+
+public class ParsedArgumentTest {
+
+	@Test
+	public void testParseArrayItems() {
+		ParsedArgument argument = new ParsedArgument(new IntegerArrayArgumentType(), " 3, 1,3 ");
+		Assert.assertEquals(Arrays.asList(3, 1, 3), argument.getItems());
+		Assert.assertEquals(ItemMultiset.of(new IntegerArrayArgumentType().getArrayItems("1,3,3")),
+				argument.getMultiset());
+		Assert.assertSame(argument.getMultiset(), argument.getMultiset());
+		Assert.assertNull(argument.getError());
+		Assert.assertTrue(argument.matches(false));
+		Assert.assertFalse(argument.matches(true));
+		Assert.assertEquals("[3, 1, 3]", argument.getRego());
+	}
+
+	@Test
+	public void testParseArrayItemsError() {
+		ParsedArgument argument = new ParsedArgument(new NumberArrayArgumentType(), "1.2,foo");
+		Assert.assertNull(argument.getItems());
+		Assert.assertNull(argument.getMultiset());
+		Assert.assertNotNull(argument.getError());
+		Assert.assertFalse(argument.matches(false));
+		Assert.assertNull(argument.getRego());
+	}
+
+	@Test
+	public void testParseNonArray() {
+		ParsedArgument argument = new ParsedArgument(new StringArgumentType(), "foo,bar");
+		Assert.assertNull(argument.getItems());
+		Assert.assertNull(argument.getError());
+		Assert.assertTrue(argument.matches(true));
+		Assert.assertEquals("\"foo,bar\"", argument.getRego());
+	}
+
+	@Test
+	public void testParseOnce() {
+		ArgumentType type = Mockito.spy(new StringArrayArgumentType());
+		ParsedArgument argument = new ParsedArgument(type, "foo,bar");
+		argument.matches(true);
+		argument.matches(true);
+		argument.getRego();
+		Assert.assertEquals("[\"foo\", \"bar\"]", argument.getRego());
+		BDDMockito.verify(type).getArrayItems("foo,bar");
+		BDDMockito.verify(type).matchesParsedArgument(argument, true);
+		BDDMockito.verify(type).generateParsedRego(argument);
+	}
+}
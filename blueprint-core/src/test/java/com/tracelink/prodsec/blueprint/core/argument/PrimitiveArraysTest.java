@@ -0,0 +1,85 @@
+package com.tracelink.prodsec.blueprint.core.argument;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimitiveArraysTest {
+
+	private static final List<String> ARGUMENTS = Arrays.asList("", " ", ",", ",,,", "1", " 1 ",
+			"1,2,3", "1, 2, 3 ", "1,2,", "1,2,,", "1, ,", ",1", "1,,2", "+1,-1", "-0", "+", "-",
+			"2147483647", "2147483648", "-2147483648", "-2147483649", "0012", "1 2", "1.5", ".5",
+			"1.", ".", "1e3", "-1.5E-3", "NaN", "-Infinity", "0x10", "1f", "1d", "\t3\n,4",
+			"٣", "123456789012345.5", "0.1,0.2,0.30000000000000004", "-0.0,0.0",
+			"9007199254740993", "1.7976931348623157e309", "foo", "1,foo");
+
+	@Test
+	public void testParseIntsMatchesSplit() {
+		for (String argument : ARGUMENTS) {
+			assertParseInts(argument);
+		}
+	}
+
+	@Test
+	public void testParseDoublesMatchesSplit() {
+		for (String argument : ARGUMENTS) {
+			assertParseDoubles(argument);
+		}
+	}
+
+	@Test
+	public void testParseRandomMatchesSplit() {
+		Random random = new Random(42L);
+		String alphabet = "0123456789 .,-+e";
+		for (int i = 0; i < 10000; i++) {
+			StringBuilder argument = new StringBuilder();
+			int length = random.nextInt(12);
+			for (int j = 0; j < length; j++) {
+				argument.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			assertParseInts(argument.toString());
+			assertParseDoubles(argument.toString());
+		}
+	}
+
+	@Test
+	public void testAreDistinct() {
+		Assert.assertTrue(PrimitiveArrays.areDistinct(new int[]{1, 2, 3}));
+		Assert.assertFalse(PrimitiveArrays.areDistinct(new int[]{1, 2, 2}));
+		Assert.assertTrue(PrimitiveArrays.areDistinct(new double[]{-0.0, 0.0}));
+		Assert.assertFalse(PrimitiveArrays.areDistinct(new double[]{Double.NaN, Double.NaN}));
+	}
+
+	private static void assertParseInts(String argument) {
+		int[] expected;
+		try {
+			expected = Arrays.stream(argument.split(",")).map(String::trim)
+					.mapToInt(Integer::parseInt).toArray();
+		} catch (NumberFormatException e) {
+			Assert.assertThrows(argument, NumberFormatException.class,
+					() -> PrimitiveArrays.parseInts(argument));
+			return;
+		}
+		Assert.assertArrayEquals(argument, expected, PrimitiveArrays.parseInts(argument));
+	}
+
+	private static void assertParseDoubles(String argument) {
+		double[] expected;
+		try {
+			expected = Arrays.stream(argument.split(",")).map(String::trim)
+					.mapToDouble(Double::parseDouble).toArray();
+		} catch (NumberFormatException e) {
+			Assert.assertThrows(argument, NumberFormatException.class,
+					() -> PrimitiveArrays.parseDoubles(argument));
+			return;
+		}
+		double[] actual = PrimitiveArrays.parseDoubles(argument);
+		Assert.assertEquals(argument, expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertEquals(argument, Double.doubleToLongBits(expected[i]),
+					Double.doubleToLongBits(actual[i]));
+		}
+	}
+}
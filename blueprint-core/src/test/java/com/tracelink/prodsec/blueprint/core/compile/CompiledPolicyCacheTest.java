@@ -0,0 +1,82 @@
+package com.tracelink.prodsec.blueprint.core.compile;
+
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledPolicyCacheTest {
+
+	@Test
+	public void testInvalidWeight() {
+		try {
+			new CompiledPolicyCache(0);
+			Assert.fail("Exception should have been thrown");
+		} catch (IllegalArgumentException e) {
+			Assert.assertEquals("Compiled policy cache weight must be positive", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testHitsAndMisses() {
+		CompiledPolicyCache cache = new CompiledPolicyCache();
+		Assert.assertNull(cache.get("key"));
+		CompiledPolicy compiledPolicy = createCompiledPolicy("rego");
+		cache.put("key", compiledPolicy);
+		Assert.assertSame(compiledPolicy, cache.get("key"));
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+		Assert.assertEquals(1, cache.getSize());
+		Assert.assertEquals(1024 + 11 + 4, cache.getWeight());
+		Assert.assertEquals(CompiledPolicyCache.DEFAULT_MAX_WEIGHT, cache.getMaxWeight());
+
+		// Replacing an entry replaces its weight
+		cache.put("key", createCompiledPolicy("longer rego"));
+		Assert.assertEquals(1024 + 11 + 11, cache.getWeight());
+
+		cache.clear();
+		Assert.assertEquals(0, cache.getSize());
+		Assert.assertEquals(0, cache.getWeight());
+		Assert.assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void testEvictsByWeight() {
+		CompiledPolicyCache cache = new CompiledPolicyCache(3000);
+		cache.put("one", createCompiledPolicy("1"));
+		cache.put("two", createCompiledPolicy("2"));
+		// Touch the first entry so that the second is evicted
+		Assert.assertNotNull(cache.get("one"));
+		cache.put("three", createCompiledPolicy("3"));
+		Assert.assertEquals(2, cache.getSize());
+		Assert.assertEquals(1, cache.getEvictionCount());
+		Assert.assertNotNull(cache.get("one"));
+		Assert.assertNull(cache.get("two"));
+		Assert.assertNotNull(cache.get("three"));
+	}
+
+	@Test
+	public void testSkipsOversizedEntries() {
+		CompiledPolicyCache cache = new CompiledPolicyCache(1500);
+		cache.put("small", createCompiledPolicy("1"));
+		cache.put("large", createCompiledPolicy(new String(new char[1000])));
+		Assert.assertEquals(1, cache.getSize());
+		Assert.assertNull(cache.get("large"));
+		Assert.assertEquals(0, cache.getEvictionCount());
+	}
+
+	@Test
+	public void testWeighsProblems() {
+		CompiledPolicyCache cache = new CompiledPolicyCache();
+		PolicyBuilderReport report = new PolicyBuilderReport(PolicyMaker.createValidPolicy());
+		report.addErrorNode(report.getRootNode(), "error");
+		cache.put("key", new CompiledPolicy("fingerprint", report, null));
+		Assert.assertEquals(1024 + 11 + 32 + "policy".length() + "error".length(),
+				cache.getWeight());
+	}
+
+	private static CompiledPolicy createCompiledPolicy(String rego) {
+		return new CompiledPolicy("fingerprint",
+				new PolicyBuilderReport(PolicyMaker.createValidPolicy()), rego);
+	}
+}
@@ -0,0 +1,134 @@
+package com.tracelink.prodsec.blueprint.core.compile;
+
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import com.tracelink.prodsec.blueprint.core.statement.PolicyElementState;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PolicyFingerprintTest {
+
+	@Test
+	public void testEqualPolicies() {
+		String fingerprint = PolicyFingerprint.of(PolicyMaker.createValidPolicy());
+		Assert.assertEquals(64, fingerprint.length());
+		Assert.assertEquals(fingerprint, PolicyFingerprint.of(PolicyMaker.createValidPolicy()));
+	}
+
+	@Test
+	public void testPolicyFieldsChangeFingerprint() {
+		String fingerprint = PolicyFingerprint.of(PolicyMaker.createValidPolicy());
+		Policy policy = PolicyMaker.createValidPolicy();
+		policy.setName("Other");
+		Assert.assertNotEquals(fingerprint, PolicyFingerprint.of(policy));
+
+		policy = PolicyMaker.createValidPolicy();
+		policy.getClauses().get(0).getStatements().get(0).setNegated(false);
+		Assert.assertNotEquals(fingerprint, PolicyFingerprint.of(policy));
+
+		policy = PolicyMaker.createValidPolicy();
+		policy.getClauses().get(0).getStatements().get(0).getBaseStatement()
+				.setState(PolicyElementState.DEPRECATED);
+		Assert.assertNotEquals(fingerprint, PolicyFingerprint.of(policy));
+
+		policy = PolicyMaker.createValidPolicy();
+		policy.getClauses().get(0).getStatements().get(0).getBaseStatement().getFunction()
+				.setExpression("1 == 2");
+		Assert.assertNotEquals(fingerprint, PolicyFingerprint.of(policy));
+	}
+
+	@Test
+	public void testUnorderedArrayArguments() {
+		Policy policy1 = createArrayPolicy(true, "1, 2,3,2");
+		Policy policy2 = createArrayPolicy(true, "2,3,2,1");
+		Assert.assertEquals(PolicyFingerprint.of(policy1), PolicyFingerprint.of(policy2));
+		Assert.assertEquals(policy1.getClauses().get(0).getStatements().get(0),
+				policy2.getClauses().get(0).getStatements().get(0));
+
+		// Item counts matter
+		Policy policy3 = createArrayPolicy(true, "1,2,3");
+		Assert.assertNotEquals(PolicyFingerprint.of(policy1), PolicyFingerprint.of(policy3));
+	}
+
+	@Test
+	public void testOrderedArrayArguments() {
+		Policy policy1 = createArrayPolicy(false, "1,2,3");
+		Policy policy2 = createArrayPolicy(false, "3,2,1");
+		Assert.assertNotEquals(PolicyFingerprint.of(policy1), PolicyFingerprint.of(policy2));
+	}
+
+	@Test
+	public void testInvalidUnorderedArrayArguments() {
+		Policy policy1 = createArrayPolicy(true, "1,x");
+		Policy policy2 = createArrayPolicy(true, "x,1");
+		Assert.assertNotEquals(PolicyFingerprint.of(policy1), PolicyFingerprint.of(policy2));
+		Assert.assertEquals(PolicyFingerprint.of(policy1),
+				PolicyFingerprint.of(createArrayPolicy(true, "1,x")));
+	}
+
+	@Test
+	public void testSetOrderIndependent() {
+		Policy policy1 = PolicyMaker.createValidPolicy();
+		Policy policy2 = PolicyMaker.createValidPolicy();
+		policy1.getClauses().get(0).getStatements().get(0).getBaseStatement()
+				.setPolicyTypes(new LinkedHashSet<>(Arrays.asList("System", "User")));
+		policy2.getClauses().get(0).getStatements().get(0).getBaseStatement()
+				.setPolicyTypes(new LinkedHashSet<>(Arrays.asList("User", "System")));
+
+		BaseStatementFunction dependency1 = PolicyMaker.createValidFunction();
+		dependency1.setName("dependency_one");
+		BaseStatementFunction dependency2 = PolicyMaker.createValidFunction();
+		dependency2.setName("dependency_two");
+		policy1.getClauses().get(0).getStatements().get(0).getBaseStatement().getFunction()
+				.setDependencies(new LinkedHashSet<>(Arrays.asList(dependency1, dependency2)));
+		policy2.getClauses().get(0).getStatements().get(0).getBaseStatement().getFunction()
+				.setDependencies(new LinkedHashSet<>(Arrays.asList(dependency2, dependency1)));
+		Assert.assertEquals(PolicyFingerprint.of(policy1), PolicyFingerprint.of(policy2));
+
+		dependency2.setExpression("2 == 2");
+		Assert.assertNotEquals(PolicyFingerprint.of(policy1),
+				PolicyFingerprint.of(PolicyMaker.createValidPolicy()));
+	}
+
+	@Test
+	public void testCyclicDependencies() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		BaseStatementFunction function = policy.getClauses().get(0).getStatements().get(0)
+				.getBaseStatement().getFunction();
+		BaseStatementFunction dependency = PolicyMaker.createValidFunction();
+		dependency.setName("dependency");
+		dependency.setDependencies(new HashSet<>(Collections.singleton(function)));
+		function.setDependencies(new HashSet<>(Collections.singleton(dependency)));
+		String fingerprint = PolicyFingerprint.of(policy);
+		Assert.assertEquals(fingerprint, PolicyFingerprint.of(policy));
+		Assert.assertNotEquals(fingerprint, PolicyFingerprint.of(PolicyMaker.createValidPolicy()));
+	}
+
+	@Test
+	public void testNullValues() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		ConfiguredStatement statement = policy.getClauses().get(0).getStatements().get(0);
+		statement.setArgumentValues(null);
+		statement.getBaseStatement().getFunction().setDependencies(null);
+		policy.setPolicyType(null);
+		Assert.assertNotNull(PolicyFingerprint.of(policy));
+	}
+
+	private static Policy createArrayPolicy(boolean unordered, String value) {
+		Policy policy = PolicyMaker.createValidPolicy();
+		ConfiguredStatement statement = policy.getClauses().get(0).getStatements().get(0);
+		BaseStatementArgument argument = statement.getBaseStatement().getArguments().get(0);
+		argument.setType(ArgumentType.getTypeForName("integerArray"));
+		argument.setArrayUnordered(unordered);
+		statement.setArgumentValues(Collections.singletonList(value));
+		return policy;
+	}
+}
@@ -0,0 +1,209 @@
+package com.tracelink.prodsec.blueprint.core.compile;
+
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PolicyMinimizerTest {
+
+	private static final BaseStatement BASE_STATEMENT = PolicyMaker.createValidBaseStatement();
+
+	private final PolicyMinimizer minimizer = new PolicyMinimizer();
+
+	@Test
+	public void testUnchanged() {
+		Policy policy = createPolicy(clause("a", "b"), clause("!a", "c"), clause("b", "!c"));
+		MinimizedPolicy minimized = minimizer.minimize(policy);
+		Assert.assertFalse(minimized.isChanged());
+		Assert.assertEquals(describe(policy), describe(minimized.getPolicy()));
+		Assert.assertEquals(policy.getClauses(), minimized.getPolicy().getClauses());
+		Assert.assertNotSame(policy.getClauses().get(0).getStatements().get(0),
+				minimized.getPolicy().getClauses().get(0).getStatements().get(0));
+	}
+
+	@Test
+	public void testSubsumption() {
+		Policy policy = createPolicy(clause("a", "b", "c"), clause("a"), clause("b", "c"),
+				clause("a"));
+		MinimizedPolicy minimized = minimizer.minimize(policy);
+		Assert.assertEquals(Arrays.asList("a", "b c"), describe(minimized.getPolicy()));
+		Assert.assertEquals(Arrays.asList(policy.getClauses().get(0), policy.getClauses().get(3)),
+				minimized.getRemovedClauses());
+		Assert.assertTrue(minimized.getSimplifiedClauses().isEmpty());
+	}
+
+	@Test
+	public void testContradictoryClause() {
+		Policy policy = createPolicy(clause("a", "b", "!a"), clause("c"));
+		MinimizedPolicy minimized = minimizer.minimize(policy);
+		Assert.assertEquals(Collections.singletonList("c"), describe(minimized.getPolicy()));
+		Assert.assertEquals(Collections.singletonList(policy.getClauses().get(0)),
+				minimized.getRemovedClauses());
+	}
+
+	@Test
+	public void testMerge() {
+		// (A AND B AND C) OR (A AND NOT B AND C) is A AND C
+		Policy policy = createPolicy(clause("a", "b", "c"), clause("a", "!b", "c"));
+		MinimizedPolicy minimized = minimizer.minimize(policy);
+		Assert.assertEquals(Collections.singletonList("a c"), describe(minimized.getPolicy()));
+		Assert.assertEquals(1, minimized.getRemovedClauses().size());
+		Assert.assertEquals(1, minimized.getSimplifiedClauses().size());
+	}
+
+	@Test
+	public void testAbsorption() {
+		// A OR (NOT A AND B) is A OR B
+		Policy policy = createPolicy(clause("a"), clause("!a", "b"));
+		MinimizedPolicy minimized = minimizer.minimize(policy);
+		Assert.assertEquals(Arrays.asList("a", "b"), describe(minimized.getPolicy()));
+		Assert.assertEquals(Collections.singletonList(policy.getClauses().get(1)),
+				minimized.getSimplifiedClauses());
+		Assert.assertTrue(minimized.getRemovedClauses().isEmpty());
+	}
+
+	@Test
+	public void testClausesAreNotEmptied() {
+		// A OR NOT A always evaluates to true, but clauses cannot be empty
+		Policy policy = createPolicy(clause("a"), clause("!a"));
+		MinimizedPolicy minimized = minimizer.minimize(policy);
+		Assert.assertFalse(minimized.isChanged());
+		Assert.assertEquals(Arrays.asList("a", "!a"), describe(minimized.getPolicy()));
+	}
+
+	@Test
+	public void testDuplicateStatements() {
+		Policy policy = createPolicy(clause("a", "b", "a"));
+		MinimizedPolicy minimized = minimizer.minimize(policy);
+		Assert.assertEquals(Collections.singletonList("a b"), describe(minimized.getPolicy()));
+		Assert.assertEquals(policy.getClauses(), minimized.getSimplifiedClauses());
+	}
+
+	@Test
+	public void testOriginalPolicyUnchanged() {
+		Policy policy = createPolicy(clause("a", "b"), clause("a", "!b"));
+		List<String> description = describe(policy);
+		ConfiguredStatement statement = policy.getClauses().get(1).getStatements().get(0);
+		minimizer.minimize(policy);
+		Assert.assertEquals(description, describe(policy));
+		Assert.assertSame(policy.getClauses().get(1), statement.getParent());
+		Assert.assertEquals(0, statement.getIndex());
+	}
+
+	@Test
+	public void testOriginalBaseStatementsUnchanged() {
+		Policy policy = createPolicy(clause("a", "b"), clause("a", "!b"), clause("a", "c"));
+		List<ConfiguredStatement> statements = new ArrayList<>();
+		for (PolicyClause clause : policy.getClauses()) {
+			for (ConfiguredStatement statement : clause.getStatements()) {
+				// Give each statement its own base statement to tell their parents apart
+				statement.setBaseStatement(PolicyMaker.createValidBaseStatement());
+				statements.add(statement);
+			}
+		}
+		List<String> locations = describeBaseStatements(statements);
+		MinimizedPolicy minimized = minimizer.minimize(policy);
+		Assert.assertTrue(minimized.isChanged());
+		for (ConfiguredStatement statement : statements) {
+			BaseStatement baseStatement = statement.getBaseStatement();
+			Assert.assertSame(statement, baseStatement.getParent());
+			Assert.assertSame(baseStatement, baseStatement.getFunction().getParent());
+			Assert.assertSame(baseStatement, baseStatement.getArguments().get(0).getParent());
+		}
+		Assert.assertEquals(locations, describeBaseStatements(statements));
+		ConfiguredStatement copy = minimized.getPolicy().getClauses().get(0).getStatements()
+				.get(0);
+		Assert.assertTrue(statements.stream()
+				.anyMatch(statement -> statement == copy.getBaseStatement().getParent()));
+	}
+
+	@Test
+	public void testEquivalentPolicies() {
+		Random random = new Random(42L);
+		String[] variables = {"a", "b", "c", "d", "e"};
+		for (int i = 0; i < 300; i++) {
+			List<PolicyClause> clauses = new ArrayList<>();
+			int clauseCount = 1 + random.nextInt(8);
+			for (int j = 0; j < clauseCount; j++) {
+				String[] statements = new String[1 + random.nextInt(4)];
+				for (int k = 0; k < statements.length; k++) {
+					statements[k] = (random.nextBoolean() ? "!" : "")
+							+ variables[random.nextInt(variables.length)];
+				}
+				clauses.add(clause(statements));
+			}
+			Policy policy = createPolicy(clauses.toArray(new PolicyClause[0]));
+			Policy minimized = minimizer.minimize(policy).getPolicy();
+			Assert.assertTrue(minimized.getClauses().size() <= policy.getClauses().size());
+			for (int assignment = 0; assignment < 1 << variables.length; assignment++) {
+				Assert.assertEquals(describe(policy).toString(),
+						evaluate(policy, variables, assignment),
+						evaluate(minimized, variables, assignment));
+			}
+		}
+	}
+
+	private static boolean evaluate(Policy policy, String[] variables, int assignment) {
+		for (PolicyClause clause : policy.getClauses()) {
+			boolean value = true;
+			for (ConfiguredStatement statement : clause.getStatements()) {
+				int variable = Arrays.asList(variables)
+						.indexOf(statement.getArgumentValues().get(0));
+				value &= ((assignment >> variable & 1) == 1) != statement.isNegated();
+			}
+			if (value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<String> describeBaseStatements(List<ConfiguredStatement> statements) {
+		return statements.stream()
+				.map(s -> s.getBaseStatement().getLocation() + " "
+						+ s.getBaseStatement().getFunction().getLocation() + " "
+						+ Arrays.toString(s.getBaseStatement().getFunction().getPath()) + " "
+						+ s.getBaseStatement().getArguments().get(0).getLocation())
+				.collect(Collectors.toList());
+	}
+
+	private static List<String> describe(Policy policy) {
+		return policy.getClauses().stream()
+				.map(clause -> clause.getStatements().stream()
+						.map(s -> (s.isNegated() ? "!" : "") + s.getArgumentValues().get(0))
+						.collect(Collectors.joining(" ")))
+				.collect(Collectors.toList());
+	}
+
+	private static Policy createPolicy(PolicyClause... clauses) {
+		Policy policy = PolicyMaker.createValidBasicPolicy();
+		policy.setName("Policy");
+		policy.setClauses(new ArrayList<>(Arrays.asList(clauses)));
+		return policy;
+	}
+
+	private static PolicyClause clause(String... statements) {
+		List<ConfiguredStatement> clauseStatements = new ArrayList<>();
+		for (String statement : statements) {
+			ConfiguredStatement configuredStatement = new ConfiguredStatement();
+			configuredStatement.setBaseStatement(BASE_STATEMENT);
+			configuredStatement.setNegated(statement.startsWith("!"));
+			configuredStatement.setArgumentValues(
+					Collections.singletonList(statement.replace("!", "")));
+			clauseStatements.add(configuredStatement);
+		}
+		PolicyClause clause = new PolicyClause();
+		clause.setStatements(clauseStatements);
+		return clause;
+	}
+}
@@ -1,40 +1,19 @@
 package com.tracelink.prodsec.blueprint.core.policy;
 
 import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.argument.ParsedArgument;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
-import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.BDDMockito;
 
 public class ConfiguredStatementTest {
 
-	@Test
-	public void testGetAllDependentFunctions() {
-		BaseStatementFunction function1 = BDDMockito.mock(BaseStatementFunction.class);
-		BaseStatementFunction function2 = new BaseStatementFunction();
-		function2.setName("func2");
-		BaseStatementFunction function3 = new BaseStatementFunction();
-		function3.setName("func3");
-		BDDMockito.when(function1.getName()).thenReturn("func1");
-		BDDMockito.when(function1.getAllDependencies()).thenReturn(Set.of(function2, function3));
-		BaseStatement baseStatement = new BaseStatement();
-		baseStatement.setFunction(function1);
-
-		ConfiguredStatement statement = new ConfiguredStatement();
-		statement.setBaseStatement(baseStatement);
-		Set<BaseStatementFunction> dependentFunctions = statement.getAllDependentFunctions();
-
-		Assert.assertEquals(3, dependentFunctions.size());
-		Assert.assertTrue(
-				dependentFunctions.containsAll(Set.of(function1, function2, function3)));
-	}
-
 	@Test
 	public void testEquals() {
 		ConfiguredStatement statement = new ConfiguredStatement();
@@ -153,4 +132,47 @@ public class ConfiguredStatementTest {
 		Assert.assertNotEquals(statement1.hashCode(), statement2.hashCode());
 	}
 
+	@Test
+	public void testGetParsedArgument() {
+		ArgumentType argumentType = BDDMockito.mock(ArgumentType.class);
+		BDDMockito.when(argumentType.isArrayType()).thenReturn(true);
+		List items1 = Arrays.asList("foo", "bar");
+		BDDMockito.when(argumentType.getArrayItems("foo,bar")).thenReturn(items1);
+		List items2 = List.of("bar");
+		BDDMockito.when(argumentType.getArrayItems("bar")).thenReturn(items2);
+		BaseStatementArgument baseStatementArgument = new BaseStatementArgument();
+		baseStatementArgument.setType(argumentType);
+		baseStatementArgument.setArrayUnordered(true);
+		BaseStatement baseStatement = new BaseStatement();
+		baseStatement.setArguments(Collections.singletonList(baseStatementArgument));
+		ConfiguredStatement statement = new ConfiguredStatement();
+		statement.setBaseStatement(baseStatement);
+		List<String> argumentValues = new ArrayList<>(List.of("foo,bar"));
+		statement.setArgumentValues(argumentValues);
+
+		ParsedArgument parsedArgument = statement.getParsedArgument(0);
+		Assert.assertEquals(Arrays.asList("foo", "bar"), parsedArgument.getItems());
+		Assert.assertEquals(statement.hashCode(), statement.hashCode());
+		Assert.assertSame(parsedArgument, statement.getParsedArgument(0));
+		Assert.assertNull(statement.getParsedArgument(1));
+		BDDMockito.verify(argumentType).getArrayItems("foo,bar");
+
+		// Parsed arguments are reused until the argument values are set again
+		argumentValues.set(0, "bar");
+		Assert.assertSame(parsedArgument, statement.getParsedArgument(0));
+		statement.setArgumentValues(argumentValues);
+		Assert.assertEquals(List.of("bar"), statement.getParsedArgument(0).getItems());
+
+		// Setting the base statement arguments parses the values again
+		baseStatement.setArguments(Collections.emptyList());
+		Assert.assertNull(statement.getParsedArgument(0));
+	}
+
+	@Test
+	public void testGetParsedArgumentNoArguments() {
+		ConfiguredStatement statement = new ConfiguredStatement();
+		statement.setArgumentValues(Collections.singletonList("foo"));
+		Assert.assertNull(statement.getParsedArgument(0));
+	}
+
 }
@@ -63,6 +63,12 @@ public class PolicyMaker {
 		return function;
 	}
 
+	public static BaseStatementFunction createValidFunction(String name) {
+		BaseStatementFunction function = createValidFunction();
+		function.setName(name);
+		return function;
+	}
+
 	public static BaseStatementArgument createValidArgument() {
 		BaseStatementArgument argument = new BaseStatementArgument();
 		argument.setParameter("param");
@@ -1,8 +1,13 @@
 package com.tracelink.prodsec.blueprint.core.policy;
 
 
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -37,4 +42,33 @@ public class PolicyTest {
 		Assert.assertEquals(1, clause1.getIndex());
 	}
 
+	@Test
+	public void testGetAllDependentFunctionsSameName() {
+		BaseStatementFunction older = PolicyMaker.createValidFunction();
+		BaseStatementFunction newer = PolicyMaker.createValidFunction();
+		newer.setVersion(2);
+		newer.setExpression("2 == 2");
+		BaseStatementFunction dependency = PolicyMaker.createValidFunction();
+		dependency.setName("dependency");
+
+		for (List<BaseStatementFunction> order : Arrays.asList(Arrays.asList(older, newer),
+				Arrays.asList(newer, older))) {
+			BaseStatementFunction function = PolicyMaker.createValidFunction();
+			function.setName("caller");
+			function.setDependencies(new LinkedHashSet<>(order));
+			order.get(0).setDependencies(Collections.singleton(dependency));
+			order.get(1).setDependencies(Collections.emptySet());
+			Policy policy = PolicyMaker.createValidPolicy();
+			policy.getClauses().get(0).getStatements().get(0).getBaseStatement()
+					.setFunction(function);
+
+			List<BaseStatementFunction> functions = new ArrayList<>(
+					policy.getAllDependentFunctions());
+			Assert.assertEquals(Arrays.asList("caller", "dependency", "function_name"),
+					functions.stream().map(BaseStatementFunction::getName)
+							.collect(Collectors.toList()));
+			Assert.assertSame(newer, functions.get(2));
+		}
+	}
+
 }
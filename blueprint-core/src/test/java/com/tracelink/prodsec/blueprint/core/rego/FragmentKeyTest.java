@@ -0,0 +1,89 @@
+package com.tracelink.prodsec.blueprint.core.rego;
+
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FragmentKeyTest {
+
+	@Test
+	public void testClauseKeyEqualForEqualClauses() {
+		PolicyClause clause1 = PolicyMaker.createValidPolicy().getClauses().get(0);
+		PolicyClause clause2 = PolicyMaker.createValidPolicy().getClauses().get(0);
+		Assert.assertEquals(FragmentKey.ofClause(clause1), FragmentKey.ofClause(clause2));
+		Assert.assertEquals(FragmentKey.ofClause(clause1).hashCode(),
+				FragmentKey.ofClause(clause2).hashCode());
+		Assert.assertEquals(FragmentKey.ofClause(clause1).toString(),
+				FragmentKey.ofClause(clause2).toString());
+	}
+
+	@Test
+	public void testClauseKeyChangesWithNegation() {
+		PolicyClause clause = PolicyMaker.createValidPolicy().getClauses().get(0);
+		FragmentKey key = FragmentKey.ofClause(clause);
+		ConfiguredStatement statement = clause.getStatements().get(0);
+		statement.setNegated(!statement.isNegated());
+		Assert.assertNotEquals(key, FragmentKey.ofClause(clause));
+	}
+
+	@Test
+	public void testClauseKeyChangesWithArgumentValue() {
+		PolicyClause clause = PolicyMaker.createValidPolicy().getClauses().get(0);
+		FragmentKey key = FragmentKey.ofClause(clause);
+		clause.getStatements().get(0).setArgumentValues(Collections.singletonList("other"));
+		Assert.assertNotEquals(key, FragmentKey.ofClause(clause));
+	}
+
+	@Test
+	public void testClauseKeyChangesWithArgumentType() {
+		PolicyClause clause = PolicyMaker.createValidPolicy().getClauses().get(0);
+		FragmentKey key = FragmentKey.ofClause(clause);
+		clause.getStatements().get(0).getBaseStatement().getArguments().get(0)
+				.setType(ArgumentType.getTypeForName("stringArray"));
+		Assert.assertNotEquals(key, FragmentKey.ofClause(clause));
+	}
+
+	@Test
+	public void testClauseKeyValueBoundaries() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		PolicyClause clause = policy.getClauses().get(0);
+		ConfiguredStatement statement = clause.getStatements().get(0);
+		statement.setArgumentValues(Arrays.asList("ab", "c"));
+		FragmentKey key = FragmentKey.ofClause(clause);
+		statement.setArgumentValues(Arrays.asList("a", "bc"));
+		Assert.assertNotEquals(key, FragmentKey.ofClause(clause));
+	}
+
+	@Test
+	public void testClauseKeyNullValues() {
+		PolicyClause clause = PolicyMaker.createValidPolicy().getClauses().get(0);
+		ConfiguredStatement statement = clause.getStatements().get(0);
+		statement.setArgumentValues(Collections.singletonList("null"));
+		FragmentKey key = FragmentKey.ofClause(clause);
+		statement.setArgumentValues(Collections.singletonList(null));
+		Assert.assertNotEquals(key, FragmentKey.ofClause(clause));
+		statement.setArgumentValues(null);
+		Assert.assertNotEquals(key, FragmentKey.ofClause(clause));
+	}
+
+	@Test
+	public void testFunctionKey() {
+		BaseStatementFunction function = PolicyMaker.createValidPolicy().getClauses().get(0)
+				.getStatements().get(0).getBaseStatement().getFunction();
+		FragmentKey key = FragmentKey.ofFunction(function);
+		function.setExpression("1 == 2");
+		FragmentKey expressionKey = FragmentKey.ofFunction(function);
+		Assert.assertNotEquals(key, expressionKey);
+		function.setVersion(function.getVersion() + 1);
+		Assert.assertNotEquals(expressionKey, FragmentKey.ofFunction(function));
+		function.setParameters(null);
+		Assert.assertNotNull(FragmentKey.ofFunction(function));
+	}
+}
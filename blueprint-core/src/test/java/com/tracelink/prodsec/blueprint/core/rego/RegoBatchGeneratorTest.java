@@ -0,0 +1,112 @@
+package com.tracelink.prodsec.blueprint.core.rego;
+
+import com.tracelink.prodsec.blueprint.core.logger.LoggerRule;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class RegoBatchGeneratorTest {
+
+	@Rule
+	public final LoggerRule loggerRule = LoggerRule.forClass(RegoBatchGenerator.class);
+
+	@Test
+	public void testGenerateInInputOrder() throws IOException {
+		List<Policy> policies = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			policies.add(createPolicy("value" + i, "1 == " + (i % 5)));
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			List<String> results = new RegoBatchGenerator(new RegoFragmentCache())
+					.generate(policies, pool);
+			Assert.assertEquals(policies.size(), results.size());
+			for (int i = 0; i < policies.size(); i++) {
+				Assert.assertEquals(generate(policies.get(i)), results.get(i));
+			}
+			// Results are deterministic
+			Assert.assertEquals(results,
+					new RegoBatchGenerator(null).generate(policies, pool));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testRendersSharedFunctionOnce() {
+		BaseStatementFunction function = Mockito.spy(PolicyMaker.createValidFunction());
+		List<Policy> policies = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Policy policy = PolicyMaker.createValidPolicy();
+			policy.getClauses().get(0).getStatements().get(0).getBaseStatement()
+					.setFunction(function);
+			policies.add(policy);
+		}
+		List<String> results = new RegoBatchGenerator(null)
+				.generate(policies, ForkJoinPool.commonPool());
+		Assert.assertEquals(10, results.size());
+		Assert.assertTrue(results.get(9).endsWith("function_name(param) {\n\t1 == 1\n}\n\n"));
+		// Once to fingerprint the function and once to render it
+		Mockito.verify(function, Mockito.times(2)).getExpression();
+	}
+
+	@Test
+	public void testGenerateWithFailures() throws IOException {
+		Policy invalidFunction = PolicyMaker.createValidPolicy();
+		invalidFunction.getClauses().get(0).getStatements().get(0).getBaseStatement()
+				.getFunction().setName(null);
+		Policy missingValue = PolicyMaker.createValidPolicy();
+		missingValue.getClauses().get(0).getStatements().get(0)
+				.setArgumentValues(Collections.emptyList());
+		Policy valid = PolicyMaker.createValidPolicy();
+
+		List<String> results = new RegoBatchGenerator(null).generate(
+				Arrays.asList(invalidFunction, valid, missingValue), ForkJoinPool.commonPool());
+		Assert.assertNull(results.get(0));
+		Assert.assertEquals(generate(valid), results.get(1));
+		Assert.assertNull(results.get(2));
+		Assert.assertEquals(2, loggerRule.getMessages().size());
+		Assert.assertTrue(loggerRule.getMessages()
+				.contains("Cannot generate Rego for the policy at index 0"));
+		Assert.assertTrue(loggerRule.getMessages()
+				.contains("Cannot generate Rego for the policy at index 2"));
+	}
+
+	@Test
+	public void testGenerateEmpty() {
+		Assert.assertTrue(new RegoBatchGenerator(null)
+				.generate(Collections.emptyList(), ForkJoinPool.commonPool()).isEmpty());
+	}
+
+	private static Policy createPolicy(String value, String dependencyExpression) {
+		Policy policy = PolicyMaker.createValidPolicy();
+		PolicyClause clause = policy.getClauses().get(0);
+		clause.getStatements().get(0).setArgumentValues(Collections.singletonList(value));
+		BaseStatement baseStatement = clause.getStatements().get(0).getBaseStatement();
+		BaseStatementFunction dependency = PolicyMaker.createValidFunction();
+		dependency.setName("dependency");
+		dependency.setExpression(dependencyExpression);
+		baseStatement.getFunction().setDependencies(new HashSet<>(Collections.singleton(dependency)));
+		return policy;
+	}
+
+	private static String generate(Policy policy) throws IOException {
+		StringWriter writer = new StringWriter();
+		RegoEmitter.getInstance().generate(policy, writer);
+		return writer.toString();
+	}
+}
@@ -0,0 +1,278 @@
+package com.tracelink.prodsec.blueprint.core.rego;
+
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RegoEmitterTest {
+
+	private static final String[] VALUES = {"foo", "foo,bar", " 1, 2 ,3", "1.5,2", "-4",
+			"true", "", "a\"b", "{{x}} & <y>", "1,,2", "x,1"};
+	private static final String[] EXPRESSIONS = {"1 == 1", "array[_] == value",
+			"input.user == \"{{name}}\"", "x\n\ty", "", null};
+
+	private static TemplateRegoGenerator templateGenerator;
+
+	@BeforeClass
+	public static void setup() throws IOException {
+		templateGenerator = new TemplateRegoGenerator(TemplateRegoGenerator.DEFAULT_TEMPLATE);
+	}
+
+	@Test
+	public void testGenerateValidPolicy() throws IOException {
+		Policy policy = PolicyMaker.createValidPolicy();
+		assertEquivalent(policy);
+	}
+
+	@Test
+	public void testGenerateNoClauses() throws IOException {
+		Policy policy = new Policy();
+		Assert.assertEquals("package blueprint\n\ndefault allow = false\n\n", generate(policy));
+		assertEquivalent(policy);
+	}
+
+	@Test
+	public void testGenerateEmptyClause() throws IOException {
+		Policy policy = new Policy();
+		policy.setClauses(Collections.singletonList(new PolicyClause()));
+		Assert.assertEquals("package blueprint\n\ndefault allow = false\n\nallow {\n}\n\n",
+				generate(policy));
+		assertEquivalent(policy);
+	}
+
+	@Test
+	public void testGenerateNullArgumentValues() throws IOException {
+		Policy policy = createPolicy(createStatement(createFunction("fn", "x"), null, "string"));
+		policy.getClauses().get(0).getStatements().get(0).setArgumentValues(null);
+		Assert.assertTrue(generate(policy).contains("allow {\n\tfn()\n}"));
+		assertEquivalent(policy);
+	}
+
+	@Test
+	public void testGenerateInvalidArgumentValues() throws IOException {
+		Policy policy = createPolicy(createStatement(createFunction("fn", "x"),
+				Arrays.asList("1,x", "y"), "integerArray", "string"));
+		Assert.assertTrue(generate(policy).contains("allow {\n\tfn(, \"y\")\n}"));
+		assertEquivalent(policy);
+	}
+
+	@Test
+	public void testGenerateNullParameterAndExpression() throws IOException {
+		BaseStatementFunction function = createFunction("fn", null);
+		function.setParameters(Arrays.asList("a", null, ""));
+		Policy policy = createPolicy(createStatement(function, Collections.emptyList()));
+		Assert.assertTrue(generate(policy).endsWith("fn(a, , ) {\n\t\n}\n\n"));
+		assertEquivalent(policy);
+	}
+
+	@Test(expected = IOException.class)
+	public void testGenerateMissingArgumentValue() throws IOException {
+		Policy policy = createPolicy(createStatement(createFunction("fn", "x"),
+				Collections.singletonList("foo"), "string", "string"));
+		Assert.assertNull(generateWithTemplate(policy));
+		generate(policy);
+	}
+
+	@Test
+	public void testGenerateNullArgumentValue() {
+		Policy policy = createPolicy(createStatement(createFunction("fn", "x"),
+				Arrays.asList("foo", null), "string", "string"));
+		Assert.assertNull(generateWithTemplate(policy));
+		try {
+			generate(policy);
+			Assert.fail("Exception should have been thrown");
+		} catch (IOException e) {
+			Assert.assertEquals("Missing value for argument 1", e.getMessage());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testGenerateNullArgumentType() throws IOException {
+		Policy policy = createPolicy(createStatement(createFunction("fn", "x"),
+				Collections.singletonList("foo"), (String) null));
+		Assert.assertNull(generateWithTemplate(policy));
+		generate(policy);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testGenerateNullStatement() throws IOException {
+		PolicyClause clause = new PolicyClause();
+		clause.getStatements().add(null);
+		Policy policy = new Policy();
+		policy.setClauses(Collections.singletonList(clause));
+		generate(policy);
+	}
+
+	@Test
+	public void testGenerateRandomPolicies() throws IOException {
+		Random random = new Random(2021L);
+		for (int i = 0; i < 500; i++) {
+			assertEquivalent(createRandomPolicy(random));
+		}
+	}
+
+	@Test
+	public void testGenerateModule() throws IOException {
+		Policy policy = createPolicy(createStatement(createFunction("fn", "x"),
+				Collections.singletonList("foo"), "string"));
+		StringWriter writer = new StringWriter();
+		RegoEmitter.getInstance().generateModule(policy, "blueprint.policies.foo",
+				"blueprint.lib", writer);
+		Assert.assertEquals("package blueprint.policies.foo\n\nimport data.blueprint.lib.fn\n\n"
+				+ "default allow = false\n\nallow {\n\tfn(\"foo\")\n}\n\n", writer.toString());
+	}
+
+	@Test
+	public void testGenerateModuleNoClauses() throws IOException {
+		Policy policy = new Policy();
+		StringWriter writer = new StringWriter();
+		RegoEmitter.getInstance().generateModule(policy, "foo", "lib", writer);
+		Assert.assertEquals("package foo\n\ndefault allow = false\n\n", writer.toString());
+	}
+
+	@Test
+	public void testGenerateLibrary() throws IOException {
+		BaseStatementFunction function = createFunction("fn", "x");
+		StringWriter writer = new StringWriter();
+		new RegoEmitter(new RegoFragmentCache()).generateLibrary("blueprint.lib",
+				Collections.singletonList(function), writer);
+		Assert.assertEquals("package blueprint.lib\n\nfn {\n\tx\n}\n\n", writer.toString());
+	}
+
+	@Test
+	public void testGenerateFunction() throws IOException {
+		BaseStatementFunction function = createFunction("fn", "x");
+		function.setParameters(Arrays.asList("a", "b"));
+		StringWriter writer = new StringWriter();
+		RegoEmitter.getInstance().generateFunction(function, writer);
+		Assert.assertEquals("fn(a, b) {\n\tx\n}\n\n", writer.toString());
+	}
+
+	private static void assertEquivalent(Policy policy) throws IOException {
+		Assert.assertEquals(generateWithTemplate(policy), generate(policy));
+	}
+
+	private static String generate(Policy policy) throws IOException {
+		StringWriter writer = new StringWriter();
+		RegoEmitter.getInstance().generate(policy, writer);
+		return writer.toString();
+	}
+
+	private static String generateWithTemplate(Policy policy) {
+		StringWriter writer = new StringWriter();
+		try {
+			templateGenerator.generate(policy, writer);
+			return writer.toString();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static Policy createRandomPolicy(Random random) {
+		List<BaseStatementFunction> functions = new ArrayList<>();
+		int functionCount = 1 + random.nextInt(6);
+		for (int i = 0; i < functionCount; i++) {
+			BaseStatementFunction function = createFunction("function_" + i,
+					EXPRESSIONS[random.nextInt(EXPRESSIONS.length)]);
+			int parameterCount = random.nextInt(4) - 1;
+			if (parameterCount >= 0) {
+				List<String> parameters = new ArrayList<>();
+				for (int j = 0; j < parameterCount; j++) {
+					parameters.add("param_" + j);
+				}
+				function.setParameters(parameters);
+			}
+			// Only depend on earlier functions to avoid cycles
+			Set<BaseStatementFunction> dependencies = new HashSet<>();
+			for (int j = 0; j < i; j++) {
+				if (random.nextInt(3) == 0) {
+					dependencies.add(functions.get(j));
+				}
+			}
+			function.setDependencies(dependencies);
+			functions.add(function);
+		}
+
+		List<ArgumentType> types = ArgumentType.getTypes();
+		List<PolicyClause> clauses = new ArrayList<>();
+		int clauseCount = random.nextInt(4);
+		for (int i = 0; i < clauseCount; i++) {
+			List<ConfiguredStatement> statements = new ArrayList<>();
+			int statementCount = random.nextInt(5);
+			for (int j = 0; j < statementCount; j++) {
+				int argumentCount = random.nextInt(4);
+				String[] argumentTypes = new String[argumentCount];
+				List<String> argumentValues = new ArrayList<>();
+				for (int k = 0; k < argumentCount; k++) {
+					argumentTypes[k] = types.get(random.nextInt(types.size())).getName();
+					argumentValues.add(VALUES[random.nextInt(VALUES.length)]);
+				}
+				ConfiguredStatement statement = createStatement(
+						functions.get(random.nextInt(functions.size())), argumentValues,
+						argumentTypes);
+				statement.setNegated(random.nextBoolean());
+				statements.add(statement);
+			}
+			PolicyClause clause = new PolicyClause();
+			clause.setStatements(statements);
+			clauses.add(clause);
+		}
+		Policy policy = new Policy();
+		policy.setPolicyType("System");
+		policy.setClauses(clauses);
+		return policy;
+	}
+
+	private static Policy createPolicy(ConfiguredStatement statement) {
+		PolicyClause clause = new PolicyClause();
+		clause.setStatements(Collections.singletonList(statement));
+		Policy policy = new Policy();
+		policy.setPolicyType("System");
+		policy.setClauses(Collections.singletonList(clause));
+		return policy;
+	}
+
+	private static BaseStatementFunction createFunction(String name, String expression) {
+		BaseStatementFunction function = new BaseStatementFunction();
+		function.setName(name);
+		function.setExpression(expression);
+		function.setParameters(Collections.emptyList());
+		function.setDependencies(Collections.emptySet());
+		return function;
+	}
+
+	private static ConfiguredStatement createStatement(BaseStatementFunction function,
+			List<String> argumentValues, String... argumentTypes) {
+		List<BaseStatementArgument> arguments = new ArrayList<>();
+		for (String argumentType : argumentTypes) {
+			BaseStatementArgument argument = new BaseStatementArgument();
+			argument.setType(ArgumentType.getTypeForName(argumentType));
+			arguments.add(argument);
+		}
+		BaseStatement baseStatement = new BaseStatement();
+		baseStatement.setName("Base Statement");
+		baseStatement.setFunction(function);
+		baseStatement.setArguments(arguments);
+		ConfiguredStatement statement = new ConfiguredStatement();
+		statement.setBaseStatement(baseStatement);
+		statement.setArgumentValues(argumentValues);
+		return statement;
+	}
+}
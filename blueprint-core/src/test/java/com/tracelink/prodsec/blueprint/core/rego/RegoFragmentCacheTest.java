@@ -0,0 +1,100 @@
+package com.tracelink.prodsec.blueprint.core.rego;
+
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RegoFragmentCacheTest {
+
+	@Test
+	public void testInvalidBounds() {
+		try {
+			new RegoFragmentCache(0, 1);
+			Assert.fail("Exception should have been thrown");
+		} catch (IllegalArgumentException e) {
+			Assert.assertEquals("Fragment cache bounds must be positive", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsed() {
+		RegoFragmentCache cache = new RegoFragmentCache(2, 1);
+		FragmentKey key1 = clauseKey("one");
+		FragmentKey key2 = clauseKey("two");
+		FragmentKey key3 = clauseKey("three");
+		cache.putClause(key1, "1");
+		cache.putClause(key2, "2");
+		// Touch the first entry so that the second is evicted
+		Assert.assertEquals("1", cache.getClause(key1));
+		cache.putClause(key3, "3");
+		Assert.assertEquals(2, cache.getClauseCount());
+		Assert.assertEquals("1", cache.getClause(key1));
+		Assert.assertNull(cache.getClause(key2));
+		Assert.assertEquals("3", cache.getClause(key3));
+
+		cache.putFunction(key1, "f1");
+		cache.putFunction(key2, "f2");
+		Assert.assertEquals(1, cache.getFunctionCount());
+		Assert.assertEquals("f2", cache.getFunction(key2));
+
+		cache.clear();
+		Assert.assertEquals(0, cache.getClauseCount());
+		Assert.assertEquals(0, cache.getFunctionCount());
+	}
+
+	@Test
+	public void testRendersOnlyChangedClauses() throws IOException {
+		RegoFragmentCache cache = new RegoFragmentCache();
+		RegoEmitter emitter = new RegoEmitter(cache);
+		Policy policy = createPolicy(10);
+		String rego = generate(emitter, policy);
+		Assert.assertEquals(generate(RegoEmitter.getInstance(), policy), rego);
+		Assert.assertEquals(10, cache.getClauseCount());
+		Assert.assertEquals(1, cache.getFunctionCount());
+
+		// Regenerating the same policy renders nothing new
+		Assert.assertEquals(rego, generate(emitter, policy));
+		Assert.assertEquals(10, cache.getClauseCount());
+
+		// Changing one statement renders only its clause
+		policy.getClauses().get(3).getStatements().get(0)
+				.setArgumentValues(Collections.singletonList("changed"));
+		String changed = generate(emitter, policy);
+		Assert.assertEquals(11, cache.getClauseCount());
+		Assert.assertEquals(1, cache.getFunctionCount());
+		Assert.assertEquals(generate(RegoEmitter.getInstance(), policy), changed);
+		Assert.assertTrue(changed.contains("\"changed\""));
+	}
+
+	private static FragmentKey clauseKey(String value) {
+		PolicyClause clause = PolicyMaker.createValidPolicy().getClauses().get(0);
+		clause.getStatements().get(0).setArgumentValues(Collections.singletonList(value));
+		return FragmentKey.ofClause(clause);
+	}
+
+	private static Policy createPolicy(int clauseCount) {
+		List<PolicyClause> clauses = new ArrayList<>();
+		for (int i = 0; i < clauseCount; i++) {
+			PolicyClause clause = PolicyMaker.createValidPolicy().getClauses().get(0);
+			clause.getStatements().get(0)
+					.setArgumentValues(Collections.singletonList("value" + i));
+			clauses.add(clause);
+		}
+		Policy policy = PolicyMaker.createValidPolicy();
+		policy.setClauses(clauses);
+		return policy;
+	}
+
+	private static String generate(RegoEmitter emitter, Policy policy) throws IOException {
+		StringWriter writer = new StringWriter();
+		emitter.generate(policy, writer);
+		return writer.toString();
+	}
+}
@@ -0,0 +1,43 @@
+package com.tracelink.prodsec.blueprint.core.rego;
+
+import com.github.jknack.handlebars.io.StringTemplateSource;
+import com.github.jknack.handlebars.io.TemplateLoader;
+import com.github.jknack.handlebars.io.TemplateSource;
+import com.tracelink.prodsec.blueprint.core.PolicyBuilder;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+
+public class TemplateRegoGeneratorTest {
+
+	@Test
+	public void testGenerateDefaultTemplate() throws IOException {
+		Policy policy = PolicyMaker.createValidPolicy();
+		StringWriter writer = new StringWriter();
+		PolicyBuilder.getInstance().generateRego(policy,
+				new TemplateRegoGenerator(TemplateRegoGenerator.DEFAULT_TEMPLATE), writer);
+		Assert.assertEquals(PolicyBuilder.getInstance().generateRego(policy), writer.toString());
+	}
+
+	@Test
+	public void testGenerateCustomTemplate() throws IOException {
+		TemplateLoader templateLoader = Mockito.mock(TemplateLoader.class);
+		TemplateSource templateSource = new StringTemplateSource("custom",
+				"package {{policy.policyType}}\n{{#dependencies}}{{name}}\n{{/dependencies}}");
+		BDDMockito.given(templateLoader.sourceAt("custom")).willReturn(templateSource);
+		Policy policy = PolicyMaker.createValidPolicy();
+		StringWriter writer = new StringWriter();
+		new TemplateRegoGenerator(templateLoader, "custom").generate(policy, writer);
+		Assert.assertTrue(writer.toString().startsWith("package " + policy.getPolicyType()));
+	}
+
+	@Test(expected = IOException.class)
+	public void testMissingTemplate() throws IOException {
+		new TemplateRegoGenerator("missing");
+	}
+}
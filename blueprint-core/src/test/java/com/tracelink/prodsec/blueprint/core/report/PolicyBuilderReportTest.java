@@ -2,6 +2,10 @@ package com.tracelink.prodsec.blueprint.core.report;
 
 import com.tracelink.prodsec.blueprint.core.policy.Policy;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.BDDMockito;
@@ -15,6 +19,25 @@ public class PolicyBuilderReportTest {
 		Assert.assertEquals(policy, report.getRootNode());
 	}
 
+	@Test
+	public void testGetContext() {
+		Policy policy = new Policy();
+		ValidationContext context = new ValidationContext();
+		Assert.assertSame(context, new PolicyBuilderReport(policy, context).getContext());
+		Assert.assertNotSame(new PolicyBuilderReport(policy).getContext(),
+				new PolicyBuilderReport(policy).getContext());
+	}
+
+	@Test
+	public void testContextComputeIfAbsent() {
+		ValidationContext context = new ValidationContext();
+		Object key = new Object();
+		StringBuilder value = context.computeIfAbsent(key, k -> new StringBuilder("value"));
+		Assert.assertSame(value, context.computeIfAbsent(key, k -> new StringBuilder("other")));
+		Assert.assertNotNull(context.getInterner());
+		Assert.assertSame(context.getInterner(), context.getInterner());
+	}
+
 	@Test
 	public void testHasViolationsLocation() {
 		Policy policy = new Policy();
@@ -34,6 +57,35 @@ public class PolicyBuilderReportTest {
 				report.getViolationsForLocation("policy").get(0).getMessage());
 	}
 
+	@Test
+	public void testAddPropertyViolation() {
+		Policy policy = new Policy();
+		PolicyBuilderReport report = new PolicyBuilderReport(policy);
+		report.addPropertyViolation(BDDMockito.mock(AbstractPolicyRule.class), policy, "name",
+				"It's {0}");
+		Assert.assertTrue(report.hasViolations("policy.name"));
+		Assert.assertEquals("It's {0}",
+				report.getViolationsForLocation("policy.name").get(0).getMessage());
+	}
+
+	@Test
+	public void testFormatViolation() {
+		Policy policy = new Policy();
+		AbstractPolicyRule rule = BDDMockito.mock(AbstractPolicyRule.class);
+		PolicyBuilderReport report = new PolicyBuilderReport(policy);
+		report.formatViolation(rule, policy, "The policy ''{0}'' has {1} clauses", "name", 2);
+		report.formatPropertyViolation(rule, policy, "author", "Author {0}", "missing");
+		report.addViolation(rule, policy, "other");
+		Assert.assertEquals(Arrays.asList("The policy 'name' has 2 clauses", "other"),
+				report.getViolationsForLocation("policy").stream().map(RuleViolation::getMessage)
+						.collect(Collectors.toList()));
+		Assert.assertEquals("Author missing",
+				report.getViolationsForLocation("policy.author").get(0).getMessage());
+		Assert.assertEquals(Arrays.asList("policy", "policy", "policy.author"),
+				report.getViolations().stream().map(RuleViolation::getLocation)
+						.collect(Collectors.toList()));
+	}
+
 	@Test
 	public void testAddErrorNode() {
 		Policy policy = new Policy();
@@ -43,4 +95,98 @@ public class PolicyBuilderReportTest {
 		Assert.assertEquals("message", report.getErrors().get(0).getMessage());
 	}
 
+	@Test
+	public void testMerge() {
+		Policy policy = new Policy();
+		AbstractPolicyRule rule = BDDMockito.mock(AbstractPolicyRule.class);
+		PolicyBuilderReport report = new PolicyBuilderReport(policy);
+		report.addViolation(rule, policy, "policy", "first");
+		PolicyBuilderReport other = new PolicyBuilderReport(policy);
+		other.addViolation(rule, policy, "other", "other");
+		other.addViolation(rule, policy, "policy", "second");
+		other.addErrorNode(policy, "error");
+		report.merge(other);
+		Assert.assertEquals(2, report.getViolationsForLocation("policy").size());
+		Assert.assertEquals("first", report.getViolationsForLocation("policy").get(0).getMessage());
+		Assert.assertEquals("second",
+				report.getViolationsForLocation("policy").get(1).getMessage());
+		Assert.assertTrue(report.hasViolations("other"));
+		Assert.assertEquals(1, report.getErrors().size());
+	}
+
+	@Test
+	public void testViolationCounts() {
+		Policy policy = new Policy();
+		AbstractPolicyRule info = BDDMockito.mock(AbstractPolicyRule.class);
+		BDDMockito.given(info.getSeverity()).willReturn(RuleSeverity.INFO);
+		AbstractPolicyRule error = BDDMockito.mock(AbstractPolicyRule.class);
+		BDDMockito.given(error.getSeverity()).willReturn(RuleSeverity.ERROR);
+		PolicyBuilderReport report = new PolicyBuilderReport(policy);
+		report.addViolation(info, policy, "info");
+		Assert.assertFalse(report.hasViolations());
+		report.addViolation(error, policy, "first");
+		PolicyBuilderReport other = new PolicyBuilderReport(policy);
+		other.addViolation(error, policy, "second");
+		report.merge(other);
+		Assert.assertTrue(report.hasViolations());
+		Assert.assertEquals(3, report.getViolationCount());
+		Assert.assertEquals(1, report.getViolationCount(RuleSeverity.INFO));
+		Assert.assertEquals(2, report.getViolationCount(RuleSeverity.ERROR));
+		Assert.assertEquals(0, report.getViolationCount(RuleSeverity.WARN));
+	}
+
+	@Test
+	public void testGetViolationsForRule() {
+		Policy policy = new Policy();
+		AbstractPolicyRule rule = BDDMockito.mock(AbstractPolicyRule.class);
+		AbstractPolicyRule otherRule = BDDMockito.mock(AbstractPolicyRule.class);
+		PolicyBuilderReport report = new PolicyBuilderReport(policy);
+		report.addViolation(rule, policy, "first");
+		report.addViolation(otherRule, policy, "other");
+		PolicyBuilderReport other = new PolicyBuilderReport(policy);
+		other.addViolation(rule, policy, "second");
+		report.merge(other);
+		Assert.assertEquals(Arrays.asList("first", "second"),
+				report.getViolationsForRule(rule).stream().map(RuleViolation::getMessage)
+						.collect(Collectors.toList()));
+		Assert.assertEquals(1, report.getViolationsForRule(otherRule).size());
+		Assert.assertTrue(report.getViolationsForRule(BDDMockito.mock(AbstractPolicyRule.class))
+				.isEmpty());
+	}
+
+	@Test
+	public void testGetViolationsAfterRead() {
+		Policy policy = new Policy();
+		AbstractPolicyRule rule = BDDMockito.mock(AbstractPolicyRule.class);
+		PolicyBuilderReport report = new PolicyBuilderReport(policy);
+		report.addViolation(rule, policy, "policy", "first");
+		report.addViolation(rule, policy, "other", "other");
+		Assert.assertEquals(1, report.getViolationsForLocation("policy").size());
+		report.addViolation(rule, policy, "policy", "second");
+		Assert.assertEquals(Arrays.asList("first", "second", "other"),
+				report.getViolations().stream().map(RuleViolation::getMessage)
+						.collect(Collectors.toList()));
+		report.getViolationsForLocation("policy").clear();
+		Assert.assertEquals(2, report.getViolationsForLocation("policy").size());
+		Assert.assertNull(report.getViolationsForLocation("foo"));
+	}
+
+	@Test
+	public void testListeners() {
+		Policy policy = new Policy();
+		AbstractPolicyRule rule = BDDMockito.mock(AbstractPolicyRule.class);
+		ValidationContext context = new ValidationContext();
+		List<String> messages = new ArrayList<>();
+		context.addListener(violation -> messages.add(violation.getMessage()));
+		PolicyBuilderReport report = new PolicyBuilderReport(policy, context);
+		PolicyBuilderReport ruleReport = new PolicyBuilderReport(policy, context, false);
+		ruleReport.addViolation(rule, policy, "first");
+		report.formatViolation(rule, policy, "Second {0}", "violation");
+		// Violations of unpublished reports are only published once merged
+		Assert.assertEquals(Arrays.asList("Second violation"), messages);
+		report.merge(ruleReport);
+		Assert.assertEquals(Arrays.asList("Second violation", "first"), messages);
+		Assert.assertEquals(2, report.getViolationCount());
+	}
+
 }
@@ -1,7 +1,10 @@
 package com.tracelink.prodsec.blueprint.core.report;
 
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
 import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.BDDMockito;
@@ -15,6 +18,41 @@ public class RuleViolationTest {
 				AbstractPolicyRule.class), "message");
 		Assert.assertEquals(policy, ruleViolation.getNode());
 		Assert.assertEquals("policy", ruleViolation.getLocation());
+		Assert.assertEquals(0, ruleViolation.getPath().length);
+	}
+
+	@Test
+	public void testDeferredRendering() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		ConfiguredStatement statement = policy.getClauses().get(0).getStatements().get(0);
+		AbstractPolicyRule rule = BDDMockito.mock(AbstractPolicyRule.class);
+		AtomicInteger renders = new AtomicInteger();
+		Object argument = new Object() {
+			@Override
+			public String toString() {
+				renders.incrementAndGet();
+				return "value";
+			}
+		};
+		RuleViolation ruleViolation = new RuleViolation(rule, statement, "argumentValues[0]",
+				"The argument ''{0}'' is invalid", new Object[]{argument});
+		Assert.assertArrayEquals(new int[]{0, 0}, ruleViolation.getPath());
+		Assert.assertEquals(0, renders.get());
+
+		Assert.assertEquals("The argument 'value' is invalid", ruleViolation.getMessage());
+		Assert.assertEquals("The argument 'value' is invalid", ruleViolation.getMessage());
+		Assert.assertEquals("clauses[0].statements[0].argumentValues[0]",
+				ruleViolation.getLocation());
+		Assert.assertEquals(1, renders.get());
+	}
+
+	@Test
+	public void testMessageWithoutArguments() {
+		Policy policy = new Policy();
+		RuleViolation ruleViolation = new RuleViolation(BDDMockito.mock(AbstractPolicyRule.class),
+				policy, null, "It's not a pattern {0}", null);
+		Assert.assertEquals("It's not a pattern {0}", ruleViolation.getMessage());
+		Assert.assertEquals("policy", ruleViolation.getLocation());
 	}
 
 }
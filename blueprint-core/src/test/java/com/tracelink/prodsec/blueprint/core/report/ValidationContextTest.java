@@ -0,0 +1,124 @@
+package com.tracelink.prodsec.blueprint.core.report;
+
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Flow;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.BDDMockito;
+
+public class ValidationContextTest {
+
+	@Test
+	public void testSubscribe() {
+		Policy policy = new Policy();
+		ValidationContext context = new ValidationContext();
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		context.subscribe(subscriber);
+		PolicyBuilderReport report = new PolicyBuilderReport(policy, context);
+		report.addViolation(BDDMockito.mock(AbstractPolicyRule.class), policy, "first");
+		report.addViolation(BDDMockito.mock(AbstractPolicyRule.class), policy, "second");
+		Assert.assertTrue(subscriber.messages.isEmpty());
+
+		subscriber.subscription.request(1);
+		Assert.assertEquals(Arrays.asList("first"), subscriber.messages);
+		context.complete();
+		Assert.assertFalse(subscriber.completed);
+		subscriber.subscription.request(Long.MAX_VALUE);
+		Assert.assertEquals(Arrays.asList("first", "second"), subscriber.messages);
+		Assert.assertTrue(subscriber.completed);
+		Assert.assertFalse(context.isCancelled());
+	}
+
+	@Test
+	public void testSubscriptionCancel() {
+		Policy policy = new Policy();
+		ValidationContext context = new ValidationContext();
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		context.subscribe(subscriber);
+		subscriber.subscription.request(1);
+		subscriber.subscription.cancel();
+		Assert.assertTrue(context.isCancelled());
+
+		new PolicyBuilderReport(policy, context)
+				.addViolation(BDDMockito.mock(AbstractPolicyRule.class), policy, "message");
+		context.complete();
+		Assert.assertTrue(subscriber.messages.isEmpty());
+		Assert.assertFalse(subscriber.completed);
+	}
+
+	@Test
+	public void testSubscriberRequestsFromOtherThread() throws Exception {
+		// Subscribers are not called while the subscription is locked, so a request made by
+		// another thread while a violation is delivered does not block
+		Policy policy = new Policy();
+		ValidationContext context = new ValidationContext();
+		RecordingSubscriber subscriber = new RecordingSubscriber() {
+			@Override
+			public void onNext(RuleViolation item) {
+				super.onNext(item);
+				Thread thread = new Thread(() -> getSubscription().request(1));
+				thread.start();
+				try {
+					thread.join(5000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				Assert.assertFalse(thread.isAlive());
+			}
+		};
+		context.subscribe(subscriber);
+		PolicyBuilderReport report = new PolicyBuilderReport(policy, context);
+		report.addViolation(BDDMockito.mock(AbstractPolicyRule.class), policy, "first");
+		report.addViolation(BDDMockito.mock(AbstractPolicyRule.class), policy, "second");
+		report.addViolation(BDDMockito.mock(AbstractPolicyRule.class), policy, "third");
+		subscriber.subscription.request(1);
+		Assert.assertEquals(Arrays.asList("first", "second", "third"), subscriber.messages);
+	}
+
+	@Test
+	public void testSubscriptionInvalidRequest() {
+		ValidationContext context = new ValidationContext();
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		context.subscribe(subscriber);
+		subscriber.subscription.request(0);
+		Assert.assertTrue(subscriber.error instanceof IllegalArgumentException);
+		context.complete();
+		Assert.assertFalse(subscriber.completed);
+	}
+
+	private static class RecordingSubscriber implements Flow.Subscriber<RuleViolation> {
+
+		private final List<String> messages = new ArrayList<>();
+		private Flow.Subscription subscription;
+		private Throwable error;
+		private boolean completed;
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		Flow.Subscription getSubscription() {
+			return subscription;
+		}
+
+		@Override
+		public void onNext(RuleViolation item) {
+			messages.add(item.getMessage());
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			completed = true;
+		}
+	}
+}
@@ -1,7 +1,28 @@
 package com.tracelink.prodsec.blueprint.core.rulesets;
 
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
+import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
+import com.tracelink.prodsec.blueprint.core.report.RuleViolation;
+import com.tracelink.prodsec.blueprint.core.report.ValidationContext;
+import com.tracelink.prodsec.blueprint.core.rulesets.configuration.ConfigurationRuleset;
+import com.tracelink.prodsec.blueprint.core.rulesets.logic.LogicRuleset;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.PolicyElementState;
+import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
+import com.tracelink.prodsec.blueprint.core.visitor.VisitsNodes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.BDDMockito;
 
 public class PolicyRulesetTest {
 
@@ -10,4 +31,273 @@ public class PolicyRulesetTest {
 		Assert.assertEquals("name", new PolicyRuleset("name").getName());
 	}
 
+	@Test
+	public void testApplyAllSameAsSequential() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		PolicyClause clause = policy.getClauses().get(0);
+		ConfiguredStatement statement = clause.getStatements().get(0);
+		ConfiguredStatement negated = PolicyMaker.createValidPolicy().getClauses().get(0)
+				.getStatements().get(0);
+		negated.setNegated(false);
+		negated.getBaseStatement().setState(PolicyElementState.DEPRECATED);
+		clause.setStatements(Arrays.asList(statement, statement, negated));
+		policy.setClauses(Arrays.asList(clause, clause));
+
+		List<PolicyRuleset> rulesets = Arrays
+				.asList(new ConfigurationRuleset(), new LogicRuleset());
+		PolicyBuilderReport sequential = new PolicyBuilderReport(policy);
+		for (PolicyRuleset ruleset : rulesets) {
+			for (AbstractPolicyRule rule : ruleset.getRules()) {
+				sequential = policy.accept(rule, sequential);
+			}
+		}
+		PolicyBuilderReport fused = PolicyRuleset
+				.applyAll(policy, new PolicyBuilderReport(policy), rulesets);
+		Assert.assertFalse(sequential.getViolations().isEmpty());
+		Assert.assertEquals(describe(sequential), describe(fused));
+	}
+
+	@Test
+	public void testApplyStopOnFirstFailure() {
+		List<String> visits = new ArrayList<>();
+		PolicyRuleset ruleset = new PolicyRuleset("ruleset", true);
+		ruleset.addRule(new RecordingRule("first", visits, true));
+		ruleset.addRule(new RecordingRule("second", visits, true));
+		PolicyRuleset after = new PolicyRuleset("after");
+		after.addRule(new RecordingRule("after", visits, true));
+
+		Policy policy = PolicyMaker.createValidPolicy();
+		ValidationContext context = new ValidationContext();
+		List<RuleViolation> published = new ArrayList<>();
+		context.addListener(published::add);
+		PolicyBuilderReport report = PolicyRuleset.applyAll(policy,
+				new PolicyBuilderReport(policy, context), Arrays.asList(ruleset, after));
+		Assert.assertEquals(Collections.singletonList("first"), report.getViolations().stream()
+				.map(v -> v.getRule().getName()).collect(Collectors.toList()));
+		// Rules after a ruleset that stops on the first failure are not run at all
+		Assert.assertFalse(visits.contains("after"));
+		// The violations of the second rule are discarded, so they are never published
+		Assert.assertEquals(report.getViolations(), published);
+
+		// Violations of rules run in parallel are published in the same order
+		published.clear();
+		report = PolicyRuleset.applyAll(policy, new PolicyBuilderReport(policy, context),
+				Arrays.asList(ruleset, after), ForkJoinPool.commonPool());
+		Assert.assertEquals(report.getViolations(), published);
+	}
+
+	@Test
+	public void testApplyVisitsEachNodeOnce() {
+		List<String> visits = new ArrayList<>();
+		PolicyRuleset ruleset = new PolicyRuleset("ruleset");
+		ruleset.addRule(new RecordingRule("first", visits, false));
+		ruleset.addRule(new RecordingRule("second", visits, false));
+		Policy policy = PolicyMaker.createValidPolicy();
+		ruleset.apply(policy, new PolicyBuilderReport(policy));
+		// Rules are interleaved at each node, and visit the nodes in the same order
+		Assert.assertEquals(Arrays.asList("first", "second", "first:statement", "second:statement",
+				"first:baseStatement", "second:baseStatement"), visits);
+	}
+
+	@Test
+	public void testApplyRuleWithoutDescending() {
+		List<String> visits = new ArrayList<>();
+		PolicyRuleset ruleset = new PolicyRuleset("ruleset");
+		ruleset.addRule(new AbstractPolicyRule("skip") {
+			@Override
+			public PolicyBuilderReport visit(Policy node, PolicyBuilderReport report) {
+				return report;
+			}
+
+			@Override
+			public PolicyBuilderReport visit(ConfiguredStatement node, PolicyBuilderReport report) {
+				visits.add("skip:statement");
+				return super.visit(node, report);
+			}
+
+			@Override
+			public RuleSeverity getSeverity() {
+				return RuleSeverity.WARN;
+			}
+		});
+		ruleset.addRule(new RecordingRule("other", visits, false));
+		Policy policy = PolicyMaker.createValidPolicy();
+		ruleset.apply(policy, new PolicyBuilderReport(policy));
+		Assert.assertFalse(visits.contains("skip:statement"));
+		Assert.assertTrue(visits.contains("other:statement"));
+	}
+
+	@Test
+	public void testApplyRuleWithOwnTraversal() {
+		PolicyRuleset ruleset = new PolicyRuleset("ruleset");
+		ruleset.addRule(new AbstractPolicyRule("post-order") {
+			private int statements;
+
+			@Override
+			public PolicyBuilderReport visit(Policy node, PolicyBuilderReport report) {
+				super.visit(node, report);
+				// Only correct if the children have been visited
+				report.addViolation(this, node, "statements: " + statements);
+				return report;
+			}
+
+			@Override
+			public PolicyBuilderReport visit(ConfiguredStatement node, PolicyBuilderReport report) {
+				statements++;
+				return super.visit(node, report);
+			}
+
+			@Override
+			public boolean canShareTraversal() {
+				return false;
+			}
+
+			@Override
+			public RuleSeverity getSeverity() {
+				return RuleSeverity.WARN;
+			}
+		});
+		ruleset.addRule(new RecordingRule("other", new ArrayList<>(), true));
+		Policy policy = PolicyMaker.createValidPolicy();
+		PolicyBuilderReport report = ruleset.apply(policy, new PolicyBuilderReport(policy));
+		Assert.assertEquals(Arrays.asList("statements: 1", "violation"), report.getViolations()
+				.stream().map(RuleViolation::getMessage).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testApplySkipsUnvisitedSubtrees() {
+		List<String> visits = new ArrayList<>();
+		PolicyRuleset ruleset = new PolicyRuleset("ruleset");
+		ruleset.addRule(new ClauseRule(visits));
+		ruleset.addRule(new AnnotatedRule(visits));
+		Policy policy = PolicyMaker.createValidPolicy();
+		PolicyClause clause = policy.getClauses().get(0);
+		ConfiguredStatement statement = BDDMockito.spy(clause.getStatements().get(0));
+		clause.setStatements(Collections.singletonList(statement));
+		ruleset.apply(policy, new PolicyBuilderReport(policy));
+		// Neither rule visits statements or anything below them
+		Assert.assertEquals(Arrays.asList("annotated", "clause"), visits);
+		BDDMockito.verify(statement, BDDMockito.never()).accept(BDDMockito.any(),
+				BDDMockito.any());
+		BDDMockito.verify(statement, BDDMockito.never()).children();
+	}
+
+	@Test
+	public void testApplyRethrowsRuleException() {
+		PolicyRuleset ruleset = new PolicyRuleset("ruleset");
+		ruleset.addRule(new AbstractPolicyRule("throwing") {
+			@Override
+			public PolicyBuilderReport visit(Policy node, PolicyBuilderReport report) {
+				throw new IllegalStateException("rule failed");
+			}
+
+			@Override
+			public RuleSeverity getSeverity() {
+				return RuleSeverity.WARN;
+			}
+		});
+		Policy policy = PolicyMaker.createValidPolicy();
+		try {
+			ruleset.apply(policy, new PolicyBuilderReport(policy));
+			Assert.fail("Exception should have been thrown");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("rule failed", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testApplyIgnoresExceptionAfterStop() {
+		PolicyRuleset ruleset = new PolicyRuleset("ruleset", true);
+		ruleset.addRule(new RecordingRule("first", new ArrayList<>(), true));
+		ruleset.addRule(new AbstractPolicyRule("throwing") {
+			@Override
+			public PolicyBuilderReport visit(Policy node, PolicyBuilderReport report) {
+				throw new IllegalStateException("rule failed");
+			}
+
+			@Override
+			public RuleSeverity getSeverity() {
+				return RuleSeverity.WARN;
+			}
+		});
+		Policy policy = PolicyMaker.createValidPolicy();
+		PolicyBuilderReport report = ruleset.apply(policy, new PolicyBuilderReport(policy));
+		Assert.assertEquals(1, report.getViolations().size());
+	}
+
+	private static List<String> describe(PolicyBuilderReport report) {
+		List<String> descriptions = new ArrayList<>();
+		for (RuleViolation violation : report.getViolations()) {
+			descriptions.add(violation.getRule().getName() + ":" + violation.getLocation() + ":"
+					+ violation.getMessage());
+		}
+		return descriptions;
+	}
+
+	private static class RecordingRule extends AbstractPolicyRule {
+
+		private final List<String> visits;
+		private final boolean violate;
+
+		RecordingRule(String name, List<String> visits, boolean violate) {
+			super(name);
+			this.visits = visits;
+			this.violate = violate;
+		}
+
+		@Override
+		public PolicyBuilderReport visit(Policy node, PolicyBuilderReport report) {
+			visits.add(getName());
+			if (violate) {
+				report.addViolation(this, node, "violation");
+			}
+			return super.visit(node, report);
+		}
+
+		@Override
+		public PolicyBuilderReport visit(ConfiguredStatement node, PolicyBuilderReport report) {
+			visits.add(getName() + ":statement");
+			return super.visit(node, report);
+		}
+
+		@Override
+		public PolicyBuilderReport visit(BaseStatement node, PolicyBuilderReport report) {
+			visits.add(getName() + ":baseStatement");
+			return super.visit(node, report);
+		}
+
+		@Override
+		public RuleSeverity getSeverity() {
+			return RuleSeverity.WARN;
+		}
+	}
+
+	private static class ClauseRule extends AbstractPolicyRule {
+
+		private final List<String> visits;
+
+		ClauseRule(List<String> visits) {
+			super("clause");
+			this.visits = visits;
+		}
+
+		@Override
+		public PolicyBuilderReport visit(PolicyClause node, PolicyBuilderReport report) {
+			visits.add(getName());
+			return super.visit(node, report);
+		}
+
+		@Override
+		public RuleSeverity getSeverity() {
+			return RuleSeverity.WARN;
+		}
+	}
+
+	@VisitsNodes(Policy.class)
+	private static class AnnotatedRule extends RecordingRule {
+
+		AnnotatedRule(List<String> visits) {
+			super("annotated", visits, false);
+		}
+	}
 }
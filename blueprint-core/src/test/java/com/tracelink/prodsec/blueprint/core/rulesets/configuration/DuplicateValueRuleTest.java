@@ -33,6 +33,18 @@ public class DuplicateValueRuleTest extends AbstractRuleTest {
 						"dupeStatement: Wrong message: " + r.getViolations().get(0).getMessage(),
 						r.getViolations().get(0).getMessage()
 								.contains("duplicate and should be removed from the clause"))));
+
+		Policy equalStatementsPolicy = PolicyMaker.createValidPolicy();
+		PolicyClause clause3 = equalStatementsPolicy.getClauses().get(0);
+		ConfiguredStatement equalStatement = PolicyMaker.createValidPolicy().getClauses().get(0)
+				.getStatements().get(0);
+		clause3.setStatements(Arrays.asList(clause3.getStatements().get(0), equalStatement,
+				PolicyMaker.createValidPolicy().getClauses().get(0).getStatements().get(0)));
+		equalStatementsPolicy.setClauses(Arrays.asList(clause3,
+				PolicyMaker.createValidPolicy().getClauses().get(0)));
+		addCase("equalStatements", equalStatementsPolicy, 2, 0,
+				(r -> Assert.assertEquals("equalStatements: Wrong location",
+						equalStatement.getLocation(), r.getViolations().get(0).getLocation())));
 	}
 
 	@Override
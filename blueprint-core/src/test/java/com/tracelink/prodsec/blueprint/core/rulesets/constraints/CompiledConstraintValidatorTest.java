@@ -0,0 +1,215 @@
+package com.tracelink.prodsec.blueprint.core.rulesets.constraints;
+
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementFunction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import javax.validation.groups.Default;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledConstraintValidatorTest {
+
+	private static final CompiledConstraintValidator VALIDATOR =
+			CompiledConstraintValidator.getInstance();
+
+	@Test
+	public void testModelIsCompiled() {
+		for (Class<?> type : Arrays.asList(Policy.class, PolicyClause.class,
+				ConfiguredStatement.class, BaseStatement.class, BaseStatementArgument.class,
+				BaseStatementFunction.class)) {
+			Assert.assertTrue(type.getSimpleName(), VALIDATOR.isCompiled(type));
+		}
+	}
+
+	@Test
+	public void testValidModel() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		Assert.assertTrue(validate(policy).isEmpty());
+		Assert.assertTrue(validate(PolicyMaker.createValidBaseStatement()).isEmpty());
+		Assert.assertTrue(validate(PolicyMaker.createValidFunction()).isEmpty());
+	}
+
+	@Test
+	public void testEmptyModel() {
+		assertEquivalent(new Policy());
+		assertEquivalent(new BaseStatement());
+		assertEquivalent(new BaseStatementFunction());
+		Policy policy = new Policy();
+		policy.setClauses(new ArrayList<>(Collections.singletonList(new PolicyClause())));
+		policy.getClauses().add(null);
+		assertEquivalent(policy);
+	}
+
+	@Test
+	public void testInvalidPolicy() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		policy.setPolicyType(" ");
+		ConfiguredStatement statement = policy.getClauses().get(0).getStatements().get(0);
+		statement.setArgumentValues(Arrays.asList("value", " ", null));
+		ConfiguredStatement missingBaseStatement = new ConfiguredStatement();
+		missingBaseStatement.setArgumentValues(null);
+		PolicyClause clause = new PolicyClause();
+		clause.setStatements(new ArrayList<>(Arrays.asList(missingBaseStatement, statement)));
+		clause.getStatements().add(1, null);
+		List<PolicyClause> clauses = new ArrayList<>(policy.getClauses());
+		clauses.add(clause);
+		clauses.add(new PolicyClause());
+		policy.setClauses(clauses);
+		Assert.assertEquals(Arrays.asList("clauses[0].statements[0].argumentValues",
+				"clauses[0].statements[0].argumentValues",
+				"clauses[1].statements",
+				"clauses[1].statements[0].argumentValues",
+				"clauses[1].statements[0].baseStatement",
+				"clauses[1].statements[2].argumentValues",
+				"clauses[1].statements[2].argumentValues",
+				"clauses[2].statements",
+				"policyType"), getProperties(policy));
+		assertEquivalent(policy);
+	}
+
+	@Test
+	public void testSharedStatements() {
+		// A statement is reported once in each clause it is in, at its first index
+		Policy policy = PolicyMaker.createValidPolicy();
+		ConfiguredStatement statement = policy.getClauses().get(0).getStatements().get(0);
+		statement.setArgumentValues(Collections.singletonList(""));
+		PolicyClause clause = new PolicyClause();
+		clause.setStatements(Arrays.asList(statement, statement));
+		PolicyClause other = new PolicyClause();
+		other.setStatements(Arrays.asList(PolicyMaker.createValidPolicy().getClauses().get(0)
+				.getStatements().get(0), statement));
+		policy.setClauses(Arrays.asList(policy.getClauses().get(0), clause, other));
+		Assert.assertEquals(Arrays.asList("clauses[0].statements[0].argumentValues",
+				"clauses[1].statements[0].argumentValues",
+				"clauses[2].statements[1].argumentValues"), getProperties(policy));
+		assertEquivalent(policy);
+	}
+
+	@Test
+	public void testInvalidBaseStatement() {
+		BaseStatement baseStatement = PolicyMaker.createValidBaseStatement();
+		baseStatement.setName("");
+		baseStatement.setPolicyTypes(new HashSet<>(Arrays.asList("", " ", null)));
+		BaseStatementArgument argument = new BaseStatementArgument();
+		argument.setEnumValues(new HashSet<>(Arrays.asList("", "value")));
+		List<BaseStatementArgument> arguments = new ArrayList<>(baseStatement.getArguments());
+		arguments.add(argument);
+		baseStatement.setArguments(arguments);
+		arguments.add(null);
+		assertEquivalent(baseStatement);
+		Assert.assertTrue(getProperties(baseStatement).contains(
+				"arguments[" + (arguments.size() - 2) + "].enumValues"));
+	}
+
+	@Test
+	public void testInvalidFunction() {
+		BaseStatementFunction function = PolicyMaker.createValidFunction();
+		function.setAuthor(null);
+		function.setPolicyTypes(Collections.emptySet());
+		function.setParameters(Arrays.asList("a", "\t"));
+		function.setDependencies(new HashSet<>(Arrays.asList(null,
+				PolicyMaker.createValidFunction())));
+		function.setState(null);
+		assertEquivalent(function);
+		Assert.assertEquals(Arrays.asList("author", "dependencies", "parameters", "policyTypes",
+				"state"), getProperties(function));
+	}
+
+	@Test
+	public void testUnsupportedConstraints() {
+		Assert.assertFalse(VALIDATOR.isCompiled(SizedBean.class));
+		Assert.assertFalse(VALIDATOR.isCompiled(DefaultMessageBean.class));
+		Assert.assertTrue(VALIDATOR.isCompiled(CascadingBean.class));
+		assertEquivalent(new SizedBean());
+		assertEquivalent(new DefaultMessageBean());
+		CascadingBean bean = new CascadingBean();
+		bean.beans = Arrays.asList(new CascadingBean(), new SizedBean());
+		Assert.assertEquals(Arrays.asList("beans[0].name", "beans[1].name", "name"),
+				getProperties(bean));
+		assertEquivalent(bean);
+	}
+
+	@Test
+	public void testCycles() {
+		CascadingBean bean = new CascadingBean();
+		CascadingBean other = new CascadingBean();
+		bean.beans = Collections.singletonList(other);
+		other.beans = Arrays.asList(bean, other, new CascadingBean());
+		Assert.assertEquals(Arrays.asList("beans[0].beans[2].name", "beans[0].name", "name"),
+				getProperties(bean));
+		assertEquivalent(bean);
+	}
+
+	@Test
+	public void testGroups() {
+		List<String> violations = new ArrayList<>();
+		VALIDATOR.validate(new BaseStatementFunction(),
+				(property, message) -> violations.add(property), Default.class);
+		Assert.assertEquals(getProperties(new BaseStatementFunction()), sorted(violations));
+		violations.clear();
+		VALIDATOR.validate(new BaseStatementFunction(),
+				(property, message) -> violations.add(property), Other.class);
+		Assert.assertTrue(violations.isEmpty());
+	}
+
+	private static void assertEquivalent(Object bean) {
+		List<String> reflective = new ArrayList<>();
+		VALIDATOR.validateReflectively(bean,
+				(property, message) -> reflective.add(property + ": " + message));
+		Assert.assertFalse(reflective.isEmpty());
+		Assert.assertEquals(sorted(reflective), sorted(validate(bean)));
+	}
+
+	private static List<String> validate(Object bean) {
+		List<String> violations = new ArrayList<>();
+		VALIDATOR.validate(bean, (property, message) -> violations.add(property + ": " + message));
+		return violations;
+	}
+
+	private static List<String> getProperties(Object bean) {
+		List<String> properties = new ArrayList<>();
+		VALIDATOR.validate(bean, (property, message) -> properties.add(property));
+		return sorted(properties);
+	}
+
+	private static List<String> sorted(List<String> values) {
+		List<String> sorted = new ArrayList<>(values);
+		Collections.sort(sorted);
+		return sorted;
+	}
+
+	private interface Other {
+	}
+
+	private static class CascadingBean {
+
+		@NotNull(message = "Name cannot be null")
+		private String name;
+		private List<@Valid Object> beans;
+	}
+
+	private static class SizedBean {
+
+		@Size(min = 1, message = "Name must not be empty")
+		private String name = "";
+	}
+
+	private static class DefaultMessageBean {
+
+		@NotNull
+		private String name;
+	}
+}
@@ -8,6 +8,7 @@ import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import org.junit.Assert;
 
 public class CyclicDependenciesRuleTest extends AbstractRuleTest {
@@ -22,7 +23,7 @@ public class CyclicDependenciesRuleTest extends AbstractRuleTest {
 		function2.setDependencies(Collections.singleton(function2));
 		addCase("cyclicDependencies", function1, 1, 0,
 				(r -> Assert.assertEquals(
-						"The function 'function_name' has a cyclic dependency on the function 'second_function'",
+						"The function 'function_name' has a cyclic dependency: function_name -> second_function -> second_function",
 						r.getViolations().get(0).getMessage())));
 
 		BaseStatementFunction function3 = PolicyMaker.createValidFunction();
@@ -30,7 +31,7 @@ public class CyclicDependenciesRuleTest extends AbstractRuleTest {
 		function3.setDependencies(Collections.singleton(function3));
 		addCase("selfReferential", function3, 1, 0,
 				(r -> Assert.assertEquals(
-						"The function 'third_function' has a cyclic dependency on the function 'third_function'",
+						"The function 'third_function' has a cyclic dependency: third_function -> third_function",
 						r.getViolations().get(0).getMessage())));
 		BaseStatementFunction function4 = PolicyMaker.createValidFunction();
 		function4.setName("fourth_function");
@@ -42,6 +43,46 @@ public class CyclicDependenciesRuleTest extends AbstractRuleTest {
 		function4.setDependencies(new HashSet<>(Arrays.asList(function5, function6)));
 		function5.setDependencies(Collections.singleton(function6));
 		addCase("sameDependencies", function4, 0, 0);
+
+		// Diamond where both sides share a dependency, which is not a cycle
+		BaseStatementFunction top = PolicyMaker.createValidFunction("top");
+		BaseStatementFunction left = PolicyMaker.createValidFunction("left");
+		BaseStatementFunction right = PolicyMaker.createValidFunction("right");
+		BaseStatementFunction bottom = PolicyMaker.createValidFunction("bottom");
+		BaseStatementFunction shared = PolicyMaker.createValidFunction("shared");
+		top.setDependencies(Collections.singleton(shared));
+		shared.setDependencies(new LinkedHashSet<>(Arrays.asList(left, right)));
+		left.setDependencies(Collections.singleton(bottom));
+		right.setDependencies(Collections.singleton(bottom));
+		addCase("diamondDependencies", top, 0, 0);
+
+		// Two separate cycles, one of which the root function is part of
+		BaseStatementFunction root = PolicyMaker.createValidFunction("root");
+		BaseStatementFunction first = PolicyMaker.createValidFunction("first");
+		BaseStatementFunction second = PolicyMaker.createValidFunction("second");
+		BaseStatementFunction other = PolicyMaker.createValidFunction("other");
+		root.setDependencies(Collections.singleton(first));
+		first.setDependencies(new LinkedHashSet<>(Arrays.asList(second, other)));
+		second.setDependencies(Collections.singleton(root));
+		other.setDependencies(Collections.singleton(other));
+		addCase("multipleCycles", root, 2, 0,
+				(r -> Assert.assertEquals(
+						"The function 'root' has a cyclic dependency: root -> first -> second -> root",
+						r.getViolations().get(0).getMessage())),
+				(r -> Assert.assertEquals(
+						"The function 'root' has a cyclic dependency: root -> first -> other -> other",
+						r.getViolations().get(1).getMessage())));
+
+		// Rego resolves functions by name, so a cycle can close on another function with that name
+		BaseStatementFunction named = PolicyMaker.createValidFunction("named");
+		BaseStatementFunction middle = PolicyMaker.createValidFunction("middle");
+		BaseStatementFunction sameName = PolicyMaker.createValidFunction("named");
+		named.setDependencies(Collections.singleton(middle));
+		middle.setDependencies(Collections.singleton(sameName));
+		addCase("sameNameCycle", named, 1, 0,
+				(r -> Assert.assertEquals(
+						"The function 'named' has a cyclic dependency: named -> middle -> named",
+						r.getViolations().get(0).getMessage())));
 	}
 
 	@Override
@@ -8,7 +8,9 @@ import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
 import com.tracelink.prodsec.blueprint.core.rulesets.AbstractRuleTest;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 public class FalsifiabilityRuleTest extends AbstractRuleTest {
 
@@ -18,6 +20,8 @@ public class FalsifiabilityRuleTest extends AbstractRuleTest {
 		Policy isFalsifiable = makeFalsifiablePolicy();
 		addCase("Found Falsifiable", makeFalsifiablePolicy(), 1, 0);
 		addCase("Not Falsifiable", PolicyMaker.createValidPolicy(), 0, 0);
+		addCase("Large Falsifiable", makeChainPolicy(40, true), 1, 0);
+		addCase("Large Not Falsifiable", makeChainPolicy(40, false), 0, 0);
 	}
 
 	@Override
@@ -78,6 +82,35 @@ public class FalsifiabilityRuleTest extends AbstractRuleTest {
 		return policy;
 	}
 
+	// A1 OR (NOT A1 AND A2) OR ... OR (NOT An-1 AND An), optionally OR NOT An
+	private Policy makeChainPolicy(int statements, boolean closed) {
+		Policy policy = PolicyMaker.createValidBasicPolicy();
+		policy.setPolicyType("System");
+		List<BaseStatement> bases = new ArrayList<>();
+		for (int i = 0; i < statements; i++) {
+			BaseStatement base = PolicyMaker.createValidBaseStatement();
+			base.setName("BASE " + i);
+			bases.add(base);
+		}
+		List<PolicyClause> clauses = new ArrayList<>();
+		clauses.add(makeClause(makeStmt(bases.get(0), false)));
+		for (int i = 1; i < statements; i++) {
+			clauses.add(makeClause(makeStmt(bases.get(i - 1), true),
+					makeStmt(bases.get(i), false)));
+		}
+		if (closed) {
+			clauses.add(makeClause(makeStmt(bases.get(statements - 1), true)));
+		}
+		policy.setClauses(clauses);
+		return policy;
+	}
+
+	private PolicyClause makeClause(ConfiguredStatement... statements) {
+		PolicyClause clause = new PolicyClause();
+		clause.setStatements(Arrays.asList(statements));
+		return clause;
+	}
+
 	private ConfiguredStatement makeStmt(BaseStatement base, boolean negated) {
 		ConfiguredStatement stmt = new ConfiguredStatement();
 		stmt.setBaseStatement(base);
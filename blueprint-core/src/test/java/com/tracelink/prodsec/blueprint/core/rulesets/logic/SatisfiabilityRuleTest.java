@@ -8,8 +8,10 @@ import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
 import com.tracelink.prodsec.blueprint.core.rulesets.AbstractRuleTest;
 import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
 import com.tracelink.prodsec.blueprint.core.visitor.AbstractPolicyRule;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import org.junit.Assert;
 
 public class SatisfiabilityRuleTest extends AbstractRuleTest {
@@ -22,10 +24,14 @@ public class SatisfiabilityRuleTest extends AbstractRuleTest {
 				.assertEquals(RuleSeverity.ERROR,
 						r.getViolations().get(0).getRule().getSeverity())), (r -> Assert
 				.assertEquals(
-						"This clause is unsatisfiable. Two of the statements are equivalent and one of them is negated",
+						"This clause is unsatisfiable. Statements 1 and 2 are equivalent and one of them is negated",
 						r.getViolations().get(0).getMessage())));
 		Policy satisfiable = PolicyMaker.createValidPolicy();
 		addCase("Satisfiable", satisfiable, 0, 0);
+		addCase("Every Complement", makeLargeClausePolicy(300), 3, 0, (r -> Assert
+				.assertEquals(
+						"This clause is unsatisfiable. Statements 12 and 291 are equivalent and one of them is negated",
+						r.getViolations().get(1).getMessage())));
 	}
 
 	@Override
@@ -38,6 +44,28 @@ public class SatisfiabilityRuleTest extends AbstractRuleTest {
 		return new SatisfiabilityRule();
 	}
 
+	// Statements with distinct arguments, except that statement 12 complements statements 11 and
+	// 291, and statement 151 is complemented by statement 292
+	private Policy makeLargeClausePolicy(int statementCount) {
+		BaseStatement baseStatement = PolicyMaker.createValidBaseStatement();
+		List<ConfiguredStatement> statements = new ArrayList<>();
+		for (int i = 0; i < statementCount; i++) {
+			ConfiguredStatement statement = new ConfiguredStatement();
+			statement.setBaseStatement(baseStatement);
+			statement.setArgumentValues(Collections.singletonList("value " + i));
+			statement.setNegated(i % 2 == 0);
+			statements.add(statement);
+		}
+		statements.get(11).setArgumentValues(Collections.singletonList("value 10"));
+		statements.get(290).setArgumentValues(Collections.singletonList("value 10"));
+		statements.get(291).setArgumentValues(Collections.singletonList("value 150"));
+		PolicyClause clause = new PolicyClause();
+		clause.setStatements(statements);
+		Policy policy = PolicyMaker.createValidBasicPolicy();
+		policy.setClauses(Collections.singletonList(clause));
+		return policy;
+	}
+
 	private Policy makeUnsatisfiablePolicy() {
 		Policy policy = PolicyMaker.createValidBasicPolicy();
 		PolicyClause clause = new PolicyClause();
@@ -0,0 +1,126 @@
+package com.tracelink.prodsec.blueprint.core.rulesets.logic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TautologyCheckerTest {
+
+	@Test
+	public void testTautology() {
+		TautologyChecker checker = new TautologyChecker(1);
+		checker.addTerm(TautologyChecker.literal(0, false));
+		checker.addTerm(TautologyChecker.literal(0, true));
+		Assert.assertTrue(checker.isTautology());
+		Assert.assertNull(checker.findCounterexample());
+		Assert.assertNull(checker.solveCounterexample());
+	}
+
+	@Test
+	public void testCounterexample() {
+		// (A AND NOT B) OR (NOT A AND B) is false when A equals B
+		TautologyChecker checker = new TautologyChecker(2);
+		checker.addTerm(TautologyChecker.literal(0, false), TautologyChecker.literal(1, true));
+		checker.addTerm(TautologyChecker.literal(0, true), TautologyChecker.literal(1, false));
+		Assert.assertFalse(checker.isTautology());
+		Assert.assertArrayEquals(new boolean[]{false, false}, checker.findCounterexample());
+		boolean[] counterexample = checker.solveCounterexample();
+		Assert.assertEquals(counterexample[0], counterexample[1]);
+	}
+
+	@Test
+	public void testEmptyFormulas() {
+		Assert.assertFalse(new TautologyChecker(0).isTautology());
+		Assert.assertFalse(new TautologyChecker(20).isTautology());
+		TautologyChecker checker = new TautologyChecker(20);
+		checker.addTerm();
+		Assert.assertTrue(checker.isTautology());
+	}
+
+	@Test
+	public void testContradictoryTerm() {
+		TautologyChecker checker = new TautologyChecker(1);
+		checker.addTerm(TautologyChecker.literal(0, false), TautologyChecker.literal(0, true));
+		Assert.assertArrayEquals(new boolean[]{false}, checker.findCounterexample());
+		Assert.assertNotNull(checker.solveCounterexample());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownVariable() {
+		new TautologyChecker(2).addTerm(TautologyChecker.literal(2, false));
+	}
+
+	@Test
+	public void testLargeChainTautology() {
+		// A1 OR (NOT A1 AND A2) OR ... OR (NOT An-1 AND An) OR NOT An
+		int variables = 1000;
+		TautologyChecker checker = new TautologyChecker(variables);
+		checker.addTerm(TautologyChecker.literal(0, false));
+		for (int i = 1; i < variables; i++) {
+			checker.addTerm(TautologyChecker.literal(i - 1, true),
+					TautologyChecker.literal(i, false));
+		}
+		checker.addTerm(TautologyChecker.literal(variables - 1, true));
+		Assert.assertTrue(checker.isTautology());
+	}
+
+	@Test
+	public void testLargeCounterexample() {
+		Random random = new Random(42L);
+		int variables = 200;
+		List<int[]> terms = createRandomTerms(random, variables, 2 * variables, 3, 3);
+		TautologyChecker checker = new TautologyChecker(variables);
+		terms.forEach(checker::addTerm);
+		boolean[] counterexample = checker.findCounterexample();
+		Assert.assertNotNull(counterexample);
+		Assert.assertFalse(evaluate(terms, counterexample));
+	}
+
+	@Test
+	public void testSolverMatchesEnumeration() {
+		Random random = new Random(42L);
+		for (int i = 0; i < 500; i++) {
+			int variables = 1 + random.nextInt(10);
+			List<int[]> terms = createRandomTerms(random, variables, 1 + random.nextInt(40), 1,
+					1 + random.nextInt(3));
+			TautologyChecker checker = new TautologyChecker(variables);
+			terms.forEach(checker::addTerm);
+
+			boolean[] enumerated = checker.findCounterexample();
+			boolean[] solved = checker.solveCounterexample();
+			Assert.assertEquals(enumerated == null, solved == null);
+			if (solved != null) {
+				Assert.assertFalse(evaluate(terms, enumerated));
+				Assert.assertFalse(evaluate(terms, solved));
+			}
+		}
+	}
+
+	private static List<int[]> createRandomTerms(Random random, int variables, int count,
+			int minLiterals, int maxLiterals) {
+		List<int[]> terms = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			int[] term = new int[minLiterals + random.nextInt(maxLiterals - minLiterals + 1)];
+			for (int j = 0; j < term.length; j++) {
+				term[j] = TautologyChecker.literal(random.nextInt(variables), random.nextBoolean());
+			}
+			terms.add(term);
+		}
+		return terms;
+	}
+
+	private static boolean evaluate(List<int[]> terms, boolean[] assignment) {
+		for (int[] term : terms) {
+			boolean value = true;
+			for (int literal : term) {
+				value &= assignment[literal >> 1] != ((literal & 1) == 1);
+			}
+			if (value) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
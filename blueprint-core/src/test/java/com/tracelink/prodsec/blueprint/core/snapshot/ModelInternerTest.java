@@ -0,0 +1,116 @@
+package com.tracelink.prodsec.blueprint.core.snapshot;
+
+import com.tracelink.prodsec.blueprint.core.argument.ArgumentType;
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatementArgument;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ModelInternerTest {
+
+	@Test
+	public void testSnapshotSharesEqualBaseStatements() {
+		ModelInterner interner = new ModelInterner();
+		BaseStatementSnapshot snapshot = interner.snapshot(PolicyMaker.createValidBaseStatement());
+		Assert.assertSame(snapshot, interner.snapshot(PolicyMaker.createValidBaseStatement()));
+		Assert.assertSame(snapshot.getFunction(),
+				interner.snapshot(PolicyMaker.createValidFunction()));
+		Assert.assertEquals(PolicyMaker.createValidBaseStatement().hashCode(),
+				snapshot.hashCode());
+
+		BaseStatement other = PolicyMaker.createValidBaseStatement();
+		other.setDescription("Another base statement");
+		BaseStatementSnapshot otherSnapshot = interner.snapshot(other);
+		Assert.assertNotEquals(snapshot, otherSnapshot);
+		Assert.assertSame(snapshot.getFunction(), otherSnapshot.getFunction());
+		Assert.assertSame(snapshot.getArguments().get(0), otherSnapshot.getArguments().get(0));
+	}
+
+	@Test
+	public void testSnapshotIgnoresVersion() {
+		ModelInterner interner = new ModelInterner();
+		BaseStatement baseStatement = PolicyMaker.createValidBaseStatement();
+		baseStatement.setVersion(2);
+		baseStatement.getFunction().setVersion(3);
+		Assert.assertSame(interner.snapshot(PolicyMaker.createValidBaseStatement()),
+				interner.snapshot(baseStatement));
+	}
+
+	@Test
+	public void testSnapshotStatementsUnorderedArguments() {
+		ModelInterner interner = new ModelInterner();
+		ConfiguredStatement statement = createArrayStatement("a, b, a", true);
+		ConfiguredStatement reordered = createArrayStatement("b,a,a", true);
+		ConfiguredStatement different = createArrayStatement("a, b, b", true);
+		Assert.assertEquals(statement, reordered);
+		Assert.assertSame(interner.snapshot(statement), interner.snapshot(reordered));
+		Assert.assertNotEquals(statement, different);
+		Assert.assertNotSame(interner.snapshot(statement), interner.snapshot(different));
+
+		ConfiguredStatement ordered = createArrayStatement("a, b, a", false);
+		ConfiguredStatement orderedReordered = createArrayStatement("b,a,a", false);
+		Assert.assertNotEquals(ordered, orderedReordered);
+		Assert.assertNotSame(interner.snapshot(ordered), interner.snapshot(orderedReordered));
+	}
+
+	@Test
+	public void testSnapshotStatementsNegationAndArgumentCount() {
+		ModelInterner interner = new ModelInterner();
+		ConfiguredStatement statement = PolicyMaker.createValidPolicy().getClauses().get(0)
+				.getStatements().get(0);
+		ConfiguredStatement negated = PolicyMaker.createValidPolicy().getClauses().get(0)
+				.getStatements().get(0);
+		negated.setNegated(!statement.isNegated());
+		Assert.assertNotSame(interner.snapshot(statement), interner.snapshot(negated));
+
+		ConfiguredStatement extra = PolicyMaker.createValidPolicy().getClauses().get(0)
+				.getStatements().get(0);
+		extra.setArgumentValues(Arrays.asList("value", "extra"));
+		Assert.assertEquals(statement, PolicyMaker.createValidPolicy().getClauses().get(0)
+				.getStatements().get(0));
+		Assert.assertNotSame(interner.snapshot(statement), interner.snapshot(extra));
+	}
+
+	@Test
+	public void testSnapshotPolicy() {
+		ModelInterner interner = new ModelInterner();
+		Policy policy = PolicyMaker.createValidPolicy();
+		PolicyClause clause = policy.getClauses().get(0);
+		policy.setClauses(Arrays.asList(clause, PolicyMaker.createValidPolicy().getClauses().get(0)));
+		PolicySnapshot snapshot = interner.snapshot(policy);
+		Assert.assertEquals(2, snapshot.getClauses().size());
+		Assert.assertSame(snapshot.getClauses().get(0), snapshot.getClauses().get(1));
+		Assert.assertEquals("System", snapshot.getPolicyType());
+		// Policy, clause, statement, base statement, function and argument
+		Assert.assertEquals(6, interner.size());
+		Assert.assertSame(snapshot, interner.snapshot(policy));
+	}
+
+	@Test
+	public void testSnapshotNull() {
+		ModelInterner interner = new ModelInterner();
+		Assert.assertNull(interner.snapshot((Policy) null));
+		Assert.assertNull(interner.snapshot((PolicyClause) null));
+		Assert.assertNull(interner.snapshot((ConfiguredStatement) null));
+		Assert.assertNull(interner.snapshot((BaseStatement) null));
+		Assert.assertEquals(0, interner.size());
+	}
+
+	private static ConfiguredStatement createArrayStatement(String value, boolean unordered) {
+		BaseStatementArgument argument = PolicyMaker.createValidArgument();
+		argument.setType(ArgumentType.getTypeForName("stringArray"));
+		argument.setArrayUnordered(unordered);
+		BaseStatement baseStatement = PolicyMaker.createValidBaseStatement();
+		baseStatement.setArguments(Collections.singletonList(argument));
+		ConfiguredStatement statement = new ConfiguredStatement();
+		statement.setBaseStatement(baseStatement);
+		statement.setArgumentValues(Collections.singletonList(value));
+		return statement;
+	}
+}
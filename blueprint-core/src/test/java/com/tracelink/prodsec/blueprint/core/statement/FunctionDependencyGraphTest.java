@@ -0,0 +1,193 @@
+package com.tracelink.prodsec.blueprint.core.statement;
+
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FunctionDependencyGraphTest {
+
+	@Test
+	public void testGetAllDependencies() {
+		BaseStatementFunction a = PolicyMaker.createValidFunction("a");
+		BaseStatementFunction b = PolicyMaker.createValidFunction("b");
+		BaseStatementFunction c = PolicyMaker.createValidFunction("c");
+		BaseStatementFunction d = PolicyMaker.createValidFunction("d");
+		a.setDependencies(new LinkedHashSet<>(Arrays.asList(b, c)));
+		b.setDependencies(Collections.singleton(d));
+		c.setDependencies(Collections.singleton(d));
+
+		FunctionDependencyGraph graph = FunctionDependencyGraph.of(Collections.singleton(a));
+		Assert.assertEquals(Arrays.asList(a, b, c, d), graph.getFunctions());
+		Assert.assertEquals(Set.of(b, c, d), graph.getAllDependencies(a));
+		Assert.assertEquals(Set.of(d), graph.getAllDependencies(b));
+		Assert.assertEquals(Set.of(d), graph.getAllDependencies(c));
+		Assert.assertTrue(graph.getAllDependencies(d).isEmpty());
+		Assert.assertSame(graph.getAllDependencies(b), graph.getAllDependencies(b));
+	}
+
+	@Test
+	public void testDiamondChain() {
+		// Each level depends on both functions of the next level, which has 2^50 paths
+		List<BaseStatementFunction> functions = new ArrayList<>();
+		BaseStatementFunction bottom = PolicyMaker.createValidFunction("bottom");
+		Set<BaseStatementFunction> next = Collections.singleton(bottom);
+		functions.add(bottom);
+		for (int i = 0; i < 50; i++) {
+			BaseStatementFunction left = PolicyMaker.createValidFunction("left" + i);
+			BaseStatementFunction right = PolicyMaker.createValidFunction("right" + i);
+			left.setDependencies(next);
+			right.setDependencies(next);
+			functions.add(left);
+			functions.add(right);
+			next = new HashSet<>(Arrays.asList(left, right));
+		}
+		BaseStatementFunction top = PolicyMaker.createValidFunction("top");
+		top.setDependencies(next);
+
+		Set<BaseStatementFunction> dependencies = top.getAllDependencies();
+		Assert.assertEquals(101, dependencies.size());
+		Assert.assertTrue(dependencies.containsAll(functions));
+	}
+
+	@Test
+	public void testCycles() {
+		BaseStatementFunction a = PolicyMaker.createValidFunction("a");
+		BaseStatementFunction b = PolicyMaker.createValidFunction("b");
+		BaseStatementFunction c = PolicyMaker.createValidFunction("c");
+		BaseStatementFunction d = PolicyMaker.createValidFunction("d");
+		BaseStatementFunction e = PolicyMaker.createValidFunction("e");
+		a.setDependencies(Collections.singleton(b));
+		b.setDependencies(new LinkedHashSet<>(Arrays.asList(c, d)));
+		c.setDependencies(Collections.singleton(a));
+		e.setDependencies(Collections.singleton(e));
+
+		FunctionDependencyGraph graph = FunctionDependencyGraph.of(Arrays.asList(a, e));
+		Assert.assertEquals(Set.of(a, b, c, d), graph.getAllDependencies(a));
+		Assert.assertEquals(Set.of(a, b, c, d), graph.getAllDependencies(c));
+		Assert.assertTrue(graph.getAllDependencies(d).isEmpty());
+		Assert.assertEquals(Set.of(e), graph.getAllDependencies(e));
+	}
+
+	@Test
+	public void testGetCyclicPaths() {
+		BaseStatementFunction a = PolicyMaker.createValidFunction("a");
+		BaseStatementFunction b = PolicyMaker.createValidFunction("b");
+		BaseStatementFunction c = PolicyMaker.createValidFunction("c");
+		BaseStatementFunction d = PolicyMaker.createValidFunction("d");
+		BaseStatementFunction e = PolicyMaker.createValidFunction("e");
+		a.setDependencies(Collections.singleton(b));
+		b.setDependencies(new LinkedHashSet<>(Arrays.asList(c, e)));
+		c.setDependencies(Collections.singleton(d));
+		d.setDependencies(new LinkedHashSet<>(Arrays.asList(b, c)));
+		e.setDependencies(Collections.singleton(e));
+
+		FunctionDependencyGraph graph = FunctionDependencyGraph.of(Collections.singleton(a));
+		Assert.assertEquals(Arrays.asList(Arrays.asList(a, b, c, d, b), Arrays.asList(a, b, e, e)),
+				graph.getCyclicPaths(a));
+		Assert.assertEquals(Arrays.asList(Arrays.asList(d, c, d), Arrays.asList(d, b, e, e)),
+				graph.getCyclicPaths(d));
+		Assert.assertEquals(Collections.singletonList(Arrays.asList(e, e)), graph.getCyclicPaths(e));
+		Assert.assertSame(graph.getCyclicPaths(a), graph.getCyclicPaths(a));
+	}
+
+	@Test
+	public void testGetCyclicPathsSameName() {
+		// The cycle closes on a different function with the same name as the first one
+		BaseStatementFunction a = PolicyMaker.createValidFunction("a");
+		BaseStatementFunction b = PolicyMaker.createValidFunction("b");
+		BaseStatementFunction otherA = PolicyMaker.createValidFunction("a");
+		BaseStatementFunction c = PolicyMaker.createValidFunction("c");
+		a.setDependencies(Collections.singleton(b));
+		b.setDependencies(Collections.singleton(otherA));
+		otherA.setDependencies(Collections.singleton(c));
+
+		FunctionDependencyGraph graph = FunctionDependencyGraph.of(Collections.singleton(a));
+		Assert.assertEquals(Arrays.asList(a, b, otherA, c), graph.getFunctions());
+		Assert.assertEquals(Collections.singletonList(Arrays.asList(a, b, a)),
+				graph.getCyclicPaths(a));
+		Assert.assertEquals(Collections.singletonList(Arrays.asList(otherA, b, a)),
+				graph.getCyclicPaths(otherA));
+		Assert.assertEquals(Collections.singletonList(Arrays.asList(b, a, b)),
+				graph.getCyclicPaths(b));
+		Assert.assertTrue(graph.getCyclicPaths(c).isEmpty());
+		// Dependencies are still those of each function
+		Assert.assertEquals(Set.of(c), graph.getAllDependencies(otherA));
+		Assert.assertEquals(Set.of(otherA, c), graph.getAllDependencies(b));
+	}
+
+	@Test
+	public void testGetCyclicPathsAcyclic() {
+		BaseStatementFunction a = PolicyMaker.createValidFunction("a");
+		BaseStatementFunction b = PolicyMaker.createValidFunction("b");
+		a.setDependencies(Collections.singleton(b));
+		FunctionDependencyGraph graph = FunctionDependencyGraph.of(Collections.singleton(a));
+		Assert.assertTrue(graph.getCyclicPaths(a).isEmpty());
+		Assert.assertTrue(graph.getCyclicPaths(b).isEmpty());
+	}
+
+	@Test
+	public void testLongChain() {
+		List<BaseStatementFunction> functions = new ArrayList<>();
+		for (int i = 0; i < 20000; i++) {
+			BaseStatementFunction function = PolicyMaker.createValidFunction("f" + i);
+			if (i > 0) {
+				functions.get(i - 1).setDependencies(Collections.singleton(function));
+			}
+			functions.add(function);
+		}
+		FunctionDependencyGraph graph = FunctionDependencyGraph.of(
+				Collections.singleton(functions.get(0)));
+		Assert.assertEquals(19999, graph.getAllDependencies(functions.get(0)).size());
+		Assert.assertEquals(1, graph.getAllDependencies(functions.get(19998)).size());
+	}
+
+	@Test
+	public void testNullDependencies() {
+		BaseStatementFunction a = PolicyMaker.createValidFunction("a");
+		BaseStatementFunction b = PolicyMaker.createValidFunction("b");
+		b.setDependencies(null);
+		a.setDependencies(new HashSet<>(Arrays.asList(b, null)));
+
+		FunctionDependencyGraph graph = FunctionDependencyGraph.of(Collections.singleton(a));
+		Assert.assertEquals(Set.of(b), graph.getAllDependencies(a));
+		Assert.assertTrue(graph.getAllDependencies(b).isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetAllDependenciesUnknownFunction() {
+		FunctionDependencyGraph.of(Collections.singleton(PolicyMaker.createValidFunction("a")))
+				.getAllDependencies(PolicyMaker.createValidFunction("a"));
+	}
+
+	@Test
+	public void testOfRootNode() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		BaseStatementFunction function = policy.getClauses().get(0).getStatements().get(0)
+				.getBaseStatement().getFunction();
+		BaseStatementFunction dependency = PolicyMaker.createValidFunction("dependency");
+		function.setDependencies(Collections.singleton(dependency));
+
+		FunctionDependencyGraph graph = FunctionDependencyGraph.of(policy);
+		Assert.assertEquals(Arrays.asList(function, dependency), graph.getFunctions());
+		Assert.assertEquals(Set.of(dependency), graph.getAllDependencies(function));
+	}
+
+	@Test
+	public void testForReport() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		PolicyBuilderReport report = new PolicyBuilderReport(policy);
+		FunctionDependencyGraph graph = FunctionDependencyGraph.forReport(report);
+		Assert.assertSame(graph, FunctionDependencyGraph.forReport(report));
+		Assert.assertNotSame(graph,
+				FunctionDependencyGraph.forReport(new PolicyBuilderReport(policy)));
+	}
+}
@@ -1,7 +1,13 @@
 package com.tracelink.prodsec.blueprint.core.visitor;
 
+import com.tracelink.prodsec.blueprint.core.policy.ConfiguredStatement;
 import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
 import com.tracelink.prodsec.blueprint.core.policy.PolicyMaker;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -13,4 +19,37 @@ public class AbstractPolicyNodeTest {
 		Assert.assertEquals(policy, policy.getClauses().get(0).getStatements().get(0).getRoot());
 	}
 
+	@Test
+	public void testGetPath() {
+		Policy policy = PolicyMaker.createValidPolicy();
+		PolicyClause clause = new PolicyClause();
+		clause.setStatements(Collections.singletonList(new ConfiguredStatement()));
+		clause.getStatements().get(0).setBaseStatement(PolicyMaker.createValidBaseStatement());
+		policy.setClauses(Arrays.asList(policy.getClauses().get(0), clause));
+		BaseStatement baseStatement = clause.getStatements().get(0).getBaseStatement();
+
+		Assert.assertArrayEquals(new int[0], policy.getPath());
+		Assert.assertArrayEquals(new int[]{1}, clause.getPath());
+		Assert.assertArrayEquals(new int[]{1, 0, 0}, baseStatement.getPath());
+		Assert.assertArrayEquals(new int[]{1, 0, 0, 0}, baseStatement.getFunction().getPath());
+		Assert.assertArrayEquals(new int[]{1, 0, 0, 1},
+				baseStatement.getArguments().get(0).getPath());
+		for (AbstractPolicyNode node : Arrays.asList(clause, baseStatement,
+				baseStatement.getFunction(), baseStatement.getArguments().get(0))) {
+			Assert.assertSame(node, getNode(policy, node.getPath()));
+		}
+	}
+
+	private static AbstractPolicyNode getNode(AbstractPolicyNode root, int[] path) {
+		AbstractPolicyNode node = root;
+		for (int index : path) {
+			Iterator<? extends AbstractPolicyNode> children = node.children().iterator();
+			for (int i = 0; i < index; i++) {
+				children.next();
+			}
+			node = children.next();
+		}
+		return node;
+	}
+
 }
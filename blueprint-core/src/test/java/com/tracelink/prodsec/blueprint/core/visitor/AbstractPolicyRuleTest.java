@@ -1,7 +1,15 @@
 package com.tracelink.prodsec.blueprint.core.visitor;
 
+import com.tracelink.prodsec.blueprint.core.policy.Policy;
+import com.tracelink.prodsec.blueprint.core.policy.PolicyClause;
+import com.tracelink.prodsec.blueprint.core.report.PolicyBuilderReport;
 import com.tracelink.prodsec.blueprint.core.report.RuleSeverity;
 import com.tracelink.prodsec.blueprint.core.rulesets.PolicyRuleset;
+import com.tracelink.prodsec.blueprint.core.rulesets.logic.SatisfiabilityRule;
+import com.tracelink.prodsec.blueprint.core.statement.BaseStatement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -20,4 +28,49 @@ public class AbstractPolicyRuleTest {
 		Assert.assertEquals(ruleset, rule.getRuleset());
 	}
 
+	@Test
+	public void testGetVisitedNodeTypes() {
+		Assert.assertEquals(Collections.singleton(PolicyClause.class),
+				new SatisfiabilityRule().getVisitedNodeTypes());
+		Assert.assertEquals(new HashSet<>(Arrays.asList(Policy.class, BaseStatement.class)),
+				new TwoTypeRule().getVisitedNodeTypes());
+		Assert.assertEquals(Collections.singleton(Policy.class),
+				new AnnotatedRule().getVisitedNodeTypes());
+	}
+
+	@Test
+	public void testGetVisitedNodeTypesMask() {
+		Assert.assertEquals(NodeType.CLAUSE.bit(),
+				NodeType.maskOf(new SatisfiabilityRule().getVisitedNodeTypes()));
+		Assert.assertEquals(NodeType.ALL,
+				NodeType.maskOf(Collections.singleton(AbstractPolicyNode.class)));
+		Assert.assertEquals(0, NodeType.CLAUSE.bit() & NodeType.STATEMENT.descendantMask());
+		Assert.assertNotEquals(0, NodeType.ARGUMENT.bit() & NodeType.POLICY.descendantMask());
+	}
+
+	private static class TwoTypeRule extends AbstractPolicyRule {
+
+		TwoTypeRule() {
+			super("Two Type Rule");
+		}
+
+		@Override
+		public PolicyBuilderReport visit(Policy node, PolicyBuilderReport report) {
+			return super.visit(node, report);
+		}
+
+		@Override
+		public PolicyBuilderReport visit(BaseStatement node, PolicyBuilderReport report) {
+			return super.visit(node, report);
+		}
+
+		@Override
+		public RuleSeverity getSeverity() {
+			return RuleSeverity.INFO;
+		}
+	}
+
+	@VisitsNodes(Policy.class)
+	private static class AnnotatedRule extends TwoTypeRule {
+	}
 }